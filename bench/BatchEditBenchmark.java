@@ -0,0 +1,120 @@
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IShape;
+import cs3500.animator.model.MappedAnimationModel;
+import cs3500.animator.model.Motion;
+import cs3500.animator.model.Rect;
+import cs3500.animator.model.ShapeState;
+import cs3500.animator.model.StorageType;
+import cs3500.animator.util.AnimationBuilder;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how long inserting motions into an existing animation takes, one keyframe at a time
+ * with setKeyframe and all at once with applyBatch, for every storage type. The motions fall
+ * between the keyframes the shapes already have, which is the costly case for storage that keeps
+ * keyframes in sorted arrays. Run with the number of shapes as the first argument, the number of
+ * keyframes of each shape as the second and the number of motions added to each shape as the
+ * third.
+ */
+public class BatchEditBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of shapes, the number of keyframes of each shape and the number of
+   *             motions added to each shape
+   * @throws IOException if the file of a mapped model cannot be closed.
+   */
+  public static void main(String[] args) throws IOException {
+    int shapes = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int keyframes = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+    int added = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+    System.out.println(shapes + " shapes, " + keyframes + " keyframes each, " + added
+        + " motions added to each");
+    // warming up with a tenth of the shapes before measuring, long enough for the one call of
+    // applyBatch to be compiled as well as the many calls of setKeyframe
+    List<Motion> warmUp = motions(shapes / 10 + 1, keyframes, added);
+    for (int round = 0; round < 5; round++) {
+      run(warmUp, shapes / 10 + 1, keyframes, false);
+    }
+    run(motions(shapes, keyframes, added), shapes, keyframes, true);
+  }
+
+  private static void run(List<Motion> motions, int shapes, int keyframes, boolean print)
+      throws IOException {
+    for (StorageType storage : StorageType.values()) {
+      IAnimationModel edited = build(storage, shapes, keyframes);
+      long start = System.nanoTime();
+      for (Motion motion : motions) {
+        setKeyframe(edited, motion.getShape(), motion.getStartTick(), motion.getStart());
+        setKeyframe(edited, motion.getShape(), motion.getEndTick(), motion.getEnd());
+      }
+      long oneByOne = System.nanoTime() - start;
+
+      IAnimationModel batched = build(storage, shapes, keyframes);
+      start = System.nanoTime();
+      batched.applyBatch(motions);
+      long batch = System.nanoTime() - start;
+      if (!edited.getShapes().equals(batched.getShapes())) {
+        throw new IllegalStateException("The batch made a different animation");
+      }
+      if (print) {
+        System.out.printf("%-10s one at a time %8.1f ms, batched %8.1f ms%n", storage,
+            oneByOne / 1e6, batch / 1e6);
+      }
+      close(edited);
+      close(batched);
+    }
+  }
+
+  // Makes motions that each fill the gap between two neighbouring keyframes of a shape.
+  private static List<Motion> motions(int shapes, int keyframes, int added) {
+    Random random = new Random(3500);
+    List<Motion> motions = new ArrayList<>();
+    for (int s = 0; s < shapes; s++) {
+      boolean[] filled = new boolean[keyframes - 1];
+      for (int i = 0; i < added; i++) {
+        // every gap between keyframes is 10 ticks, and each motion takes ticks 3 to 6 of one
+        int gap = random.nextInt(keyframes - 1);
+        while (filled[gap]) {
+          gap = random.nextInt(keyframes - 1);
+        }
+        filled[gap] = true;
+        int tick = gap * 10 + 3;
+        IShape from = new Rect(new ShapeState(random.nextInt(800), random.nextInt(800), 9, 9, 0));
+        IShape to = new Rect(new ShapeState(random.nextInt(800), random.nextInt(800), 9, 9, 0));
+        motions.add(new Motion("S" + s, tick, from, tick + 3, to));
+      }
+    }
+    return motions;
+  }
+
+  private static void setKeyframe(IAnimationModel model, String name, int tick, IShape shape) {
+    ShapeState state = shape.state();
+    model.setKeyframe(tick, name, state.x(), state.y(), state.width(), state.height(),
+        state.red(), state.green(), state.blue());
+  }
+
+  private static IAnimationModel build(StorageType storage, int shapes, int keyframes) {
+    AnimationBuilder<IAnimationModel> builder = new AnimationModel.Builder(storage);
+    for (int s = 0; s < shapes; s++) {
+      String name = "S" + s;
+      builder.declareShape(name, "rectangle");
+      for (int k = 0; k + 1 < keyframes; k++) {
+        builder.addMotion(name, k * 10, s + k, k, 10, 10, 0, 0, 0, k * 10 + 10, s + k + 1, k + 1,
+            10, 10, 0, 0, 0);
+      }
+    }
+    return builder.build();
+  }
+
+  private static void close(IAnimationModel model) throws IOException {
+    if (model instanceof MappedAnimationModel) {
+      ((MappedAnimationModel) model).close();
+    }
+  }
+}
@@ -0,0 +1,53 @@
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.StorageType;
+import cs3500.animator.util.AnimationBuilder;
+
+/**
+ * Measures how long the builder takes to load animations of growing size, to show that loading
+ * time grows linearly with the number of motions. Each animation has 100 shapes whose motions are
+ * added one tick at a time, the way animation files list them. Run with "columnar" as the first
+ * argument to build columnar models instead.
+ */
+public class BuilderLoadBenchmark {
+
+  private static final int SHAPES = 100;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optionally "columnar" to build columnar models
+   */
+  public static void main(String[] args) {
+    StorageType storage = args.length > 0 && args[0].equals("columnar")
+        ? StorageType.COLUMNAR : StorageType.TREE_MAP;
+
+    // warm up before measuring
+    load(storage, 100000);
+
+    for (int motions = 125000; motions <= 1000000; motions *= 2) {
+      long start = System.nanoTime();
+      IAnimationModel model = load(storage, motions);
+      long millis = (System.nanoTime() - start) / 1000000;
+      System.out.printf("%,10d motions: %6d ms (%.0f ns/motion)%n", motions, millis,
+          millis * 1e6 / motions);
+      if (model.getShapes().size() != SHAPES) {
+        throw new IllegalStateException("Unexpected model");
+      }
+    }
+  }
+
+  private static IAnimationModel load(StorageType storage, int motions) {
+    AnimationBuilder<IAnimationModel> builder = new AnimationModel.Builder(storage);
+    for (int s = 0; s < SHAPES; s++) {
+      builder.declareShape("R" + s, "rectangle");
+    }
+    for (int t = 0; t < motions / SHAPES; t++) {
+      for (int s = 0; s < SHAPES; s++) {
+        builder.addMotion("R" + s, t, t, s, 5, 5, t % 256, 0, 0,
+            t + 1, t + 1, s, 5, 5, (t + 1) % 256, 0, 0);
+      }
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,107 @@
+import cs3500.animator.model.ColumnarAnimationModel;
+import cs3500.animator.model.FrameEvaluator;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IShape;
+import cs3500.animator.model.Position;
+import cs3500.animator.model.Rect;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares reading every visible shape of an animation at each tick with getState, one shape at a
+ * time, with evaluating the whole tick at once with a FrameEvaluator, after checking that both
+ * read the same states. Run with the number of shapes as the first argument and the number of
+ * passes over the animation as the second.
+ */
+public class FrameEvaluationBenchmark {
+
+  // a sink for the values read so that the reads are not optimized away
+  private static long sink;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of shapes and the number of passes
+   */
+  public static void main(String[] args) {
+    int shapes = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+    int passes = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+    Random random = new Random(3500);
+    IAnimationModel model = new ColumnarAnimationModel();
+    int lastTick = 0;
+    for (int s = 0; s < shapes; s++) {
+      String name = "S" + s;
+      int tick = random.nextInt(50);
+      model.add(tick, name, new Rect(Arrays.asList(random.nextInt(256), random.nextInt(256),
+          random.nextInt(256)), new Position(random.nextInt(800), random.nextInt(800)),
+          1 + random.nextInt(100), 1 + random.nextInt(100)));
+      for (int k = 0; k < 8; k++) {
+        tick += 20 + random.nextInt(100);
+        model.setKeyframe(tick, name, random.nextInt(800), random.nextInt(800),
+            1 + random.nextInt(100), 1 + random.nextInt(100), random.nextInt(256),
+            random.nextInt(256), random.nextInt(256));
+      }
+      lastTick = Math.max(lastTick, tick);
+    }
+    System.out.println(shapes + " shapes, " + (lastTick + 1) + " ticks");
+
+    FrameEvaluator evaluator = new FrameEvaluator(model);
+    for (int tick = 0; tick <= lastTick; tick++) {
+      evaluator.evaluate(tick);
+      for (int id : model.getVisibleShapeIds(tick)) {
+        IShape state = model.getState(tick, id);
+        if (state.x() != evaluator.getX(id) || state.height() != evaluator.getHeight(id)
+            || state.blue() != evaluator.getBlue(id)) {
+          throw new IllegalStateException("States differ for shape " + id + " at " + tick);
+        }
+      }
+    }
+    System.out.println("identical states");
+
+    // warm up both paths before measuring
+    for (int i = 0; i < 2; i++) {
+      readStates(model, lastTick);
+      evaluate(model, evaluator, lastTick);
+    }
+    long frames = (long) (lastTick + 1) * passes;
+    long start = System.nanoTime();
+    for (int i = 0; i < passes; i++) {
+      readStates(model, lastTick);
+    }
+    report("getState per shape", System.nanoTime() - start, frames);
+    start = System.nanoTime();
+    for (int i = 0; i < passes; i++) {
+      evaluate(model, evaluator, lastTick);
+    }
+    report("FrameEvaluator", System.nanoTime() - start, frames);
+    System.out.println("(sink " + sink + ")");
+  }
+
+  private static void readStates(IAnimationModel model, int lastTick) {
+    long sum = 0;
+    for (int tick = 0; tick <= lastTick; tick++) {
+      for (int id : model.getVisibleShapeIds(tick)) {
+        IShape state = model.getState(tick, id);
+        sum += state.x() + state.y() + state.width() + state.red();
+      }
+    }
+    sink += sum;
+  }
+
+  private static void evaluate(IAnimationModel model, FrameEvaluator evaluator, int lastTick) {
+    long sum = 0;
+    for (int tick = 0; tick <= lastTick; tick++) {
+      evaluator.evaluate(tick);
+      for (int id : evaluator.getVisibleShapeIds()) {
+        sum += evaluator.getX(id) + evaluator.getY(id) + evaluator.getWidth(id)
+            + evaluator.getRed(id);
+      }
+    }
+    sink += sum;
+  }
+
+  private static void report(String path, long nanos, long frames) {
+    System.out.printf("%-20s %9.2f ms %9.2f us/frame%n", path, nanos / 1e6,
+        nanos / 1e3 / frames);
+  }
+}
@@ -0,0 +1,150 @@
+import cs3500.animator.model.ColumnarAnimationModel;
+import cs3500.animator.model.FixedPointInterpolator;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IShapeCursor;
+import cs3500.animator.model.Position;
+import cs3500.animator.model.Rect;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares interpolating the attributes of shapes with a rounded down double proportion, as the
+ * models used to, with the integer arithmetic of FixedPointInterpolator, after checking that both
+ * give the same value for every tick of every segment. It then plays an animation of long segments
+ * through shape cursors, which step through a segment with additions only. Run with the number of
+ * segments as the first argument and the number of passes as the second.
+ */
+public class InterpolationBenchmark {
+
+  // a sink for the values computed so that the work is not optimized away
+  private static long sink;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of segments and the number of passes
+   */
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+    int passes = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    Random random = new Random(3500);
+    int[] from = new int[count];
+    int[] to = new int[count];
+    int[] spans = new int[count];
+    long ticks = 0;
+    for (int i = 0; i < count; i++) {
+      from[i] = random.nextInt(1000) - 200;
+      to[i] = random.nextInt(1000) - 200;
+      spans[i] = 1 + random.nextInt(200);
+      ticks += spans[i] + 1;
+    }
+
+    for (int i = 0; i < count; i++) {
+      for (int offset = 0; offset <= spans[i]; offset++) {
+        if (viaDouble(from[i], to[i], offset, spans[i])
+            != FixedPointInterpolator.interpolate(from[i], to[i], offset, spans[i])) {
+          throw new IllegalStateException("Results differ for segment " + i + " at " + offset);
+        }
+      }
+    }
+    System.out.println(count + " segments, " + ticks + " ticks: identical results");
+
+    // warm up both paths before measuring
+    for (int i = 0; i < 5; i++) {
+      runDouble(from, to, spans, 1);
+      runFixed(from, to, spans, 1);
+    }
+    long start = System.nanoTime();
+    runDouble(from, to, spans, passes);
+    report("double proportion + floor", System.nanoTime() - start, ticks * passes);
+    start = System.nanoTime();
+    runFixed(from, to, spans, passes);
+    report("FixedPointInterpolator.interpolate", System.nanoTime() - start, ticks * passes);
+
+    IAnimationModel model = new ColumnarAnimationModel();
+    int shapes = 64;
+    int lastTick = 0;
+    for (int s = 0; s < shapes; s++) {
+      String name = "S" + s;
+      model.add(0, name, new Rect(Arrays.asList(random.nextInt(256), random.nextInt(256),
+          random.nextInt(256)), new Position(random.nextInt(500), random.nextInt(500)),
+          10 + random.nextInt(90), 10 + random.nextInt(90)));
+      int tick = 0;
+      for (int k = 0; k < 20; k++) {
+        int next = tick + 50 + random.nextInt(500);
+        model.setKeyframe(next, name, random.nextInt(500), random.nextInt(500),
+            10 + random.nextInt(90), 10 + random.nextInt(90), random.nextInt(256),
+            random.nextInt(256), random.nextInt(256));
+        tick = next;
+      }
+      lastTick = Math.max(lastTick, tick);
+    }
+    IShapeCursor[] cursors = new IShapeCursor[shapes];
+    for (int s = 0; s < shapes; s++) {
+      cursors[s] = model.cursor("S" + s);
+    }
+    for (int i = 0; i < 3; i++) {
+      play(cursors, lastTick);
+    }
+    start = System.nanoTime();
+    for (int i = 0; i < passes; i++) {
+      play(cursors, lastTick);
+    }
+    report("cursor playback", System.nanoTime() - start, (long) shapes * (lastTick + 1) * passes);
+    System.out.println("(sink " + sink + ")");
+  }
+
+  // The interpolation of the models before FixedPointInterpolator
+  private static int viaDouble(int from, int to, int offset, int span) {
+    double prop = ((double) offset) / ((double) span);
+    if (from > to) {
+      return (int) Math.floor(from - (Math.abs(from - to) * prop));
+    }
+    return (int) Math.floor(from + (Math.abs(from - to) * prop));
+  }
+
+  private static void runDouble(int[] from, int[] to, int[] spans, int passes) {
+    long sum = 0;
+    for (int pass = 0; pass < passes; pass++) {
+      for (int i = 0; i < from.length; i++) {
+        for (int offset = 0; offset <= spans[i]; offset++) {
+          sum += viaDouble(from[i], to[i], offset, spans[i]);
+        }
+      }
+    }
+    sink += sum;
+  }
+
+  private static void runFixed(int[] from, int[] to, int[] spans, int passes) {
+    long sum = 0;
+    for (int pass = 0; pass < passes; pass++) {
+      for (int i = 0; i < from.length; i++) {
+        for (int offset = 0; offset <= spans[i]; offset++) {
+          sum += FixedPointInterpolator.interpolate(from[i], to[i], offset, spans[i]);
+        }
+      }
+    }
+    sink += sum;
+  }
+
+  private static void play(IShapeCursor[] cursors, int lastTick) {
+    long sum = 0;
+    for (IShapeCursor cursor : cursors) {
+      cursor.seek(0);
+    }
+    for (int tick = 0; tick <= lastTick; tick++) {
+      for (IShapeCursor cursor : cursors) {
+        cursor.seek(tick);
+        if (cursor.isVisible()) {
+          sum += cursor.getX() + cursor.getY() + cursor.getWidth() + cursor.getRed();
+        }
+      }
+    }
+    sink += sum;
+  }
+
+  private static void report(String path, long nanos, long values) {
+    System.out.printf("%-36s %8.2f ms %8.2f ns/value%n", path, nanos / 1e6,
+        (double) nanos / values);
+  }
+}
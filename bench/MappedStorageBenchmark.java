@@ -0,0 +1,80 @@
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.MappedAnimationModel;
+import cs3500.animator.model.StorageType;
+import cs3500.animator.util.AnimationBuilder;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Builds the same generated animation in every storage type and reports the memory each one
+ * retains, measured on the heap and estimated by its memory report, and how long reading every
+ * shape at a sample of ticks takes. Run with the number of shapes as the first argument and the
+ * number of keyframes of each shape as the second.
+ */
+public class MappedStorageBenchmark {
+
+  // a sink for the values read so that the reads are not optimized away
+  private static long sink;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of shapes and the number of keyframes of each shape
+   * @throws IOException if the file of the mapped model cannot be closed.
+   */
+  public static void main(String[] args) throws IOException {
+    int shapes = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    int keyframes = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+    System.out.println(shapes + " shapes, " + keyframes + " keyframes each");
+    for (StorageType storage : StorageType.values()) {
+      System.gc();
+      long before = usedHeap();
+      long start = System.nanoTime();
+      IAnimationModel model = build(storage, shapes, keyframes);
+      long built = System.nanoTime() - start;
+      System.gc();
+      long heap = usedHeap() - before;
+
+      int lastTick = keyframes * 10;
+      start = System.nanoTime();
+      int frames = 0;
+      for (int tick = 0; tick < lastTick; tick += 97) {
+        sink += model.getFullState(tick).size();
+        frames++;
+      }
+      long read = System.nanoTime() - start;
+      System.out.printf("%-9s built in %6.0f ms, %9.1f MB heap, %8.2f ms/frame%n  %s%n", storage,
+          built / 1e6, heap / 1e6, read / 1e6 / frames, model.getMemoryReport());
+      if (model instanceof MappedAnimationModel) {
+        ((MappedAnimationModel) model).close();
+      }
+    }
+    System.out.println("(sink " + sink + ")");
+  }
+
+  private static IAnimationModel build(StorageType storage, int shapes, int keyframes) {
+    Random random = new Random(3500);
+    AnimationBuilder<IAnimationModel> builder = new AnimationModel.Builder(storage);
+    for (int s = 0; s < shapes; s++) {
+      String name = "S" + s;
+      builder.declareShape(name, s % 2 == 0 ? "rectangle" : "ellipse");
+      int x = random.nextInt(800);
+      int y = random.nextInt(800);
+      for (int k = 0; k + 1 < keyframes; k++) {
+        int nextX = random.nextInt(800);
+        int nextY = random.nextInt(800);
+        builder.addMotion(name, k * 10, x, y, 10, 10, 0, 0, 0, k * 10 + 10, nextX, nextY, 10, 10,
+            0, 0, 0);
+        x = nextX;
+        y = nextY;
+      }
+    }
+    return builder.build();
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,73 @@
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IShape;
+import cs3500.animator.model.ShapeState;
+import cs3500.animator.model.StorageType;
+import cs3500.animator.util.AnimationBuilder;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how long getFullState takes for frames of many shapes, in the calling thread and then
+ * on fork/join pools of growing size up to the number of available cores. Run with the number of
+ * shapes as the first argument (50000 by default) and the threshold as the second (1024 by
+ * default).
+ */
+public class ParallelFullStateBenchmark {
+
+  private static final int TICKS = 200;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of shapes and the threshold
+   */
+  public static void main(String[] args) {
+    int shapes = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+    int threshold = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+    int cores = Runtime.getRuntime().availableProcessors();
+
+    AnimationBuilder<IAnimationModel> builder = new AnimationModel.Builder(StorageType.TREE_MAP);
+    for (int s = 0; s < shapes; s++) {
+      builder.declareShape("S" + s, s % 2 == 0 ? "rectangle" : "ellipse");
+      for (int t = 0; t < TICKS; t += 50) {
+        builder.addMotion("S" + s, t, s % 500, t, 10, 10, s % 256, 0, 0,
+            t + 50, t, s % 500, 20, 20, 0, s % 256, 0);
+      }
+    }
+    IAnimationModel model = builder.build();
+    System.out.println(shapes + " shapes, " + cores + " cores, threshold " + threshold);
+
+    long base = measure(model);
+    System.out.printf("sequential: %6.1f ms/frame%n", base / 1e6);
+    for (int threads = 1; threads <= cores; threads *= 2) {
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      model.setParallel(pool, threshold);
+      long time = measure(model);
+      System.out.printf("%2d threads: %6.1f ms/frame (%.2fx)%n", threads, time / 1e6,
+          (double) base / time);
+      pool.shutdown();
+      model.setParallel(null, threshold);
+    }
+  }
+
+  // Gets the average time in nanoseconds to compute a frame, after warming up.
+  private static long measure(IAnimationModel model) {
+    long sink = 0;
+    for (int t = 0; t < 20; t++) {
+      sink += model.getFullState(t * 10).size();
+    }
+    long start = System.nanoTime();
+    for (int t = 0; t < TICKS; t += 4) {
+      for (Map.Entry<String, IShape> entry : model.getFullState(t).entrySet()) {
+        ShapeState state = entry.getValue().state();
+        sink += state.x();
+      }
+    }
+    long time = (System.nanoTime() - start) / (TICKS / 4);
+    if (sink == 42) {
+      System.out.println();
+    }
+    return time;
+  }
+}
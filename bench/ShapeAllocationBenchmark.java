@@ -0,0 +1,153 @@
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IShape;
+import cs3500.animator.model.IShapeCursor;
+import cs3500.animator.model.IViewModel;
+import cs3500.animator.model.ShapeSampler;
+import cs3500.animator.model.ViewModel;
+import cs3500.animator.util.AnimationReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how many bytes are allocated to read every shape of an animation once per frame, first
+ * through the list-based getters of the shapes, then through the primitive accessors, then
+ * through shape cursors and then by sampling every shape into one reused buffer. Run with the
+ * file to read as the first argument (resources/sunset.txt by default) and the number of passes
+ * over the animation as the second.
+ */
+public class ShapeAllocationBenchmark {
+
+  // a sink for the values read so that the reads are not optimized away
+  private static long sink;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the file to read and the number of passes
+   * @throws IOException if the file cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    String fileName = args.length > 0 ? args[0] : "resources/sunset.txt";
+    int passes = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    IAnimationModel model =
+        AnimationReader.parseFile(new FileReader(fileName), new AnimationModel.Builder());
+
+    List<String> names = new ArrayList<>(model.getShapes().keySet());
+    int lastTick = 0;
+    for (String name : names) {
+      for (Integer tick : model.getShapes().get(name).keySet()) {
+        lastTick = Math.max(lastTick, tick);
+      }
+    }
+    int frames = (lastTick + 1) * passes;
+    System.out.println(fileName + ": " + names.size() + " shapes, " + (lastTick + 1) + " ticks");
+
+    // warm up every path before measuring
+    for (int i = 0; i < 3; i++) {
+      readLegacy(model, names, lastTick, 1);
+      readPrimitive(model, names, lastTick, 1);
+      readCursors(model, names, lastTick, 1);
+      readSamples(model, names, lastTick, 1);
+    }
+
+    long before = allocatedBytes();
+    readLegacy(model, names, lastTick, passes);
+    report("getState + getColor/getPosition/getSize", allocatedBytes() - before, frames);
+
+    before = allocatedBytes();
+    readPrimitive(model, names, lastTick, passes);
+    report("getState + primitive accessors", allocatedBytes() - before, frames);
+
+    before = allocatedBytes();
+    readCursors(model, names, lastTick, passes);
+    report("shape cursors", allocatedBytes() - before, frames);
+
+    before = allocatedBytes();
+    readSamples(model, names, lastTick, passes);
+    report("sample into an IntBuffer", allocatedBytes() - before, frames);
+    System.out.println("(checksum " + sink + ")");
+  }
+
+  private static void readLegacy(IAnimationModel model, List<String> names, int lastTick,
+      int passes) {
+    for (int pass = 0; pass < passes; pass++) {
+      for (int tick = 0; tick <= lastTick; tick++) {
+        for (String name : names) {
+          IShape shape = model.getState(tick, name);
+          if (shape != null) {
+            sink += shape.getPosition().getX() + shape.getPosition().getY()
+                + shape.getSize().get(0) + shape.getSize().get(1) + shape.getColor().get(0)
+                + shape.getColor().get(1) + shape.getColor().get(2);
+          }
+        }
+      }
+    }
+  }
+
+  private static void readPrimitive(IAnimationModel model, List<String> names, int lastTick,
+      int passes) {
+    for (int pass = 0; pass < passes; pass++) {
+      for (int tick = 0; tick <= lastTick; tick++) {
+        for (String name : names) {
+          IShape shape = model.getState(tick, name);
+          if (shape != null) {
+            sink += shape.x() + shape.y() + shape.width() + shape.height() + shape.red()
+                + shape.green() + shape.blue();
+          }
+        }
+      }
+    }
+  }
+
+  private static void readCursors(IAnimationModel model, List<String> names, int lastTick,
+      int passes) {
+    List<IShapeCursor> cursors = new ArrayList<>();
+    for (String name : names) {
+      cursors.add(model.cursor(name));
+    }
+    for (int pass = 0; pass < passes; pass++) {
+      for (int tick = 0; tick <= lastTick; tick++) {
+        for (IShapeCursor cursor : cursors) {
+          cursor.seek(tick);
+          if (cursor.isVisible()) {
+            sink += cursor.getX() + cursor.getY() + cursor.getWidth() + cursor.getHeight()
+                + cursor.getRed() + cursor.getGreen() + cursor.getBlue();
+          }
+        }
+      }
+    }
+  }
+
+  private static void readSamples(IAnimationModel model, List<String> names, int lastTick,
+      int passes) {
+    IViewModel view = new ViewModel(model);
+    int[] ids = new int[names.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = view.getShapeId(names.get(i));
+    }
+    IntBuffer buffer = IntBuffer.allocate(
+        ShapeSampler.countSamples(0, lastTick, 1) * ids.length * ShapeSampler.INTS_PER_SAMPLE);
+    for (int pass = 0; pass < passes; pass++) {
+      buffer.clear();
+      view.sample(ids, 0, lastTick, 1, buffer);
+      for (int i = 0; i < buffer.position(); i++) {
+        sink += buffer.get(i);
+      }
+    }
+  }
+
+  private static void report(String label, long bytes, int frames) {
+    System.out.printf("%-42s %12d bytes/frame%n", label, bytes / frames);
+  }
+
+  // Gets the number of bytes allocated by this thread so far.
+  private static long allocatedBytes() {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+        .getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+}
@@ -0,0 +1,99 @@
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.PersistentAnimationModel;
+import cs3500.animator.model.StorageType;
+import cs3500.animator.util.AnimationBuilder;
+import java.util.Random;
+
+/**
+ * Makes the same random edits to a generated animation with a full undo history, and reports the
+ * heap that history retains and how long the edits, undoing and redoing them take. The history of
+ * the persistent model is compared with keeping a copy of the shapes of a map model before every
+ * edit, which is all a map model offers. Run with the number of shapes as the first argument, the
+ * number of keyframes of each shape as the second and the number of edits as the third.
+ */
+public class UndoHistoryBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of shapes, the number of keyframes of each shape and the number of
+   *             edits
+   */
+  public static void main(String[] args) {
+    int shapes = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int keyframes = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    int edits = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+    System.out.println(shapes + " shapes, " + keyframes + " keyframes each, " + edits + " edits");
+
+    PersistentAnimationModel persistent =
+        (PersistentAnimationModel) build(StorageType.PERSISTENT, shapes, keyframes);
+    System.gc();
+    long before = usedHeap();
+    long start = System.nanoTime();
+    edit(persistent, shapes, keyframes, edits);
+    long edited = System.nanoTime() - start;
+    System.gc();
+    long heap = usedHeap() - before;
+    start = System.nanoTime();
+    for (int i = 0; i < edits; i++) {
+      persistent.undo();
+    }
+    for (int i = 0; i < edits; i++) {
+      persistent.redo();
+    }
+    long stepped = System.nanoTime() - start;
+    System.out.printf("persistent %8.2f ms/edit, %8.4f ms/undo+redo, %9.1f MB heap%n  %s%n",
+        edited / 1e6 / edits, stepped / 1e6 / edits, heap / 1e6, persistent.getMemoryReport());
+
+    IAnimationModel map = build(StorageType.TREE_MAP, shapes, keyframes);
+    Object[] copies = new Object[edits];
+    System.gc();
+    before = usedHeap();
+    start = System.nanoTime();
+    Random random = new Random(3500);
+    for (int i = 0; i < edits; i++) {
+      copies[i] = map.getShapes();
+      map.move(random.nextInt(keyframes * 10), "S" + random.nextInt(shapes), random.nextInt(800),
+          random.nextInt(800));
+    }
+    edited = System.nanoTime() - start;
+    System.gc();
+    heap = usedHeap() - before;
+    System.out.printf("copies     %8.2f ms/edit, %9.1f MB heap (%d copies)%n",
+        edited / 1e6 / edits, heap / 1e6, copies.length);
+  }
+
+  private static void edit(IAnimationModel model, int shapes, int keyframes, int edits) {
+    Random random = new Random(3500);
+    for (int i = 0; i < edits; i++) {
+      model.move(random.nextInt(keyframes * 10), "S" + random.nextInt(shapes),
+          random.nextInt(800), random.nextInt(800));
+    }
+  }
+
+  private static IAnimationModel build(StorageType storage, int shapes, int keyframes) {
+    Random random = new Random(3500);
+    AnimationBuilder<IAnimationModel> builder = new AnimationModel.Builder(storage);
+    for (int s = 0; s < shapes; s++) {
+      String name = "S" + s;
+      builder.declareShape(name, s % 2 == 0 ? "rectangle" : "ellipse");
+      int x = random.nextInt(800);
+      int y = random.nextInt(800);
+      for (int k = 0; k + 1 < keyframes; k++) {
+        int nextX = random.nextInt(800);
+        int nextY = random.nextInt(800);
+        builder.addMotion(name, k * 10, x, y, 10, 10, 0, 0, 0, k * 10 + 10, nextX, nextY, 10, 10,
+            0, 0, 0);
+        x = nextX;
+        y = nextY;
+      }
+    }
+    return builder.build();
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -5,6 +5,7 @@ import cs3500.animator.controller.IController;
 import cs3500.animator.model.AnimationModel;
 import cs3500.animator.model.IAnimationModel;
 import cs3500.animator.util.AnimationReader;
+import cs3500.animator.view.AbstractVisualAnimation;
 import cs3500.animator.view.IAnimationView;
 import cs3500.animator.view.ViewFactory;
 import java.io.FileReader;
@@ -35,6 +36,8 @@ public class Excellence {
     Appendable out = System.out;
     String outputFile = null;
     int speed = 1;
+    double frameRate = 0;
+    boolean memory = false;
     String viewType = null;
 
     //Get command line input
@@ -55,6 +58,12 @@ public class Excellence {
         else if (next.equals("-speed")) {
           speed = Integer.valueOf(iterateArgs.next());
         }
+        else if (next.equals("-fps")) {
+          frameRate = Double.valueOf(iterateArgs.next());
+        }
+        else if (next.equals("-memory")) {
+          memory = true;
+        }
         else {
           JOptionPane.showMessageDialog(null,
               "Invalid input.",
@@ -80,7 +89,14 @@ public class Excellence {
     AnimationReader reader = new AnimationReader();
     IAnimationModel model =
         reader.parseFile(new FileReader(fileName), new AnimationModel.Builder());
+    if (memory) {
+      // on the error stream, so that a text or SVG description written out stays intact
+      System.err.println(model.getMemoryReport());
+    }
     IAnimationView view = new ViewFactory().createView(viewType);
+    if (frameRate > 0 && view instanceof AbstractVisualAnimation) {
+      ((AbstractVisualAnimation) view).setFrameRate(frameRate);
+    }
     IController controller = new ControllerFactory().create(model, view);
     controller.start(speed, out);
 
@@ -0,0 +1,227 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Performs the work shared by the models that store their own keyframes: checking edits, finding
+ * the visible and the changing shapes through a {@link LifetimeIndex} and a {@link ChangeIndex}
+ * that are built again after each change, computing full states in the calling thread or on a
+ * fork/join pool, and comparing models by their keyframes. Subclasses only store the shapes and
+ * find the state, the type and the keyframes of one shape at a time.
+ */
+public abstract class AAnimationModel implements IAnimationModel {
+
+  private ForkJoinPool pool; // the pool that computes full states, or null to compute them here
+  private int parallelThreshold; // the number of shapes each task of the pool computes at most
+  private final LazyIndex<LifetimeIndex> lifetimes = new LazyIndex<>(LifetimeIndex::of);
+  private final LazyIndex<ChangeIndex> changes = new LazyIndex<>(ChangeIndex::of);
+
+  /**
+   * Gets the names of the shapes of this model in the order they were added.
+   *
+   * @return a list of the names, which the caller may keep.
+   */
+  abstract List<String> shapeNames();
+
+  /**
+   * Gets the tick of the first keyframe of the shape with the given ID.
+   *
+   * @param id the ID of the shape
+   * @return the tick of the first keyframe, or {@link Integer#MAX_VALUE} if the shape has none.
+   */
+  abstract int firstTick(int id);
+
+  /**
+   * Gets the keyframes of the shape with the given ID, laid out as six ints each: the tick, x, y,
+   * width, height and packed color.
+   *
+   * @param id the ID of the shape
+   * @return the keyframes of the shape sorted by tick, which the caller may keep.
+   */
+  abstract int[] keyframes(int id);
+
+  /**
+   * Gets a shape of the type that the shape with the given ID animates.
+   *
+   * @param id the ID of the shape
+   * @return the prototype shape, or null if the shape has no keyframes and its type is unknown.
+   */
+  abstract IShape shapeType(int id);
+
+  /**
+   * Checks the frame of an edit.
+   *
+   * @param frame the frame to edit
+   * @throws IllegalArgumentException if the frame is negative.
+   */
+  static void checkFrame(int frame) {
+    if (frame < 0) {
+      throw new IllegalArgumentException("Invalid frame.");
+    }
+  }
+
+  /**
+   * Checks the color an edit sets.
+   *
+   * @param r the red value
+   * @param g the green value
+   * @param b the blue value
+   * @throws IllegalArgumentException if a value is not between 0 and 255.
+   */
+  static void checkColor(int r, int g, int b) {
+    if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
+      throw new IllegalArgumentException("Invalid color.");
+    }
+  }
+
+  /**
+   * Checks the size an edit sets.
+   *
+   * @param width  the width
+   * @param height the height
+   * @throws IllegalArgumentException if the width or height is not positive.
+   */
+  static void checkSize(int width, int height) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Invalid dimensions.");
+    }
+  }
+
+  @Override
+  public List<String> getVisibleShapes(int frame) throws IllegalArgumentException {
+    return this.lifetimes(frame).visibleAt(frame);
+  }
+
+  @Override
+  public int[] getVisibleShapeIds(int frame) throws IllegalArgumentException {
+    return this.lifetimes(frame).visibleIdsAt(frame);
+  }
+
+  @Override
+  public int nextChange(int frame) throws IllegalArgumentException {
+    return this.changes(frame).nextChange(frame);
+  }
+
+  @Override
+  public int[] getChangedShapeIds(int from, int to) throws IllegalArgumentException {
+    if (to < 0) {
+      throw new IllegalArgumentException("Frame must not be negative");
+    }
+    return this.changes(from).changedIds(this, from, to);
+  }
+
+  @Override
+  public Map<String, IShape> getFullState(int frame) throws IllegalArgumentException {
+    if (frame < 0) {
+      throw new IllegalArgumentException("Frame must not be negative");
+    }
+    Map<String, IShape> state = new TreeMap<>();
+    for (String key : this.shapeNames()) {
+      state.put(key, null);
+    }
+    List<String> visible = this.getVisibleShapes(frame);
+    if (pool != null && visible.size() > parallelThreshold) {
+      String[] names = visible.toArray(new String[visible.size()]);
+      IShape[] states = ParallelStates.compute(pool, this, frame, names, parallelThreshold);
+      for (int i = 0; i < names.length; i++) {
+        state.put(names[i], states[i]);
+      }
+    } else {
+      for (String key : visible) {
+        state.put(key, this.getState(frame, key));
+      }
+    }
+    return state;
+  }
+
+  @Override
+  public void setParallel(ForkJoinPool pool, int threshold) throws IllegalArgumentException {
+    if (threshold <= 0) {
+      throw new IllegalArgumentException("Threshold must be positive");
+    }
+    this.pool = pool;
+    this.parallelThreshold = threshold;
+  }
+
+  /**
+   * Computes full states the same way as the given model from now on.
+   *
+   * @param model the model whose pool and threshold to use
+   */
+  void copyParallel(AAnimationModel model) {
+    this.pool = model.pool;
+    this.parallelThreshold = model.parallelThreshold;
+  }
+
+  /**
+   * Estimates the bytes retained by the indexes this model has built to answer reads.
+   *
+   * @return the estimated size of the indexes in bytes, or 0 if none has been built.
+   */
+  long indexBytes() {
+    return lifetimes.retainedBytes() + changes.retainedBytes();
+  }
+
+  // Overriding equals() so that a model of the same class with the same shapes and keyframes as
+  // this model is considered equal to this model even if the shapes were added in a different
+  // order.
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || o.getClass() != this.getClass()) {
+      return false;
+    }
+    AAnimationModel that = (AAnimationModel) o;
+    List<String> names = this.shapeNames();
+    if (!new HashSet<>(names).equals(new HashSet<>(that.shapeNames()))) {
+      return false;
+    }
+    for (String name : names) {
+      int id = this.getShapeId(name);
+      int otherId = that.getShapeId(name);
+      int[] keyframes = this.keyframes(id);
+      if (!Arrays.equals(keyframes, that.keyframes(otherId))) {
+        return false;
+      }
+      if (keyframes.length > 0
+          && this.shapeType(id).getClass() != that.shapeType(otherId).getClass()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Overriding hashCode() so that models with the same shapes and keyframes return the same
+  // integer
+  @Override
+  public int hashCode() {
+    int hash = 0;
+    for (String name : this.shapeNames()) {
+      hash += name.hashCode() ^ Arrays.hashCode(this.keyframes(this.getShapeId(name)));
+    }
+    return hash;
+  }
+
+  // Gets the index of the lifetimes of the shapes, building it again if this model has changed.
+  private LifetimeIndex lifetimes(int frame) {
+    if (frame < 0) {
+      throw new IllegalArgumentException("Frame must not be negative");
+    }
+    return lifetimes.get(this);
+  }
+
+  // Gets the index of the changes of the shapes, building it again if this model has changed.
+  private ChangeIndex changes(int frame) {
+    if (frame < 0) {
+      throw new IllegalArgumentException("Frame must not be negative");
+    }
+    return changes.get(this);
+  }
+}
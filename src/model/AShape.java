@@ -5,14 +5,12 @@ import java.util.Arrays;
 import java.util.List;
 
 /**
- * Represents a generic shape that has a color, position, width and size.
+ * Represents a generic shape that has a color, position, width and size. The appearance of the
+ * shape is kept in a single {@link ShapeState}, which is replaced whenever the shape changes.
  */
 public abstract class AShape implements IShape {
 
-  protected List<Integer> rgb;
-  protected Position pos;
-  protected int width;
-  protected int height;
+  protected ShapeState state;
 
   /**
    * Constructs a shape with the given parameters.
@@ -32,15 +30,8 @@ public abstract class AShape implements IShape {
     if (rgb.size() != 3) {
       throw new IllegalArgumentException("Invalid color");
     }
-    for (int i : rgb) {
-      if (i < 0 || i > 255) {
-        throw new IllegalArgumentException("Invalid color");
-      }
-    }
-    this.rgb = new ArrayList<Integer>(Arrays.asList(rgb.get(0), rgb.get(1), rgb.get(2)));
-    this.pos = new Position(pos.getX(), pos.getY());
-    this.width = width;
-    this.height = height;
+    this.state = new ShapeState(pos.getX(), pos.getY(), width, height,
+        ShapeState.pack(rgb.get(0), rgb.get(1), rgb.get(2)));
   }
 
   /**
@@ -63,30 +54,75 @@ public abstract class AShape implements IShape {
     if (rgb.size() != 3) {
       throw new IllegalArgumentException("Invalid color");
     }
-    for (int i : rgb) {
-      if (i < 0 || i > 255) {
-        throw new IllegalArgumentException("Invalid color");
-      }
+    this.state = new ShapeState(pos.getX(), pos.getY(), radius, radius,
+        ShapeState.pack(rgb.get(0), rgb.get(1), rgb.get(2)));
+  }
+
+  /**
+   * Constructs a shape with the given state.
+   *
+   * @param state the position, size and color of the shape
+   */
+  public AShape(ShapeState state) {
+    if (state == null) {
+      throw new IllegalArgumentException("Invalid state");
     }
-    this.rgb = new ArrayList<Integer>(Arrays.asList(rgb.get(0), rgb.get(1), rgb.get(2)));
-    this.pos = new Position(pos.getX(), pos.getY());
-    this.width = radius;
-    this.height = radius;
+    this.state = state;
   }
 
   @Override
   public List<Integer> getColor() {
-    return new ArrayList<>(Arrays.asList(rgb.get(0), rgb.get(1), rgb.get(2)));
+    return new ArrayList<>(Arrays.asList(state.red(), state.green(), state.blue()));
   }
 
   @Override
   public Position getPosition() {
-    return new Position(pos.getX(), pos.getY());
+    return new Position(state.x(), state.y());
   }
 
   @Override
   public List<Integer> getSize() {
-    return new ArrayList<>(Arrays.asList(width, height));
+    return new ArrayList<>(Arrays.asList(state.width(), state.height()));
+  }
+
+  @Override
+  public ShapeState state() {
+    return state;
+  }
+
+  @Override
+  public int x() {
+    return state.x();
+  }
+
+  @Override
+  public int y() {
+    return state.y();
+  }
+
+  @Override
+  public int width() {
+    return state.width();
+  }
+
+  @Override
+  public int height() {
+    return state.height();
+  }
+
+  @Override
+  public int red() {
+    return state.red();
+  }
+
+  @Override
+  public int green() {
+    return state.green();
+  }
+
+  @Override
+  public int blue() {
+    return state.blue();
   }
 
   @Override
@@ -94,7 +130,7 @@ public abstract class AShape implements IShape {
     if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
       throw new IllegalArgumentException("Invalid color");
     }
-    rgb = new ArrayList<>(Arrays.asList(r, g, b));
+    state = new ShapeState(state.x(), state.y(), state.width(), state.height(), r, g, b);
   }
 
   @Override
@@ -102,7 +138,7 @@ public abstract class AShape implements IShape {
     if (pos == null || pos.getX() < 0 || pos.getY() < 0) {
       throw new IllegalArgumentException("Invalid position");
     }
-    this.pos = new Position(pos.getX(), pos.getY());
+    state = new ShapeState(pos.getX(), pos.getY(), state.width(), state.height(), state.color());
   }
 
   @Override
@@ -110,10 +146,11 @@ public abstract class AShape implements IShape {
     if (width <= 0 || height <= 0) {
       throw new IllegalArgumentException("Invalid dimensions");
     }
-    this.width = width;
-    this.height = height;
+    state = new ShapeState(state.x(), state.y(), width, height, state.color());
   }
 
   public abstract IShape copyShape(List<Integer> rgb, Position pos, int width, int height)
       throws IllegalArgumentException;
+
+  public abstract IShape copyShape(ShapeState state) throws IllegalArgumentException;
 }
@@ -0,0 +1,215 @@
+package cs3500.animator.model;
+
+/**
+ * Performs the work shared by the cursors of every model: remembering the current pair of
+ * keyframes and interpolating between them with a {@link FixedPointInterpolator}, which only adds
+ * to the previous values when the cursor moves one tick forward. Subclasses only find the
+ * keyframes around a tick.
+ */
+abstract class AShapeCursor implements IShapeCursor {
+
+  // the positions of each attribute in the arrays of attribute values
+  protected static final int X = 0;
+  protected static final int Y = 1;
+  protected static final int WIDTH = 2;
+  protected static final int HEIGHT = 3;
+  protected static final int RED = 4;
+  protected static final int GREEN = 5;
+  protected static final int BLUE = 6;
+
+  // the state at the keyframes at the start and end of the current segment
+  protected final int[] from;
+  protected final int[] to;
+
+  private final String name;
+  private final int[] current;
+  private final FixedPointInterpolator interpolator;
+  private String type;
+  private int tick;
+  private boolean visible;
+  private int segmentStart;
+  private int segmentEnd;
+
+  /**
+   * Constructs a cursor for the shape with the given name. The cursor has to be moved to a tick
+   * before it is used.
+   *
+   * @param name the name of the shape
+   */
+  AShapeCursor(String name) {
+    this.name = name;
+    this.from = new int[7];
+    this.to = new int[7];
+    this.current = new int[7];
+    this.interpolator = new FixedPointInterpolator(7);
+    this.visible = false;
+    this.segmentStart = 0;
+    this.segmentEnd = 0;
+  }
+
+  /**
+   * Finds the keyframes around the given tick and records them by filling in {@link #from} and
+   * {@link #to} and calling {@link #setSegment} or {@link #hideUntil}.
+   *
+   * @param tick the tick to locate
+   */
+  protected abstract void locate(int tick);
+
+  /**
+   * Determines whether the model has changed since the current segment was located.
+   *
+   * @return true if the current segment has to be located again.
+   */
+  protected abstract boolean isStale();
+
+  /**
+   * Records that the current segment runs from the keyframe at startTick, whose state is in
+   * {@link #from}, to the keyframe at endTick, whose state is in {@link #to}.
+   *
+   * @param type      the type of the shape
+   * @param startTick the tick of the keyframe at the start of the segment
+   * @param endTick   the tick of the keyframe at the end of the segment, or
+   *                  {@link Integer#MAX_VALUE} if the start is the last keyframe
+   */
+  protected void setSegment(String type, int startTick, int endTick) {
+    this.type = type;
+    this.visible = true;
+    this.segmentStart = startTick;
+    this.segmentEnd = endTick;
+    if (endTick != Integer.MAX_VALUE) {
+      interpolator.setSegment(from, to, endTick - startTick);
+    }
+  }
+
+  /**
+   * Records that the shape is not visible until the given tick.
+   *
+   * @param type      the type of the shape, or null if it has no keyframes
+   * @param firstTick the tick of the first keyframe, or {@link Integer#MAX_VALUE} if the shape has
+   *                  no keyframes
+   */
+  protected void hideUntil(String type, int firstTick) {
+    this.type = type;
+    this.visible = false;
+    this.segmentStart = 0;
+    this.segmentEnd = firstTick;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String getType() {
+    return type;
+  }
+
+  @Override
+  public int getTick() {
+    return tick;
+  }
+
+  @Override
+  public void advance() {
+    this.seek(tick + 1);
+  }
+
+  @Override
+  public void seek(int tick) throws IllegalArgumentException {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Frame must not be negative");
+    }
+    if (this.isStale() || tick < segmentStart || tick >= segmentEnd) {
+      this.locate(tick);
+    }
+    this.tick = tick;
+
+    if (visible) {
+      if (tick == segmentStart || segmentEnd == Integer.MAX_VALUE) {
+        System.arraycopy(from, 0, current, 0, current.length);
+      } else {
+        interpolator.interpolate(tick - segmentStart, current);
+      }
+    }
+  }
+
+  @Override
+  public void seek(double time) throws IllegalArgumentException {
+    if (!(time >= 0)) {
+      throw new IllegalArgumentException("Frame must not be negative");
+    }
+    int tick = time >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) time;
+    this.seek(tick);
+    if (visible && time != tick && segmentEnd != Integer.MAX_VALUE) {
+      double prop = (time - segmentStart) / (segmentEnd - segmentStart);
+      for (int i = 0; i < current.length; i++) {
+        current[i] = AnimationModel.proportion(from[i], to[i], prop);
+      }
+    }
+  }
+
+  @Override
+  public boolean isVisible() {
+    return visible;
+  }
+
+  @Override
+  public int getX() throws IllegalStateException {
+    return this.get(X);
+  }
+
+  @Override
+  public int getY() throws IllegalStateException {
+    return this.get(Y);
+  }
+
+  @Override
+  public int getWidth() throws IllegalStateException {
+    return this.get(WIDTH);
+  }
+
+  @Override
+  public int getHeight() throws IllegalStateException {
+    return this.get(HEIGHT);
+  }
+
+  @Override
+  public int getRed() throws IllegalStateException {
+    return this.get(RED);
+  }
+
+  @Override
+  public int getGreen() throws IllegalStateException {
+    return this.get(GREEN);
+  }
+
+  @Override
+  public int getBlue() throws IllegalStateException {
+    return this.get(BLUE);
+  }
+
+  @Override
+  public int getSegmentStart() throws IllegalStateException {
+    this.checkVisible();
+    return segmentStart;
+  }
+
+  @Override
+  public int getSegmentEnd() throws IllegalStateException {
+    this.checkVisible();
+    return segmentEnd == Integer.MAX_VALUE ? segmentStart : segmentEnd;
+  }
+
+  // Gets the given attribute at the current tick.
+  private int get(int attribute) {
+    this.checkVisible();
+    return current[attribute];
+  }
+
+  private void checkVisible() {
+    if (!visible) {
+      throw new IllegalStateException(name + " is not visible at tick " + tick);
+    }
+  }
+}
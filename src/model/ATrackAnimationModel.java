@@ -0,0 +1,509 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Performs the work shared by the models that keep the keyframes of each shape in an
+ * {@link ITrack} rather than in a map of shape objects: validating and recording edits, telling
+ * listeners about them, and reading states, cursors and copies of the shapes from the tracks.
+ * Subclasses only create the tracks, merge batches of motions into them, compact them and report
+ * the memory they take up.
+ *
+ * @param <T> the type of the tracks
+ */
+public abstract class ATrackAnimationModel<T extends ITrack> extends AAnimationModel {
+
+  protected final Map<String, T> tracks;
+  protected final ShapeIds<T> ids; // the track of each shape by ID
+  protected final List<Integer> canvas;
+  protected int modCount; // counts the changes to this model so cursors know to search again
+  protected final ModelListeners listeners = new ModelListeners();
+
+  /**
+   * Constructs a model with no shapes and the given canvas.
+   *
+   * @param canvas the given canvas which will act as the background for the animation. The
+   *               listed values are the canvas's x and y position and width and height.
+   * @throws IllegalArgumentException if the canvas is null or does not have four values.
+   */
+  protected ATrackAnimationModel(List<Integer> canvas) {
+    if (canvas == null || canvas.size() != 4) {
+      throw new IllegalArgumentException("Invalid canvas.");
+    }
+    this.tracks = new LinkedHashMap<String, T>();
+    this.ids = new ShapeIds<>();
+    this.canvas = new ArrayList<Integer>(Arrays.asList(canvas.get(0), canvas.get(1), canvas.get(2),
+        canvas.get(3)));
+  }
+
+  /**
+   * Adds the given shapes to this model. Called by the constructors of subclasses once they can
+   * create tracks.
+   *
+   * @param shapes the given shapes and their frames that will appear in this animation. Frame
+   *               numbers must be non-negative.
+   * @throws IllegalArgumentException if the map is null, or contains null frames, null shapes or
+   *                                  negative frame numbers.
+   */
+  protected void putShapes(Map<String, Map<Integer, IShape>> shapes) {
+    if (shapes == null) {
+      throw new IllegalArgumentException("Invalid map.");
+    }
+    // Copying each map of frames into a track, in the order of the frame numbers
+    for (Map.Entry<String, Map<Integer, IShape>> entry : shapes.entrySet()) {
+      Map<Integer, IShape> frames = entry.getValue();
+      if (frames == null) {
+        throw new IllegalArgumentException("Invalid map.");
+      }
+      T track = this.newTrack(null, frames.size());
+      for (Map.Entry<Integer, IShape> frame : new TreeMap<Integer, IShape>(frames).entrySet()) {
+        if (frame.getKey() < 0 || frame.getValue() == null) {
+          throw new IllegalArgumentException("Invalid map.");
+        }
+        track.put(frame.getKey(), frame.getValue());
+      }
+      this.tracks.put(entry.getKey(), track);
+      this.ids.put(entry.getKey(), track);
+    }
+  }
+
+  /**
+   * Creates an empty track for a shape of this model.
+   *
+   * @param type      a shape of the type that the track animates, or null if it is unknown.
+   * @param keyframes the number of keyframes the track is about to be given, or 0 if it is unknown
+   * @return a new track.
+   */
+  abstract T newTrack(IShape type, int keyframes);
+
+  /**
+   * Merges every motion of the given batch into the tracks of the shapes it moves. The batch has
+   * been checked against this model and is not empty.
+   *
+   * @param batch the motions to merge
+   */
+  abstract void mergeBatch(MotionBatch batch);
+
+  /**
+   * Adds a shape whose keyframes are already in the given track. Used by the builder so that
+   * loaded keyframes are not copied again.
+   *
+   * @param name  the name of the shape
+   * @param track the keyframes of the shape
+   */
+  void putTrack(String name, T track) {
+    tracks.put(name, track);
+    ids.put(name, track);
+    modCount++;
+  }
+
+  @Override
+  public void move(int frame, String shape, int x, int y) throws IllegalArgumentException {
+    checkFrame(frame);
+    T track = this.getTrack(shape, "There isn't a shape to move.");
+    int before = track.floorIndex(frame);
+
+    // The change is only recorded when the shape already exists at or before the frame
+    if (before >= 0) {
+      track.put(frame, x, y, track.width(before), track.height(before), track.color(before));
+      modCount++;
+      if (!listeners.isEmpty()) {
+        listeners.changed(this.keyframesChanged(shape, frame, frame));
+      }
+    }
+  }
+
+  @Override
+  public void changeColor(int frame, String shape, int r, int g, int b)
+      throws IllegalArgumentException {
+    checkFrame(frame);
+    checkColor(r, g, b);
+    T track = this.getTrack(shape, "There isn't a shape to change the color of.");
+    int before = track.floorIndex(frame);
+
+    if (before >= 0) {
+      track.put(frame, track.x(before), track.y(before), track.width(before),
+          track.height(before), ShapeState.pack(r, g, b));
+      modCount++;
+      if (!listeners.isEmpty()) {
+        listeners.changed(this.keyframesChanged(shape, frame, frame));
+      }
+    }
+  }
+
+  @Override
+  public void changeSize(int frame, String shape, int width, int height)
+      throws IllegalArgumentException {
+    checkFrame(frame);
+    checkSize(width, height);
+    T track = this.getTrack(shape, "There isn't a shape to change the size of.");
+    int before = track.floorIndex(frame);
+
+    if (before >= 0) {
+      track.put(frame, track.x(before), track.y(before), width, height, track.color(before));
+      modCount++;
+      if (!listeners.isEmpty()) {
+        listeners.changed(this.keyframesChanged(shape, frame, frame));
+      }
+    }
+  }
+
+  @Override
+  public void setKeyframe(int frame, String shape, int x, int y, int width, int height, int r,
+      int g, int b) throws IllegalArgumentException {
+    checkFrame(frame);
+    checkColor(r, g, b);
+    checkSize(width, height);
+    T track = this.getTrack(shape, "There isn't a shape to change.");
+
+    if (track.floorIndex(frame) >= 0) {
+      track.put(frame, x, y, width, height, ShapeState.pack(r, g, b));
+      modCount++;
+      if (!listeners.isEmpty()) {
+        listeners.changed(this.keyframesChanged(shape, frame, frame));
+      }
+    }
+  }
+
+  @Override
+  public void applyBatch(Collection<Motion> motions) throws IllegalArgumentException {
+    MotionBatch batch = new MotionBatch(motions);
+    for (String name : batch.shapeNames()) {
+      if (!this.tracks.containsKey(name)) {
+        throw new IllegalArgumentException("Shape not present in model");
+      }
+      batch.checkType(name, this.tracks.get(name).getType());
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    this.mergeBatch(batch);
+    modCount++;
+    if (!listeners.isEmpty()) {
+      List<ModelChange> changed = new ArrayList<>();
+      for (String name : batch.shapeNames()) {
+        int[] spans = batch.spans(name);
+        changed.add(this.keyframesChanged(name, spans[0], spans[spans.length - 1]));
+      }
+      listeners.changed(changed);
+    }
+  }
+
+  // Describes a change to the keyframes of the given shape from the first to the last given tick.
+  // Called after the change, since the keyframes around the changed ones are the same either way.
+  protected ModelChange keyframesChanged(String name, int from, int to) {
+    T track = this.tracks.get(name);
+    int before = track.floorIndex(from - 1);
+    int after = track.floorIndex(to) + 1;
+    return ModelListeners.keyframesChanged(name, from, to, before < 0 ? -1 : track.tick(before),
+        after < track.size() ? track.tick(after) : -1, modCount);
+  }
+
+  /**
+   * Gets the track of the given shape to be edited.
+   *
+   * @param shape        the name of the shape
+   * @param emptyMessage the message of the exception thrown when this model has no shapes
+   * @return the track of the shape
+   * @throws IllegalArgumentException if this model has no shapes or does not have the given shape
+   */
+  private T getTrack(String shape, String emptyMessage) {
+    if (this.tracks.isEmpty()) {
+      throw new IllegalArgumentException(emptyMessage);
+    }
+    T track = this.tracks.get(shape);
+    if (track == null) {
+      throw new IllegalArgumentException("Invalid shape.");
+    }
+    return track;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder animation = new StringBuilder("canvas " + this.canvas.get(0) + " "
+        + this.canvas.get(1) + " " + this.canvas.get(2) + " " + this.canvas.get(3));
+
+    // For each shape, describe every motion between two of its keyframes
+    for (Map.Entry<String, T> entry : this.tracks.entrySet()) {
+      String name = entry.getKey();
+      T track = entry.getValue();
+
+      for (int i = 0; i < track.size(); i++) {
+        if (i == 0) {
+          animation.append("\nshape ").append(name).append(" ").append(track.getType())
+              .append("\nmotion ").append(name).append(" ").append(this.keyframeToString(track, i));
+        } else if (i == track.size() - 1) {
+          animation.append(" ").append(this.keyframeToString(track, i));
+        } else {
+          animation.append(" ").append(this.keyframeToString(track, i)).append("\nmotion ")
+              .append(name).append(" ").append(this.keyframeToString(track, i));
+        }
+      }
+    }
+
+    return animation.toString();
+  }
+
+  // Describes the keyframe at the given index as its tick, position, size, and color.
+  private String keyframeToString(T track, int index) {
+    return track.tick(index) + " " + track.x(index) + " " + track.y(index) + " "
+        + track.width(index) + " " + track.height(index) + " " + track.red(index) + " "
+        + track.green(index) + " " + track.blue(index);
+  }
+
+  @Override
+  public Map<String, Map<Integer, IShape>> changeSpeed(double num) {
+    Map<String, Map<Integer, IShape>> result = new LinkedHashMap<>();
+    for (Map.Entry<String, T> entry : this.tracks.entrySet()) {
+      T track = entry.getValue();
+      Map<Integer, IShape> frames = new TreeMap<>();
+      for (int i = 0; i < track.size(); i++) {
+        frames.put((int) (track.tick(i) * num), track.shapeAt(i));
+      }
+      result.put(entry.getKey(), frames);
+    }
+    return result;
+  }
+
+  @Override
+  public IShape getState(int frame, String shape) throws IllegalArgumentException {
+    return this.getState(frame, this.ids.idOf(shape));
+  }
+
+  @Override
+  public IShape getState(int frame, int id) throws IllegalArgumentException {
+    T track = this.ids.get(id);
+    if (frame < 0) {
+      throw new IllegalArgumentException("Frame must not be negative");
+    }
+
+    int before = track.floorIndex(frame);
+    if (before < 0) { // frame is before the first keyframe
+      return null;
+    }
+    if (track.tick(before) == frame || before == track.size() - 1) {
+      // frame is a keyframe or comes after the last keyframe
+      return track.shapeAt(before);
+    }
+
+    // Otherwise, frame is between two keyframes
+    int after = before + 1;
+    int offset = frame - track.tick(before);
+    int span = track.tick(after) - track.tick(before);
+    return track.getType().copyShape(FixedPointInterpolator.interpolate(track.stateAt(before),
+        track.stateAt(after), offset, span));
+  }
+
+  @Override
+  public IShapeCursor cursor(String shape) throws IllegalArgumentException {
+    return this.cursor(this.ids.idOf(shape));
+  }
+
+  @Override
+  public IShapeCursor cursor(int id) throws IllegalArgumentException {
+    IShapeCursor cursor = new TrackCursor(this.ids.nameOf(id), id);
+    cursor.seek(0);
+    return cursor;
+  }
+
+  @Override
+  public int getShapeId(String name) throws IllegalArgumentException {
+    return this.ids.idOf(name);
+  }
+
+  @Override
+  public String getShapeName(int id) throws IllegalArgumentException {
+    return this.ids.nameOf(id);
+  }
+
+  /**
+   * Reads a shape of this model tick by tick by remembering the index of the keyframe at or
+   * before the current tick, so that moving on to the next keyframe needs no search.
+   */
+  private final class TrackCursor extends AShapeCursor {
+    private final int id;
+    private T track;
+    private int index;
+    private int seenModCount;
+
+    TrackCursor(String name, int id) {
+      super(name);
+      this.id = id;
+      this.seenModCount = modCount - 1;
+    }
+
+    @Override
+    protected boolean isStale() {
+      return seenModCount != modCount;
+    }
+
+    @Override
+    protected void locate(int tick) {
+      if (this.isStale()) {
+        seenModCount = modCount;
+        track = ids.find(id);
+        index = -1;
+      }
+      // If the shape was removed or has no keyframes, it is never visible
+      if (track == null || track.isEmpty()) {
+        this.hideUntil(null, Integer.MAX_VALUE);
+        return;
+      }
+      String type = track.getType().toString();
+
+      // Moving on to the next keyframe is checked before searching for the tick
+      int next = index + 1;
+      if (next < track.size() && tick >= track.tick(next)
+          && (next + 1 == track.size() || tick < track.tick(next + 1))) {
+        index = next;
+      } else {
+        index = track.floorIndex(tick);
+      }
+      if (index < 0) {
+        this.hideUntil(type, track.firstTick());
+        return;
+      }
+
+      this.load(index, from);
+      if (index + 1 == track.size()) {
+        this.setSegment(type, track.tick(index), Integer.MAX_VALUE);
+      } else {
+        this.load(index + 1, to);
+        this.setSegment(type, track.tick(index), track.tick(index + 1));
+      }
+    }
+
+    // Copies the attributes of the keyframe at the given index into the given array.
+    private void load(int keyframe, int[] values) {
+      values[X] = track.x(keyframe);
+      values[Y] = track.y(keyframe);
+      values[WIDTH] = track.width(keyframe);
+      values[HEIGHT] = track.height(keyframe);
+      values[RED] = track.red(keyframe);
+      values[GREEN] = track.green(keyframe);
+      values[BLUE] = track.blue(keyframe);
+    }
+  }
+
+  @Override
+  List<String> shapeNames() {
+    return new ArrayList<>(this.tracks.keySet());
+  }
+
+  @Override
+  int firstTick(int id) {
+    T track = this.ids.get(id);
+    return track.isEmpty() ? Integer.MAX_VALUE : track.firstTick();
+  }
+
+  @Override
+  int[] keyframes(int id) {
+    return this.ids.get(id).toKeyframes();
+  }
+
+  @Override
+  IShape shapeType(int id) {
+    return this.ids.get(id).getType();
+  }
+
+  @Override
+  public void add(int frame, String name, IShape shape) throws IllegalArgumentException {
+    if (this.tracks.containsKey(name)) {
+      throw new IllegalArgumentException("This shape name is already included");
+    }
+    if (frame < 0) {
+      throw new IllegalArgumentException("Frame must be non-negative");
+    }
+    Objects.requireNonNull(shape);
+    T track = this.newTrack(shape, 0);
+    track.put(frame, shape);
+    this.tracks.put(name, track);
+    this.ids.put(name, track);
+    modCount++;
+    listeners.changed(new ModelChange(ModelChange.Kind.SHAPE_ADDED, name, frame,
+        Integer.MAX_VALUE, modCount));
+  }
+
+  @Override
+  public void add(String name) throws IllegalArgumentException {
+    if (this.tracks.containsKey(name)) {
+      throw new IllegalArgumentException("This shape name is already included");
+    }
+    T track = this.newTrack(null, 0);
+    this.tracks.put(name, track);
+    this.ids.put(name, track);
+    modCount++;
+    listeners.changed(new ModelChange(ModelChange.Kind.SHAPE_ADDED, name, 0, Integer.MAX_VALUE,
+        modCount));
+  }
+
+  @Override
+  public void remove(int frame, String name) throws IllegalArgumentException {
+    T track = this.tracks.get(name);
+    if (track == null) {
+      throw new IllegalArgumentException("Shape not present in model");
+    }
+    if (frame < 0) {
+      throw new IllegalArgumentException("Frame must be non-negative");
+    }
+    track.removeFrom(frame);
+
+    // The shape is moved to the end of the animation, or removed if it has no frames left
+    this.tracks.remove(name);
+    this.ids.remove(name);
+    if (!track.isEmpty()) {
+      this.tracks.put(name, track);
+      this.ids.put(name, track);
+    }
+    modCount++;
+    if (!track.isEmpty()) {
+      listeners.changed(this.keyframesChanged(name, frame, Integer.MAX_VALUE));
+    } else {
+      listeners.changed(new ModelChange(ModelChange.Kind.SHAPE_REMOVED, name, frame,
+          Integer.MAX_VALUE, modCount));
+    }
+  }
+
+  @Override
+  public Map<String, Map<Integer, IShape>> getShapes() {
+    Map<String, Map<Integer, IShape>> copyMap = new LinkedHashMap<String, Map<Integer, IShape>>();
+    for (Map.Entry<String, T> entry : this.tracks.entrySet()) {
+      T track = entry.getValue();
+      Map<Integer, IShape> frames = new TreeMap<Integer, IShape>();
+      for (int i = 0; i < track.size(); i++) {
+        frames.put(track.tick(i), track.shapeAt(i));
+      }
+      copyMap.put(entry.getKey(), frames);
+    }
+    return copyMap;
+  }
+
+  @Override
+  public List<Integer> getCanvas() {
+    return new ArrayList<Integer>(Arrays.asList(this.canvas.get(0), this.canvas.get(1),
+        this.canvas.get(2), this.canvas.get(3)));
+  }
+
+  @Override
+  public int getVersion() {
+    return modCount;
+  }
+
+  @Override
+  public void addListener(IModelListener listener) throws IllegalArgumentException {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(IModelListener listener) {
+    listeners.remove(listener);
+  }
+}
@@ -3,9 +3,13 @@ package cs3500.animator.model;
 import cs3500.animator.util.AnimationBuilder;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
@@ -23,10 +27,20 @@ import static java.lang.Math.floor;
  * single frame, meaning there are no overlapping changes to the shape. 2. Existing shapes in the
  * animation do not change. There can only be instances of shapes added or removed.
  */
-public class AnimationModel implements IAnimationModel {
+public class AnimationModel extends AAnimationModel {
 
-  private Map<String, Map<Integer, IShape>> shapes;
+  // a rough size of one keyframe: its map entry and boxed tick, then its shape and its state
+  private static final long BYTES_PER_ENTRY = 56;
+  private static final long BYTES_PER_SHAPE = 48;
+  private static final long BYTES_PER_KEYFRAME = BYTES_PER_ENTRY + BYTES_PER_SHAPE;
+  private static final long BYTES_PER_TREE_MAP = 48;
+
+  private Map<String, NavigableMap<Integer, IShape>> shapes;
   private final List<Integer> canvas;
+  private final ShapeIds<NavigableMap<Integer, IShape>> ids; // the frames of each shape by ID
+  private int modCount; // counts the changes to this model so cursors know to search again
+  private long fingerprint; // the sum of the fingerprints of every shape and keyframe
+  private final ModelListeners listeners = new ModelListeners();
 
 
   /**
@@ -34,7 +48,8 @@ public class AnimationModel implements IAnimationModel {
    * length 360 at 200 (x), 70 (y).
    */
   public AnimationModel() {
-    this.shapes = new LinkedHashMap<String, Map<Integer, IShape>>();
+    this.shapes = new LinkedHashMap<String, NavigableMap<Integer, IShape>>();
+    this.ids = new ShapeIds<>();
     this.canvas = new ArrayList<Integer>(Arrays.asList(0, 0, 360, 360));
   }
 
@@ -52,7 +67,8 @@ public class AnimationModel implements IAnimationModel {
       throw new IllegalArgumentException("Canvas must have a length greater than zero and a "
           + "non-negative position.");
     }
-    this.shapes = new LinkedHashMap<String, Map<Integer, IShape>>();
+    this.shapes = new LinkedHashMap<String, NavigableMap<Integer, IShape>>();
+    this.ids = new ShapeIds<>();
     this.canvas = new ArrayList<Integer>(Arrays.asList(canvas.get(0), canvas.get(1), canvas.get(2),
         canvas.get(3)));
   }
@@ -69,6 +85,11 @@ public class AnimationModel implements IAnimationModel {
     }
 
     this.shapes = this.copyAnimation(shapes);
+    this.ids = new ShapeIds<>();
+    for (Map.Entry<String, NavigableMap<Integer, IShape>> entry : this.shapes.entrySet()) {
+      this.ids.put(entry.getKey(), entry.getValue());
+      this.fingerprint += Fingerprint.shape(entry.getKey(), entry.getValue());
+    }
     this.canvas = new ArrayList<Integer>(Arrays.asList(0, 0, 360, 360));
   }
 
@@ -89,6 +110,11 @@ public class AnimationModel implements IAnimationModel {
     }
 
     this.shapes = this.copyAnimation(shapes);
+    this.ids = new ShapeIds<>();
+    for (Map.Entry<String, NavigableMap<Integer, IShape>> entry : this.shapes.entrySet()) {
+      this.ids.put(entry.getKey(), entry.getValue());
+      this.fingerprint += Fingerprint.shape(entry.getKey(), entry.getValue());
+    }
     this.canvas = new ArrayList<Integer>(Arrays.asList(canvas.get(0), canvas.get(1), canvas.get(2),
         canvas.get(3)));
   }
@@ -128,10 +154,11 @@ public class AnimationModel implements IAnimationModel {
    * @param animation the map that contains the frames of the shapes to be used for this model.
    * @return a copy of the given map.
    */
-  protected Map<String, Map<Integer, IShape>> copyAnimation(Map<String, Map<Integer, IShape>>
-      animation) {
+  protected Map<String, NavigableMap<Integer, IShape>> copyAnimation(
+      Map<String, Map<Integer, IShape>> animation) {
 
-    Map<String, Map<Integer, IShape>> copyMap = new LinkedHashMap<String, Map<Integer, IShape>>();
+    Map<String, NavigableMap<Integer, IShape>> copyMap =
+        new LinkedHashMap<String, NavigableMap<Integer, IShape>>();
     Set<String> copyShapeNames = animation.keySet();
 
     // For each shape name, add a new entry to copyMap (entry = copy of map of frames)
@@ -232,9 +259,92 @@ public class AnimationModel implements IAnimationModel {
   }
 
 
+  @Override
+  public void setKeyframe(int frame, String shape, int x, int y, int width, int height, int r,
+      int g, int b) throws IllegalArgumentException {
+    // If frame is negative
+    if (frame < 0) {
+      throw new IllegalArgumentException("Invalid frame.");
+    }
+    // if RGB values are not between 0-255
+    else if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
+      throw new IllegalArgumentException("Invalid color.");
+    }
+    // If width/height is negative or zero
+    else if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Invalid dimensions.");
+    } else {
+      // If the map is empty
+      if (this.shapes.isEmpty()) {
+        throw new IllegalArgumentException("There isn't a shape to change.");
+      }
+      // If the map doesn't contain the given key
+      if (!this.shapes.containsKey(shape)) {
+        throw new IllegalArgumentException("Invalid shape.");
+      }
+
+      // Using a helper method to make a single new frame entry with every appearance changed
+      this.addEntry(frame, shape, new ArrayList<List<Integer>>(Arrays.asList(
+          Arrays.asList(r, g, b), Arrays.asList(x, y), Arrays.asList(width, height))));
+    }
+  }
+
+  @Override
+  public void applyBatch(Collection<Motion> motions) throws IllegalArgumentException {
+    MotionBatch batch = new MotionBatch(motions);
+    for (String name : batch.shapeNames()) {
+      if (!this.shapes.containsKey(name)) {
+        throw new IllegalArgumentException("Shape not present in model");
+      }
+      NavigableMap<Integer, IShape> frames = this.shapes.get(name);
+      batch.checkType(name, frames.isEmpty() ? null : frames.firstEntry().getValue());
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    for (String name : batch.shapeNames()) {
+      NavigableMap<Integer, IShape> frames = this.shapes.get(name);
+      IShape type = frames.isEmpty() ? batch.type(name) : frames.firstEntry().getValue();
+
+      // For each span of the motions, removing the keyframes it replaces and then adding its
+      // keyframes, while the path to them in the tree is still in the cache
+      int[] spans = batch.spans(name);
+      int[] keyframes = batch.keyframes(name);
+      int added = 0; // the next keyframe of the motions to add
+      for (int i = 0; i < spans.length; i += 2) {
+        for (Map.Entry<Integer, IShape> frame = frames.ceilingEntry(spans[i]);
+            frame != null && frame.getKey() <= spans[i + 1];
+            frame = frames.ceilingEntry(spans[i])) {
+          fingerprint -= Fingerprint.keyframe(name, frame.getKey(), frame.getValue());
+          frames.remove(frame.getKey());
+        }
+        for (; added < keyframes.length && keyframes[added] <= spans[i + 1];
+            added += KeyframeTrack.INTS_PER_KEYFRAME) {
+          IShape shape = type.copyShape(new ShapeState(keyframes[added + 1], keyframes[added + 2],
+              keyframes[added + 3], keyframes[added + 4], keyframes[added + 5]));
+          frames.put(keyframes[added], shape);
+          fingerprint += Fingerprint.keyframe(name, keyframes[added], shape);
+        }
+      }
+    }
+    modCount++;
+    if (!listeners.isEmpty()) {
+      List<ModelChange> changed = new ArrayList<>();
+      for (String name : batch.shapeNames()) {
+        int[] spans = batch.spans(name);
+        changed.add(this.keyframesChanged(name, spans[0], spans[spans.length - 1]));
+      }
+      listeners.changed(changed);
+    }
+  }
+
+
   /**
    * Adds a new entry to the map containing the frames of the given shape. This new entry will
-   * contain the new appearances according to the provided list.
+   * contain the new appearances according to the provided list, and the appearances that are not
+   * given are kept from the keyframe at or before the frame. Nothing is added if the shape has no
+   * keyframe at or before the frame.
    *
    * @param frame           the frame at which the change of appearance occurs.
    * @param shape           the shape that will be changing appearance.
@@ -243,51 +353,48 @@ public class AnimationModel implements IAnimationModel {
    */
   protected void addEntry(int frame, String shape, List<List<Integer>> shapeAppearance) {
     Objects.requireNonNull(shapeAppearance); // ensuring list of shape's description is not null
-    Map<Integer, IShape> shapeMap = this.shapes.get(shape); // the frames of the given shape
+    NavigableMap<Integer, IShape> shapeMap = this.shapes.get(shape); // the frames of the shape
     IShape current; // the shape that appears before the new entry
     IShape replacement; // the shape that will be added to the map of frames
     List<Integer> colorList = shapeAppearance.get(0); // shape's color
     List<Integer> positionList = shapeAppearance.get(1); // shape's position
     List<Integer> sizeList = shapeAppearance.get(2); // shape's size
 
-    // Getting the shape present before the desired frame
-    for (int i = frame; i >= 0; i--) {
-      if (shapeMap.containsKey(i)) {
-        // Getting the current shape at that frame
-        current = shapeMap.get(i);
-        replacement = current;
-
-        // Creating a new shape with the given color
-        if (!colorList.isEmpty()) {
-          replacement = current.copyShape(new ArrayList<Integer>(Arrays.asList(colorList.get(0),
-              colorList.get(1), colorList.get(2))), current.getPosition(), current.getSize().get(0),
-              current.getSize().get(1));
-        }
-        // Creating a new shape with the given position
-        if (!positionList.isEmpty()) {
-          replacement = current.copyShape(current.getColor(), new Position(positionList.get(0),
-              positionList.get(1)), current.getSize().get(0), current.getSize().get(1));
-        }
-        // Creating a new shape with the given width and height
-        if (!sizeList.isEmpty()) {
-          replacement = current.copyShape(current.getColor(), current.getPosition(),
-              sizeList.get(0), sizeList.get(1));
-        }
-        // Adding the new shape to the map
-        shapeMap.put(frame, replacement);
-
-        // Ending the loop after adding the new entry
-        break;
-      }
+    // Getting the shape present at or before the desired frame
+    Map.Entry<Integer, IShape> floor = shapeMap.floorEntry(frame);
+    if (floor == null) {
+      return;
+    }
+    current = floor.getValue();
+    ShapeState state = current.state(); // the appearance of the current shape
+
+    // Creating a new shape with the given color, position and size, keeping the rest
+    int color = colorList.isEmpty() ? state.color()
+        : ShapeState.pack(colorList.get(0), colorList.get(1), colorList.get(2));
+    int x = positionList.isEmpty() ? state.x() : positionList.get(0);
+    int y = positionList.isEmpty() ? state.y() : positionList.get(1);
+    int width = sizeList.isEmpty() ? state.width() : sizeList.get(0);
+    int height = sizeList.isEmpty() ? state.height() : sizeList.get(1);
+    replacement = current.copyShape(new ShapeState(x, y, width, height, color));
+
+    // Adding the new shape to the map, replacing the fingerprint of the keyframe it replaces
+    IShape replaced = shapeMap.put(frame, replacement);
+    fingerprint += Fingerprint.keyframe(shape, frame, replacement)
+        - (replaced == null ? 0 : Fingerprint.keyframe(shape, frame, replaced));
+    modCount++;
+    if (!listeners.isEmpty()) {
+      listeners.changed(this.keyframesChanged(shape, frame, frame));
     }
   }
 
-  //A helper method for the builder class. Adds an arbitrary instance of the shape at the given
-  //frame, which will then be replaced.
-  private void addArbitraryEntry(int frame, String shape) {
-    Map<Integer, IShape> shapeMap = shapes.get(shape);
-    IShape aShape = shapeMap.values().iterator().next();
-    shapeMap.put(frame, aShape.copyShape(Arrays.asList(1, 1, 1), new Position(1, 1), 1, 1));
+  // Describes a change to the keyframes of the given shape from the first to the last given tick.
+  // Called after the change, since the keyframes around the changed ones are the same either way.
+  private ModelChange keyframesChanged(String name, int from, int to) {
+    NavigableMap<Integer, IShape> frames = this.shapes.get(name);
+    Integer before = frames.lowerKey(from);
+    Integer after = frames.higherKey(to);
+    return ModelListeners.keyframesChanged(name, from, to, before == null ? -1 : before,
+        after == null ? -1 : after, modCount);
   }
 
   @Override
@@ -335,21 +442,13 @@ public class AnimationModel implements IAnimationModel {
    * @return A string version of the given shape, documenting its appearance as numbers.
    */
   protected String shapeToString(IShape shape) {
-    // shape's position as a string
-    String positionStr = shape.getPosition().getX() + " " + shape.getPosition().getY() + " ";
-    // shape's size as a string
-    String sizeStr = shape.getSize().get(0) + " " + shape.getSize().get(1) + " ";
-    // shape's color as a string
-    String colorStr =
-        shape.getColor().get(0) + " " + shape.getColor().get(1) + " " + shape.getColor().get(2);
-
-    return positionStr + sizeStr + colorStr;
+    return shape.state().toString();
   }
 
   @Override
   public Map<String, Map<Integer, IShape>> changeSpeed(double num) {
     Map<String, Map<Integer, IShape>> result = new LinkedHashMap<>();
-    for (Map.Entry<String, Map<Integer, IShape>> shape : shapes.entrySet()) {
+    for (Map.Entry<String, NavigableMap<Integer, IShape>> shape : shapes.entrySet()) {
       Map<Integer, IShape> shapeMap = new TreeMap<>();
       for (Map.Entry<Integer, IShape> frame : shape.getValue().entrySet()) {
         shapeMap.put((int) (frame.getKey() * num), frame.getValue());
@@ -361,39 +460,44 @@ public class AnimationModel implements IAnimationModel {
 
   @Override
   public IShape getState(int frame, String shape) {
-    if (!(shapes.containsKey(shape))) {
-      throw new IllegalArgumentException("Shape not present in model");
-    }
+    return this.getState(frame, ids.idOf(shape));
+  }
+
+  @Override
+  public IShape getState(int frame, int id) throws IllegalArgumentException {
+    NavigableMap<Integer, IShape> thisShape = ids.get(id);
     if (frame < 0) {
       throw new IllegalArgumentException("Frame must not be negative");
     }
-    Map<Integer, IShape> theShape = shapes.get(shape);
-    TreeMap<Integer, IShape> thisShape = (TreeMap<Integer, IShape>) copyFrames(theShape);
-    Map.Entry<Integer, IShape> shapeBefore;
-    Map.Entry<Integer, IShape> shapeAfter;
-
-    if (thisShape.containsKey(frame)) { //frame is already specified
-      IShape copyShape = thisShape.get(frame);
-      return copyShape.copyShape(copyShape.getColor(), copyShape.getPosition(),
-          copyShape.getSize().get(0), copyShape.getSize().get(1));
-    }
-    if (thisShape.floorKey(frame) == null) { //frame is before the first specified frame
+    // Searching the shape's frames in place, so only the returned shape is created
+    Map.Entry<Integer, IShape> shapeBefore = thisShape.floorEntry(frame);
+    if (shapeBefore == null) { //frame is before the first specified frame
       return null;
-    } else {
-      shapeBefore = thisShape.floorEntry(frame);
     }
-    if (thisShape.ceilingKey(frame) == null) { //frame is after the last specified frame
-      return thisShape.lastEntry().getValue();
-    } else {
-      shapeAfter = thisShape.ceilingEntry(frame);
+    Map.Entry<Integer, IShape> shapeAfter = thisShape.higherEntry(frame);
+    if (shapeBefore.getKey() == frame || shapeAfter == null) {
+      //frame is already specified, or is after the last specified frame
+      IShape copyShape = shapeBefore.getValue();
+      return copyShape.copyShape(copyShape.state());
     }
     //Otherwise, frame is between two specified frames
-    double prop;
-    prop = ((double) (frame - shapeBefore.getKey()))
-        / ((double) (shapeAfter.getKey() - shapeBefore.getKey()));
-    IShape copyShape = proportionShapes(shapeBefore.getValue(), shapeAfter.getValue(), prop);
-    return copyShape.copyShape(copyShape.getColor(), copyShape.getPosition(),
-        copyShape.getSize().get(0), copyShape.getSize().get(1));
+    return proportionShapes(shapeBefore.getValue(), shapeAfter.getValue(),
+        frame - shapeBefore.getKey(), shapeAfter.getKey() - shapeBefore.getKey());
+  }
+
+  /**
+   * Returns a shape that is in a transition state between the two given shapes, the given number
+   * of ticks into a segment of the given length. The result is the same as with a proportion of
+   * offset / span, computed with integers.
+   *
+   * @param s1     The first shape
+   * @param s2     The second shape
+   * @param offset The number of ticks since the first shape
+   * @param span   The number of ticks between the two shapes
+   * @return the transition state of a shape.
+   */
+  protected static IShape proportionShapes(IShape s1, IShape s2, int offset, int span) {
+    return s1.copyShape(FixedPointInterpolator.interpolate(s1.state(), s2.state(), offset, span));
   }
 
   /**
@@ -405,18 +509,14 @@ public class AnimationModel implements IAnimationModel {
    * @return the transition state of a shape.
    */
   protected static IShape proportionShapes(IShape s1, IShape s2, double prop) {
-    List<Integer> myRgb = new ArrayList<>();
-    for (int i = 0; i < 3; i++) {
-      myRgb.add(proportion(s1.getColor().get(i), s2.getColor().get(i), prop));
-    }
-
-    Position myPos = new Position(
-        proportion(s1.getPosition().getX(), s2.getPosition().getX(), prop),
-        proportion(s1.getPosition().getY(), s2.getPosition().getY(), prop));
-    int myWidth = proportion(s1.getSize().get(0), s2.getSize().get(0), prop);
-    int myHeight = proportion(s1.getSize().get(1), s2.getSize().get(1), prop);
-
-    return s1.copyShape(myRgb, myPos, myWidth, myHeight);
+    return s1.copyShape(new ShapeState(
+        proportion(s1.x(), s2.x(), prop),
+        proportion(s1.y(), s2.y(), prop),
+        proportion(s1.width(), s2.width(), prop),
+        proportion(s1.height(), s2.height(), prop),
+        proportion(s1.red(), s2.red(), prop),
+        proportion(s1.green(), s2.green(), prop),
+        proportion(s1.blue(), s2.blue(), prop)));
   }
 
   /**
@@ -436,17 +536,122 @@ public class AnimationModel implements IAnimationModel {
   }
 
   @Override
-  public Map<String, IShape> getFullState(int frame) {
-    if (frame < 0) {
-      throw new IllegalArgumentException("Frame must not be negative");
+  public IShapeCursor cursor(String shape) throws IllegalArgumentException {
+    return this.cursor(ids.idOf(shape));
+  }
+
+  @Override
+  public IShapeCursor cursor(int id) throws IllegalArgumentException {
+    IShapeCursor cursor = new MapCursor(ids.nameOf(id), id);
+    cursor.seek(0);
+    return cursor;
+  }
+
+  @Override
+  public int getShapeId(String name) throws IllegalArgumentException {
+    return ids.idOf(name);
+  }
+
+  @Override
+  public String getShapeName(int id) throws IllegalArgumentException {
+    return ids.nameOf(id);
+  }
+
+  /**
+   * Reads a shape of this model tick by tick by remembering the entries of its map of frames that
+   * come before and after the current tick.
+   */
+  private final class MapCursor extends AShapeCursor {
+    private final int id;
+    private int seenModCount;
+
+    MapCursor(String name, int id) {
+      super(name);
+      this.id = id;
+      this.seenModCount = modCount - 1;
+    }
+
+    @Override
+    protected boolean isStale() {
+      return seenModCount != modCount;
     }
-    Map<String, IShape> state = new TreeMap<>();
-    for (String key : shapes.keySet()) {
-      state.put(key, getState(frame, key));
+
+    @Override
+    protected void locate(int tick) {
+      seenModCount = modCount;
+      NavigableMap<Integer, IShape> frames = ids.find(id);
+      // If the shape was removed or has no frames, it is never visible
+      if (frames == null || frames.isEmpty()) {
+        this.hideUntil(null, Integer.MAX_VALUE);
+        return;
+      }
+      Map.Entry<Integer, IShape> before = frames.floorEntry(tick);
+      if (before == null) {
+        this.hideUntil(frames.firstEntry().getValue().toString(), frames.firstKey());
+        return;
+      }
+      Map.Entry<Integer, IShape> after = frames.higherEntry(tick);
+      this.load(before.getValue(), from);
+      if (after == null) {
+        this.setSegment(before.getValue().toString(), before.getKey(), Integer.MAX_VALUE);
+      } else {
+        this.load(after.getValue(), to);
+        this.setSegment(before.getValue().toString(), before.getKey(), after.getKey());
+      }
+    }
+
+    // Copies the attributes of the given shape into the given array.
+    private void load(IShape shape, int[] values) {
+      values[X] = shape.x();
+      values[Y] = shape.y();
+      values[WIDTH] = shape.width();
+      values[HEIGHT] = shape.height();
+      values[RED] = shape.red();
+      values[GREEN] = shape.green();
+      values[BLUE] = shape.blue();
+    }
+  }
+
+  @Override
+  List<String> shapeNames() {
+    return new ArrayList<>(shapes.keySet());
+  }
+
+  @Override
+  int firstTick(int id) {
+    NavigableMap<Integer, IShape> frames = ids.get(id);
+    return frames.isEmpty() ? Integer.MAX_VALUE : frames.firstKey();
+  }
+
+  @Override
+  int[] keyframes(int id) {
+    return keyframes(ids.get(id));
+  }
+
+  @Override
+  IShape shapeType(int id) {
+    NavigableMap<Integer, IShape> frames = ids.get(id);
+    return frames.isEmpty() ? null : frames.firstEntry().getValue();
+  }
+
+  // Lays out the given frames as keyframes of six ints each: the tick, x, y, width, height and
+  // packed color.
+  private static int[] keyframes(NavigableMap<Integer, IShape> frames) {
+    int[] keyframes = new int[frames.size() * KeyframeTrack.INTS_PER_KEYFRAME];
+    int i = 0;
+    for (Map.Entry<Integer, IShape> frame : frames.entrySet()) {
+      ShapeState state = frame.getValue().state();
+      keyframes[i++] = frame.getKey();
+      keyframes[i++] = state.x();
+      keyframes[i++] = state.y();
+      keyframes[i++] = state.width();
+      keyframes[i++] = state.height();
+      keyframes[i++] = state.color();
     }
-    return state;
+    return keyframes;
   }
 
+
   @Override
   public void add(int frame, String name, IShape shape) {
     if (shapes.containsKey(name)) {
@@ -455,9 +660,15 @@ public class AnimationModel implements IAnimationModel {
     if (frame < 0) {
       throw new IllegalArgumentException("Frame must be non-negative");
     }
-    Map<Integer, IShape> thisShape = new TreeMap<>();
+    Objects.requireNonNull(shape);
+    NavigableMap<Integer, IShape> thisShape = new TreeMap<>();
     thisShape.put(frame, shape);
     shapes.put(name, thisShape);
+    ids.put(name, thisShape);
+    fingerprint += Fingerprint.shape(name, thisShape);
+    modCount++;
+    listeners.changed(new ModelChange(ModelChange.Kind.SHAPE_ADDED, name, frame,
+        Integer.MAX_VALUE, modCount));
   }
 
   @Override
@@ -465,8 +676,13 @@ public class AnimationModel implements IAnimationModel {
     if (shapes.containsKey(name)) {
       throw new IllegalArgumentException("This shape name is already included");
     }
-    Map<Integer, IShape> thisShape = new TreeMap<>();
+    NavigableMap<Integer, IShape> thisShape = new TreeMap<>();
     shapes.put(name, thisShape);
+    ids.put(name, thisShape);
+    fingerprint += Fingerprint.shape(name);
+    modCount++;
+    listeners.changed(new ModelChange(ModelChange.Kind.SHAPE_ADDED, name, 0, Integer.MAX_VALUE,
+        modCount));
   }
 
   @Override
@@ -477,7 +693,7 @@ public class AnimationModel implements IAnimationModel {
     if (frame < 0) {
       throw new IllegalArgumentException("Frame must be non-negative");
     }
-    Map<Integer, IShape> thisShape = copyFrames(shapes.get(shape));
+    NavigableMap<Integer, IShape> thisShape = copyFrames(shapes.get(shape));
     List<Integer> toRemove = new ArrayList<>();
     for (int key : thisShape.keySet()) {
       if (key >= frame) {
@@ -487,10 +703,80 @@ public class AnimationModel implements IAnimationModel {
     for (int key : toRemove) {
       thisShape.remove(key);
     }
-    shapes.remove(shape);
+    fingerprint -= Fingerprint.shape(shape, shapes.remove(shape));
+    ids.remove(shape);
     if (thisShape.size() != 0) {
       shapes.put(shape, thisShape);
+      ids.put(shape, thisShape);
+      fingerprint += Fingerprint.shape(shape, thisShape);
+    }
+    modCount++;
+    if (thisShape.size() != 0) {
+      listeners.changed(this.keyframesChanged(shape, frame, Integer.MAX_VALUE));
+    } else {
+      listeners.changed(new ModelChange(ModelChange.Kind.SHAPE_REMOVED, shape, frame,
+          Integer.MAX_VALUE, modCount));
+    }
+  }
+
+  @Override
+  public CompactionReport compact() {
+    int before = 0;
+    int after = 0;
+    List<ModelChange> changed = new ArrayList<>();
+    for (Map.Entry<String, NavigableMap<Integer, IShape>> shape : this.shapes.entrySet()) {
+      NavigableMap<Integer, IShape> frames = shape.getValue();
+      before += frames.size();
+      int[] keyframes = keyframes(frames);
+
+      // Removing the frames whose ticks are no longer among the kept keyframes
+      int[] kept = KeyframeCompactor.compact(keyframes);
+      if (kept != keyframes) {
+        if (!listeners.isEmpty()) {
+          // removing any keyframe counts as one change, made once every shape is compacted
+          changed.add(ModelListeners.compacted(shape.getKey(), keyframes, kept, modCount + 1));
+        }
+        int next = 0;
+        Iterator<Map.Entry<Integer, IShape>> ticks = frames.entrySet().iterator();
+        while (ticks.hasNext()) {
+          Map.Entry<Integer, IShape> tick = ticks.next();
+          if (next < kept.length && kept[next] == tick.getKey()) {
+            next += KeyframeTrack.INTS_PER_KEYFRAME;
+          } else {
+            fingerprint -= Fingerprint.keyframe(shape.getKey(), tick.getKey(), tick.getValue());
+            ticks.remove();
+          }
+        }
+      }
+      after += frames.size();
     }
+    if (after != before) {
+      modCount++;
+      listeners.changed(changed);
+    }
+    return new CompactionReport(before, after, BYTES_PER_KEYFRAME * (before - after));
+  }
+
+  @Override
+  public MemoryReport getMemoryReport() {
+    Map<String, Long> shapeBytes = new LinkedHashMap<>();
+    Set<IShape> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    int keyframes = 0;
+    long keyframeBytes = 0;
+    for (Map.Entry<String, NavigableMap<Integer, IShape>> shape : this.shapes.entrySet()) {
+      // a shape put at several ticks is only counted once
+      long bytes = BYTES_PER_ENTRY * shape.getValue().size();
+      for (IShape state : shape.getValue().values()) {
+        if (seen.add(state)) {
+          bytes += BYTES_PER_SHAPE;
+        }
+      }
+      keyframes += shape.getValue().size();
+      keyframeBytes += bytes;
+      shapeBytes.put(shape.getKey(), MemoryReport.SHAPE_ENTRY_BYTES
+          + MemoryReport.stringBytes(shape.getKey()) + BYTES_PER_TREE_MAP + bytes);
+    }
+    return new MemoryReport(shapeBytes, keyframes, keyframeBytes, this.indexBytes());
   }
 
   @Override
@@ -512,6 +798,22 @@ public class AnimationModel implements IAnimationModel {
         this.canvas.get(2), this.canvas.get(3)));
   }
 
+  @Override
+  public int getVersion() {
+    return modCount;
+  }
+
+  @Override
+  public void addListener(IModelListener listener) throws IllegalArgumentException {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(IModelListener listener) {
+    listeners.remove(listener);
+  }
+
+
   /**
    * Copies the map that contains the frame number and shape description at those instances by
    * copying the shape descriptions to prevent unwanted mutation.
@@ -520,7 +822,7 @@ public class AnimationModel implements IAnimationModel {
    * @return copy of the map containing the frames for a shape
    * @throws IllegalArgumentException when the given map is null
    */
-  protected Map<Integer, IShape> copyFrames(Map<Integer, IShape> frames)
+  protected NavigableMap<Integer, IShape> copyFrames(Map<Integer, IShape> frames)
       throws IllegalArgumentException {
 
     // If given frames is null, throw exception
@@ -528,7 +830,7 @@ public class AnimationModel implements IAnimationModel {
       throw new IllegalArgumentException("Invalid map of frames.");
     }
 
-    Map<Integer, IShape> copyMap = new TreeMap<Integer, IShape>();
+    NavigableMap<Integer, IShape> copyMap = new TreeMap<Integer, IShape>();
     Set<Integer> copyFrameNum = frames.keySet();
 
     // For each frame number, add a new entry to copyMap (entry = frame number and copy of shape)
@@ -537,9 +839,7 @@ public class AnimationModel implements IAnimationModel {
         throw new IllegalArgumentException("Invalid shape.");
       } else {
         IShape currentShape = frames.get(frameNum);
-        IShape newShape = currentShape.copyShape(currentShape.getColor(),
-            currentShape.getPosition(), currentShape.getSize().get(0),
-            currentShape.getSize().get(1));
+        IShape newShape = currentShape.copyShape(currentShape.state());
 
         copyMap.put(frameNum, newShape);
       }
@@ -552,26 +852,29 @@ public class AnimationModel implements IAnimationModel {
   // to this model even if those contents don't appear in the correct order.
   @Override
   public boolean equals(Object o) {
-    if (o instanceof AnimationModel) {
-      boolean isSame = true;
-      IAnimationModel model2 = (AnimationModel) o; // make the given object an Animation Model
-      Set<String> keys = this.shapes.keySet(); // collection of keys in this model's map
-
-      // For each key, check if object has the same key with the same value
-      for (String s : keys) {
-        if (!model2.getShapes().isEmpty()) {
-          isSame = isSame && this.framesEquals(this.shapes.get(s), model2.getShapes().get(s));
-        } else {
-          isSame = isSame && (model2.getShapes().isEmpty() && this.shapes.isEmpty());
-        }
-      }
-
-      return isSame;
-    } else {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof AnimationModel)) {
+      return false;
+    }
+    AnimationModel that = (AnimationModel) o;
+    // Models with different fingerprints have different contents, so most models that are not
+    // equal are told apart without looking at their keyframes
+    if (this.fingerprint != that.fingerprint || this.shapes.size() != that.shapes.size()) {
       return false;
     }
-  }
 
+    // Otherwise, comparing the keyframes of each shape in place
+    for (Map.Entry<String, NavigableMap<Integer, IShape>> entry : this.shapes.entrySet()) {
+      NavigableMap<Integer, IShape> frames = that.shapes.get(entry.getKey());
+      if (frames == null || frames.size() != entry.getValue().size()
+          || !this.framesEquals(entry.getValue(), frames)) {
+        return false;
+      }
+    }
+    return true;
+  }
 
   /**
    * Determining if the given maps are equal to each other by comparing their keys and values.
@@ -596,34 +899,145 @@ public class AnimationModel implements IAnimationModel {
     return sameFrame;
   }
 
-  //Overriding the hashCode method
+  // Overriding hashCode() so that models with the same contents return the same integer, folded
+  // from the fingerprint that is kept up to date as the model changes
   @Override
   public int hashCode() {
-    return Objects.hash(shapes.entrySet());
+    return Long.hashCode(fingerprint);
+  }
+
+  /**
+   * Gets a 64-bit fingerprint of the shapes and keyframes of this animation, which is kept up to
+   * date as the animation changes, so getting it takes constant time. Animations that are equal
+   * have the same fingerprint, and animations with different fingerprints are never equal, so
+   * comparing fingerprints tells most different animations apart without comparing keyframes.
+   *
+   * @return the fingerprint of this animation.
+   */
+  public long getFingerprint() {
+    return fingerprint;
   }
 
 
   /**
-   * Builds an AnimationModel after reading a file the details an animation.
+   * Builds an AnimationModel after reading a file the details an animation. Motions are collected
+   * per shape as they are read, in amortized constant time each, and only turned into keyframes
+   * when the model is built. Motions of one shape may be added in any order and may leave gaps,
+   * as the shipped example animations do, across which the shape is interpolated from the end of
+   * one motion to the start of the next, but they may not overlap. Where one motion ends at the
+   * tick the next one starts, the start of the next motion is kept.
    */
   public static final class Builder implements AnimationBuilder<IAnimationModel> {
 
-    private final AnimationModel model;
     private List<Integer> canvas;
-    private final Map<String, IShape> types;
+    private final Map<String, MotionList> motions;
+    private final StorageType storage;
+    private boolean compact; // whether keyframes reproduced by their neighbours are left out
 
     /**
-     * Constructor setting defaults.
+     * Constructor setting defaults. The built animation stores its keyframes in maps.
      */
     public Builder() {
-      this.model = new AnimationModel();
+      this(StorageType.TREE_MAP);
+    }
+
+    /**
+     * Constructs a builder for an animation that stores its keyframes in the given way.
+     *
+     * @param storage how the built animation stores its keyframes.
+     * @throws IllegalArgumentException if the storage type is null.
+     */
+    public Builder(StorageType storage) {
+      if (storage == null) {
+        throw new IllegalArgumentException("Invalid storage type.");
+      }
       this.canvas = new ArrayList<>(Arrays.asList(0, 0, 360, 360));
-      this.types = new TreeMap<>();
+      this.motions = new LinkedHashMap<>();
+      this.storage = storage;
     }
 
+    /**
+     * Builds the animation from the shapes and motions added so far. A
+     * {@link MappedAnimationModel} built here keeps its keyframes in a temporary file until it is
+     * closed, or until the virtual machine exits if it never is. Callers that build many mapped
+     * animations should close each one through {@link java.io.Closeable} once done with it.
+     *
+     * @return the animation.
+     * @throws IllegalArgumentException if two motions of the same shape overlap.
+     */
     @Override
-    public IAnimationModel build() {
-      return new AnimationModel(model.getShapes(), canvas);
+    public IAnimationModel build() throws IllegalArgumentException {
+      if (storage == StorageType.COLUMNAR) {
+        ColumnarAnimationModel result =
+            new ColumnarAnimationModel(new LinkedHashMap<String, Map<Integer, IShape>>(), canvas);
+        // shapes with the same motion, up to a moved position, share one stored track
+        TrackInterner interner = new TrackInterner();
+        for (Map.Entry<String, MotionList> entry : motions.entrySet()) {
+          MotionList list = entry.getValue();
+          int[] keyframes = this.keyframes(entry.getKey(), list);
+          result.putTrack(entry.getKey(), interner.intern(list.type, keyframes));
+        }
+        return result;
+      }
+      if (storage == StorageType.MAPPED) {
+        MappedAnimationModel result =
+            new MappedAnimationModel(new LinkedHashMap<String, Map<Integer, IShape>>(), canvas);
+        for (Map.Entry<String, MotionList> entry : motions.entrySet()) {
+          MotionList list = entry.getValue();
+          result.putTrack(entry.getKey(), list.type, this.keyframes(entry.getKey(), list));
+        }
+        return result;
+      }
+
+      if (storage == StorageType.PERSISTENT) {
+        Map<String, Map<Integer, IShape>> shapes = new LinkedHashMap<>();
+        for (Map.Entry<String, MotionList> entry : motions.entrySet()) {
+          MotionList list = entry.getValue();
+          shapes.put(entry.getKey(), frames(list.type, this.keyframes(entry.getKey(), list)));
+        }
+        return new PersistentAnimationModel(shapes, canvas);
+      }
+
+      AnimationModel result =
+          new AnimationModel(new LinkedHashMap<String, Map<Integer, IShape>>(), canvas);
+      for (Map.Entry<String, MotionList> entry : motions.entrySet()) {
+        MotionList list = entry.getValue();
+        NavigableMap<Integer, IShape> frames =
+            frames(list.type, this.keyframes(entry.getKey(), list));
+        result.shapes.put(entry.getKey(), frames);
+        result.ids.put(entry.getKey(), frames);
+        result.fingerprint += Fingerprint.shape(entry.getKey(), frames);
+      }
+      return result;
+    }
+
+    // Makes a shape of the given type for each of the given keyframes, six ints per keyframe.
+    private static NavigableMap<Integer, IShape> frames(IShape type, int[] keyframes) {
+      NavigableMap<Integer, IShape> frames = new TreeMap<>();
+      for (int i = 0; i < keyframes.length; i += KeyframeTrack.INTS_PER_KEYFRAME) {
+        frames.put(keyframes[i], type.copyShape(new ShapeState(keyframes[i + 1],
+            keyframes[i + 2], keyframes[i + 3], keyframes[i + 4], keyframes[i + 5])));
+      }
+      return frames;
+    }
+
+    /**
+     * Sets whether the built animation leaves out every keyframe that interpolating between the
+     * keyframes around it reproduces exactly, as {@link IAnimationModel#compact} does. The
+     * animation looks the same either way.
+     *
+     * @param compact whether to compact the keyframes of the built animation.
+     * @return this builder.
+     */
+    public Builder setCompact(boolean compact) {
+      this.compact = compact;
+      return this;
+    }
+
+    // Gets the keyframes of the given shape, compacting them if this builder is asked to.
+    private int[] keyframes(String name, MotionList list) {
+      int[] keyframes = list.keyframes(name);
+      return compact ? KeyframeCompactor.compact(keyframes) : keyframes;
     }
 
     @Override
@@ -634,15 +1048,16 @@ public class AnimationModel implements IAnimationModel {
 
     @Override
     public AnimationBuilder<IAnimationModel> declareShape(String name, String type) {
+      if (motions.containsKey(name)) {
+        throw new IllegalArgumentException("This shape name is already included");
+      }
       if (type.equals("rectangle")) {
-        model.add(name);
-        types.put(name,
-            new Rect(Arrays.asList(1, 1, 1), new Position(1, 1), 1, 1));
+        motions.put(name, new MotionList(
+            new Rect(Arrays.asList(1, 1, 1), new Position(1, 1), 1, 1)));
       }
       else if (type.equals("ellipse")) {
-        model.add(name);
-        types.put(name,
-            new Circle(Arrays.asList(1, 1, 1), new Position(1, 1), 1, 1));
+        motions.put(name, new MotionList(
+            new Circle(Arrays.asList(1, 1, 1), new Position(1, 1), 1, 1)));
       }
       else {
         throw new IllegalArgumentException(name + " is not supported by this builder.");
@@ -655,40 +1070,123 @@ public class AnimationModel implements IAnimationModel {
                                                        int h1, int r1, int g1, int b1, int t2,
                                                        int x2, int y2, int w2, int h2, int r2,
                                                        int g2, int b2) {
-      if (!model.getShapes().containsKey(name)) {
+      MotionList list = motions.get(name);
+      if (list == null) {
         throw new IllegalArgumentException("This shape does not exist");
       }
-      Map<Integer, IShape> shapeMap = model.getShapes().get(name);
-      //case where this is the first movement to be added to the shape
-      if (shapeMap.isEmpty()) {
-        model.remove(0, name);
-        model.add(t1, name, types.get(name).copyShape(Arrays.asList(r1, g1, b1),
-            new Position(x1, y1), w1, h1));
-        model.move(t2, name, x2, y2);
-        model.changeSize(t2, name, w2, h2);
-        model.changeColor(t2, name, r2, g2, b2);
+      if (t1 < 0 || t2 < 0) {
+        throw new IllegalArgumentException("Invalid frame.");
       }
-      else {
-        // This section checks if there is a record of this shape from before this motion starts.
-        // If not, one is added so addEntry will work.
-        boolean firstMotion = true;
-        for (int i = t1; i >= 0; i--) {
-          if (shapeMap.containsKey(i)) {
-            firstMotion = false;
-          }
+      if (t2 < t1) {
+        throw new IllegalArgumentException("A motion must not end before it starts.");
+      }
+      if (w1 <= 0 || h1 <= 0 || w2 <= 0 || h2 <= 0) {
+        throw new IllegalArgumentException("Invalid dimensions.");
+      }
+      list.add(t1, x1, y1, w1, h1, ShapeState.pack(r1, g1, b1),
+          t2, x2, y2, w2, h2, ShapeState.pack(r2, g2, b2));
+      return this;
+    }
+
+    /**
+     * The motions of one shape in the order they were added, stored as rows of ints: the tick,
+     * position, size and packed color of the start of the motion, then the same for its end.
+     */
+    private static final class MotionList {
+
+      private static final int STRIDE = KeyframeTrack.INTS_PER_KEYFRAME;
+      private static final int INTS_PER_MOTION = 2 * STRIDE;
+
+      private final IShape type;
+      private int[] rows;
+      private int size;
+      private boolean sorted; // whether the motions were added in the order of their start ticks
+
+      MotionList(IShape type) {
+        this.type = type;
+        this.rows = new int[INTS_PER_MOTION * 4];
+        this.size = 0;
+        this.sorted = true;
+      }
+
+      void add(int t1, int x1, int y1, int w1, int h1, int c1,
+               int t2, int x2, int y2, int w2, int h2, int c2) {
+        if (size > 0 && t1 < rows[(size - 1) * INTS_PER_MOTION]) {
+          sorted = false;
         }
-        if (firstMotion) {
-          model.addArbitraryEntry(t1, name);
+        if ((size + 1) * INTS_PER_MOTION > rows.length) {
+          rows = Arrays.copyOf(rows, rows.length + (rows.length >> 1));
         }
+        int i = size * INTS_PER_MOTION;
+        rows[i] = t1;
+        rows[i + 1] = x1;
+        rows[i + 2] = y1;
+        rows[i + 3] = w1;
+        rows[i + 4] = h1;
+        rows[i + 5] = c1;
+        int j = i + STRIDE; // the end of the motion
+        rows[j] = t2;
+        rows[j + 1] = x2;
+        rows[j + 2] = y2;
+        rows[j + 3] = w2;
+        rows[j + 4] = h2;
+        rows[j + 5] = c2;
+        size++;
+      }
 
-        model.move(t1, name, x1, y1);
-        model.move(t2, name, x2, y2);
-        model.changeSize(t1, name, w1, h1);
-        model.changeSize(t2, name, w2, h2);
-        model.changeColor(t1, name, r1, g1, b1);
-        model.changeColor(t2, name, r2, g2, b2);
+      /**
+       * Turns the motions into keyframes in the order of their ticks, as rows of six ints: the
+       * tick, position, size and packed color.
+       *
+       * @param name the name of the shape, for the error message
+       * @return the keyframes of the shape.
+       * @throws IllegalArgumentException if two of the motions overlap.
+       */
+      int[] keyframes(String name) throws IllegalArgumentException {
+        int[] order = this.order();
+        int[] keyframes = new int[size * INTS_PER_MOTION];
+        int count = 0; // the number of ints of keyframes written so far
+        int end = -1; // the tick at which the previous motion ended
+
+        for (int motion : order) {
+          int start = motion * INTS_PER_MOTION;
+          if (rows[start] < end) {
+            throw new IllegalArgumentException("Motions of " + name + " overlap at tick "
+                + rows[start]);
+          }
+          for (int half = start; half < start + INTS_PER_MOTION; half += STRIDE) {
+            // a keyframe at the same tick as the previous one replaces it
+            if (count > 0 && keyframes[count - STRIDE] == rows[half]) {
+              count -= STRIDE;
+            }
+            System.arraycopy(rows, half, keyframes, count, STRIDE);
+            count += STRIDE;
+          }
+          end = rows[start + STRIDE];
+        }
+        return Arrays.copyOf(keyframes, count);
+      }
+
+      // Gets the indices of the motions in the order of their start ticks, keeping motions that
+      // start at the same tick in the order they were added.
+      private int[] order() {
+        int[] order = new int[size];
+        if (sorted) {
+          for (int i = 0; i < size; i++) {
+            order[i] = i;
+          }
+          return order;
+        }
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+          keys[i] = ((long) rows[i * INTS_PER_MOTION] << 32) | i;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < size; i++) {
+          order[i] = (int) keys[i];
+        }
+        return order;
       }
-      return this;
     }
   }
 }
@@ -0,0 +1,452 @@
+package cs3500.animator.model;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * An implementation of IViewModel that delegates operations to an IAnimationModel and remembers
+ * the states it has computed for recently used frames, so that a view looping over an animation
+ * or several views reading the same frames do not compute them again. The cache holds a bounded
+ * number of frames and drops the least recently used frame when it is full. It listens to the
+ * changes of the animation and forgets only the states of the changed shapes at the ticks each
+ * change affects, so editing one shape does not make every other shape be computed again. If the
+ * animation changes without telling the cache, every frame is dropped. Each frame keeps its
+ * states in an array indexed by shape ID, so reading a shape by its ID does not look up its name.
+ * Shapes are copied on the way out, so changing a returned shape does not change the cache.
+ */
+public class CachingViewModel implements IViewModel {
+
+  // rough sizes used to estimate how much memory the cache takes up
+  private static final long BYTES_PER_FRAME = 128; // the frame, its arrays and its cache entry
+  private static final long BYTES_PER_STATE = 64; // an array slot, a shape and its state
+
+  private final IAnimationModel model;
+  private final int maxFrames;
+  private final long maxBytes;
+  private final LinkedHashMap<Integer, Frame> frames; // the cached frames, least recent first
+  private final IModelListener listener; // forgets the states that changes of the model affect
+  private final Map<String, Integer> ids; // the IDs of the shape names this cache has seen
+  private final List<String> names; // the names of the shape IDs this cache has seen
+  private int version; // the version of the model the cached frames were computed from
+  private long bytes;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Constructs a caching view of the given model that remembers at most the given number of
+   * frames.
+   *
+   * @param model     the animation model to be delegated to
+   * @param maxFrames the largest number of frames to remember. Must be positive.
+   * @throws IllegalArgumentException if the model is null or the bound is not positive.
+   */
+  public CachingViewModel(IAnimationModel model, int maxFrames) throws IllegalArgumentException {
+    this(model, maxFrames, Long.MAX_VALUE);
+  }
+
+  /**
+   * Constructs a caching view of the given model that remembers at most the given number of
+   * frames, and drops frames once their estimated size goes over the given number of bytes.
+   *
+   * @param model     the animation model to be delegated to
+   * @param maxFrames the largest number of frames to remember. Must be positive.
+   * @param maxBytes  the largest estimated number of bytes the remembered frames may take up. Must
+   *                  be positive.
+   * @throws IllegalArgumentException if the model is null or either bound is not positive.
+   */
+  public CachingViewModel(IAnimationModel model, int maxFrames, long maxBytes)
+      throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model must not be null");
+    }
+    if (maxFrames <= 0 || maxBytes <= 0) {
+      throw new IllegalArgumentException("Cache size must be positive");
+    }
+    this.model = model;
+    this.maxFrames = maxFrames;
+    this.maxBytes = maxBytes;
+    this.frames = new LinkedHashMap<>(16, 0.75f, true);
+    this.version = model.getVersion();
+    this.ids = new HashMap<>();
+    this.names = new ArrayList<>();
+    this.listener = this::forget;
+    model.addListener(listener);
+  }
+
+  @Override
+  public String toString() {
+    return model.toString();
+  }
+
+  @Override
+  public IShape getState(int frame, String shape) throws IllegalArgumentException {
+    if (frame < 0) {
+      throw new IllegalArgumentException("Frame must not be negative");
+    }
+    return this.getState(frame, this.idOf(shape));
+  }
+
+  @Override
+  public IShape getState(int frame, int id) throws IllegalArgumentException {
+    Frame cached = this.frame(frame);
+    IShape state;
+    if (cached.has(id)) {
+      hits++;
+      state = cached.get(id);
+    } else {
+      misses++;
+      state = model.getState(frame, id);
+      cached.put(id, state);
+      this.grow(BYTES_PER_STATE);
+    }
+    return copy(state);
+  }
+
+  @Override
+  public IShape getState(double time, String shape) throws IllegalArgumentException {
+    // states between ticks are not cached, since playback rarely asks for the same time twice
+    return ViewModel.stateAt(this, time, shape);
+  }
+
+  @Override
+  public int getShapeId(String name) throws IllegalArgumentException {
+    return model.getShapeId(name);
+  }
+
+  @Override
+  public String getShapeName(int id) throws IllegalArgumentException {
+    return model.getShapeName(id);
+  }
+
+  @Override
+  public Map<String, IShape> getFullState(int frame) throws IllegalArgumentException {
+    Frame cached = this.frame(frame);
+    if (cached.full && cached.missing.isEmpty()) {
+      hits++;
+    } else if (cached.full) {
+      // computing only the states that changes of the model made the cache forget
+      misses++;
+      long added = BYTES_PER_STATE * cached.missing.cardinality();
+      for (int id = cached.missing.nextSetBit(0); id >= 0; id = cached.missing.nextSetBit(id + 1)) {
+        cached.put(id, model.getState(frame, id));
+      }
+      this.grow(added);
+    } else {
+      misses++;
+      long added = 0;
+      for (Map.Entry<String, IShape> entry : model.getFullState(frame).entrySet()) {
+        int id = this.idOf(entry.getKey());
+        if (!cached.has(id)) {
+          added += BYTES_PER_STATE;
+        }
+        cached.put(id, entry.getValue());
+      }
+      cached.full = true;
+      this.grow(added);
+    }
+
+    Map<String, IShape> result = new TreeMap<>();
+    for (int id = cached.computed.nextSetBit(0); id >= 0; id = cached.computed.nextSetBit(id + 1)) {
+      result.put(this.nameOf(id), copy(cached.get(id)));
+    }
+    return result;
+  }
+
+  @Override
+  public IShapeCursor cursor(String shape) throws IllegalArgumentException {
+    return model.cursor(shape);
+  }
+
+  @Override
+  public IShapeCursor cursor(int id) throws IllegalArgumentException {
+    return model.cursor(id);
+  }
+
+  @Override
+  public List<String> getVisibleShapes(int frame) throws IllegalArgumentException {
+    return model.getVisibleShapes(frame);
+  }
+
+  @Override
+  public int[] getVisibleShapeIds(int frame) throws IllegalArgumentException {
+    return model.getVisibleShapeIds(frame);
+  }
+
+  @Override
+  public int nextChange(int frame) throws IllegalArgumentException {
+    return model.nextChange(frame);
+  }
+
+  @Override
+  public int[] getChangedShapeIds(int from, int to) throws IllegalArgumentException {
+    return model.getChangedShapeIds(from, to);
+  }
+
+  // samples are read through cursors of the model rather than through the cache, since a range
+  // of ticks is usually sampled once
+  @Override
+  public void sample(String shape, int start, int end, int step, IntBuffer out)
+      throws IllegalArgumentException {
+    ShapeSampler.sample(this, new int[]{this.getShapeId(shape)}, start, end, step, out);
+  }
+
+  @Override
+  public void sample(String shape, int start, int end, int step, int[] out, int offset)
+      throws IllegalArgumentException {
+    ShapeSampler.sample(this, shape, start, end, step, out, offset);
+  }
+
+  @Override
+  public void sample(int[] ids, int start, int end, int step, IntBuffer out)
+      throws IllegalArgumentException {
+    ShapeSampler.sample(this, ids, start, end, step, out);
+  }
+
+  @Override
+  public Map<String, Map<Integer, IShape>> getShapes() {
+    return model.getShapes();
+  }
+
+  @Override
+  public List<Integer> getCanvas() {
+    return model.getCanvas();
+  }
+
+  @Override
+  public int getVersion() {
+    return model.getVersion();
+  }
+
+  /**
+   * Gets the number of times a state was found in the cache.
+   *
+   * @return the number of hits.
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Gets the number of times a state had to be computed by the model.
+   *
+   * @return the number of misses.
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Gets the number of frames dropped from the cache to stay within its bounds. Frames dropped
+   * because the animation changed are not counted.
+   *
+   * @return the number of evictions.
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Gets the number of frames currently in the cache.
+   *
+   * @return the number of cached frames.
+   */
+  public int getCachedFrames() {
+    return frames.size();
+  }
+
+  /**
+   * Gets an estimate of the memory taken up by the cached frames.
+   *
+   * @return the estimated size of the cache in bytes.
+   */
+  public long getEstimatedBytes() {
+    return bytes;
+  }
+
+  /**
+   * Drops every cached frame.
+   */
+  public void clear() {
+    frames.clear();
+    bytes = 0;
+  }
+
+  /**
+   * Stops listening to the changes of the model, so that the model no longer keeps this cache
+   * reachable. Afterwards, the cache drops every frame whenever the animation changes.
+   */
+  public void detach() {
+    model.removeListener(listener);
+  }
+
+  // Forgets the cached states that the given changes of the model may have made out of date. Every
+  // cached full frame lists every shape, so a shape added or removed changes all of them. If the
+  // changes do not follow the version the cache was computed from, some change was not told, and
+  // every frame is dropped instead.
+  private void forget(List<ModelChange> changes) {
+    int changed = changes.get(0).getVersion();
+    if (changed != version + 1) {
+      this.clear();
+      version = changed;
+      return;
+    }
+    version = changed;
+    for (ModelChange change : changes) {
+      int id;
+      try {
+        id = this.idOf(change.getShape());
+      } catch (IllegalArgumentException e) {
+        // the shape is gone and the cache never learned its ID, so its states cannot be found
+        this.clear();
+        return;
+      }
+      boolean everyTick = change.getKind() != ModelChange.Kind.KEYFRAMES_CHANGED;
+      boolean removed = change.getKind() == ModelChange.Kind.SHAPE_REMOVED;
+      for (Map.Entry<Integer, Frame> entry : frames.entrySet()) {
+        Frame cached = entry.getValue();
+        if (!everyTick && !change.includes(entry.getKey())) {
+          continue;
+        }
+        if (cached.remove(id)) {
+          bytes -= BYTES_PER_STATE;
+        }
+        if (removed) {
+          cached.missing.clear(id);
+        } else if (cached.full) {
+          cached.missing.set(id);
+        }
+      }
+    }
+  }
+
+  // Gets the cached frame for the given tick, adding an empty one if there is none. Drops every
+  // cached frame first if the model has changed since they were computed.
+  private Frame frame(int tick) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Frame must not be negative");
+    }
+    if (model.getVersion() != version) {
+      this.clear();
+      version = model.getVersion();
+    }
+    Frame cached = frames.get(tick);
+    if (cached == null) {
+      cached = new Frame();
+      frames.put(tick, cached);
+      this.grow(BYTES_PER_FRAME);
+    }
+    return cached;
+  }
+
+  // Records that the cache grew by the given number of bytes and drops the least recently used
+  // frames until it is within its bounds again. The most recent frame is always kept.
+  private void grow(long added) {
+    bytes += added;
+    Iterator<Map.Entry<Integer, Frame>> oldest = frames.entrySet().iterator();
+    while (frames.size() > 1 && (frames.size() > maxFrames || bytes > maxBytes)) {
+      Frame dropped = oldest.next().getValue();
+      oldest.remove();
+      bytes -= BYTES_PER_FRAME + BYTES_PER_STATE * dropped.computed.cardinality();
+      evictions++;
+    }
+  }
+
+  // Gets the ID of the shape with the given name, remembering it, so that the states of a shape
+  // can still be forgotten after the model removes it and no longer knows its name.
+  private int idOf(String name) throws IllegalArgumentException {
+    Integer id = ids.get(name);
+    if (id == null) {
+      id = model.getShapeId(name);
+      this.remember(name, id);
+    }
+    return id;
+  }
+
+  // Gets the name of the shape with the given ID, remembering it.
+  private String nameOf(int id) throws IllegalArgumentException {
+    String name = id < names.size() ? names.get(id) : null;
+    if (name == null) {
+      name = model.getShapeName(id);
+      this.remember(name, id);
+    }
+    return name;
+  }
+
+  // Records the ID of a shape name. A name keeps its ID for as long as the model exists.
+  private void remember(String name, int id) {
+    ids.put(name, id);
+    while (names.size() <= id) {
+      names.add(null);
+    }
+    names.set(id, name);
+  }
+
+  // Copies the given shape, so that callers cannot change the cached one.
+  private static IShape copy(IShape shape) {
+    return shape == null ? null : shape.copyShape(shape.state());
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CachingViewModel)) {
+      return false;
+    }
+    CachingViewModel that = (CachingViewModel) o;
+    return model.equals(that.model);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(model);
+  }
+
+  /**
+   * The states of the shapes at one frame that have been computed so far.
+   */
+  private static final class Frame {
+    private IShape[] states = new IShape[8]; // the state of each shape by ID, where computed
+    private final BitSet computed = new BitSet(); // the IDs of the shapes with a state
+    private final BitSet missing = new BitSet(); // the IDs of the shapes a full frame must compute
+    private boolean full; // whether every shape in the model has a state or is missing one
+
+    boolean has(int id) {
+      return id >= 0 && computed.get(id);
+    }
+
+    IShape get(int id) {
+      return states[id];
+    }
+
+    void put(int id, IShape state) {
+      if (id >= states.length) {
+        states = Arrays.copyOf(states, Math.max(id + 1, states.length * 2));
+      }
+      states[id] = state;
+      computed.set(id);
+      missing.clear(id);
+    }
+
+    // Forgets the state of the given shape, returning whether there was one.
+    boolean remove(int id) {
+      if (!this.has(id)) {
+        return false;
+      }
+      states[id] = null;
+      computed.clear(id);
+      return true;
+    }
+  }
+}
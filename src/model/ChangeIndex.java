@@ -0,0 +1,189 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Indexes the ticks at which the shapes of an animation change, so that the next change after a
+ * tick and the shapes that change between two ticks are found without reading every state.
+ * A shape may change at its first keyframe, where it appears, and at every tick after a keyframe
+ * up to the next keyframe if the two keyframes hold different states. Between keyframes with the
+ * same state, and after its last keyframe, a shape never changes.
+ * The ranges of ticks are exact at keyframes and may include a tick inside a motion at which
+ * rounding leaves a shape where it was, so no change is ever missed.
+ * An index describes the model as it was when it was created and has to be replaced once the
+ * model changes. Its fields are final, so it can be shared between threads once created.
+ */
+final class ChangeIndex implements LazyIndex.Index {
+
+  private static final int STRIDE = KeyframeTrack.INTS_PER_KEYFRAME;
+
+  private final int version; // the version of the model this index describes
+  private final int[] ids; // the IDs of the shapes in the order they were added
+  private final int[][] ranges; // the first and last tick of each range at which a shape changes
+  private final int[] merged; // the ranges of every shape, merged where they overlap or touch
+
+  /**
+   * Constructs an index of the given shapes.
+   *
+   * @param version   the version of the model the shapes were taken from
+   * @param ids       the ID of each shape, in the order the shapes were added
+   * @param keyframes the keyframes of each shape, six ints per keyframe (tick, x, y, width, height,
+   *                  color) sorted by tick
+   */
+  private ChangeIndex(int version, int[] ids, int[][] keyframes) {
+    this.version = version;
+    this.ids = ids.clone();
+    this.ranges = new int[ids.length][];
+    int total = 0;
+    for (int i = 0; i < ids.length; i++) {
+      ranges[i] = changes(keyframes[i]);
+      total += ranges[i].length;
+    }
+
+    // sorting every range by its first tick, then joining the ranges that overlap or touch
+    long[] all = new long[total / 2];
+    int next = 0;
+    for (int[] shape : ranges) {
+      for (int r = 0; r < shape.length; r += 2) {
+        all[next++] = ((long) shape[r] << 32) | (shape[r + 1] & 0xFFFFFFFFL);
+      }
+    }
+    Arrays.sort(all);
+    int[] joined = new int[total];
+    int count = 0;
+    for (long range : all) {
+      int first = (int) (range >>> 32);
+      int last = (int) range;
+      if (count > 0 && (long) first <= (long) joined[count - 1] + 1) {
+        joined[count - 1] = Math.max(joined[count - 1], last);
+      } else {
+        joined[count++] = first;
+        joined[count++] = last;
+      }
+    }
+    this.merged = Arrays.copyOf(joined, count);
+  }
+
+  /**
+   * Indexes the shapes of the given model as it is now.
+   *
+   * @param model the model to index
+   * @return an index of the changes of the shapes of the model.
+   */
+  static ChangeIndex of(AAnimationModel model) {
+    List<String> names = model.shapeNames();
+    int[] ids = new int[names.size()];
+    int[][] keyframes = new int[names.size()][];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = model.getShapeId(names.get(i));
+      keyframes[i] = model.keyframes(ids[i]);
+    }
+    return new ChangeIndex(model.getVersion(), ids, keyframes);
+  }
+
+  // Finds the ranges of ticks at which a shape with the given keyframes may change.
+  private static int[] changes(int[] keyframes) {
+    int count = keyframes.length / STRIDE;
+    if (count == 0) {
+      return new int[0];
+    }
+    int[] found = new int[count * 2];
+    found[0] = keyframes[0]; // the shape appears at its first keyframe
+    found[1] = keyframes[0];
+    int size = 2;
+    for (int i = 0; i + 1 < count; i++) {
+      if (!sameState(keyframes, i, i + 1)) {
+        int first = keyframes[i * STRIDE] + 1;
+        int last = keyframes[(i + 1) * STRIDE];
+        if (first <= found[size - 1] + 1) {
+          found[size - 1] = last;
+        } else {
+          found[size++] = first;
+          found[size++] = last;
+        }
+      }
+    }
+    return Arrays.copyOf(found, size);
+  }
+
+  private static boolean sameState(int[] keyframes, int first, int second) {
+    for (int i = 1; i < STRIDE; i++) {
+      if (keyframes[first * STRIDE + i] != keyframes[second * STRIDE + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return version;
+  }
+
+  @Override
+  public long retainedBytes() {
+    long bytes = 32 + MemoryReport.arrayBytes(ids.length, 4)
+        + MemoryReport.arrayBytes(ranges.length, 4) + MemoryReport.arrayBytes(merged.length, 4);
+    for (int[] shape : ranges) {
+      bytes += MemoryReport.arrayBytes(shape.length, 4);
+    }
+    return bytes;
+  }
+
+  /**
+   * Finds the first tick after the given one at which any shape may change.
+   *
+   * @param frame the tick to start after
+   * @return the next tick at which a shape may change, or {@link Integer#MAX_VALUE} if no shape
+   *         changes after the given tick.
+   */
+  int nextChange(int frame) {
+    int range = firstEndingAfter(merged, frame);
+    if (range == merged.length) {
+      return Integer.MAX_VALUE;
+    }
+    return Math.max(merged[range], frame + 1);
+  }
+
+  /**
+   * Finds the shapes whose states differ between two ticks. Only the shapes that change at some
+   * tick between them are compared.
+   *
+   * @param model the model this index describes, to compare the states of the shapes
+   * @param from  one of the ticks to compare
+   * @param to    the other tick to compare
+   * @return the IDs of the shapes whose states differ, in the order the shapes were added.
+   */
+  int[] changedIds(IAnimationModel model, int from, int to) {
+    int first = Math.min(from, to);
+    int last = Math.max(from, to);
+    int[] changed = new int[ids.length];
+    int count = 0;
+    for (int i = 0; i < ids.length; i++) {
+      int range = firstEndingAfter(ranges[i], first);
+      if (range < ranges[i].length && ranges[i][range] <= last
+          && !Objects.equals(model.getState(first, ids[i]), model.getState(last, ids[i]))) {
+        changed[count++] = ids[i];
+      }
+    }
+    return Arrays.copyOf(changed, count);
+  }
+
+  // Finds the position of the first of the given sorted ranges whose last tick is after the given
+  // tick, or the length of the array if there is none.
+  private static int firstEndingAfter(int[] ranges, int tick) {
+    int low = 0;
+    int high = ranges.length / 2;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (ranges[middle * 2 + 1] > tick) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return low * 2;
+  }
+}
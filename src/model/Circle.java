@@ -1,7 +1,5 @@
 package cs3500.animator.model;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -32,6 +30,15 @@ public class Circle extends AShape implements IShape {
     super(rgb, pos, radius, radius);
   }
 
+  /**
+   * Constructs a circle with the given state.
+   *
+   * @param state the position, size and color of the circle
+   */
+  public Circle(ShapeState state) {
+    super(state);
+  }
+
   // Returning a circle with the given parameters.
   @Override
   public IShape copyShape(List<Integer> rgb, Position pos, int width, int height)
@@ -45,11 +52,14 @@ public class Circle extends AShape implements IShape {
     if (width <= 0 || height <= 0) {
       throw new IllegalArgumentException("Invalid dimensions.");
     }
-    List<Integer> copyRGB = new ArrayList<Integer>(Arrays.asList(rgb.get(0), rgb.get(1),
-        rgb.get(2)));
-    Position copyPos = new Position(pos.getX(), pos.getY());
+    return new Circle(new ShapeState(pos.getX(), pos.getY(), width, height,
+        ShapeState.pack(rgb.get(0), rgb.get(1), rgb.get(2))));
+  }
 
-    return new Circle(copyRGB, copyPos, width, height);
+  // Returning a circle that shares the given state.
+  @Override
+  public IShape copyShape(ShapeState state) throws IllegalArgumentException {
+    return new Circle(state);
   }
 
   // Overriding equals() so that two circles with the same color, size, and position are considered
@@ -57,15 +67,7 @@ public class Circle extends AShape implements IShape {
   @Override
   public boolean equals(Object o) {
     if (o instanceof Circle) {
-      IShape circle2 = (Circle) o;
-
-      boolean samePos = pos.equals(circle2.getPosition());
-      boolean sameSize = width == circle2.getSize().get(0) && height == circle2.getSize().get(1);
-      boolean sameR = rgb.get(0).equals(circle2.getColor().get(0));
-      boolean sameG = rgb.get(1).equals(circle2.getColor().get(1));
-      boolean sameB = rgb.get(2).equals(circle2.getColor().get(2));
-
-      return samePos && sameSize && sameR && sameG && sameB;
+      return state.equals(((Circle) o).state());
     }
     else {
       return false;
@@ -76,7 +78,8 @@ public class Circle extends AShape implements IShape {
   // same integer
   @Override
   public int hashCode() {
-    return 45 * (width * height) + rgb.get(0) + rgb.get(1) + rgb.get(2) + pos.getX() + pos.getY();
+    return 45 * (state.width() * state.height()) + state.red() + state.green() + state.blue()
+        + state.x() + state.y();
   }
 
   // Overriding toString() so that the name of the shape this class represents is returned
@@ -0,0 +1,192 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents an animation whose shapes each keep their keyframes in a {@link KeyframeTrack}, a set
+ * of parallel primitive arrays, instead of a map of shape objects. A keyframe then costs
+ * {@link #BYTES_PER_KEYFRAME} bytes instead of a map entry, a boxed tick and a whole shape, which
+ * lets very large animations fit in memory. Shapes are only created when a client asks for them.
+ * This model behaves the same way as {@link AnimationModel}.
+ */
+public class ColumnarAnimationModel extends ATrackAnimationModel<KeyframeTrack> {
+
+  /**
+   * The number of bytes used by one keyframe: six ints for the tick, position, size and color.
+   */
+  public static final int BYTES_PER_KEYFRAME = KeyframeTrack.INTS_PER_KEYFRAME * Integer.BYTES;
+
+  /**
+   * Constructs a new instance of a columnar model with no shapes and a default canvas with length
+   * 360 at 0 (x), 0 (y).
+   */
+  public ColumnarAnimationModel() {
+    super(Arrays.asList(0, 0, 360, 360));
+  }
+
+  /**
+   * Constructs a new instance of a columnar model with no shapes and the given canvas.
+   *
+   * @param canvas the given canvas which will act as the background for the animation. The
+   *               listed values are the canvas's x and y position and width and height. Each
+   *               value must be non-negative.
+   * @throws IllegalArgumentException if the canvas is null, does not have four values, or has a
+   *                                  negative position or non-positive size.
+   */
+  public ColumnarAnimationModel(List<Integer> canvas) {
+    super(canvas);
+    if (canvas.get(0) < 0 || canvas.get(1) < 0 || canvas.get(2) <= 0 || canvas.get(3) <= 0) {
+      throw new IllegalArgumentException("Canvas must have a length greater than zero and a "
+          + "non-negative position.");
+    }
+  }
+
+  /**
+   * Constructs a new instance of a columnar model with the given shapes and a default canvas with
+   * length 360 at 0 (x), 0 (y).
+   *
+   * @param shapes the given shapes and their frames that will appear in this animation.
+   * @throws IllegalArgumentException if the map is null, or contains null frames, null shapes or
+   *                                  negative frame numbers.
+   */
+  public ColumnarAnimationModel(Map<String, Map<Integer, IShape>> shapes) {
+    this(shapes, Arrays.asList(0, 0, 360, 360));
+  }
+
+  /**
+   * Constructs a new instance of a columnar model with the given shapes and canvas.
+   *
+   * @param shapes the given shapes and their frames that will appear in this animation. Frame
+   *               numbers must be non-negative.
+   * @param canvas the given canvas which will act as the background for the animation. The
+   *               listed values are the canvas's x and y position and width and height.
+   * @throws IllegalArgumentException if the map is null, or contains null frames, null shapes or
+   *                                  negative frame numbers, or if the canvas is invalid.
+   */
+  public ColumnarAnimationModel(Map<String, Map<Integer, IShape>> shapes, List<Integer> canvas) {
+    super(canvas);
+    this.putShapes(shapes);
+  }
+
+  @Override
+  KeyframeTrack newTrack(IShape type, int keyframes) {
+    return keyframes == 0 ? new KeyframeTrack(type) : new KeyframeTrack(type, keyframes);
+  }
+
+  // Merging each track with its motions in one pass instead of shifting its arrays once for
+  // every inserted keyframe, and letting shapes given the same motion share one track
+  @Override
+  void mergeBatch(MotionBatch batch) {
+    TrackInterner interner = new TrackInterner();
+    for (String name : batch.shapeNames()) {
+      KeyframeTrack track = this.tracks.get(name);
+      IShape type = track.getType() == null ? batch.type(name) : track.getType();
+      KeyframeTrack merged = interner.intern(type, batch.merge(name, track.toKeyframes()));
+      this.tracks.put(name, merged);
+      this.ids.put(name, merged);
+    }
+  }
+
+  @Override
+  public CompactionReport compact() {
+    int before = 0;
+    int after = 0;
+    long bytes = 0;
+    long retained = this.retainedBytes();
+    Map<String, int[]> compacted = new LinkedHashMap<>();
+    List<ModelChange> changed = new ArrayList<>();
+    for (Map.Entry<String, KeyframeTrack> entry : this.tracks.entrySet()) {
+      int[] keyframes = entry.getValue().toKeyframes();
+      int[] kept = KeyframeCompactor.compact(keyframes);
+      compacted.put(entry.getKey(), kept);
+      before += entry.getValue().size();
+      after += kept.length / KeyframeTrack.INTS_PER_KEYFRAME;
+      if (kept != keyframes && !listeners.isEmpty()) {
+        // removing any keyframe counts as one change, made once every shape is compacted
+        changed.add(ModelListeners.compacted(entry.getKey(), keyframes, kept, modCount + 1));
+      }
+    }
+    if (after == before) {
+      return new CompactionReport(before, after, 0);
+    }
+
+    // Building the tracks again, so that shapes with the same motion still share one track
+    TrackInterner interner = new TrackInterner();
+    for (Map.Entry<String, int[]> entry : compacted.entrySet()) {
+      KeyframeTrack track =
+          interner.intern(this.tracks.get(entry.getKey()).getType(), entry.getValue());
+      this.tracks.put(entry.getKey(), track);
+      this.ids.put(entry.getKey(), track);
+    }
+    modCount++;
+    listeners.changed(changed);
+    return new CompactionReport(before, after, retained - this.retainedBytes());
+  }
+
+  /**
+   * Reports the average number of bytes this model spends on each of its keyframes. This includes
+   * the array headers and any spare capacity of the tracks, so it approaches
+   * {@link #BYTES_PER_KEYFRAME} as the tracks grow longer. Tracks shared by several shapes are
+   * counted once, so an animation of many shapes with the same motion may take up less.
+   *
+   * @return the bytes retained by the tracks per keyframe, or 0 if there are no keyframes.
+   */
+  public double bytesPerKeyframe() {
+    long keyframes = 0;
+    for (KeyframeTrack track : this.tracks.values()) {
+      keyframes += track.size();
+    }
+    return keyframes == 0 ? 0 : (double) this.retainedBytes() / keyframes;
+  }
+
+  /**
+   * Counts the tracks this model stores. Shapes built with the same motion, up to a moved
+   * position, share one track, so this can be less than the number of shapes.
+   *
+   * @return the number of distinct tracks.
+   */
+  public int countDistinctTracks() {
+    Set<Object> storages = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (KeyframeTrack track : this.tracks.values()) {
+      storages.add(track.storage());
+    }
+    return storages.size();
+  }
+
+  @Override
+  public MemoryReport getMemoryReport() {
+    Map<String, Long> shapeBytes = new LinkedHashMap<>();
+    Set<Object> storages = Collections.newSetFromMap(new IdentityHashMap<>());
+    int keyframes = 0;
+    long keyframeBytes = 0;
+    for (Map.Entry<String, KeyframeTrack> entry : this.tracks.entrySet()) {
+      KeyframeTrack track = entry.getValue();
+      // arrays shared by several tracks are counted for the first of them
+      long bytes = storages.add(track.storage()) ? track.retainedBytes() : 0;
+      keyframes += track.size();
+      keyframeBytes += bytes;
+      shapeBytes.put(entry.getKey(), MemoryReport.SHAPE_ENTRY_BYTES
+          + MemoryReport.stringBytes(entry.getKey()) + KeyframeTrack.BYTES_PER_TRACK + bytes);
+    }
+    return new MemoryReport(shapeBytes, keyframes, keyframeBytes, this.indexBytes());
+  }
+
+  // Estimates the bytes retained by the arrays of the tracks, counting shared arrays once.
+  private long retainedBytes() {
+    long bytes = 0;
+    Set<Object> storages = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (KeyframeTrack track : this.tracks.values()) {
+      if (storages.add(track.storage())) {
+        bytes += track.retainedBytes();
+      }
+    }
+    return bytes;
+  }
+}
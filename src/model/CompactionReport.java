@@ -0,0 +1,67 @@
+package cs3500.animator.model;
+
+/**
+ * Describes what compacting the keyframes of an animation saved: how many keyframes there were
+ * before and after, and an estimate of the memory freed.
+ */
+public final class CompactionReport {
+
+  private final int keyframesBefore;
+  private final int keyframesAfter;
+  private final long bytesSaved;
+
+  /**
+   * Constructs a report of a compaction.
+   *
+   * @param keyframesBefore the number of keyframes before compacting
+   * @param keyframesAfter  the number of keyframes after compacting
+   * @param bytesSaved      the estimated number of bytes freed
+   */
+  CompactionReport(int keyframesBefore, int keyframesAfter, long bytesSaved) {
+    this.keyframesBefore = keyframesBefore;
+    this.keyframesAfter = keyframesAfter;
+    this.bytesSaved = bytesSaved;
+  }
+
+  /**
+   * Gets the number of keyframes in the animation before it was compacted.
+   *
+   * @return the number of keyframes before compacting.
+   */
+  public int getKeyframesBefore() {
+    return keyframesBefore;
+  }
+
+  /**
+   * Gets the number of keyframes in the animation after it was compacted.
+   *
+   * @return the number of keyframes after compacting.
+   */
+  public int getKeyframesAfter() {
+    return keyframesAfter;
+  }
+
+  /**
+   * Gets the number of keyframes that compacting removed.
+   *
+   * @return the number of removed keyframes.
+   */
+  public int getKeyframesRemoved() {
+    return keyframesBefore - keyframesAfter;
+  }
+
+  /**
+   * Gets an estimate of the memory that compacting freed.
+   *
+   * @return the estimated number of bytes saved.
+   */
+  public long getBytesSaved() {
+    return bytesSaved;
+  }
+
+  @Override
+  public String toString() {
+    return "removed " + this.getKeyframesRemoved() + " of " + keyframesBefore
+        + " keyframes, saving about " + bytesSaved + " bytes";
+  }
+}
@@ -0,0 +1,497 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * An implementation of IAnimationModel that lets many threads share one model: any number of
+ * readers, such as the timer of a visual view and an exporter, together with one writer at a
+ * time, such as an editor. Changes are delegated to the wrapped model under the write lock of a
+ * fair {@link ReentrantReadWriteLock}, so a read always sees the model either before or after a
+ * change and never in between. The lock is handed out in the order it was asked for, so a change
+ * that is waiting for it goes before reads that start after it, and a steady stream of
+ * overlapping reads cannot hold changes off forever. Threads waiting for the lock are parked
+ * rather than spinning.
+ * If the wrapped model is a {@link PersistentAnimationModel}, reads take no lock at all: the
+ * first read after a change takes a {@link PersistentAnimationModel#snapshot} of the new version
+ * under the read lock, and every read after it reads that snapshot, which no change can touch.
+ * A read that is running while a change is made keeps reading the version it started with, and a
+ * change waits for no read but the taking of a snapshot, which copies the table of shape names
+ * but no keyframes, and the cursors and memory reports, which always read the wrapped model under
+ * the read lock. Any other model is read under the read lock, since its maps may be seen half
+ * changed without it, and no read copies the model beyond what the wrapped model's own method
+ * copies.
+ * To see the same version of the model across several reads, pass them to {@link #read}.
+ * Listeners are told about a change once the write lock is released, so they may read this model,
+ * and changes made by different threads may reach them in another order than they were made.
+ * The wrapped model must only be changed through this model.
+ */
+public class ConcurrentAnimationModel implements IAnimationModel {
+
+  private final IAnimationModel model;
+  private final PersistentAnimationModel persistent; // the wrapped model if it is persistent
+  private volatile PersistentAnimationModel snapshot; // the current version, or null if not taken
+  private final Lock readLock;
+  private final Lock writeLock;
+  private final ModelListeners listeners;
+  private final List<ModelChange> pending; // the changes made while holding the write lock
+  private final IModelListener collector; // collects the changes of the wrapped model
+
+  /**
+   * Constructs a model that shares the given model between threads.
+   *
+   * @param model the model to be delegated to
+   * @throws IllegalArgumentException if the model is null.
+   */
+  public ConcurrentAnimationModel(IAnimationModel model) throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model must not be null");
+    }
+    this.model = model;
+    this.persistent =
+        model instanceof PersistentAnimationModel ? (PersistentAnimationModel) model : null;
+    ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
+    this.readLock = lock.readLock();
+    this.writeLock = lock.writeLock();
+    this.listeners = new ModelListeners();
+    this.pending = new ArrayList<>();
+    this.collector = this.pending::addAll;
+  }
+
+  /**
+   * Runs the given reader on one version of the model, so that every read it makes sees the same
+   * version: a snapshot of a persistent model, or else the wrapped model while holding the read
+   * lock. The reader must not keep the view model it is given, and must not change this model,
+   * since a change waits for every read under the lock to finish, including its own.
+   *
+   * @param reader the reads to run
+   * @param <T>    the type of the result of the reads
+   * @return the result of the reader.
+   */
+  public <T> T read(Function<IViewModel, T> reader) {
+    return this.readModel(m -> reader.apply(new ViewModel(m)));
+  }
+
+  // Runs the given read on a snapshot of the wrapped model if it is persistent, and otherwise on
+  // the wrapped model while holding the read lock.
+  private <T> T readModel(Function<IAnimationModel, T> reader) {
+    if (persistent != null) {
+      return reader.apply(this.snapshot());
+    }
+    readLock.lock();
+    try {
+      return reader.apply(model);
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  // Gets a snapshot of the current version of the wrapped persistent model, taking it if a change
+  // has been made since the last one was taken.
+  private PersistentAnimationModel snapshot() {
+    PersistentAnimationModel current = snapshot;
+    if (current == null) {
+      // taking and publishing the snapshot under the read lock, so that no change is made while
+      // it is taken and a change cannot clear the field before this snapshot is put in it
+      readLock.lock();
+      try {
+        current = snapshot;
+        if (current == null) {
+          current = persistent.snapshot();
+          snapshot = current;
+        }
+      } finally {
+        readLock.unlock();
+      }
+    }
+    return current;
+  }
+
+  // Releases the write lock, and then tells the listeners about the changes made while it was held,
+  // so that they can read this model without waiting on themselves. The snapshot is cleared before,
+  // so that the next read takes one of the new version.
+  private void unlockWrite() {
+    List<ModelChange> changes = pending.isEmpty() ? Collections.emptyList()
+        : new ArrayList<>(pending);
+    pending.clear();
+    snapshot = null;
+    writeLock.unlock();
+    listeners.changed(changes);
+  }
+
+  @Override
+  public void move(int frame, String shape, int x, int y) throws IllegalArgumentException {
+    writeLock.lock();
+    try {
+      model.move(frame, shape, x, y);
+    } finally {
+      this.unlockWrite();
+    }
+  }
+
+  @Override
+  public void changeColor(int frame, String shape, int r, int g, int b)
+      throws IllegalArgumentException {
+    writeLock.lock();
+    try {
+      model.changeColor(frame, shape, r, g, b);
+    } finally {
+      this.unlockWrite();
+    }
+  }
+
+  @Override
+  public void changeSize(int frame, String shape, int width, int height)
+      throws IllegalArgumentException {
+    writeLock.lock();
+    try {
+      model.changeSize(frame, shape, width, height);
+    } finally {
+      this.unlockWrite();
+    }
+  }
+
+  @Override
+  public void setKeyframe(int frame, String shape, int x, int y, int width, int height, int r,
+      int g, int b) throws IllegalArgumentException {
+    writeLock.lock();
+    try {
+      model.setKeyframe(frame, shape, x, y, width, height, r, g, b);
+    } finally {
+      this.unlockWrite();
+    }
+  }
+
+  @Override
+  public void applyBatch(Collection<Motion> motions) throws IllegalArgumentException {
+    writeLock.lock();
+    try {
+      model.applyBatch(motions);
+    } finally {
+      this.unlockWrite();
+    }
+  }
+
+  @Override
+  public void add(int frame, String name, IShape shape) throws IllegalArgumentException {
+    writeLock.lock();
+    try {
+      model.add(frame, name, shape);
+    } finally {
+      this.unlockWrite();
+    }
+  }
+
+  @Override
+  public void add(String name) throws IllegalArgumentException {
+    writeLock.lock();
+    try {
+      model.add(name);
+    } finally {
+      this.unlockWrite();
+    }
+  }
+
+  @Override
+  public void remove(int frame, String name) throws IllegalArgumentException {
+    writeLock.lock();
+    try {
+      model.remove(frame, name);
+    } finally {
+      this.unlockWrite();
+    }
+  }
+
+  @Override
+  public CompactionReport compact() {
+    writeLock.lock();
+    try {
+      return model.compact();
+    } finally {
+      this.unlockWrite();
+    }
+  }
+
+  @Override
+  public MemoryReport getMemoryReport() {
+    readLock.lock();
+    try {
+      return model.getMemoryReport();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return this.readModel(IAnimationModel::toString);
+  }
+
+  @Override
+  public Map<String, Map<Integer, IShape>> changeSpeed(double num) {
+    return this.readModel(m -> m.changeSpeed(num));
+  }
+
+  @Override
+  public IShape getState(int frame, String shape) throws IllegalArgumentException {
+    return this.readModel(m -> m.getState(frame, shape));
+  }
+
+  @Override
+  public IShape getState(int frame, int id) throws IllegalArgumentException {
+    return this.readModel(m -> m.getState(frame, id));
+  }
+
+  @Override
+  public int getShapeId(String name) throws IllegalArgumentException {
+    return this.readModel(m -> m.getShapeId(name));
+  }
+
+  @Override
+  public String getShapeName(int id) throws IllegalArgumentException {
+    return this.readModel(m -> m.getShapeName(id));
+  }
+
+  /**
+   * Creates a cursor that reads the state of the given shape tick by tick, starting at frame 0.
+   * The cursor holds the read lock while it moves, so it may be used while the model is changed
+   * by another thread.
+   *
+   * @param shape the key of the shape to read.
+   * @return a new cursor for that shape.
+   * @throws IllegalArgumentException if the shape is not present in the model.
+   */
+  @Override
+  public IShapeCursor cursor(String shape) throws IllegalArgumentException {
+    readLock.lock();
+    try {
+      return new LockedCursor(model.cursor(shape));
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  public IShapeCursor cursor(int id) throws IllegalArgumentException {
+    readLock.lock();
+    try {
+      return new LockedCursor(model.cursor(id));
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  public List<String> getVisibleShapes(int frame) throws IllegalArgumentException {
+    return this.readModel(m -> m.getVisibleShapes(frame));
+  }
+
+  @Override
+  public int[] getVisibleShapeIds(int frame) throws IllegalArgumentException {
+    return this.readModel(m -> m.getVisibleShapeIds(frame));
+  }
+
+  @Override
+  public int nextChange(int frame) throws IllegalArgumentException {
+    return this.readModel(m -> m.nextChange(frame));
+  }
+
+  @Override
+  public int[] getChangedShapeIds(int from, int to) throws IllegalArgumentException {
+    return this.readModel(m -> m.getChangedShapeIds(from, to));
+  }
+
+  @Override
+  public Map<String, IShape> getFullState(int frame) throws IllegalArgumentException {
+    return this.readModel(m -> m.getFullState(frame));
+  }
+
+  // Taking the write lock, so that every full state computed after this returns uses the new
+  // settings.
+  @Override
+  public void setParallel(ForkJoinPool pool, int threshold) throws IllegalArgumentException {
+    writeLock.lock();
+    try {
+      model.setParallel(pool, threshold);
+    } finally {
+      this.unlockWrite();
+    }
+  }
+
+  @Override
+  public Map<String, Map<Integer, IShape>> getShapes() {
+    return this.readModel(IAnimationModel::getShapes);
+  }
+
+  @Override
+  public List<Integer> getCanvas() {
+    // the canvas never changes, so reading it never conflicts with a change
+    return model.getCanvas();
+  }
+
+  @Override
+  public int getVersion() {
+    return this.readModel(IAnimationModel::getVersion);
+  }
+
+  // The wrapped model is only listened to while this model has listeners, so that it does not
+  // describe its changes for nobody.
+  @Override
+  public void addListener(IModelListener listener) throws IllegalArgumentException {
+    writeLock.lock();
+    try {
+      boolean first = listeners.isEmpty();
+      listeners.add(listener);
+      if (first) {
+        model.addListener(collector);
+      }
+    } finally {
+      this.unlockWrite();
+    }
+  }
+
+  @Override
+  public void removeListener(IModelListener listener) {
+    writeLock.lock();
+    try {
+      listeners.remove(listener);
+      if (listeners.isEmpty()) {
+        model.removeListener(collector);
+      }
+    } finally {
+      this.unlockWrite();
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ConcurrentAnimationModel)) {
+      return false;
+    }
+    ConcurrentAnimationModel that = (ConcurrentAnimationModel) o;
+    // always locking the two models in the same order, so that two threads comparing them the
+    // other way around cannot wait on each other
+    ConcurrentAnimationModel first =
+        System.identityHashCode(this) <= System.identityHashCode(that) ? this : that;
+    ConcurrentAnimationModel second = first == this ? that : this;
+    return first.readModel(a -> second.readModel(b -> a.equals(b)));
+  }
+
+  @Override
+  public int hashCode() {
+    return this.readModel(IAnimationModel::hashCode);
+  }
+
+  /**
+   * A cursor of the wrapped model that holds the read lock while it moves. Its getters only read
+   * values the cursor has already copied, so they need no lock.
+   */
+  private final class LockedCursor implements IShapeCursor {
+
+    private final IShapeCursor cursor;
+
+    LockedCursor(IShapeCursor cursor) {
+      this.cursor = cursor;
+    }
+
+    @Override
+    public String getName() {
+      return cursor.getName();
+    }
+
+    @Override
+    public String getType() {
+      return cursor.getType();
+    }
+
+    @Override
+    public int getTick() {
+      return cursor.getTick();
+    }
+
+    @Override
+    public void advance() {
+      this.seek(cursor.getTick() + 1);
+    }
+
+    @Override
+    public void seek(int tick) throws IllegalArgumentException {
+      readLock.lock();
+      try {
+        cursor.seek(tick);
+      } finally {
+        readLock.unlock();
+      }
+    }
+
+    @Override
+    public void seek(double time) throws IllegalArgumentException {
+      readLock.lock();
+      try {
+        cursor.seek(time);
+      } finally {
+        readLock.unlock();
+      }
+    }
+
+    @Override
+    public boolean isVisible() {
+      return cursor.isVisible();
+    }
+
+    @Override
+    public int getX() throws IllegalStateException {
+      return cursor.getX();
+    }
+
+    @Override
+    public int getY() throws IllegalStateException {
+      return cursor.getY();
+    }
+
+    @Override
+    public int getWidth() throws IllegalStateException {
+      return cursor.getWidth();
+    }
+
+    @Override
+    public int getHeight() throws IllegalStateException {
+      return cursor.getHeight();
+    }
+
+    @Override
+    public int getRed() throws IllegalStateException {
+      return cursor.getRed();
+    }
+
+    @Override
+    public int getGreen() throws IllegalStateException {
+      return cursor.getGreen();
+    }
+
+    @Override
+    public int getBlue() throws IllegalStateException {
+      return cursor.getBlue();
+    }
+
+    @Override
+    public int getSegmentStart() throws IllegalStateException {
+      return cursor.getSegmentStart();
+    }
+
+    @Override
+    public int getSegmentEnd() throws IllegalStateException {
+      return cursor.getSegmentEnd();
+    }
+  }
+}
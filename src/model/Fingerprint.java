@@ -0,0 +1,78 @@
+package cs3500.animator.model;
+
+import java.util.Map;
+
+/**
+ * Computes 64-bit fingerprints of the contents of an animation. The fingerprint of an animation is
+ * the sum of a fingerprint for each of its shapes and one for each keyframe of each shape, so it
+ * does not depend on the order the shapes and keyframes were added in, and a model can keep it up
+ * to date as it changes by adding the fingerprint of every keyframe it adds and subtracting the
+ * fingerprint of every keyframe it removes or replaces. Animations with the same shapes and
+ * keyframes always have the same fingerprint. Animations with different ones have the same
+ * fingerprint only by a coincidence as rare as two random 64-bit numbers being equal, so unequal
+ * fingerprints prove two animations differ, and equal ones show they very likely do not.
+ */
+final class Fingerprint {
+
+  // the odd constants of the SplitMix64 generator, which spread every input bit over the output
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+  private static final long MIX_1 = 0xBF58476D1CE4E5B9L;
+  private static final long MIX_2 = 0x94D049BB133111EBL;
+
+  private Fingerprint() {
+  }
+
+  /**
+   * Computes the fingerprint of a shape being part of an animation, whatever its keyframes.
+   *
+   * @param name the name of the shape
+   * @return the fingerprint of the shape.
+   */
+  static long shape(String name) {
+    return mix(name.hashCode() + GOLDEN_GAMMA);
+  }
+
+  /**
+   * Computes the fingerprint of one keyframe of a shape.
+   *
+   * @param name  the name of the shape
+   * @param tick  the tick of the keyframe
+   * @param shape the shape at that tick, whose class is part of the fingerprint
+   * @return the fingerprint of the keyframe.
+   */
+  static long keyframe(String name, int tick, IShape shape) {
+    ShapeState state = shape.state();
+    long hash = mix(((long) name.hashCode() << 32) ^ shape.getClass().getName().hashCode());
+    hash = mix(hash ^ pair(tick, state.x()));
+    hash = mix(hash ^ pair(state.y(), state.width()));
+    return mix(hash ^ pair(state.height(), state.color()));
+  }
+
+  /**
+   * Computes the fingerprint of a shape and all of its keyframes.
+   *
+   * @param name   the name of the shape
+   * @param frames the keyframes of the shape by tick
+   * @return the sum of the fingerprints of the shape and its keyframes.
+   */
+  static long shape(String name, Map<Integer, IShape> frames) {
+    long sum = shape(name);
+    for (Map.Entry<Integer, IShape> frame : frames.entrySet()) {
+      sum += keyframe(name, frame.getKey(), frame.getValue());
+    }
+    return sum;
+  }
+
+  // Packs two ints into one long.
+  private static long pair(int high, int low) {
+    return ((long) high << 32) | (low & 0xFFFFFFFFL);
+  }
+
+  // Scrambles the bits of the given value the way the SplitMix64 generator finishes its output.
+  private static long mix(long value) {
+    long z = value + GOLDEN_GAMMA;
+    z = (z ^ (z >>> 30)) * MIX_1;
+    z = (z ^ (z >>> 27)) * MIX_2;
+    return z ^ (z >>> 31);
+  }
+}
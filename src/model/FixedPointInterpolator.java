@@ -0,0 +1,199 @@
+package cs3500.animator.model;
+
+/**
+ * Interpolates the attributes of shapes between two keyframes with integer arithmetic. Its results
+ * are exactly those of {@link AnimationModel#proportion}, which computes a double proportion and
+ * rounds the result down: the integer quotient is the rounded down value whenever the division has
+ * a remainder, and the few ticks where it divides evenly, where the double result may fall just
+ * below a whole number, are computed the double way. Values and spans too large for the double
+ * result to be trusted to the nearest whole number are always computed the double way.
+ * A single interpolator also steps through a segment tick by tick with additions only: the whole
+ * and remaining parts of each attribute's change per tick are computed once for the segment.
+ */
+public final class FixedPointInterpolator {
+
+  // the largest span and the largest value for which the double result is known to round the same
+  // way as the exact result whenever the exact result is not a whole number
+  private static final int MAX_SPAN = 1 << 16;
+  private static final int MAX_VALUE = 1 << 24;
+
+  private int[] from;
+  private int[] to;
+  private int span;
+  private boolean exact; // whether every attribute of the segment can be computed with integers
+  private final int[] distances; // the distance between the keyframes of each attribute
+  private final int[] signs; // 1 if an attribute grows through the segment, -1 otherwise
+  private final int[] steps; // the whole part of each attribute's change per tick
+  private final int[] stepRemainders; // the remaining part of the change per tick, over span
+  private final int[] quotients; // the whole part of each attribute's change so far
+  private final int[] remainders; // the remaining part of the change so far, over span
+  private int offset; // the tick the quotients and remainders are for, from the segment start
+
+  /**
+   * Constructs an interpolator for the given number of attributes. It has to be given a segment
+   * before it is used.
+   *
+   * @param attributes the number of attributes to interpolate
+   */
+  FixedPointInterpolator(int attributes) {
+    this.distances = new int[attributes];
+    this.signs = new int[attributes];
+    this.steps = new int[attributes];
+    this.stepRemainders = new int[attributes];
+    this.quotients = new int[attributes];
+    this.remainders = new int[attributes];
+    this.offset = -1;
+  }
+
+  /**
+   * Interpolates between two values the same way as {@link AnimationModel#proportion} does with a
+   * proportion of offset / span.
+   *
+   * @param from   the value at the start of the segment
+   * @param to     the value at the end of the segment
+   * @param offset the number of ticks since the start of the segment, from 0 to span
+   * @param span   the number of ticks in the segment. Must be positive.
+   * @return the value at the given tick, rounded down.
+   */
+  public static int interpolate(int from, int to, int offset, int span) {
+    if (offset == 0 || from == to) {
+      return from;
+    }
+    if (!fits(from, to, span) || offset < 0 || offset > span) {
+      return AnimationModel.proportion(from, to, (double) offset / (double) span);
+    }
+    return exact(from, to, offset, span);
+  }
+
+  /**
+   * Interpolates every attribute of a shape between two keyframes, giving the same values as
+   * {@link #interpolate(int, int, int, int)} does for each of them. Whether the segment can be
+   * computed with integers is decided once for the whole shape rather than once per attribute.
+   *
+   * @param from   the state at the start of the segment
+   * @param to     the state at the end of the segment
+   * @param offset the number of ticks since the start of the segment, from 0 to span
+   * @param span   the number of ticks in the segment. Must be positive.
+   * @return the state at the given tick.
+   */
+  static ShapeState interpolate(ShapeState from, ShapeState to, int offset, int span) {
+    if (offset == 0) {
+      return from;
+    }
+    if (offset < 0 || offset > span || !fits(from, to, span)) {
+      double prop = (double) offset / (double) span;
+      return new ShapeState(AnimationModel.proportion(from.x(), to.x(), prop),
+          AnimationModel.proportion(from.y(), to.y(), prop),
+          AnimationModel.proportion(from.width(), to.width(), prop),
+          AnimationModel.proportion(from.height(), to.height(), prop),
+          AnimationModel.proportion(from.red(), to.red(), prop),
+          AnimationModel.proportion(from.green(), to.green(), prop),
+          AnimationModel.proportion(from.blue(), to.blue(), prop));
+    }
+    return new ShapeState(exact(from.x(), to.x(), offset, span),
+        exact(from.y(), to.y(), offset, span),
+        exact(from.width(), to.width(), offset, span),
+        exact(from.height(), to.height(), offset, span),
+        exact(from.red(), to.red(), offset, span),
+        exact(from.green(), to.green(), offset, span),
+        exact(from.blue(), to.blue(), offset, span));
+  }
+
+  // Interpolates one value of a segment that fits, with an offset from 1 to the span.
+  private static int exact(int from, int to, int offset, int span) {
+    if (from == to) {
+      return from;
+    }
+    long product = (long) Math.abs(to - from) * offset;
+    int quotient = (int) (product / span);
+    int remainder = (int) (product - (long) quotient * span);
+    if (remainder == 0) {
+      return AnimationModel.proportion(from, to, (double) offset / (double) span);
+    }
+    return to > from ? from + quotient : from - quotient - 1;
+  }
+
+  /**
+   * Prepares to interpolate between the given keyframes. The arrays are read, not copied, so they
+   * must not change while this segment is used.
+   *
+   * @param from the values at the start of the segment
+   * @param to   the values at the end of the segment
+   * @param span the number of ticks in the segment. Must be positive.
+   */
+  void setSegment(int[] from, int[] to, int span) {
+    this.from = from;
+    this.to = to;
+    this.span = span;
+    this.exact = true;
+    for (int i = 0; i < distances.length; i++) {
+      exact &= fits(from[i], to[i], span);
+    }
+    if (exact) {
+      for (int i = 0; i < distances.length; i++) {
+        distances[i] = Math.abs(to[i] - from[i]);
+        signs[i] = to[i] > from[i] ? 1 : -1;
+        steps[i] = distances[i] / span;
+        stepRemainders[i] = distances[i] % span;
+      }
+    }
+    this.offset = -1;
+  }
+
+  /**
+   * Interpolates every attribute at the given number of ticks after the start of the segment.
+   * Moving one tick past the last tick interpolated only adds the change per tick.
+   *
+   * @param offset the number of ticks since the start of the segment, from 0 to the span
+   * @param values the array to write the values into
+   */
+  void interpolate(int offset, int[] values) {
+    if (!exact) {
+      double prop = (double) offset / (double) span;
+      for (int i = 0; i < values.length; i++) {
+        values[i] = AnimationModel.proportion(from[i], to[i], prop);
+      }
+      return;
+    }
+    boolean step = offset == this.offset + 1 && this.offset >= 0;
+    this.offset = offset;
+    for (int i = 0; i < values.length; i++) {
+      int quotient;
+      int remainder;
+      if (step) {
+        // carrying a whole tick's worth of the remaining part without branching
+        remainder = remainders[i] + stepRemainders[i] - span;
+        int borrow = remainder >> 31; // -1 if the remaining part is still under span, else 0
+        quotient = quotients[i] + steps[i] + 1 + borrow;
+        remainder += span & borrow;
+      } else {
+        long product = (long) distances[i] * offset;
+        quotient = (int) (product / span);
+        remainder = (int) (product - (long) quotient * span);
+      }
+      quotients[i] = quotient;
+      remainders[i] = remainder;
+      if (remainder != 0) {
+        // a decreasing value rounds down past the exact result, an increasing one rounds to it
+        values[i] = from[i] + signs[i] * quotient + (signs[i] >> 1);
+      } else if (quotient == 0) {
+        values[i] = from[i];
+      } else {
+        values[i] = AnimationModel.proportion(from[i], to[i], (double) offset / (double) span);
+      }
+    }
+  }
+
+  // Determines whether the rounding errors of the double result are too small to move it past a
+  // whole number, so that the integer result can be used.
+  private static boolean fits(int from, int to, int span) {
+    return span <= MAX_SPAN && Math.abs((long) from) < MAX_VALUE
+        && Math.abs((long) to) < MAX_VALUE;
+  }
+
+  // Determines whether every attribute of a segment fits, as above. Colors always fit.
+  private static boolean fits(ShapeState from, ShapeState to, int span) {
+    return fits(from.x(), to.x(), span) && fits(from.y(), to.y(), span)
+        && fits(from.width(), to.width(), span) && fits(from.height(), to.height(), span);
+  }
+}
@@ -0,0 +1,314 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+
+/**
+ * Interpolates every visible shape of an animation at a tick in one pass over primitive arrays.
+ * The keyframes around the tick of each shape are kept in columns indexed by shape ID, one per
+ * attribute, and are only looked up again when the shape moves on to its next pair of keyframes.
+ * Each frame then computes every attribute of every shape with the same multiply, add and round
+ * down, a loop with no branches or calls that the JIT compiler can turn into vector instructions.
+ * The results are the same as those of {@link IAnimationModel#getState(int, int)}.
+ * An evaluator reads its model through cursors, so it sees changes made to the model, and it is
+ * not safe to use from several threads at once.
+ */
+public final class FrameEvaluator {
+
+  private static final int ATTRIBUTES = 7;
+  private static final int NO_SEGMENT = -1; // the segment end of a shape not read yet
+
+  private final IAnimationModel model;
+  private int version; // the version of the model the known segments were read from
+  private int capacity; // the length of every column
+  private IShapeCursor[] starts; // a cursor of each shape, to read the keyframe before a tick
+  private IShapeCursor[] ends; // another cursor of each shape, to read the keyframe after it
+  private String[] types;
+  private int[] segmentStarts; // the tick of the keyframe before the current tick of each shape
+  private int[] segmentEnds; // the tick of the keyframe after it, or Integer.MAX_VALUE
+  private final double[][] bases; // each attribute of each shape at the start of its segment
+  private final double[][] deltas; // the change of each attribute through the segment
+  private double[] proportions; // how far each shape is through its segment
+  private final int[][] values; // each attribute of each shape at the evaluated tick
+  private int[] evaluated; // the evaluation in which each shape was last visible
+  private int evaluations;
+  private int[] visible; // the IDs of the shapes visible at the evaluated tick
+  private int tick;
+
+  /**
+   * Constructs an evaluator of the given model. No tick is evaluated until {@link #evaluate} is
+   * called.
+   *
+   * @param model the model to evaluate
+   * @throws IllegalArgumentException if the model is null.
+   */
+  public FrameEvaluator(IAnimationModel model) throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model must not be null");
+    }
+    this.model = model;
+    this.version = model.getVersion();
+    this.bases = new double[ATTRIBUTES][];
+    this.deltas = new double[ATTRIBUTES][];
+    this.values = new int[ATTRIBUTES][];
+    this.visible = new int[0];
+    this.resize(16);
+  }
+
+  /**
+   * Interpolates every shape that is visible at the given tick.
+   *
+   * @param tick the tick to evaluate
+   * @throws IllegalArgumentException if the tick is negative.
+   */
+  public void evaluate(int tick) throws IllegalArgumentException {
+    this.evaluate(tick, tick);
+  }
+
+  /**
+   * Interpolates every shape that is visible at the given time, which may fall between two ticks
+   * as with {@link IShapeCursor#seek(double)}.
+   *
+   * @param time the time to evaluate, in ticks
+   * @throws IllegalArgumentException if the time is negative or not a number.
+   */
+  public void evaluate(double time) throws IllegalArgumentException {
+    if (!(time >= 0)) {
+      throw new IllegalArgumentException("Frame must not be negative");
+    }
+    this.evaluate(time, time >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) time);
+  }
+
+  private void evaluate(double time, int tick) {
+    if (model.getVersion() != version) {
+      // the keyframes may have changed, so every segment is read again
+      version = model.getVersion();
+      Arrays.fill(segmentEnds, NO_SEGMENT);
+    }
+    this.visible = model.getVisibleShapeIds(tick);
+    this.tick = tick;
+    evaluations++;
+
+    int count = 0; // the number of IDs up to the largest visible one
+    for (int id : visible) {
+      count = Math.max(count, id + 1);
+    }
+    if (count > capacity) {
+      this.resize(Math.max(count, capacity * 2));
+    }
+
+    for (int id : visible) {
+      if (tick < segmentStarts[id] || tick >= segmentEnds[id]) {
+        this.load(id, tick);
+      }
+      evaluated[id] = evaluations;
+      int start = segmentStarts[id];
+      int end = segmentEnds[id];
+      proportions[id] = end == Integer.MAX_VALUE ? 0 : (time - start) / (end - start);
+    }
+
+    // the same arithmetic on every shape, one attribute at a time
+    for (int attribute = 0; attribute < ATTRIBUTES; attribute++) {
+      double[] base = bases[attribute];
+      double[] delta = deltas[attribute];
+      int[] value = values[attribute];
+      for (int id = 0; id < count; id++) {
+        value[id] = (int) Math.floor(base[id] + delta[id] * proportions[id]);
+      }
+    }
+  }
+
+  // Reads the keyframes around the given tick of the shape with the given ID.
+  private void load(int id, int tick) {
+    if (starts[id] == null) {
+      starts[id] = model.cursor(id);
+      ends[id] = model.cursor(id);
+    }
+    IShapeCursor start = starts[id];
+    start.seek(tick);
+    int from = start.getSegmentStart();
+    int to = start.getSegmentEnd();
+    start.seek(from);
+    types[id] = start.getType();
+    segmentStarts[id] = from;
+    if (to == from) { // the shape keeps its last state from here on
+      segmentEnds[id] = Integer.MAX_VALUE;
+      this.setSegment(id, start, start);
+    } else {
+      segmentEnds[id] = to;
+      ends[id].seek(to);
+      this.setSegment(id, start, ends[id]);
+    }
+  }
+
+  // Stores the attributes of a shape at the start of its segment and their changes through it.
+  // A change is stored with the sign of its direction, so adding a part of it rounds exactly as
+  // AnimationModel.proportion does when it subtracts a part of the distance.
+  private void setSegment(int id, IShapeCursor from, IShapeCursor to) {
+    this.setAttribute(0, id, from.getX(), to.getX());
+    this.setAttribute(1, id, from.getY(), to.getY());
+    this.setAttribute(2, id, from.getWidth(), to.getWidth());
+    this.setAttribute(3, id, from.getHeight(), to.getHeight());
+    this.setAttribute(4, id, from.getRed(), to.getRed());
+    this.setAttribute(5, id, from.getGreen(), to.getGreen());
+    this.setAttribute(6, id, from.getBlue(), to.getBlue());
+  }
+
+  private void setAttribute(int attribute, int id, int from, int to) {
+    double distance = Math.abs(from - to);
+    bases[attribute][id] = from;
+    deltas[attribute][id] = from > to ? -distance : distance;
+  }
+
+  private void resize(int capacity) {
+    this.capacity = capacity;
+    int previous = segmentEnds == null ? 0 : segmentEnds.length;
+    starts = starts == null ? new IShapeCursor[capacity] : Arrays.copyOf(starts, capacity);
+    ends = ends == null ? new IShapeCursor[capacity] : Arrays.copyOf(ends, capacity);
+    types = types == null ? new String[capacity] : Arrays.copyOf(types, capacity);
+    segmentStarts = segmentStarts == null ? new int[capacity]
+        : Arrays.copyOf(segmentStarts, capacity);
+    segmentEnds = segmentEnds == null ? new int[capacity] : Arrays.copyOf(segmentEnds, capacity);
+    Arrays.fill(segmentEnds, previous, capacity, NO_SEGMENT);
+    proportions = proportions == null ? new double[capacity]
+        : Arrays.copyOf(proportions, capacity);
+    evaluated = evaluated == null ? new int[capacity] : Arrays.copyOf(evaluated, capacity);
+    for (int attribute = 0; attribute < ATTRIBUTES; attribute++) {
+      bases[attribute] = bases[attribute] == null ? new double[capacity]
+          : Arrays.copyOf(bases[attribute], capacity);
+      deltas[attribute] = deltas[attribute] == null ? new double[capacity]
+          : Arrays.copyOf(deltas[attribute], capacity);
+      values[attribute] = values[attribute] == null ? new int[capacity]
+          : Arrays.copyOf(values[attribute], capacity);
+    }
+  }
+
+  /**
+   * Gets the tick last evaluated, rounded down if it was a time between ticks.
+   *
+   * @return the evaluated tick.
+   */
+  public int getTick() {
+    return tick;
+  }
+
+  /**
+   * Gets the IDs of the shapes visible at the evaluated tick, in the order they were added to the
+   * model. The array must not be changed.
+   *
+   * @return the IDs of the visible shapes.
+   */
+  public int[] getVisibleShapeIds() {
+    return visible;
+  }
+
+  /**
+   * Determines whether the shape with the given ID is visible at the evaluated tick. The other
+   * getters may only be called for visible shapes.
+   *
+   * @param id the ID of the shape
+   * @return true if the shape has a state at the evaluated tick.
+   */
+  public boolean isVisible(int id) {
+    return id >= 0 && id < capacity && evaluated[id] == evaluations && evaluations > 0;
+  }
+
+  /**
+   * Gets the type of the shape with the given ID, such as "rectangle" or "ellipse".
+   *
+   * @param id the ID of the shape
+   * @return the type of the shape.
+   * @throws IllegalStateException if the shape is not visible at the evaluated tick.
+   */
+  public String getType(int id) throws IllegalStateException {
+    this.checkVisible(id);
+    return types[id];
+  }
+
+  /**
+   * Gets the x-position of the shape with the given ID at the evaluated tick.
+   *
+   * @param id the ID of the shape
+   * @return the x-position.
+   * @throws IllegalStateException if the shape is not visible at the evaluated tick.
+   */
+  public int getX(int id) throws IllegalStateException {
+    return this.get(0, id);
+  }
+
+  /**
+   * Gets the y-position of the shape with the given ID at the evaluated tick.
+   *
+   * @param id the ID of the shape
+   * @return the y-position.
+   * @throws IllegalStateException if the shape is not visible at the evaluated tick.
+   */
+  public int getY(int id) throws IllegalStateException {
+    return this.get(1, id);
+  }
+
+  /**
+   * Gets the width of the shape with the given ID at the evaluated tick.
+   *
+   * @param id the ID of the shape
+   * @return the width.
+   * @throws IllegalStateException if the shape is not visible at the evaluated tick.
+   */
+  public int getWidth(int id) throws IllegalStateException {
+    return this.get(2, id);
+  }
+
+  /**
+   * Gets the height of the shape with the given ID at the evaluated tick.
+   *
+   * @param id the ID of the shape
+   * @return the height.
+   * @throws IllegalStateException if the shape is not visible at the evaluated tick.
+   */
+  public int getHeight(int id) throws IllegalStateException {
+    return this.get(3, id);
+  }
+
+  /**
+   * Gets the red value of the color of the shape with the given ID at the evaluated tick.
+   *
+   * @param id the ID of the shape
+   * @return the red value (0-255).
+   * @throws IllegalStateException if the shape is not visible at the evaluated tick.
+   */
+  public int getRed(int id) throws IllegalStateException {
+    return this.get(4, id);
+  }
+
+  /**
+   * Gets the green value of the color of the shape with the given ID at the evaluated tick.
+   *
+   * @param id the ID of the shape
+   * @return the green value (0-255).
+   * @throws IllegalStateException if the shape is not visible at the evaluated tick.
+   */
+  public int getGreen(int id) throws IllegalStateException {
+    return this.get(5, id);
+  }
+
+  /**
+   * Gets the blue value of the color of the shape with the given ID at the evaluated tick.
+   *
+   * @param id the ID of the shape
+   * @return the blue value (0-255).
+   * @throws IllegalStateException if the shape is not visible at the evaluated tick.
+   */
+  public int getBlue(int id) throws IllegalStateException {
+    return this.get(6, id);
+  }
+
+  private int get(int attribute, int id) {
+    this.checkVisible(id);
+    return values[attribute][id];
+  }
+
+  private void checkVisible(int id) {
+    if (!this.isVisible(id)) {
+      throw new IllegalStateException("Shape " + id + " is not visible at tick " + tick);
+    }
+  }
+}
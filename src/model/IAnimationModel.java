@@ -1,7 +1,9 @@
 package cs3500.animator.model;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Represents an animation that contains shapes and a record of each shape's movements and changes
@@ -54,6 +56,50 @@ public interface IAnimationModel {
    */
   void changeSize(int frame, String shape, int width, int height) throws IllegalArgumentException;
 
+
+  /**
+   * Adds a new entry for the given shape with a new position, size and color for that shape at the
+   * given frame, all in one change. Like the other changes, it only takes effect when the shape
+   * already has an entry at or before the given frame.
+   *
+   * @param frame  the frame at which the shape will change. Must be non-negative.
+   * @param shape  the shape that will change in the animation. Must already exist in this
+   *               animation.
+   * @param x      the new x-position for the given shape.
+   * @param y      the new y-position for the given shape.
+   * @param width  the new width for the given shape. Must be non-negative and not zero.
+   * @param height the new height for the given shape. Must be non-negative and not zero.
+   * @param r      the r value for the shape's new RGB values. Must be within the range of 0-255.
+   * @param g      the g value for the shape's new RGB values. Must be within the range of 0-255.
+   * @param b      the b value for the shape's new RGB values. Must be within the range of 0-255.
+   * @throws IllegalArgumentException when the frame is negative, when the width/height is negative
+   *                                  or zero, when the RGB values are not within the range of
+   *                                  0-255, or when the shape does not already exist in the
+   *                                  animation.
+   */
+  void setKeyframe(int frame, String shape, int x, int y, int width, int height, int r, int g,
+      int b) throws IllegalArgumentException;
+
+  /**
+   * Applies many motions at once, as one change. The motions are grouped by shape and sorted by
+   * their start ticks, and the whole batch is checked before anything changes, so a batch that is
+   * not valid leaves this animation as it was. The start and end of every motion become keyframes
+   * of its shape, replacing the keyframes the shape already has from the start to the end of the
+   * motion. Unlike the other changes, a batch may give keyframes to a shape that has none yet, and
+   * such a shape takes on the type of the shapes in its motions. A shape that already has
+   * keyframes keeps its type, and motions of another type are rejected. Importers and generators
+   * should use this instead of adding motions one at a time, since it looks up, checks and stores
+   * each shape only once.
+   *
+   * @param motions the motions to apply. The motions of one shape must not overlap, and every
+   *                shape they move must already exist in this animation.
+   * @throws IllegalArgumentException if the collection or a motion in it is null, if two motions
+   *                                  of one shape overlap or have different types, if a shape
+   *                                  does not exist in the animation, or if the motions of a shape
+   *                                  are of another type than the shape already has.
+   */
+  void applyBatch(Collection<Motion> motions) throws IllegalArgumentException;
+
   /**
    * Provides a string version of this animation detailing the frames for each shape that consist of
    * the changes made to each shape. Details include shape name, frame number, position, width,
@@ -65,7 +111,9 @@ public interface IAnimationModel {
 
   /**
    * Multiplies all of the frame values by the given parameter. If num is less than 1, speed will
-   * increase, and if num is greater than 1, speed will decrease.
+   * increase, and if num is greater than 1, speed will decrease. Frame values are rounded down, so
+   * keyframes that land on the same frame are merged; {@link TimeScaledViewModel} plays the
+   * animation at another speed without copying it or losing keyframes.
    *
    * @param num the factor by which to multiply the frames
    * @return the new Map with the changed speed
@@ -85,6 +133,102 @@ public interface IAnimationModel {
    */
   IShape getState(int frame, String shape) throws IllegalArgumentException;
 
+  /**
+   * Returns the state of the shape with the given ID at the given frame. Reading a shape by its ID
+   * does not look up its name, so it suits loops that read many shapes at every tick.
+   *
+   * @param frame the timestamp to return the state for.
+   * @param id    the ID of the shape to return the state for, as given by {@link #getShapeId}.
+   * @return a shape object with the characteristics of the given shape at that time.
+   * @throws IllegalArgumentException if there is no shape with that ID, or if the frame is
+   *                                  negative.
+   */
+  IShape getState(int frame, int id) throws IllegalArgumentException;
+
+  /**
+   * Gets the ID of the shape with the given name. IDs are small non-negative integers given out in
+   * the order names are first added, and a name keeps its ID for as long as the model exists.
+   *
+   * @param name the key of the shape.
+   * @return the ID of the shape.
+   * @throws IllegalArgumentException if the shape is not present in the model.
+   */
+  int getShapeId(String name) throws IllegalArgumentException;
+
+  /**
+   * Gets the name of the shape with the given ID.
+   *
+   * @param id the ID of the shape.
+   * @return the key of the shape.
+   * @throws IllegalArgumentException if there is no shape with that ID.
+   */
+  String getShapeName(int id) throws IllegalArgumentException;
+
+  /**
+   * Creates a cursor that reads the state of the given shape tick by tick, starting at frame 0.
+   *
+   * @param shape the key of the shape to read.
+   * @return a new cursor for that shape.
+   * @throws IllegalArgumentException if the shape is not present in the model.
+   */
+  IShapeCursor cursor(String shape) throws IllegalArgumentException;
+
+  /**
+   * Creates a cursor that reads the state of the shape with the given ID tick by tick, starting at
+   * frame 0.
+   *
+   * @param id the ID of the shape to read.
+   * @return a new cursor for that shape.
+   * @throws IllegalArgumentException if there is no shape with that ID.
+   */
+  IShapeCursor cursor(int id) throws IllegalArgumentException;
+
+  /**
+   * Gets the names of the shapes that are visible at the given frame, which are the shapes whose
+   * first keyframe is at or before it, in the order the shapes were added. The shapes are found
+   * through an index of their lifetimes, so the cost grows with the number of visible shapes
+   * rather than with the number of shapes in the animation.
+   *
+   * @param frame the frame to look at.
+   * @return the names of the visible shapes.
+   * @throws IllegalArgumentException if the frame is negative.
+   */
+  List<String> getVisibleShapes(int frame) throws IllegalArgumentException;
+
+  /**
+   * Gets the IDs of the shapes that are visible at the given frame, in the same order as
+   * {@link #getVisibleShapes}.
+   *
+   * @param frame the frame to look at.
+   * @return the IDs of the visible shapes.
+   * @throws IllegalArgumentException if the frame is negative.
+   */
+  int[] getVisibleShapeIds(int frame) throws IllegalArgumentException;
+
+  /**
+   * Finds the first tick after the given one at which the state of any shape may change. No shape
+   * changes from the given tick up to the one before the returned tick, so a view that has drawn
+   * the given tick can skip every tick until then. Ticks inside a motion are always counted as
+   * changes, even where rounding leaves a shape where it was.
+   *
+   * @param frame the tick to start after.
+   * @return the next tick at which a shape may change, or {@link Integer#MAX_VALUE} if no shape
+   *         changes after the given tick.
+   * @throws IllegalArgumentException if the frame is negative.
+   */
+  int nextChange(int frame) throws IllegalArgumentException;
+
+  /**
+   * Finds the shapes whose states differ between two ticks, including shapes that appear between
+   * them. A shape that changes and comes back to the same state is not included.
+   *
+   * @param from one of the ticks to compare.
+   * @param to   the other tick to compare.
+   * @return the IDs of the shapes whose states differ, in the order the shapes were added.
+   * @throws IllegalArgumentException if either tick is negative.
+   */
+  int[] getChangedShapeIds(int from, int to) throws IllegalArgumentException;
+
   /**
    * Returns the state of the whole model at the given frame for all shapes.
    *
@@ -94,6 +238,19 @@ public interface IAnimationModel {
    */
   Map<String, IShape> getFullState(int frame) throws IllegalArgumentException;
 
+  /**
+   * Makes {@link #getFullState} compute the states of the shapes on the given pool, split into
+   * tasks of at most the given number of shapes. Frames with fewer visible shapes than that are
+   * still computed in the calling thread. The result is the same as without a pool. This model
+   * must not be changed while a full state is being computed.
+   *
+   * @param pool      the pool to compute full states on, or null to compute them in the calling
+   *                  thread
+   * @param threshold the largest number of shapes one task computes. Must be positive.
+   * @throws IllegalArgumentException if the threshold is not positive.
+   */
+  void setParallel(ForkJoinPool pool, int threshold) throws IllegalArgumentException;
+
   /**
    * Adds the given shape appearing at the given frame with the given key.
    *
@@ -121,6 +278,24 @@ public interface IAnimationModel {
    */
   void remove(int frame, String name) throws IllegalArgumentException;
 
+  /**
+   * Removes every keyframe that interpolating between the keyframes around it reproduces exactly,
+   * such as the ends of motions that do not change anything. The state of every shape at every
+   * frame stays the same, so views show the same animation, but the text and SVG descriptions may
+   * list fewer motions.
+   *
+   * @return a report of the keyframes removed and the memory saved.
+   */
+  CompactionReport compact();
+
+  /**
+   * Estimates the memory this animation retains, in total, for each shape and for its keyframes.
+   * The estimate describes the animation as it is now and does not change with it.
+   *
+   * @return a report of the shapes, keyframes and bytes of this animation.
+   */
+  MemoryReport getMemoryReport();
+
 
   /**
    * Copies the map containing the movements of each shape in this animation along with the copy of
@@ -135,4 +310,32 @@ public interface IAnimationModel {
    * @return a copy of the list of values describing the position, width, and height of the canvas.
    */
   List<Integer> getCanvas();
+
+  /**
+   * Gets a number that changes every time this animation is changed, so that anything computed
+   * from the animation can tell whether it is out of date.
+   *
+   * @return the current version of this animation.
+   */
+  int getVersion();
+
+  /**
+   * Adds a listener that is told about every later change to this animation: which shapes were
+   * added or removed and which ticks of which shapes may have changed. Each operation tells the
+   * listener once, so a batch of motions is one notification however many shapes it moves.
+   * Changes that leave the animation as it was, such as a move before a shape appears, are not
+   * told.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null.
+   */
+  void addListener(IModelListener listener) throws IllegalArgumentException;
+
+  /**
+   * Removes a listener, so that it is no longer told about changes to this animation. Nothing
+   * happens if the listener was not added.
+   *
+   * @param listener the listener to remove
+   */
+  void removeListener(IModelListener listener);
 }
@@ -0,0 +1,22 @@
+package cs3500.animator.model;
+
+import java.util.List;
+
+/**
+ * Listens to the changes of an animation. A listener added to an {@link IAnimationModel} is told
+ * about every change to the animation once the change is made, so it can update only the shapes
+ * and ticks the change affects instead of reading the whole animation again.
+ */
+public interface IModelListener {
+
+  /**
+   * Tells this listener about the changes one operation made to the animation, such as a single
+   * edit or a whole batch of motions. It is called once per operation, in the thread that made
+   * the change and after the animation has been changed, so reading the animation from here sees
+   * the changes. A listener should not change the animation it listens to.
+   *
+   * @param changes the changes the operation made, one for each shape it changed, in no
+   *                particular order. The list cannot be changed.
+   */
+  void modelChanged(List<ModelChange> changes);
+}
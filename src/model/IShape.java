@@ -28,6 +28,62 @@ public interface IShape {
    */
   List<Integer> getSize();
 
+  /**
+   * Gets the position, size and color of this shape as a single value that cannot change.
+   *
+   * @return the current state of this shape
+   */
+  ShapeState state();
+
+  /**
+   * Gets the x-position of this shape without creating a Position.
+   *
+   * @return the x-position
+   */
+  int x();
+
+  /**
+   * Gets the y-position of this shape without creating a Position.
+   *
+   * @return the y-position
+   */
+  int y();
+
+  /**
+   * Gets the width of this shape without creating a list.
+   *
+   * @return the width
+   */
+  int width();
+
+  /**
+   * Gets the height of this shape without creating a list.
+   *
+   * @return the height
+   */
+  int height();
+
+  /**
+   * Gets the red value of this shape's color without creating a list.
+   *
+   * @return the red value (0-255)
+   */
+  int red();
+
+  /**
+   * Gets the green value of this shape's color without creating a list.
+   *
+   * @return the green value (0-255)
+   */
+  int green();
+
+  /**
+   * Gets the blue value of this shape's color without creating a list.
+   *
+   * @return the blue value (0-255)
+   */
+  int blue();
+
   /**
    * Sets the color of this cs3500.animator.model.IShape object to the specified RGB value.
    *
@@ -66,4 +122,14 @@ public interface IShape {
    * @throws IllegalArgumentException if any of the parameters are invalid.
    */
   IShape copyShape(List<Integer> rgb, Position pos, int width, int height);
+
+  /**
+   * A factory method creating an instance of this implementation of IShape with the given state.
+   * The state is shared rather than copied, since it cannot change.
+   *
+   * @param state the position, size and color of the new shape
+   * @return a new IShape of a certain type with the given state
+   * @throws IllegalArgumentException if the state is null.
+   */
+  IShape copyShape(ShapeState state);
 }
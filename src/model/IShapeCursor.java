@@ -0,0 +1,139 @@
+package cs3500.animator.model;
+
+/**
+ * Reads the state of one shape tick by tick. A cursor remembers the two keyframes around its
+ * current tick, so moving it forward one tick at a time costs amortized O(1) and creates no
+ * objects, which suits playback and exporters that walk an animation in order. The state is
+ * read through primitive getters instead of a new shape for every tick.
+ * A cursor always reflects the current keyframes of its model, even if they change after the
+ * cursor was created.
+ */
+public interface IShapeCursor {
+
+  /**
+   * Gets the name of the shape this cursor reads.
+   *
+   * @return the name of the shape.
+   */
+  String getName();
+
+  /**
+   * Gets the type of the shape this cursor reads, such as "rectangle" or "ellipse".
+   *
+   * @return the type of the shape, or null if the shape has no keyframes.
+   */
+  String getType();
+
+  /**
+   * Gets the tick this cursor is currently at.
+   *
+   * @return the current tick.
+   */
+  int getTick();
+
+  /**
+   * Moves this cursor to the next tick.
+   */
+  void advance();
+
+  /**
+   * Moves this cursor to the given tick. Moving within the current pair of keyframes, or on to the
+   * next pair, does not search the shape's keyframes.
+   *
+   * @param tick the tick to move to. Must be non-negative.
+   * @throws IllegalArgumentException if the tick is negative.
+   */
+  void seek(int tick) throws IllegalArgumentException;
+
+  /**
+   * Moves this cursor to a time between two ticks, such as the moment a display refreshes between
+   * the ticks of a slow animation. The state is interpolated between the keyframes around that
+   * time, rounding down the same way as at whole ticks, and the current tick becomes the time
+   * rounded down. Like moving to a tick, this creates no objects.
+   *
+   * @param time the time to move to, in ticks. Must be non-negative.
+   * @throws IllegalArgumentException if the time is negative or not a number.
+   */
+  void seek(double time) throws IllegalArgumentException;
+
+  /**
+   * Determines whether the shape is visible at the current tick, which is the case from its first
+   * keyframe on. The other getters may only be called while the shape is visible.
+   *
+   * @return true if the shape has a state at the current tick.
+   */
+  boolean isVisible();
+
+  /**
+   * Gets the x-position of the shape at the current tick.
+   *
+   * @return the x-position.
+   * @throws IllegalStateException if the shape is not visible at the current tick.
+   */
+  int getX() throws IllegalStateException;
+
+  /**
+   * Gets the y-position of the shape at the current tick.
+   *
+   * @return the y-position.
+   * @throws IllegalStateException if the shape is not visible at the current tick.
+   */
+  int getY() throws IllegalStateException;
+
+  /**
+   * Gets the width of the shape at the current tick.
+   *
+   * @return the width.
+   * @throws IllegalStateException if the shape is not visible at the current tick.
+   */
+  int getWidth() throws IllegalStateException;
+
+  /**
+   * Gets the height of the shape at the current tick.
+   *
+   * @return the height.
+   * @throws IllegalStateException if the shape is not visible at the current tick.
+   */
+  int getHeight() throws IllegalStateException;
+
+  /**
+   * Gets the red value of the shape's color at the current tick.
+   *
+   * @return the red value (0-255).
+   * @throws IllegalStateException if the shape is not visible at the current tick.
+   */
+  int getRed() throws IllegalStateException;
+
+  /**
+   * Gets the green value of the shape's color at the current tick.
+   *
+   * @return the green value (0-255).
+   * @throws IllegalStateException if the shape is not visible at the current tick.
+   */
+  int getGreen() throws IllegalStateException;
+
+  /**
+   * Gets the blue value of the shape's color at the current tick.
+   *
+   * @return the blue value (0-255).
+   * @throws IllegalStateException if the shape is not visible at the current tick.
+   */
+  int getBlue() throws IllegalStateException;
+
+  /**
+   * Gets the tick of the keyframe at or before the current tick.
+   *
+   * @return the tick at which the current motion of the shape started.
+   * @throws IllegalStateException if the shape is not visible at the current tick.
+   */
+  int getSegmentStart() throws IllegalStateException;
+
+  /**
+   * Gets the tick of the keyframe after the current tick. After the last keyframe the shape stays
+   * the same, and this is the tick of the last keyframe.
+   *
+   * @return the tick at which the current motion of the shape ends.
+   * @throws IllegalStateException if the shape is not visible at the current tick.
+   */
+  int getSegmentEnd() throws IllegalStateException;
+}
@@ -0,0 +1,170 @@
+package cs3500.animator.model;
+
+/**
+ * The keyframes of a single shape, sorted by tick, as kept by the models that store keyframes as
+ * primitives rather than as shape objects. Each keyframe is a tick, a position, a size and a
+ * packed RGB color, and every keyframe of a track has the same shape type.
+ */
+interface ITrack {
+
+  /**
+   * Gets the number of keyframes of this track.
+   *
+   * @return the number of keyframes.
+   */
+  int size();
+
+  /**
+   * Determines whether this track has no keyframes.
+   *
+   * @return true if this track has no keyframes.
+   */
+  boolean isEmpty();
+
+  /**
+   * Gets a shape of the type that this track animates.
+   *
+   * @return the prototype shape, or null if the type is unknown.
+   */
+  IShape getType();
+
+  /**
+   * Gets the tick of the keyframe at the given index.
+   *
+   * @param index the index of the keyframe
+   * @return the tick of the keyframe.
+   */
+  int tick(int index);
+
+  /**
+   * Gets the x-position of the keyframe at the given index.
+   *
+   * @param index the index of the keyframe
+   * @return the x-position of the keyframe.
+   */
+  int x(int index);
+
+  /**
+   * Gets the y-position of the keyframe at the given index.
+   *
+   * @param index the index of the keyframe
+   * @return the y-position of the keyframe.
+   */
+  int y(int index);
+
+  /**
+   * Gets the width of the keyframe at the given index.
+   *
+   * @param index the index of the keyframe
+   * @return the width of the keyframe.
+   */
+  int width(int index);
+
+  /**
+   * Gets the height of the keyframe at the given index.
+   *
+   * @param index the index of the keyframe
+   * @return the height of the keyframe.
+   */
+  int height(int index);
+
+  /**
+   * Gets the red value of the color of the keyframe at the given index.
+   *
+   * @param index the index of the keyframe
+   * @return the red value, from 0 to 255.
+   */
+  int red(int index);
+
+  /**
+   * Gets the green value of the color of the keyframe at the given index.
+   *
+   * @param index the index of the keyframe
+   * @return the green value, from 0 to 255.
+   */
+  int green(int index);
+
+  /**
+   * Gets the blue value of the color of the keyframe at the given index.
+   *
+   * @param index the index of the keyframe
+   * @return the blue value, from 0 to 255.
+   */
+  int blue(int index);
+
+  /**
+   * Gets the packed RGB color of the keyframe at the given index.
+   *
+   * @param index the index of the keyframe
+   * @return the color of the keyframe.
+   */
+  int color(int index);
+
+  /**
+   * Gets the tick of the first keyframe. The track must not be empty.
+   *
+   * @return the tick of the first keyframe.
+   */
+  int firstTick();
+
+  /**
+   * Finds the last keyframe at or before the given tick.
+   *
+   * @param tick the tick to search for.
+   * @return the index of that keyframe, or -1 if every keyframe comes after the given tick.
+   */
+  int floorIndex(int tick);
+
+  /**
+   * Adds a keyframe at the given tick, replacing the keyframe already at that tick if there is one.
+   *
+   * @param tick   the tick of the keyframe
+   * @param x      the x-position at that tick
+   * @param y      the y-position at that tick
+   * @param width  the width at that tick
+   * @param height the height at that tick
+   * @param color  the packed RGB color at that tick
+   */
+  void put(int tick, int x, int y, int width, int height, int color);
+
+  /**
+   * Adds the given shape as a keyframe at the given tick. If this track does not know its shape
+   * type yet, it takes on the type of the given shape.
+   *
+   * @param tick  the tick of the keyframe
+   * @param shape the state of the shape at that tick
+   */
+  void put(int tick, IShape shape);
+
+  /**
+   * Copies the keyframes of this track into a flat array of
+   * {@link KeyframeTrack#INTS_PER_KEYFRAME} ints per keyframe (tick, x, y, width, height, color)
+   * in the order of their ticks.
+   *
+   * @return the keyframes of this track.
+   */
+  int[] toKeyframes();
+
+  /**
+   * Removes every keyframe at or after the given tick.
+   *
+   * @param tick the first tick to remove
+   */
+  void removeFrom(int tick);
+
+  /**
+   * Creates a new shape of this track's type with the state of the keyframe at the given index.
+   *
+   * @param index the index of the keyframe
+   * @return a new shape describing that keyframe
+   */
+  IShape shapeAt(int index);
+
+  /**
+   * Gets the state of the keyframe at the given index.
+   *
+   * @param index the index of the keyframe
+   * @return a new state describing that keyframe
+   */
+  ShapeState stateAt(int index);
+}
@@ -1,5 +1,6 @@
 package cs3500.animator.model;
 
+import java.nio.IntBuffer;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +30,170 @@ public interface IViewModel {
    */
   IShape getState(int frame, String shape) throws IllegalArgumentException;
 
+  /**
+   * Returns the state of the shape with the given ID at the given frame. Reading a shape by its ID
+   * does not look up its name, so it suits loops that read many shapes at every tick.
+   *
+   * @param frame the timestamp to return the state for.
+   * @param id    the ID of the shape to return the state for, as given by {@link #getShapeId}.
+   * @return a shape object with the characteristics of the given shape at that time.
+   * @throws IllegalArgumentException if there is no shape with that ID, or if the frame is
+   *                                  negative.
+   */
+  IShape getState(int frame, int id) throws IllegalArgumentException;
+
+  /**
+   * Returns the state of the given shape at a time between two ticks, interpolated between the
+   * keyframes around it. At a whole number of ticks this is the same as {@link #getState(int,
+   * String)}. Playback that reads many states in a row should move a {@link #cursor} with
+   * {@link IShapeCursor#seek(double)} instead, which creates no objects.
+   *
+   * @param time  the time to return the state for, in ticks.
+   * @param shape the key of the shape to return the state for.
+   * @return a shape object with the characteristics of the given shape at that time, or null if
+   *         the shape has not appeared yet.
+   * @throws IllegalArgumentException if the shape is not present in the model, or if the time is
+   *                                  negative or not a number.
+   */
+  IShape getState(double time, String shape) throws IllegalArgumentException;
+
+  /**
+   * Gets the ID of the shape with the given name. IDs are small non-negative integers given out in
+   * the order names are first added, and a name keeps its ID for as long as the model exists.
+   *
+   * @param name the key of the shape.
+   * @return the ID of the shape.
+   * @throws IllegalArgumentException if the shape is not present in the model.
+   */
+  int getShapeId(String name) throws IllegalArgumentException;
+
+  /**
+   * Gets the name of the shape with the given ID.
+   *
+   * @param id the ID of the shape.
+   * @return the key of the shape.
+   * @throws IllegalArgumentException if there is no shape with that ID.
+   */
+  String getShapeName(int id) throws IllegalArgumentException;
+
+  /**
+   * Creates a cursor that reads the state of the given shape tick by tick, starting at frame 0.
+   *
+   * @param shape the key of the shape to read.
+   * @return a new cursor for that shape.
+   * @throws IllegalArgumentException if the shape is not present in the model.
+   */
+  IShapeCursor cursor(String shape) throws IllegalArgumentException;
+
+  /**
+   * Creates a cursor that reads the state of the shape with the given ID tick by tick, starting at
+   * frame 0.
+   *
+   * @param id the ID of the shape to read.
+   * @return a new cursor for that shape.
+   * @throws IllegalArgumentException if there is no shape with that ID.
+   */
+  IShapeCursor cursor(int id) throws IllegalArgumentException;
+
+  /**
+   * Gets the names of the shapes that are visible at the given frame, which are the shapes whose
+   * first keyframe is at or before it, in the order the shapes were added. The shapes are found
+   * through an index of their lifetimes, so the cost grows with the number of visible shapes
+   * rather than with the number of shapes in the animation.
+   *
+   * @param frame the frame to look at.
+   * @return the names of the visible shapes.
+   * @throws IllegalArgumentException if the frame is negative.
+   */
+  List<String> getVisibleShapes(int frame) throws IllegalArgumentException;
+
+  /**
+   * Gets the IDs of the shapes that are visible at the given frame, in the same order as
+   * {@link #getVisibleShapes}.
+   *
+   * @param frame the frame to look at.
+   * @return the IDs of the visible shapes.
+   * @throws IllegalArgumentException if the frame is negative.
+   */
+  int[] getVisibleShapeIds(int frame) throws IllegalArgumentException;
+
+  /**
+   * Finds the first tick after the given one at which the state of any shape may change. No shape
+   * changes from the given tick up to the one before the returned tick, so a view that has drawn
+   * the given tick can skip every tick until then. Ticks inside a motion are always counted as
+   * changes, even where rounding leaves a shape where it was.
+   *
+   * @param frame the tick to start after.
+   * @return the next tick at which a shape may change, or {@link Integer#MAX_VALUE} if no shape
+   *         changes after the given tick.
+   * @throws IllegalArgumentException if the frame is negative.
+   */
+  int nextChange(int frame) throws IllegalArgumentException;
+
+  /**
+   * Finds the shapes whose states differ between two ticks, including shapes that appear between
+   * them. A shape that changes and comes back to the same state is not included.
+   *
+   * @param from one of the ticks to compare.
+   * @param to   the other tick to compare.
+   * @return the IDs of the shapes whose states differ, in the order the shapes were added.
+   * @throws IllegalArgumentException if either tick is negative.
+   */
+  int[] getChangedShapeIds(int from, int to) throws IllegalArgumentException;
+
+  /**
+   * Samples the state of the given shape from tick start to tick end at the given step, writing
+   * {@link ShapeSampler#INTS_PER_SAMPLE} ints per sample into the buffer from its position on:
+   * the x-position, y-position, width, height and packed color, or four zeros and a color of -1
+   * where the shape is not visible. No object is created for any tick, and nothing is written if
+   * the buffer has too little room.
+   *
+   * @param shape the key of the shape to sample.
+   * @param start the first tick to sample.
+   * @param end   the last tick that may be sampled.
+   * @param step  the number of ticks between two samples.
+   * @param out   the buffer to write the samples into.
+   * @throws IllegalArgumentException if the shape is not present in the model, start is negative,
+   *                                  end is before start, the step is not positive, or the buffer
+   *                                  has too little room.
+   */
+  void sample(String shape, int start, int end, int step, IntBuffer out)
+      throws IllegalArgumentException;
+
+  /**
+   * Samples the state of the given shape as {@link #sample(String, int, int, int, IntBuffer)}
+   * does, writing into an array from the given index on.
+   *
+   * @param shape  the key of the shape to sample.
+   * @param start  the first tick to sample.
+   * @param end    the last tick that may be sampled.
+   * @param step   the number of ticks between two samples.
+   * @param out    the array to write the samples into.
+   * @param offset the index of the array to write the first sample at.
+   * @throws IllegalArgumentException if the shape is not present in the model, start is negative,
+   *                                  end is before start, the step is not positive, or the array
+   *                                  has too little room after the offset.
+   */
+  void sample(String shape, int start, int end, int step, int[] out, int offset)
+      throws IllegalArgumentException;
+
+  /**
+   * Samples the states of several shapes as {@link #sample(String, int, int, int, IntBuffer)}
+   * does, writing every shape at the first sampled tick in the given order, then every shape at
+   * the next one, and so on.
+   *
+   * @param ids   the IDs of the shapes to sample, as given by {@link #getShapeId}.
+   * @param start the first tick to sample.
+   * @param end   the last tick that may be sampled.
+   * @param step  the number of ticks between two samples.
+   * @param out   the buffer to write the samples into.
+   * @throws IllegalArgumentException if there is no shape with one of the IDs, start is negative,
+   *                                  end is before start, the step is not positive, or the buffer
+   *                                  has too little room.
+   */
+  void sample(int[] ids, int start, int end, int step, IntBuffer out)
+      throws IllegalArgumentException;
+
   /**
    * Returns the state of the whole model at the given frame for all shapes.
    *
@@ -52,4 +217,12 @@ public interface IViewModel {
    * @return a copy of the list of values describing the position, width, and height of the canvas.
    */
   List<Integer> getCanvas();
+
+  /**
+   * Gets a number that changes every time this animation is changed, so that anything computed
+   * from the animation can tell whether it is out of date.
+   *
+   * @return the current version of this animation.
+   */
+  int getVersion();
 }
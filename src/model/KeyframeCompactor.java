@@ -0,0 +1,122 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+
+/**
+ * Removes the keyframes of a shape that interpolating between their neighbours reproduces exactly,
+ * so that the shape's state at every tick stays the same. Keyframes are given as a flat array of
+ * six ints each (tick, x, y, width, height and a packed RGB color) sorted by tick.
+ * A keyframe is removed when the keyframes around it hold the same state, or when the
+ * interpolation that would replace it gives the same values at every tick in between, including
+ * the rounding that {@link AnimationModel#proportion} does. The second check looks at every tick,
+ * so it is only made for spans of at most {@link #MAX_CHECKED_SPAN} ticks. The first keyframe is
+ * always kept, since the shape only appears from it on.
+ */
+final class KeyframeCompactor {
+
+  // the number of ints of every keyframe in the arrays given to this class
+  private static final int STRIDE = KeyframeTrack.INTS_PER_KEYFRAME;
+
+  // the longest span of ticks that is checked tick by tick before keyframes in it are removed
+  static final int MAX_CHECKED_SPAN = 4096;
+
+  private KeyframeCompactor() {
+  }
+
+  /**
+   * Removes the keyframes that are exactly reproduced by their neighbours.
+   *
+   * @param keyframes the keyframes of one shape, six ints per keyframe and sorted by tick
+   * @return the keyframes to keep in the same layout, or the given array if every keyframe is kept.
+   */
+  static int[] compact(int[] keyframes) {
+    int count = keyframes.length / STRIDE;
+    if (count <= 1) {
+      return keyframes;
+    }
+    int[] kept = new int[keyframes.length];
+    System.arraycopy(keyframes, 0, kept, 0, STRIDE);
+    int keptCount = 1;
+    int previous = 0; // the last kept keyframe
+
+    for (int i = 1; i < count; i++) {
+      boolean removable;
+      if (i == count - 1) {
+        // the last state is held forever, so the last keyframe only matters if it changes
+        removable = sameState(keyframes, previous, i);
+      } else {
+        removable = reproduced(keyframes, previous, i, i + 1);
+      }
+      if (!removable) {
+        System.arraycopy(keyframes, i * STRIDE, kept, keptCount * STRIDE, STRIDE);
+        keptCount++;
+        previous = i;
+      }
+    }
+    return keptCount == count ? keyframes : Arrays.copyOf(kept, keptCount * STRIDE);
+  }
+
+  // Determines whether interpolating from the keyframe `from` to the keyframe `to` gives the same
+  // state at every tick between them as going through the keyframe `middle` does. The states
+  // between `from` and `middle` are known to be those of interpolating between the two, since any
+  // keyframe removed between them was checked against that interpolation.
+  private static boolean reproduced(int[] keyframes, int from, int middle, int to) {
+    if (sameState(keyframes, from, middle) && sameState(keyframes, middle, to)) {
+      return true;
+    }
+    int fromTick = keyframes[from * STRIDE];
+    int middleTick = keyframes[middle * STRIDE];
+    int toTick = keyframes[to * STRIDE];
+    if ((long) toTick - fromTick > MAX_CHECKED_SPAN) {
+      return false;
+    }
+    for (int tick = fromTick + 1; tick < toTick; tick++) {
+      for (int channel = 0; channel < 7; channel++) {
+        int expected = tick < middleTick
+            ? interpolate(keyframes, from, middle, tick, channel)
+            : interpolate(keyframes, middle, to, tick, channel);
+        if (interpolate(keyframes, from, to, tick, channel) != expected) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  // Interpolates one channel (x, y, width, height, red, green or blue) between two keyframes the
+  // same way the models do.
+  private static int interpolate(int[] keyframes, int from, int to, int tick, int channel) {
+    int fromTick = keyframes[from * STRIDE];
+    int toTick = keyframes[to * STRIDE];
+    if (tick == fromTick) {
+      return channel(keyframes, from, channel);
+    }
+    double prop = ((double) (tick - fromTick)) / ((double) (toTick - fromTick));
+    return AnimationModel.proportion(channel(keyframes, from, channel),
+        channel(keyframes, to, channel), prop);
+  }
+
+  // Gets one channel of a keyframe, unpacking the color into its three components.
+  private static int channel(int[] keyframes, int index, int channel) {
+    int base = index * STRIDE;
+    switch (channel) {
+      case 4:
+        return (keyframes[base + 5] >> 16) & 0xFF;
+      case 5:
+        return (keyframes[base + 5] >> 8) & 0xFF;
+      case 6:
+        return keyframes[base + 5] & 0xFF;
+      default:
+        return keyframes[base + 1 + channel];
+    }
+  }
+
+  private static boolean sameState(int[] keyframes, int first, int second) {
+    for (int i = 1; i < STRIDE; i++) {
+      if (keyframes[first * STRIDE + i] != keyframes[second * STRIDE + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
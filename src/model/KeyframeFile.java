@@ -0,0 +1,176 @@
+package cs3500.animator.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Stores keyframes outside the Java heap in a memory-mapped file, as fixed-width records of
+ * {@link KeyframeTrack#INTS_PER_KEYFRAME} ints (tick, x, y, width, height, color) addressed by
+ * their index in the file. One mapping cannot be larger than 2 GB, so the file is mapped in
+ * chunks of a fixed number of records, and a chunk is only mapped once a record in it is
+ * allocated. No record spans two chunks. The operating system reads pages of the file in and
+ * writes them back as needed, so the page cache rather than the heap bounds the memory the
+ * keyframes take up.
+ * Records are allocated at the end of the file and are never freed. The file is scratch space
+ * for one model: it is written in the native byte order and has no header.
+ */
+final class KeyframeFile implements Closeable {
+
+  /**
+   * The number of bytes of one record.
+   */
+  static final int RECORD_BYTES = KeyframeTrack.INTS_PER_KEYFRAME * Integer.BYTES;
+
+  /**
+   * The number of records mapped at once when none is given, 48 MB of the file.
+   */
+  static final int DEFAULT_CHUNK_RECORDS = 1 << 21;
+
+  private final FileChannel channel;
+  private final int shift; // the number of bits of a record index that select its chunk
+  private final long mask; // the bits of a record index that select the record in its chunk
+  private MappedByteBuffer[] chunks;
+  private long size; // the number of records allocated
+
+  /**
+   * Opens the given file as an empty store of keyframes, discarding anything in it.
+   *
+   * @param path         the file to store the keyframes in
+   * @param temporary    whether the file is deleted once this store is closed
+   * @param chunkRecords the number of records mapped at once. Must be a power of two.
+   * @throws IllegalArgumentException if the number of records per chunk is not a power of two or
+   *                                  makes a chunk larger than 2 GB.
+   * @throws UncheckedIOException     if the file cannot be opened.
+   */
+  KeyframeFile(Path path, boolean temporary, int chunkRecords) {
+    if (chunkRecords <= 0 || Integer.bitCount(chunkRecords) != 1
+        || (long) chunkRecords * RECORD_BYTES > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid chunk size.");
+    }
+    this.shift = Integer.numberOfTrailingZeros(chunkRecords);
+    this.mask = chunkRecords - 1;
+    this.chunks = new MappedByteBuffer[4];
+    try {
+      this.channel = temporary
+          ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE)
+          : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+              StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Allocates the given number of records at the end of the file, mapping the chunks they fall
+   * in.
+   *
+   * @param records the number of records to allocate
+   * @return the index of the first allocated record.
+   * @throws UncheckedIOException if the file cannot be grown or mapped.
+   */
+  long allocate(int records) {
+    long first = size;
+    long end = size + records;
+    long chunkBytes = (mask + 1) * RECORD_BYTES;
+    int needed = (int) ((end + mask) >>> shift);
+    if (needed > chunks.length) {
+      chunks = Arrays.copyOf(chunks, Math.max(needed, chunks.length * 2));
+    }
+    try {
+      for (int chunk = (int) (first >>> shift); chunk < needed; chunk++) {
+        if (chunks[chunk] == null) {
+          // mapping past the end of the file grows it, leaving a sparse file where supported
+          MappedByteBuffer buffer =
+              channel.map(FileChannel.MapMode.READ_WRITE, chunk * chunkBytes, chunkBytes);
+          buffer.order(ByteOrder.nativeOrder());
+          chunks[chunk] = buffer;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    size = end;
+    return first;
+  }
+
+  /**
+   * Reads one int of a record.
+   *
+   * @param record the index of the record
+   * @param field  the position of the int in the record, from 0 for the tick to 5 for the color
+   * @return the int read.
+   */
+  int read(long record, int field) {
+    return chunks[(int) (record >>> shift)]
+        .getInt((int) (record & mask) * RECORD_BYTES + field * Integer.BYTES);
+  }
+
+  /**
+   * Writes a whole record.
+   *
+   * @param record the index of the record
+   * @param tick   the tick of the keyframe
+   * @param x      the x-position at that tick
+   * @param y      the y-position at that tick
+   * @param width  the width at that tick
+   * @param height the height at that tick
+   * @param color  the packed RGB color at that tick
+   */
+  void write(long record, int tick, int x, int y, int width, int height, int color) {
+    MappedByteBuffer chunk = chunks[(int) (record >>> shift)];
+    int base = (int) (record & mask) * RECORD_BYTES;
+    chunk.putInt(base, tick);
+    chunk.putInt(base + 4, x);
+    chunk.putInt(base + 8, y);
+    chunk.putInt(base + 12, width);
+    chunk.putInt(base + 16, height);
+    chunk.putInt(base + 20, color);
+  }
+
+  /**
+   * Copies records within the file. The copied records may overlap the records they are copied
+   * to.
+   *
+   * @param from  the index of the first record to copy
+   * @param to    the index to copy the first record to
+   * @param count the number of records to copy
+   */
+  void copy(long from, long to, int count) {
+    // copying from the last record first when moving records up, so none is overwritten early
+    boolean backwards = to > from;
+    for (int i = 0; i < count; i++) {
+      int offset = backwards ? count - 1 - i : i;
+      this.write(to + offset, this.read(from + offset, 0), this.read(from + offset, 1),
+          this.read(from + offset, 2), this.read(from + offset, 3), this.read(from + offset, 4),
+          this.read(from + offset, 5));
+    }
+  }
+
+  /**
+   * Gets the number of records allocated so far, including the ones no longer used.
+   *
+   * @return the number of allocated records.
+   */
+  long size() {
+    return size;
+  }
+
+  /**
+   * Closes the file. The mapped chunks stay valid until they are garbage collected, but nothing
+   * may be read or written afterwards.
+   *
+   * @throws IOException if the file cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,298 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+
+/**
+ * Stores the keyframes of a single shape as parallel arrays of primitives (tick, x, y, width,
+ * height and a packed RGB color) sorted by tick. Keyframes are looked up with a binary search over
+ * the ticks, and a keyframe appended after the last one costs amortized O(1).
+ * Every keyframe of a track has the same shape type, which is remembered as a prototype shape.
+ * Tracks with the same motion can share their arrays (see {@link #shareWith}). A track that shares
+ * its arrays adds a constant offset to the positions read from them, and copies the arrays before
+ * it is first changed, so a change to one track never shows up in another.
+ */
+final class KeyframeTrack implements ITrack {
+
+  // the number of ints stored for every keyframe (tick, x, y, width, height, color)
+  static final int INTS_PER_KEYFRAME = 6;
+
+  // the size of a track object in bytes, leaving out its arrays
+  static final long BYTES_PER_TRACK = 56;
+
+  private static final int DEFAULT_CAPACITY = 4;
+
+  private IShape type;
+  private int[] ticks;
+  private int[] xs;
+  private int[] ys;
+  private int[] widths;
+  private int[] heights;
+  private int[] colors;
+  private int size;
+  private int dx; // added to every x-position stored in the arrays
+  private int dy; // added to every y-position stored in the arrays
+  private boolean shared; // whether other tracks may read the same arrays
+
+  /**
+   * Constructs an empty track with room for the given number of keyframes.
+   *
+   * @param type     a shape of the type that this track animates, or null if it is unknown.
+   * @param capacity the number of keyframes that can be stored before the arrays grow.
+   */
+  KeyframeTrack(IShape type, int capacity) {
+    int length = Math.max(capacity, 1);
+    this.type = type;
+    this.ticks = new int[length];
+    this.xs = new int[length];
+    this.ys = new int[length];
+    this.widths = new int[length];
+    this.heights = new int[length];
+    this.colors = new int[length];
+    this.size = 0;
+  }
+
+  /**
+   * Constructs an empty track with a default capacity.
+   *
+   * @param type a shape of the type that this track animates, or null if it is unknown.
+   */
+  KeyframeTrack(IShape type) {
+    this(type, DEFAULT_CAPACITY);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public IShape getType() {
+    return type;
+  }
+
+  @Override
+  public int tick(int index) {
+    return ticks[index];
+  }
+
+  @Override
+  public int x(int index) {
+    return xs[index] + dx;
+  }
+
+  @Override
+  public int y(int index) {
+    return ys[index] + dy;
+  }
+
+  @Override
+  public int width(int index) {
+    return widths[index];
+  }
+
+  @Override
+  public int height(int index) {
+    return heights[index];
+  }
+
+  @Override
+  public int red(int index) {
+    return (colors[index] >> 16) & 0xFF;
+  }
+
+  @Override
+  public int green(int index) {
+    return (colors[index] >> 8) & 0xFF;
+  }
+
+  @Override
+  public int blue(int index) {
+    return colors[index] & 0xFF;
+  }
+
+  @Override
+  public int color(int index) {
+    return colors[index];
+  }
+
+  @Override
+  public int firstTick() {
+    return ticks[0];
+  }
+
+  int lastTick() {
+    return ticks[size - 1];
+  }
+
+  /**
+   * Finds the keyframe at the given tick.
+   *
+   * @param tick the tick to search for.
+   * @return the index of the keyframe, or (-(insertion point) - 1) if there is none at that tick.
+   */
+  int indexOf(int tick) {
+    return Arrays.binarySearch(ticks, 0, size, tick);
+  }
+
+  @Override
+  public int floorIndex(int tick) {
+    int index = indexOf(tick);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  @Override
+  public void put(int tick, int x, int y, int width, int height, int color) {
+    if (shared) {
+      // copying the arrays before the first change, so that tracks sharing them do not change
+      resize(ticks.length);
+    }
+    int index;
+    // appending after the last keyframe is the common case and skips the search
+    if (size == 0 || tick > ticks[size - 1]) {
+      index = size;
+      ensureCapacity(size + 1);
+      size++;
+    } else {
+      index = indexOf(tick);
+      if (index < 0) {
+        index = -index - 1;
+        ensureCapacity(size + 1);
+        shift(index, index + 1, size - index);
+        size++;
+      }
+    }
+    ticks[index] = tick;
+    xs[index] = x - dx;
+    ys[index] = y - dy;
+    widths[index] = width;
+    heights[index] = height;
+    colors[index] = color;
+  }
+
+  @Override
+  public void put(int tick, IShape shape) {
+    if (type == null) {
+      type = shape;
+    }
+    ShapeState state = shape.state();
+    put(tick, state.x(), state.y(), state.width(), state.height(), state.color());
+  }
+
+  @Override
+  public int[] toKeyframes() {
+    int[] keyframes = new int[size * INTS_PER_KEYFRAME];
+    for (int i = 0; i < size; i++) {
+      int base = i * INTS_PER_KEYFRAME;
+      keyframes[base] = ticks[i];
+      keyframes[base + 1] = x(i);
+      keyframes[base + 2] = y(i);
+      keyframes[base + 3] = widths[i];
+      keyframes[base + 4] = heights[i];
+      keyframes[base + 5] = colors[i];
+    }
+    return keyframes;
+  }
+
+  @Override
+  public void removeFrom(int tick) {
+    int index = indexOf(tick);
+    size = index >= 0 ? index : -index - 1;
+  }
+
+  @Override
+  public IShape shapeAt(int index) {
+    return type.copyShape(this.stateAt(index));
+  }
+
+  @Override
+  public ShapeState stateAt(int index) {
+    return new ShapeState(x(index), y(index), widths[index], heights[index], colors[index]);
+  }
+
+  /**
+   * Creates a track that shares the arrays of this track and moves its shape by the given offset.
+   * Neither track writes to the shared arrays afterwards; each copies them before it is changed.
+   *
+   * @param type a shape of the type that the new track animates
+   * @param dx   the distance to move every x-position of this track by
+   * @param dy   the distance to move every y-position of this track by
+   * @return a track with this track's motion, moved by the offset.
+   */
+  KeyframeTrack shareWith(IShape type, int dx, int dy) {
+    KeyframeTrack copy = new KeyframeTrack(type, 0);
+    copy.ticks = ticks;
+    copy.xs = xs;
+    copy.ys = ys;
+    copy.widths = widths;
+    copy.heights = heights;
+    copy.colors = colors;
+    copy.size = size;
+    copy.dx = this.dx + dx;
+    copy.dy = this.dy + dy;
+    copy.shared = true;
+    this.shared = true;
+    return copy;
+  }
+
+  /**
+   * Gets an object that is the same for tracks that share their arrays, so that the memory of
+   * shared arrays is only counted once.
+   *
+   * @return the object identifying the arrays of this track.
+   */
+  Object storage() {
+    return ticks;
+  }
+
+  /**
+   * Estimates the bytes retained by the arrays of this track, including unused capacity. Arrays
+   * shared with other tracks are counted in full.
+   *
+   * @return the estimated size of this track's arrays in bytes.
+   */
+  long retainedBytes() {
+    // every int[] has a 16 byte header on a 64-bit JVM with compressed pointers
+    return INTS_PER_KEYFRAME * (16L + (long) Integer.BYTES * ticks.length);
+  }
+
+  /**
+   * Shrinks the arrays of this track so that they hold exactly its keyframes.
+   */
+  void trimToSize() {
+    if (ticks.length != size) {
+      resize(Math.max(size, 1));
+    }
+  }
+
+  // Grows the arrays by half of their length when they cannot hold the given number of keyframes.
+  private void ensureCapacity(int needed) {
+    if (needed > ticks.length) {
+      resize(Math.max(needed, ticks.length + (ticks.length >> 1)));
+    }
+  }
+
+  private void resize(int length) {
+    shared = false; // the copies belong to this track only
+    ticks = Arrays.copyOf(ticks, length);
+    xs = Arrays.copyOf(xs, length);
+    ys = Arrays.copyOf(ys, length);
+    widths = Arrays.copyOf(widths, length);
+    heights = Arrays.copyOf(heights, length);
+    colors = Arrays.copyOf(colors, length);
+  }
+
+  // Moves count keyframes starting at from so that they start at to.
+  private void shift(int from, int to, int count) {
+    System.arraycopy(ticks, from, ticks, to, count);
+    System.arraycopy(xs, from, xs, to, count);
+    System.arraycopy(ys, from, ys, to, count);
+    System.arraycopy(widths, from, widths, to, count);
+    System.arraycopy(heights, from, heights, to, count);
+    System.arraycopy(colors, from, colors, to, count);
+  }
+}
@@ -0,0 +1,73 @@
+package cs3500.animator.model;
+
+import java.util.function.Function;
+
+/**
+ * Holds an index of a model that is built by the first read after each change to the model.
+ * Readers holding a shared lock, such as those of {@link ConcurrentAnimationModel}, may find the
+ * index missing or out of date at the same time, and each of them then builds one. The index is
+ * kept in a volatile field that each read looks at once, so every reader works with a whole index
+ * even while another one is being built, and the last index built is the one kept.
+ *
+ * @param <T> the type of the index
+ */
+final class LazyIndex<T extends LazyIndex.Index> {
+
+  /**
+   * An index that describes one version of a model.
+   */
+  interface Index {
+
+    /**
+     * Gets the version of the model this index describes.
+     *
+     * @return the version of the model when this index was created.
+     */
+    int getVersion();
+
+    /**
+     * Estimates the bytes retained by this index.
+     *
+     * @return the estimated size of this index in bytes.
+     */
+    long retainedBytes();
+  }
+
+  private final Function<AAnimationModel, T> builder;
+  private volatile T index; // the last index built, or null if none has been
+
+  /**
+   * Constructs a holder that builds its index with the given function.
+   *
+   * @param builder the function that indexes a model as it is now
+   */
+  LazyIndex(Function<AAnimationModel, T> builder) {
+    this.builder = builder;
+  }
+
+  /**
+   * Gets an index of the given model as it is now, building it if the model has changed since the
+   * index was last built.
+   *
+   * @param model the model to index
+   * @return an index of the current version of the model.
+   */
+  T get(AAnimationModel model) {
+    T current = index;
+    if (current == null || current.getVersion() != model.getVersion()) {
+      current = builder.apply(model);
+      index = current;
+    }
+    return current;
+  }
+
+  /**
+   * Estimates the bytes retained by the last index built.
+   *
+   * @return the estimated size of the index in bytes, or 0 if none has been built.
+   */
+  long retainedBytes() {
+    T current = index;
+    return current == null ? 0 : current.retainedBytes();
+  }
+}
@@ -0,0 +1,148 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Indexes the shapes of an animation by the tick at which each one first appears, so that the
+ * shapes visible at a tick are found in time proportional to their number rather than to the
+ * number of shapes in the animation. A shape stays visible from its first keyframe on, since it
+ * keeps its last state after its last keyframe, so the end of its lifetime never hides it.
+ * An index describes the model as it was when it was created and has to be replaced once the
+ * model changes. Its fields are final, so it can be shared between threads once created.
+ */
+final class LifetimeIndex implements LazyIndex.Index {
+
+  private final int version; // the version of the model this index describes
+  private final String[] names; // the names of the shapes in the order they were added
+  private final int[] ids; // the IDs of the shapes in the order they were added
+  private final int[] byFirstTick; // the positions of the shapes, sorted by their first ticks
+  private final int[] firstTicks; // the first ticks of the shapes in byFirstTick
+
+  /**
+   * Constructs an index of the given shapes.
+   *
+   * @param version    the version of the model the shapes were taken from
+   * @param names      the names of the shapes in the order they were added
+   * @param ids        the ID of each shape
+   * @param firstTicks the tick of each shape's first keyframe, or {@link Integer#MAX_VALUE} for a
+   *                   shape without keyframes
+   */
+  private LifetimeIndex(int version, List<String> names, int[] ids, int[] firstTicks) {
+    this.version = version;
+    int count = names.size();
+    this.names = names.toArray(new String[count]);
+    this.ids = ids.clone();
+
+    // sorting the positions by first tick, keeping shapes that appear together in order
+    long[] keys = new long[count];
+    for (int i = 0; i < count; i++) {
+      keys[i] = ((long) firstTicks[i] << 32) | i;
+    }
+    Arrays.sort(keys);
+    this.byFirstTick = new int[count];
+    this.firstTicks = new int[count];
+    for (int i = 0; i < count; i++) {
+      this.byFirstTick[i] = (int) keys[i];
+      this.firstTicks[i] = (int) (keys[i] >>> 32);
+    }
+  }
+
+  /**
+   * Indexes the shapes of the given model as it is now.
+   *
+   * @param model the model to index
+   * @return an index of the lifetimes of the shapes of the model.
+   */
+  static LifetimeIndex of(AAnimationModel model) {
+    List<String> names = model.shapeNames();
+    int[] ids = new int[names.size()];
+    int[] firstTicks = new int[names.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = model.getShapeId(names.get(i));
+      firstTicks[i] = model.firstTick(ids[i]);
+    }
+    return new LifetimeIndex(model.getVersion(), names, ids, firstTicks);
+  }
+
+  @Override
+  public int getVersion() {
+    return version;
+  }
+
+  // Counting the arrays of this index but not the names, which are shared with the model.
+  @Override
+  public long retainedBytes() {
+    return 32 + MemoryReport.arrayBytes(names.length, 4) + MemoryReport.arrayBytes(ids.length, 4)
+        + MemoryReport.arrayBytes(byFirstTick.length, 4)
+        + MemoryReport.arrayBytes(firstTicks.length, 4);
+  }
+
+  /**
+   * Gets the names of the shapes that are visible at the given tick, in the order the shapes were
+   * added, which is the order they are drawn in.
+   *
+   * @param tick the tick
+   * @return the names of the shapes whose first keyframe is at or before the tick.
+   */
+  List<String> visibleAt(int tick) {
+    int[] positions = this.visiblePositions(tick);
+    List<String> visible = new ArrayList<>(positions.length);
+    for (int position : positions) {
+      visible.add(names[position]);
+    }
+    return visible;
+  }
+
+  /**
+   * Gets the IDs of the shapes that are visible at the given tick, in the order the shapes were
+   * added, which is the order they are drawn in.
+   *
+   * @param tick the tick
+   * @return the IDs of the shapes whose first keyframe is at or before the tick.
+   */
+  int[] visibleIdsAt(int tick) {
+    int[] positions = this.visiblePositions(tick);
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = ids[positions[i]];
+    }
+    return positions;
+  }
+
+  // Gets the positions of the visible shapes in the order they were added.
+  private int[] visiblePositions(int tick) {
+    int count = this.countVisible(tick);
+    int[] positions = new int[count];
+    if (count == names.length) {
+      for (int i = 0; i < count; i++) {
+        positions[i] = i;
+      }
+      return positions;
+    }
+    System.arraycopy(byFirstTick, 0, positions, 0, count);
+    Arrays.sort(positions);
+    return positions;
+  }
+
+  /**
+   * Counts the shapes that are visible at the given tick.
+   *
+   * @param tick the tick
+   * @return the number of shapes whose first keyframe is at or before the tick.
+   */
+  int countVisible(int tick) {
+    // finding the first shape that appears after the tick
+    int low = 0;
+    int high = firstTicks.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (firstTicks[mid] <= tick) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
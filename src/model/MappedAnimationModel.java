@@ -0,0 +1,227 @@
+package cs3500.animator.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents an animation whose keyframes live outside the Java heap, in a memory-mapped file of
+ * fixed-width records of {@link #BYTES_PER_KEYFRAME} bytes. Each shape has an entry in an offset
+ * table on the heap, a {@link MappedTrack}, that gives the first record of its keyframes and their
+ * number, and {@link #getState} and {@link #getFullState} read the records in place. The operating
+ * system pages the file in and out, so the page cache rather than the heap bounds the memory of
+ * the keyframes, and animations with more keyframes than any heap could hold can be played.
+ * Shapes are only created when a client asks for them. This model behaves the same way as
+ * {@link AnimationModel}.
+ * A shape built with all of its keyframes takes exactly as many records as it has keyframes. A
+ * shape that outgrows its records through edits moves its keyframes to the end of the file and
+ * leaves the old records unused, so a file that was edited a lot can be a few times as large as
+ * its keyframes. The model holds the file open until it is closed, and must not be used
+ * afterwards.
+ */
+public class MappedAnimationModel extends ATrackAnimationModel<MappedTrack> implements Closeable {
+
+  /**
+   * The number of bytes used by one keyframe in the file: six ints for the tick, position, size
+   * and color.
+   */
+  public static final int BYTES_PER_KEYFRAME = KeyframeFile.RECORD_BYTES;
+
+  private final KeyframeFile file;
+
+  /**
+   * Constructs a new instance of a mapped model with no shapes and a default canvas with length
+   * 360 at 0 (x), 0 (y). Its keyframes are kept in a temporary file that is deleted when the
+   * model is closed.
+   *
+   * @throws UncheckedIOException if the temporary file cannot be created.
+   */
+  public MappedAnimationModel() {
+    this(new LinkedHashMap<String, Map<Integer, IShape>>());
+  }
+
+  /**
+   * Constructs a new instance of a mapped model with the given shapes and a default canvas with
+   * length 360 at 0 (x), 0 (y). Its keyframes are kept in a temporary file that is deleted when
+   * the model is closed.
+   *
+   * @param shapes the given shapes and their frames that will appear in this animation.
+   * @throws IllegalArgumentException if the map is null, or contains null frames, null shapes or
+   *                                  negative frame numbers.
+   * @throws UncheckedIOException     if the temporary file cannot be created.
+   */
+  public MappedAnimationModel(Map<String, Map<Integer, IShape>> shapes) {
+    this(shapes, Arrays.asList(0, 0, 360, 360));
+  }
+
+  /**
+   * Constructs a new instance of a mapped model with the given shapes and canvas. Its keyframes
+   * are kept in a temporary file that is deleted when the model is closed.
+   *
+   * @param shapes the given shapes and their frames that will appear in this animation. Frame
+   *               numbers must be non-negative.
+   * @param canvas the given canvas which will act as the background for the animation. The
+   *               listed values are the canvas's x and y position and width and height.
+   * @throws IllegalArgumentException if the map is null, or contains null frames, null shapes or
+   *                                  negative frame numbers, or if the canvas is invalid.
+   * @throws UncheckedIOException     if the temporary file cannot be created.
+   */
+  public MappedAnimationModel(Map<String, Map<Integer, IShape>> shapes, List<Integer> canvas) {
+    this(null, KeyframeFile.DEFAULT_CHUNK_RECORDS, shapes, canvas);
+  }
+
+  /**
+   * Constructs a new instance of a mapped model with no shapes and the given canvas, keeping its
+   * keyframes in the given file. Anything already in the file is discarded, and the file is left
+   * in place when the model is closed.
+   *
+   * @param file              the file to keep the keyframes in
+   * @param keyframesPerChunk the number of keyframes mapped into memory at once. Must be a power
+   *                          of two, and a chunk may not be larger than 2 GB.
+   * @param canvas            the given canvas which will act as the background for the
+   *                          animation. The listed values are the canvas's x and y position and
+   *                          width and height.
+   * @throws IllegalArgumentException if the file is null, the chunk size is invalid, or the
+   *                                  canvas is invalid.
+   * @throws UncheckedIOException     if the file cannot be opened.
+   */
+  public MappedAnimationModel(Path file, int keyframesPerChunk, List<Integer> canvas) {
+    this(requireFile(file), keyframesPerChunk,
+        new LinkedHashMap<String, Map<Integer, IShape>>(), canvas);
+  }
+
+  // Constructs a model keeping its keyframes in the given file, or in a temporary file if the
+  // given file is null.
+  private MappedAnimationModel(Path path, int keyframesPerChunk,
+      Map<String, Map<Integer, IShape>> shapes, List<Integer> canvas) {
+    super(canvas);
+    this.file = path == null
+        ? new KeyframeFile(temporaryFile(), true, keyframesPerChunk)
+        : new KeyframeFile(path, false, keyframesPerChunk);
+    try {
+      this.putShapes(shapes);
+    } catch (IllegalArgumentException e) {
+      this.closeQuietly();
+      throw e;
+    }
+  }
+
+  // Closes the file of a model that could not be constructed.
+  private void closeQuietly() {
+    try {
+      file.close();
+    } catch (IOException e) {
+      // the model is rejected either way
+    }
+  }
+
+  private static Path requireFile(Path file) {
+    if (file == null) {
+      throw new IllegalArgumentException("File must not be null");
+    }
+    return file;
+  }
+
+  // Creates an empty temporary file to keep keyframes in. The file is deleted when the model is
+  // closed, and when the virtual machine exits if the model never is, as with models the builder
+  // hands out as plain IAnimationModels.
+  private static Path temporaryFile() {
+    try {
+      Path file = Files.createTempFile("keyframes", ".bin");
+      file.toFile().deleteOnExit();
+      return file;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Adds a shape with the given keyframes. Used by the builder so that loaded keyframes are
+   * written straight to the file.
+   *
+   * @param name      the name of the shape
+   * @param type      a shape of the type that the shape animates
+   * @param keyframes the keyframes, six ints per keyframe (tick, x, y, width, height, color)
+   *                  sorted by tick
+   */
+  void putTrack(String name, IShape type, int[] keyframes) {
+    MappedTrack track = new MappedTrack(file, type);
+    track.setKeyframes(keyframes);
+    this.putTrack(name, track);
+  }
+
+  /**
+   * Closes the file that holds the keyframes of this model, deleting it if it is temporary. The
+   * model must not be used afterwards.
+   *
+   * @throws IOException if the file cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    file.close();
+  }
+
+  @Override
+  MappedTrack newTrack(IShape type, int keyframes) {
+    return new MappedTrack(file, type);
+  }
+
+  // Merging each track with its motions in one pass instead of moving its records once for
+  // every inserted keyframe
+  @Override
+  void mergeBatch(MotionBatch batch) {
+    for (String name : batch.shapeNames()) {
+      MappedTrack track = this.tracks.get(name);
+      track.setKeyframes(batch.merge(name, track.toKeyframes()), batch.type(name));
+    }
+  }
+
+  @Override
+  public CompactionReport compact() {
+    int before = 0;
+    int after = 0;
+    List<ModelChange> changed = new ArrayList<>();
+    for (Map.Entry<String, MappedTrack> entry : this.tracks.entrySet()) {
+      MappedTrack track = entry.getValue();
+      int[] keyframes = track.toKeyframes();
+      int[] kept = KeyframeCompactor.compact(keyframes);
+      before += track.size();
+      after += kept.length / KeyframeTrack.INTS_PER_KEYFRAME;
+      if (kept != keyframes) {
+        // the kept keyframes fit in the records the track already has
+        track.setKeyframes(kept);
+        if (!listeners.isEmpty()) {
+          // removing any keyframe counts as one change, made once every shape is compacted
+          changed.add(ModelListeners.compacted(entry.getKey(), keyframes, kept, modCount + 1));
+        }
+      }
+    }
+    if (after != before) {
+      modCount++;
+      listeners.changed(changed);
+    }
+    // the records stay in the file, but are no longer read into memory
+    return new CompactionReport(before, after, (long) BYTES_PER_KEYFRAME * (before - after));
+  }
+
+  @Override
+  public MemoryReport getMemoryReport() {
+    Map<String, Long> shapeBytes = new LinkedHashMap<>();
+    int keyframes = 0;
+    for (Map.Entry<String, MappedTrack> entry : this.tracks.entrySet()) {
+      keyframes += entry.getValue().size();
+      // only the entry in the offset table is on the heap
+      shapeBytes.put(entry.getKey(), MemoryReport.SHAPE_ENTRY_BYTES
+          + MemoryReport.stringBytes(entry.getKey()) + MappedTrack.BYTES_PER_TRACK);
+    }
+    return new MemoryReport(shapeBytes, keyframes, 0, this.indexBytes(),
+        file.size() * BYTES_PER_KEYFRAME, 0);
+  }
+}
@@ -0,0 +1,239 @@
+package cs3500.animator.model;
+
+/**
+ * Locates the keyframes of a single shape in a {@link KeyframeFile}: the entry of one shape in
+ * the offset table of a {@link MappedAnimationModel}. The keyframes are consecutive records of the
+ * file sorted by tick, starting at a fixed record, with room for a number of them after it. Only
+ * the location and the shape type are kept on the heap; every keyframe is read from the file.
+ * A track that runs out of room moves its keyframes to new records at the end of the file, half
+ * again as many as before, so that a keyframe appended after the last one costs amortized O(1).
+ */
+final class MappedTrack implements ITrack {
+
+  // the size of a track object in bytes
+  static final long BYTES_PER_TRACK = 40;
+
+  private static final int DEFAULT_CAPACITY = 4;
+
+  private final KeyframeFile file;
+  private IShape type;
+  private long start; // the index of the record of the first keyframe
+  private int size;
+  private int capacity; // the number of records from start on that belong to this track
+
+  /**
+   * Constructs an empty track in the given file. No record is allocated until a keyframe is
+   * added.
+   *
+   * @param file the file to store the keyframes in
+   * @param type a shape of the type that this track animates, or null if it is unknown.
+   */
+  MappedTrack(KeyframeFile file, IShape type) {
+    this.file = file;
+    this.type = type;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public IShape getType() {
+    return type;
+  }
+
+  @Override
+  public int tick(int index) {
+    return file.read(start + index, 0);
+  }
+
+  @Override
+  public int x(int index) {
+    return file.read(start + index, 1);
+  }
+
+  @Override
+  public int y(int index) {
+    return file.read(start + index, 2);
+  }
+
+  @Override
+  public int width(int index) {
+    return file.read(start + index, 3);
+  }
+
+  @Override
+  public int height(int index) {
+    return file.read(start + index, 4);
+  }
+
+  @Override
+  public int red(int index) {
+    return (this.color(index) >> 16) & 0xFF;
+  }
+
+  @Override
+  public int green(int index) {
+    return (this.color(index) >> 8) & 0xFF;
+  }
+
+  @Override
+  public int blue(int index) {
+    return this.color(index) & 0xFF;
+  }
+
+  @Override
+  public int color(int index) {
+    return file.read(start + index, 5);
+  }
+
+  @Override
+  public int firstTick() {
+    return this.tick(0);
+  }
+
+  /**
+   * Finds the keyframe at the given tick.
+   *
+   * @param tick the tick to search for.
+   * @return the index of the keyframe, or (-(insertion point) - 1) if there is none at that tick.
+   */
+  int indexOf(int tick) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int found = this.tick(middle);
+      if (found < tick) {
+        low = middle + 1;
+      } else if (found > tick) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(low + 1);
+  }
+
+  @Override
+  public int floorIndex(int tick) {
+    int index = indexOf(tick);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  @Override
+  public void put(int tick, int x, int y, int width, int height, int color) {
+    int index;
+    // appending after the last keyframe is the common case and skips the search
+    if (size == 0 || tick > this.tick(size - 1)) {
+      index = size;
+      ensureCapacity(size + 1);
+      size++;
+    } else {
+      index = indexOf(tick);
+      if (index < 0) {
+        index = -index - 1;
+        ensureCapacity(size + 1);
+        file.copy(start + index, start + index + 1, size - index);
+        size++;
+      }
+    }
+    file.write(start + index, tick, x, y, width, height, color);
+  }
+
+  @Override
+  public void put(int tick, IShape shape) {
+    if (type == null) {
+      type = shape;
+    }
+    ShapeState state = shape.state();
+    put(tick, state.x(), state.y(), state.width(), state.height(), state.color());
+  }
+
+  /**
+   * Replaces every keyframe of this track with the given keyframes.
+   *
+   * @param keyframes the keyframes, {@link KeyframeTrack#INTS_PER_KEYFRAME} ints per keyframe
+   *                  (tick, x, y, width, height, color) sorted by tick
+   */
+  void setKeyframes(int[] keyframes) {
+    int count = keyframes.length / KeyframeTrack.INTS_PER_KEYFRAME;
+    size = 0;
+    ensureCapacity(count);
+    for (int i = 0; i < count; i++) {
+      int base = i * KeyframeTrack.INTS_PER_KEYFRAME;
+      file.write(start + i, keyframes[base], keyframes[base + 1], keyframes[base + 2],
+          keyframes[base + 3], keyframes[base + 4], keyframes[base + 5]);
+    }
+    size = count;
+  }
+
+  /**
+   * Replaces every keyframe of this track with the given keyframes. If this track does not know
+   * its shape type yet, it takes on the type of the given shape.
+   *
+   * @param keyframes the keyframes, {@link KeyframeTrack#INTS_PER_KEYFRAME} ints per keyframe
+   *                  (tick, x, y, width, height, color) sorted by tick
+   * @param shape     a shape of the type of the keyframes
+   */
+  void setKeyframes(int[] keyframes, IShape shape) {
+    if (type == null) {
+      type = shape;
+    }
+    setKeyframes(keyframes);
+  }
+
+  @Override
+  public int[] toKeyframes() {
+    int[] keyframes = new int[size * KeyframeTrack.INTS_PER_KEYFRAME];
+    for (int i = 0; i < size; i++) {
+      for (int field = 0; field < KeyframeTrack.INTS_PER_KEYFRAME; field++) {
+        keyframes[i * KeyframeTrack.INTS_PER_KEYFRAME + field] = file.read(start + i, field);
+      }
+    }
+    return keyframes;
+  }
+
+  @Override
+  public void removeFrom(int tick) {
+    // the records stay with this track
+    int index = indexOf(tick);
+    size = index >= 0 ? index : -index - 1;
+  }
+
+  @Override
+  public IShape shapeAt(int index) {
+    return type.copyShape(this.stateAt(index));
+  }
+
+  @Override
+  public ShapeState stateAt(int index) {
+    return new ShapeState(x(index), y(index), width(index), height(index), color(index));
+  }
+
+  /**
+   * Gets the number of records that belong to this track, used or not.
+   *
+   * @return the number of records of this track.
+   */
+  int capacity() {
+    return capacity;
+  }
+
+  // Moves the keyframes to new records at the end of the file when they do not fit.
+  private void ensureCapacity(int needed) {
+    if (needed > capacity) {
+      int length = Math.max(Math.max(needed, DEFAULT_CAPACITY), capacity + (capacity >> 1));
+      long moved = file.allocate(length);
+      file.copy(start, moved, size);
+      start = moved;
+      capacity = length;
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package cs3500.animator.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Estimates the memory an animation retains: in total, for each shape and for its keyframes,
+ * along with the number of shapes and keyframes. The estimates assume a 64-bit JVM with
+ * compressed pointers, where every object has a 12 byte header and is aligned to 8 bytes, so
+ * they are close to what a heap dump shows but not exact. They let the storage of models be
+ * compared and the heap needed for an input be predicted from its number of keyframes.
+ * Keyframes kept in a memory-mapped file are reported apart from the heap, and so is the history
+ * a model keeps to undo changes with.
+ */
+public final class MemoryReport {
+
+  // the entry of a shape in the map of its model and in its table of IDs, with its boxed ID
+  static final long SHAPE_ENTRY_BYTES = 96;
+
+  private final Map<String, Long> shapeBytes;
+  private final int keyframes;
+  private final long keyframeBytes;
+  private final long indexBytes;
+  private final long totalBytes;
+  private final long mappedBytes;
+  private final long historyBytes;
+
+  /**
+   * Constructs a report of the memory of an animation.
+   *
+   * @param shapeBytes    the bytes retained by each shape, keyframes included, by name in the
+   *                      order the shapes were added
+   * @param keyframes     the number of keyframes of every shape
+   * @param keyframeBytes the bytes retained by the keyframes of every shape
+   * @param indexBytes    the bytes retained by the indexes the model built to answer queries
+   */
+  MemoryReport(Map<String, Long> shapeBytes, int keyframes, long keyframeBytes, long indexBytes) {
+    this(shapeBytes, keyframes, keyframeBytes, indexBytes, 0, 0);
+  }
+
+  /**
+   * Constructs a report of the memory of an animation that keeps keyframes in a memory-mapped
+   * file, or earlier versions of itself, as well as its current keyframes on the heap.
+   *
+   * @param shapeBytes    the bytes retained by each shape on the heap, keyframes included, by
+   *                      name in the order the shapes were added
+   * @param keyframes     the number of keyframes of every shape
+   * @param keyframeBytes the bytes retained by the keyframes of every shape on the heap
+   * @param indexBytes    the bytes retained by the indexes the model built to answer queries
+   * @param mappedBytes   the bytes of the file the keyframes are mapped from
+   * @param historyBytes  the bytes retained by earlier versions of the animation beyond what they
+   *                      share with the current one
+   */
+  MemoryReport(Map<String, Long> shapeBytes, int keyframes, long keyframeBytes, long indexBytes,
+      long mappedBytes, long historyBytes) {
+    this.mappedBytes = mappedBytes;
+    this.historyBytes = historyBytes;
+    this.shapeBytes = Collections.unmodifiableMap(new LinkedHashMap<>(shapeBytes));
+    this.keyframes = keyframes;
+    this.keyframeBytes = keyframeBytes;
+    this.indexBytes = indexBytes;
+    long total = indexBytes + historyBytes;
+    for (long bytes : shapeBytes.values()) {
+      total += bytes;
+    }
+    this.totalBytes = total;
+  }
+
+  /**
+   * Estimates the size of an array.
+   *
+   * @param length       the number of elements of the array
+   * @param elementBytes the size of one element in bytes
+   * @return the estimated size of the array in bytes, header included.
+   */
+  static long arrayBytes(long length, int elementBytes) {
+    return align(16 + length * elementBytes);
+  }
+
+  /**
+   * Estimates the size of a string of Latin-1 characters, with its array.
+   *
+   * @param s the string
+   * @return the estimated size of the string in bytes.
+   */
+  static long stringBytes(String s) {
+    return 24 + arrayBytes(s.length(), 1);
+  }
+
+  // Rounds a size up to the 8 bytes that every object is aligned to.
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+  /**
+   * Gets the number of shapes in the animation.
+   *
+   * @return the number of shapes.
+   */
+  public int getShapeCount() {
+    return shapeBytes.size();
+  }
+
+  /**
+   * Gets the number of keyframes of every shape in the animation.
+   *
+   * @return the number of keyframes.
+   */
+  public int getKeyframeCount() {
+    return keyframes;
+  }
+
+  /**
+   * Gets an estimate of the memory retained by the whole animation.
+   *
+   * @return the estimated number of bytes.
+   */
+  public long getTotalBytes() {
+    return totalBytes;
+  }
+
+  /**
+   * Gets an estimate of the memory retained by the keyframes of every shape, leaving out the
+   * names of the shapes and the structures that hold them.
+   *
+   * @return the estimated number of bytes.
+   */
+  public long getKeyframeBytes() {
+    return keyframeBytes;
+  }
+
+  /**
+   * Gets an estimate of the memory retained by the indexes the model keeps to answer queries,
+   * such as the shapes visible at a tick. Indexes are built when first needed, so this is zero
+   * until the model is played.
+   *
+   * @return the estimated number of bytes.
+   */
+  public long getIndexBytes() {
+    return indexBytes;
+  }
+
+  /**
+   * Gets the size of the memory-mapped file that keyframes are kept in outside the heap. The
+   * operating system keeps as much of it in memory as it can spare, so it is not part of the
+   * total.
+   *
+   * @return the number of mapped bytes, or 0 if every keyframe is on the heap.
+   */
+  public long getMappedBytes() {
+    return mappedBytes;
+  }
+
+  /**
+   * Gets an estimate of the memory retained by the earlier versions of the animation that are
+   * kept to undo and redo changes, leaving out what they share with the current version.
+   *
+   * @return the estimated number of bytes, or 0 if the animation keeps no earlier versions.
+   */
+  public long getHistoryBytes() {
+    return historyBytes;
+  }
+
+  /**
+   * Gets the average memory retained by one keyframe.
+   *
+   * @return the estimated number of bytes per keyframe, or 0 if there are no keyframes.
+   */
+  public double getBytesPerKeyframe() {
+    return keyframes == 0 ? 0 : (double) keyframeBytes / keyframes;
+  }
+
+  /**
+   * Gets the average memory retained by one shape, its keyframes included.
+   *
+   * @return the estimated number of bytes per shape, or 0 if there are no shapes.
+   */
+  public double getBytesPerShape() {
+    return shapeBytes.isEmpty() ? 0
+        : (double) (totalBytes - indexBytes - historyBytes) / shapeBytes.size();
+  }
+
+  /**
+   * Gets an estimate of the memory retained by the given shape, its keyframes included. Memory
+   * shared by several shapes is counted for the first of them.
+   *
+   * @param shape the name of the shape
+   * @return the estimated number of bytes.
+   * @throws IllegalArgumentException if the shape was not in the animation.
+   */
+  public long getShapeBytes(String shape) throws IllegalArgumentException {
+    Long bytes = shapeBytes.get(shape);
+    if (bytes == null) {
+      throw new IllegalArgumentException("Shape not present in model");
+    }
+    return bytes;
+  }
+
+  /**
+   * Gets an estimate of the memory retained by each shape, its keyframes included.
+   *
+   * @return an unmodifiable map of the estimated bytes of each shape by name, in the order the
+   *         shapes were added.
+   */
+  public Map<String, Long> getShapeBytes() {
+    return shapeBytes;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ROOT, "%d shapes, %d keyframes, about %d bytes (%d in "
+            + "keyframes, %.1f per keyframe, %.1f per shape, %d in indexes)",
+        this.getShapeCount(), keyframes, totalBytes, keyframeBytes, this.getBytesPerKeyframe(),
+        this.getBytesPerShape(), indexBytes)
+        + (historyBytes == 0 ? "" : ", including " + historyBytes + " bytes of history")
+        + (mappedBytes == 0 ? "" : ", and " + mappedBytes + " bytes mapped from a file");
+  }
+}
@@ -0,0 +1,140 @@
+package cs3500.animator.model;
+
+import java.util.Objects;
+
+/**
+ * Describes one change to one shape of an animation, as told to the {@link IModelListener}s of
+ * the animation: the shape was added, the shape was removed, or its keyframes changed. Every
+ * change gives the range of ticks at which the state of the shape may now differ, so that a
+ * view or a cache only has to redraw or forget those ticks of that shape. The range may be larger
+ * than the ticks that actually changed, but never smaller. A change cannot be changed once it is
+ * created.
+ */
+public final class ModelChange {
+
+  /**
+   * The kinds of change a shape can go through.
+   */
+  public enum Kind {
+    SHAPE_ADDED, SHAPE_REMOVED, KEYFRAMES_CHANGED
+  }
+
+  private final Kind kind;
+  private final String shape;
+  private final int from;
+  private final int to;
+  private final int version;
+
+  /**
+   * Constructs a change of the shape with the given name.
+   *
+   * @param kind    the kind of the change
+   * @param shape   the name of the shape that changed
+   * @param from    the first tick at which the state of the shape may differ. Must be
+   *                non-negative.
+   * @param to      the last tick at which the state of the shape may differ, or
+   *                {@link Integer#MAX_VALUE} if it may differ at every tick from the first on.
+   *                Must not be before the first tick.
+   * @param version the version of the animation just after the change
+   * @throws IllegalArgumentException if the kind or the name is null, if the first tick is
+   *                                  negative or if the last tick is before the first.
+   */
+  public ModelChange(Kind kind, String shape, int from, int to, int version)
+      throws IllegalArgumentException {
+    if (kind == null || shape == null) {
+      throw new IllegalArgumentException("Invalid change.");
+    }
+    if (from < 0 || to < from) {
+      throw new IllegalArgumentException("Invalid frame.");
+    }
+    this.kind = kind;
+    this.shape = shape;
+    this.from = from;
+    this.to = to;
+    this.version = version;
+  }
+
+  /**
+   * Gets the kind of this change.
+   *
+   * @return the kind of this change.
+   */
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Gets the name of the shape that changed.
+   *
+   * @return the name of the shape.
+   */
+  public String getShape() {
+    return shape;
+  }
+
+  /**
+   * Gets the first tick at which the state of the shape may differ.
+   *
+   * @return the first tick of the change.
+   */
+  public int getFrom() {
+    return from;
+  }
+
+  /**
+   * Gets the last tick at which the state of the shape may differ.
+   *
+   * @return the last tick of the change, or {@link Integer#MAX_VALUE} if the state may differ at
+   *         every tick from the first on.
+   */
+  public int getTo() {
+    return to;
+  }
+
+  /**
+   * Gets the version of the animation just after this change, as given by
+   * {@link IAnimationModel#getVersion}.
+   *
+   * @return the version after the change.
+   */
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * Determines whether the state of the shape may differ at the given tick.
+   *
+   * @param tick the tick to look at
+   * @return true if the tick is within the range of this change.
+   */
+  public boolean includes(int tick) {
+    return from <= tick && tick <= to;
+  }
+
+  // Overriding equals() so that two changes of the same kind to the same shape and ticks at the
+  // same version are considered equal
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ModelChange)) {
+      return false;
+    }
+    ModelChange that = (ModelChange) o;
+    return kind == that.kind && shape.equals(that.shape) && from == that.from && to == that.to
+        && version == that.version;
+  }
+
+  // Overriding hashCode() so that equal changes return the same integer
+  @Override
+  public int hashCode() {
+    return Objects.hash(kind, shape, from, to, version);
+  }
+
+  @Override
+  public String toString() {
+    return kind + " " + shape + " " + from + " " + (to == Integer.MAX_VALUE ? "end" : to)
+        + " at version " + version;
+  }
+}
@@ -0,0 +1,126 @@
+package cs3500.animator.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the listeners of a model and tells them about its changes. Listeners may be added or
+ * removed while the listeners are being told about a change, which then reaches the listeners
+ * there were when it was made. Models only need to describe their changes when
+ * {@link #isEmpty} is false, so a model without listeners does no extra work.
+ */
+final class ModelListeners {
+
+  private final List<IModelListener> listeners;
+
+  /**
+   * Constructs an empty list of listeners.
+   */
+  ModelListeners() {
+    this.listeners = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Adds a listener, which is told about every later change.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null.
+   */
+  void add(IModelListener listener) throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener must not be null");
+    }
+    listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener, so that it is not told about later changes. Nothing happens if the
+   * listener was never added.
+   *
+   * @param listener the listener to remove
+   */
+  void remove(IModelListener listener) {
+    listeners.remove(listener);
+  }
+
+  boolean isEmpty() {
+    return listeners.isEmpty();
+  }
+
+  /**
+   * Tells every listener about the changes of one operation. Nothing is told if there are no
+   * changes.
+   *
+   * @param changes the changes the operation made
+   */
+  void changed(List<ModelChange> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    List<ModelChange> told = Collections.unmodifiableList(changes);
+    for (IModelListener listener : listeners) {
+      listener.modelChanged(told);
+    }
+  }
+
+  /**
+   * Tells every listener about an operation that changed one shape.
+   *
+   * @param change the change the operation made
+   */
+  void changed(ModelChange change) {
+    this.changed(Collections.singletonList(change));
+  }
+
+  /**
+   * Describes a change to the keyframes of a shape from the ticks of the keyframes that changed
+   * and of the unchanged keyframes around them. The state of the shape may differ anywhere
+   * between the keyframes around the changed ones, since it is interpolated across them, and
+   * everywhere after the changed ones if no keyframe follows them.
+   *
+   * @param name    the name of the shape
+   * @param from    the tick of the first keyframe that was added, replaced or removed
+   * @param to      the tick of the last keyframe that was added, replaced or removed
+   * @param before  the tick of the last keyframe the shape has before the first tick, or a
+   *                negative number if it has none
+   * @param after   the tick of the first keyframe the shape has after the last tick, or a
+   *                negative number if it has none
+   * @param version the version of the model after the change
+   * @return the change.
+   */
+  static ModelChange keyframesChanged(String name, int from, int to, int before, int after,
+      int version) {
+    return new ModelChange(ModelChange.Kind.KEYFRAMES_CHANGED, name,
+        before < 0 ? from : before + 1, after < 0 ? Integer.MAX_VALUE : after - 1, version);
+  }
+
+  /**
+   * Describes a change that removed the keyframes of a shape that the given compacted keyframes
+   * no longer have. Compacting does not change any state, but views that list the keyframes of
+   * a shape still change.
+   *
+   * @param name      the name of the shape
+   * @param keyframes the keyframes of the shape before compacting, six ints per keyframe sorted
+   *                  by tick
+   * @param kept      the keyframes that were kept, in the same layout
+   * @param version   the version of the model after the change
+   * @return the change.
+   */
+  static ModelChange compacted(String name, int[] keyframes, int[] kept, int version) {
+    int stride = KeyframeTrack.INTS_PER_KEYFRAME;
+    // finding the first and last removed keyframes by walking in from either end while the
+    // ticks of the kept keyframes still match
+    int first = 0;
+    while (first < kept.length && kept[first] == keyframes[first]) {
+      first += stride;
+    }
+    int last = keyframes.length - stride;
+    for (int k = kept.length - stride; k >= 0 && kept[k] == keyframes[last]; k -= stride) {
+      last -= stride;
+    }
+    return keyframesChanged(name, keyframes[first], keyframes[last],
+        first == 0 ? -1 : keyframes[first - stride],
+        last + stride < keyframes.length ? keyframes[last + stride] : -1, version);
+  }
+}
@@ -0,0 +1,125 @@
+package cs3500.animator.model;
+
+import java.util.Objects;
+
+/**
+ * Represents one motion of a shape: its state at the tick the motion starts and at the tick it
+ * ends, between which the shape is interpolated. Motions are given to
+ * {@link IAnimationModel#applyBatch} to change many shapes at once. A motion cannot be changed
+ * once it is created.
+ */
+public final class Motion {
+
+  private final String shape;
+  private final int startTick;
+  private final IShape start;
+  private final int endTick;
+  private final IShape end;
+
+  /**
+   * Constructs a motion of the shape with the given name.
+   *
+   * @param shape     the name of the shape that moves
+   * @param startTick the tick the motion starts at. Must be non-negative.
+   * @param start     the shape at the start of the motion
+   * @param endTick   the tick the motion ends at. Must not be before the start tick.
+   * @param end       the shape at the end of the motion. Must be the same type of shape as the
+   *                  start.
+   * @throws IllegalArgumentException if the name or either shape is null, if either tick is
+   *                                  negative, if the motion ends before it starts or if the
+   *                                  shapes are of different types.
+   */
+  public Motion(String shape, int startTick, IShape start, int endTick, IShape end)
+      throws IllegalArgumentException {
+    if (shape == null || start == null || end == null) {
+      throw new IllegalArgumentException("Invalid motion.");
+    }
+    if (startTick < 0 || endTick < 0) {
+      throw new IllegalArgumentException("Invalid frame.");
+    }
+    if (endTick < startTick) {
+      throw new IllegalArgumentException("A motion must not end before it starts.");
+    }
+    if (start.getClass() != end.getClass()) {
+      throw new IllegalArgumentException("A motion must not change the type of its shape.");
+    }
+    this.shape = shape;
+    this.startTick = startTick;
+    this.start = start;
+    this.endTick = endTick;
+    this.end = end;
+  }
+
+  /**
+   * Gets the name of the shape that moves.
+   *
+   * @return the name of the shape.
+   */
+  public String getShape() {
+    return shape;
+  }
+
+  /**
+   * Gets the tick this motion starts at.
+   *
+   * @return the start tick.
+   */
+  public int getStartTick() {
+    return startTick;
+  }
+
+  /**
+   * Gets the shape at the start of this motion.
+   *
+   * @return the shape at the start tick.
+   */
+  public IShape getStart() {
+    return start;
+  }
+
+  /**
+   * Gets the tick this motion ends at.
+   *
+   * @return the end tick.
+   */
+  public int getEndTick() {
+    return endTick;
+  }
+
+  /**
+   * Gets the shape at the end of this motion.
+   *
+   * @return the shape at the end tick.
+   */
+  public IShape getEnd() {
+    return end;
+  }
+
+  // Overriding equals() so that two motions of the same shape with the same ticks and states are
+  // considered equal
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Motion)) {
+      return false;
+    }
+    Motion that = (Motion) o;
+    return shape.equals(that.shape) && startTick == that.startTick && start.equals(that.start)
+        && endTick == that.endTick && end.equals(that.end);
+  }
+
+  // Overriding hashCode() so that equal motions return the same integer
+  @Override
+  public int hashCode() {
+    return Objects.hash(shape, startTick, start, endTick, end);
+  }
+
+  // Overriding toString() to describe this motion the same way the textual view does
+  @Override
+  public String toString() {
+    return "motion " + shape + " " + startTick + " " + start.state() + " " + endTick + " "
+        + end.state();
+  }
+}
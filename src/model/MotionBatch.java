@@ -0,0 +1,215 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Groups a batch of motions by shape and turns the motions of each shape into keyframes, so that
+ * a model can check the whole batch before changing anything and then change each shape once.
+ * The motions of a shape are sorted by their start ticks and must not overlap, the same as the
+ * motions given to {@link AnimationModel.Builder}. Where one motion ends at the tick the next one
+ * starts, the start of the next motion is kept.
+ * Besides its keyframes, each shape gets the spans of ticks its motions cover: the keyframes a
+ * shape already has within those spans are replaced by the keyframes of the batch, so that every
+ * motion plays out as given.
+ */
+final class MotionBatch {
+
+  private static final int STRIDE = KeyframeTrack.INTS_PER_KEYFRAME;
+
+  private final Map<String, Shape> shapes;
+
+  /**
+   * The keyframes that a batch gives one shape.
+   */
+  private static final class Shape {
+    private final IShape type;
+    private final int[] keyframes; // six ints per keyframe sorted by tick
+    private final int[] spans; // the first and last tick of each span, sorted and disjoint
+
+    Shape(IShape type, int[] keyframes, int[] spans) {
+      this.type = type;
+      this.keyframes = keyframes;
+      this.spans = spans;
+    }
+  }
+
+  /**
+   * Groups the given motions by shape and checks them.
+   *
+   * @param motions the motions of the batch
+   * @throws IllegalArgumentException if the collection or a motion in it is null, if the motions
+   *                                  of one shape overlap or if they are of different types.
+   */
+  MotionBatch(Collection<Motion> motions) throws IllegalArgumentException {
+    if (motions == null) {
+      throw new IllegalArgumentException("Invalid motions.");
+    }
+    Map<String, List<Motion>> byShape = new LinkedHashMap<>();
+    for (Motion motion : motions) {
+      if (motion == null) {
+        throw new IllegalArgumentException("Invalid motions.");
+      }
+      byShape.computeIfAbsent(motion.getShape(), name -> new ArrayList<>()).add(motion);
+    }
+    this.shapes = new LinkedHashMap<>();
+    for (Map.Entry<String, List<Motion>> entry : byShape.entrySet()) {
+      this.shapes.put(entry.getKey(), toKeyframes(entry.getKey(), entry.getValue()));
+    }
+  }
+
+  // Turns the motions of one shape into keyframes and spans, checking that they do not overlap.
+  private static Shape toKeyframes(String name, List<Motion> motions) {
+    // the sort is stable, so motions starting at the same tick stay in the order they were given
+    motions.sort(Comparator.comparingInt(Motion::getStartTick));
+    IShape type = motions.get(0).getStart();
+    int[] keyframes = new int[2 * STRIDE * motions.size()];
+    int[] spans = new int[2 * motions.size()];
+    int count = 0; // the number of ints of keyframes written so far
+    int spanCount = 0; // the number of ints of spans written so far
+    int end = -1; // the tick at which the previous motion ended
+
+    for (Motion motion : motions) {
+      if (motion.getStart().getClass() != type.getClass()) {
+        throw new IllegalArgumentException("Motions of " + name + " change its type");
+      }
+      if (motion.getStartTick() < end) {
+        throw new IllegalArgumentException("Motions of " + name + " overlap at tick "
+            + motion.getStartTick());
+      }
+      count = put(keyframes, count, motion.getStartTick(), motion.getStart().state());
+      count = put(keyframes, count, motion.getEndTick(), motion.getEnd().state());
+      // a motion starting where the last span ends extends that span
+      if (spanCount > 0 && spans[spanCount - 1] == motion.getStartTick()) {
+        spans[spanCount - 1] = motion.getEndTick();
+      } else {
+        spans[spanCount] = motion.getStartTick();
+        spans[spanCount + 1] = motion.getEndTick();
+        spanCount += 2;
+      }
+      end = motion.getEndTick();
+    }
+    return new Shape(type, Arrays.copyOf(keyframes, count), Arrays.copyOf(spans, spanCount));
+  }
+
+  // Writes a keyframe after the given number of ints, replacing the last keyframe if it has the
+  // same tick, and returns the new number of ints.
+  private static int put(int[] keyframes, int count, int tick, ShapeState state) {
+    if (count > 0 && keyframes[count - STRIDE] == tick) {
+      count -= STRIDE;
+    }
+    keyframes[count] = tick;
+    keyframes[count + 1] = state.x();
+    keyframes[count + 2] = state.y();
+    keyframes[count + 3] = state.width();
+    keyframes[count + 4] = state.height();
+    keyframes[count + 5] = state.color();
+    return count + STRIDE;
+  }
+
+  /**
+   * Gets the names of the shapes that the motions of this batch move, in the order each shape
+   * first appears in the batch.
+   *
+   * @return the names of the shapes.
+   */
+  Set<String> shapeNames() {
+    return shapes.keySet();
+  }
+
+  boolean isEmpty() {
+    return shapes.isEmpty();
+  }
+
+  /**
+   * Gets the shape at the start of the first motion of the given shape, whose type a shape
+   * without any keyframes takes on.
+   *
+   * @param name the name of the shape
+   * @return a shape of the type of the motions.
+   */
+  IShape type(String name) {
+    return shapes.get(name).type;
+  }
+
+  /**
+   * Checks that the motions of the given shape are of the type the shape already has.
+   *
+   * @param name the name of the shape
+   * @param type a shape of the type the shape already has, or null if it has no type yet
+   * @throws IllegalArgumentException if the motions are of another type.
+   */
+  void checkType(String name, IShape type) throws IllegalArgumentException {
+    if (type != null && type.getClass() != shapes.get(name).type.getClass()) {
+      throw new IllegalArgumentException("Motions of " + name + " change its type");
+    }
+  }
+
+  /**
+   * Gets the keyframes the motions of the given shape make.
+   *
+   * @param name the name of the shape
+   * @return the keyframes, six ints per keyframe (tick, x, y, width, height, color) sorted by
+   *         tick. The array must not be changed.
+   */
+  int[] keyframes(String name) {
+    return shapes.get(name).keyframes;
+  }
+
+  /**
+   * Gets the spans of ticks that the motions of the given shape cover, within which the keyframes
+   * the shape already has are replaced.
+   *
+   * @param name the name of the shape
+   * @return the first and last tick of each span, sorted. The array must not be changed.
+   */
+  int[] spans(String name) {
+    return shapes.get(name).spans;
+  }
+
+  /**
+   * Merges the keyframes the motions of the given shape make into the keyframes the shape already
+   * has, leaving out the keyframes it has within the spans of the motions. This takes time linear
+   * in the number of keyframes.
+   *
+   * @param name     the name of the shape
+   * @param existing the keyframes the shape already has, six ints per keyframe sorted by tick
+   * @return the keyframes of the shape after the batch, in the same layout.
+   */
+  int[] merge(String name, int[] existing) {
+    Shape shape = shapes.get(name);
+    int[] added = shape.keyframes;
+    int[] spans = shape.spans;
+    int[] merged = new int[existing.length + added.length];
+    int count = 0;
+    int a = 0; // the next added keyframe
+    int span = 0; // the first span that does not end before the next existing keyframe
+
+    for (int e = 0; e < existing.length; e += STRIDE) {
+      int tick = existing[e];
+      while (span < spans.length && spans[span + 1] < tick) {
+        span += 2;
+      }
+      if (span < spans.length && spans[span] <= tick) {
+        continue; // replaced by the keyframes of the span
+      }
+      // the added keyframes all fall within spans, so none of them has this tick
+      while (a < added.length && added[a] < tick) {
+        System.arraycopy(added, a, merged, count, STRIDE);
+        count += STRIDE;
+        a += STRIDE;
+      }
+      System.arraycopy(existing, e, merged, count, STRIDE);
+      count += STRIDE;
+    }
+    System.arraycopy(added, a, merged, count, added.length - a);
+    count += added.length - a;
+    return count == merged.length ? merged : Arrays.copyOf(merged, count);
+  }
+}
@@ -0,0 +1,64 @@
+package cs3500.animator.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes the states of many shapes of a model at one frame on a fork/join pool. The shapes are
+ * split in halves until each part has at most a given number of shapes, and each state is written
+ * to the position of its shape, so the result is in the same order however the work was split.
+ * The model must not be changed while the states are computed.
+ */
+final class ParallelStates extends RecursiveAction {
+
+  private static final long serialVersionUID = 1L;
+
+  private final IAnimationModel model;
+  private final int frame;
+  private final String[] names;
+  private final IShape[] states;
+  private final int from;
+  private final int to;
+  private final int threshold;
+
+  private ParallelStates(IAnimationModel model, int frame, String[] names, IShape[] states,
+      int from, int to, int threshold) {
+    this.model = model;
+    this.frame = frame;
+    this.names = names;
+    this.states = states;
+    this.from = from;
+    this.to = to;
+    this.threshold = threshold;
+  }
+
+  /**
+   * Computes the states of the given shapes at the given frame.
+   *
+   * @param pool      the pool to run on
+   * @param model     the model to read
+   * @param frame     the frame
+   * @param names     the names of the shapes
+   * @param threshold the largest number of shapes to compute in a single task
+   * @return the state of each shape, at the same position as its name.
+   */
+  static IShape[] compute(ForkJoinPool pool, IAnimationModel model, int frame, String[] names,
+      int threshold) {
+    IShape[] states = new IShape[names.length];
+    pool.invoke(new ParallelStates(model, frame, names, states, 0, names.length, threshold));
+    return states;
+  }
+
+  @Override
+  protected void compute() {
+    if (to - from <= threshold) {
+      for (int i = from; i < to; i++) {
+        states[i] = model.getState(frame, names[i]);
+      }
+      return;
+    }
+    int mid = (from + to) >>> 1;
+    invokeAll(new ParallelStates(model, frame, names, states, from, mid, threshold),
+        new ParallelStates(model, frame, names, states, mid, to, threshold));
+  }
+}
@@ -0,0 +1,843 @@
+package cs3500.animator.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Represents an animation in which every change makes a new immutable version of the animation
+ * instead of changing the old one. The shapes of a version and the keyframes of each shape are
+ * kept in {@link PersistentTree}s, so a new version copies only the O(log n) tree nodes on the
+ * path to what changed and shares everything else with the version before it. That makes it
+ * cheap to keep every earlier version: {@link #undo} and {@link #redo} step back and forth
+ * through them in constant time, and {@link #snapshot} hands out a copy of the animation without
+ * copying its keyframes. This model otherwise behaves the same way as {@link AnimationModel}.
+ */
+public class PersistentAnimationModel extends AAnimationModel {
+
+  // a rough size of one keyframe: its tree node and its state
+  private static final long BYTES_PER_NODE = 40;
+  private static final long BYTES_PER_STATE = 32;
+  private static final long BYTES_PER_KEYFRAME = BYTES_PER_NODE + BYTES_PER_STATE;
+  // the object of one version of a shape
+  private static final long BYTES_PER_SHAPE_OBJECT = 24;
+  // a shape object, its nodes in the trees of shapes and of their order, and its boxed ID
+  private static final long BYTES_PER_SHAPE = BYTES_PER_SHAPE_OBJECT + 2 * BYTES_PER_NODE + 16;
+  // a version object and its entry in the history
+  private static final long BYTES_PER_VERSION = 32;
+
+  private final List<Integer> canvas;
+  private final Map<String, Integer> ids; // the ID of every name this model has seen
+  private final List<String> names; // the name with each ID
+  private Version version; // the current version
+  private final Deque<Version> undone; // the versions before the current one, latest first
+  private final Deque<Version> redone; // the versions undone to reach the current one
+  private int modCount; // counts the changes to this model so cursors know to search again
+  private final ModelListeners listeners = new ModelListeners();
+
+  /**
+   * One immutable version of the animation: its shapes by ID, and the IDs of its shapes in the
+   * order they were added.
+   */
+  private static final class Version {
+    private final PersistentTree<Shape> shapes;
+    private final PersistentTree<Integer> order;
+    private final int nextPosition; // the position in the order of the next shape added
+
+    Version(PersistentTree<Shape> shapes, PersistentTree<Integer> order, int nextPosition) {
+      this.shapes = shapes;
+      this.order = order;
+      this.nextPosition = nextPosition;
+    }
+  }
+
+  /**
+   * One immutable version of a shape: its type, its position in the order of the shapes, and its
+   * keyframes by tick.
+   */
+  private static final class Shape {
+    private final IShape type;
+    private final int position;
+    private final PersistentTree<ShapeState> frames;
+
+    Shape(IShape type, int position, PersistentTree<ShapeState> frames) {
+      this.type = type;
+      this.position = position;
+      this.frames = frames;
+    }
+  }
+
+  /**
+   * Constructs a new instance of a persistent model with no shapes and a default canvas with
+   * length 360 at 0 (x), 0 (y).
+   */
+  public PersistentAnimationModel() {
+    this(new LinkedHashMap<String, Map<Integer, IShape>>());
+  }
+
+  /**
+   * Constructs a new instance of a persistent model with the given shapes and a default canvas
+   * with length 360 at 0 (x), 0 (y).
+   *
+   * @param shapes the given shapes and their frames that will appear in this animation.
+   * @throws IllegalArgumentException if the map is null, or contains null frames, null shapes or
+   *                                  negative frame numbers.
+   */
+  public PersistentAnimationModel(Map<String, Map<Integer, IShape>> shapes) {
+    this(shapes, Arrays.asList(0, 0, 360, 360));
+  }
+
+  /**
+   * Constructs a new instance of a persistent model with the given shapes and canvas. Its first
+   * version holds the given shapes, and there is nothing to undo.
+   *
+   * @param shapes the given shapes and their frames that will appear in this animation. Frame
+   *               numbers must be non-negative.
+   * @param canvas the given canvas which will act as the background for the animation. The
+   *               listed values are the canvas's x and y position and width and height.
+   * @throws IllegalArgumentException if the map is null, or contains null frames, null shapes or
+   *                                  negative frame numbers, or if the canvas is invalid.
+   */
+  public PersistentAnimationModel(Map<String, Map<Integer, IShape>> shapes,
+      List<Integer> canvas) {
+    if (shapes == null) {
+      throw new IllegalArgumentException("Invalid map.");
+    }
+    if (canvas == null || canvas.size() != 4) {
+      throw new IllegalArgumentException("Invalid canvas.");
+    }
+    this.canvas = new ArrayList<Integer>(Arrays.asList(canvas.get(0), canvas.get(1), canvas.get(2),
+        canvas.get(3)));
+    this.ids = new HashMap<>();
+    this.names = new ArrayList<>();
+    this.undone = new ArrayDeque<>();
+    this.redone = new ArrayDeque<>();
+    this.version = new Version(PersistentTree.<Shape>empty(), PersistentTree.<Integer>empty(), 0);
+
+    // Adding each shape with its frames in the order of the frame numbers
+    for (Map.Entry<String, Map<Integer, IShape>> entry : shapes.entrySet()) {
+      Map<Integer, IShape> frames = entry.getValue();
+      if (frames == null) {
+        throw new IllegalArgumentException("Invalid map.");
+      }
+      IShape type = null;
+      PersistentTree<ShapeState> tree = PersistentTree.empty();
+      for (Map.Entry<Integer, IShape> frame : new TreeMap<Integer, IShape>(frames).entrySet()) {
+        if (frame.getKey() < 0 || frame.getValue() == null) {
+          throw new IllegalArgumentException("Invalid map.");
+        }
+        type = type == null ? frame.getValue() : type;
+        tree = tree.put(frame.getKey(), frame.getValue().state());
+      }
+      this.version = this.withShape(this.version, this.idFor(entry.getKey()), type, tree);
+    }
+  }
+
+  // Constructs a model with the given version, table of IDs and version number and no history.
+  private PersistentAnimationModel(PersistentAnimationModel model) {
+    this.canvas = new ArrayList<>(model.canvas);
+    this.ids = new HashMap<>(model.ids);
+    this.names = new ArrayList<>(model.names);
+    this.undone = new ArrayDeque<>();
+    this.redone = new ArrayDeque<>();
+    this.version = model.version;
+    this.modCount = model.modCount;
+    this.copyParallel(model);
+  }
+
+  /**
+   * Makes a copy of this animation as it is now, with no history. The copy shares every keyframe
+   * with this animation, so it only costs a copy of the table of shape names, and changes to
+   * either animation do not show up in the other. The copy starts with the version number of this
+   * animation and computes full states on the same pool.
+   *
+   * @return a copy of this animation.
+   */
+  public PersistentAnimationModel snapshot() {
+    return new PersistentAnimationModel(this);
+  }
+
+  /**
+   * Goes back to the version of this animation before the last change that was not undone.
+   *
+   * @return true if a change was undone, or false if there was nothing to undo.
+   */
+  public boolean undo() {
+    if (undone.isEmpty()) {
+      return false;
+    }
+    Version was = version;
+    redone.push(version);
+    version = undone.pop();
+    modCount++;
+    if (!listeners.isEmpty()) {
+      listeners.changed(this.changes(was, version));
+    }
+    return true;
+  }
+
+  /**
+   * Makes the last change that was undone again. Any other change made since then clears the
+   * changes there are to redo.
+   *
+   * @return true if a change was made again, or false if there was nothing to redo.
+   */
+  public boolean redo() {
+    if (redone.isEmpty()) {
+      return false;
+    }
+    Version was = version;
+    undone.push(version);
+    version = redone.pop();
+    modCount++;
+    if (!listeners.isEmpty()) {
+      listeners.changed(this.changes(was, version));
+    }
+    return true;
+  }
+
+  /**
+   * Determines whether there is a change to undo.
+   *
+   * @return true if {@link #undo} would go back to an earlier version.
+   */
+  public boolean canUndo() {
+    return !undone.isEmpty();
+  }
+
+  /**
+   * Determines whether there is a change to redo.
+   *
+   * @return true if {@link #redo} would make an undone change again.
+   */
+  public boolean canRedo() {
+    return !redone.isEmpty();
+  }
+
+  /**
+   * Forgets every earlier and undone version of this animation, so that the memory only they use
+   * can be freed.
+   */
+  public void clearHistory() {
+    undone.clear();
+    redone.clear();
+  }
+
+  // Makes the given version the current one, keeping the current one to undo.
+  private void commit(Version next) {
+    undone.push(version);
+    redone.clear();
+    version = next;
+    modCount++;
+  }
+
+  // Describes how the shapes of one version differ from those of another, for the listeners when
+  // undoing or redoing goes from one to the other. A shape that was not changed between them is
+  // the same object in both, and the two trees of shapes share every subtree holding only such
+  // shapes, so finding the changed shapes costs about the size of the change rather than the
+  // number of shapes. They are told from their first keyframes on.
+  private List<ModelChange> changes(Version from, Version to) {
+    List<ModelChange> changed = new ArrayList<>();
+    for (int id : from.shapes.differentKeys(to.shapes)) {
+      Shape before = from.shapes.get(id);
+      Shape after = to.shapes.get(id);
+      ModelChange.Kind kind = before == null ? ModelChange.Kind.SHAPE_ADDED
+          : after == null ? ModelChange.Kind.SHAPE_REMOVED : ModelChange.Kind.KEYFRAMES_CHANGED;
+      int first = Math.min(changedFrom(before), changedFrom(after));
+      changed.add(new ModelChange(kind, names.get(id), first, Integer.MAX_VALUE, modCount));
+    }
+    return changed;
+  }
+
+  // Gets the tick of the first keyframe of the given shape: 0 if it has no keyframes, and the
+  // last tick there is if there is no such shape.
+  private static int changedFrom(Shape shape) {
+    if (shape == null) {
+      return Integer.MAX_VALUE;
+    }
+    return shape.frames.isEmpty() ? 0 : shape.frames.firstKey();
+  }
+
+  // Describes a change to the keyframes of the shape with the given ID from the first to the last
+  // given tick. Called after the change, since the keyframes around the changed ones are the same
+  // either way.
+  private ModelChange keyframesChanged(int id, int from, int to) {
+    PersistentTree<ShapeState> frames = version.shapes.get(id).frames;
+    return ModelListeners.keyframesChanged(names.get(id), from, to, frames.floorKey(from - 1),
+        frames.higherKey(to), modCount);
+  }
+
+  // Gets the ID of the given name, giving it one if it does not have one yet.
+  private int idFor(String name) {
+    Integer id = ids.get(name);
+    if (id == null) {
+      id = names.size();
+      ids.put(name, id);
+      names.add(name);
+    }
+    return id;
+  }
+
+  // Makes a version with the shape with the given ID added after every other shape.
+  private Version withShape(Version from, int id, IShape type,
+      PersistentTree<ShapeState> frames) {
+    int position = from.nextPosition;
+    return new Version(from.shapes.put(id, new Shape(type, position, frames)),
+        from.order.put(position, id), position + 1);
+  }
+
+  // Makes a version with the keyframes of the shape with the given ID replaced.
+  private Version withFrames(Version from, int id, PersistentTree<ShapeState> frames) {
+    Shape shape = from.shapes.get(id);
+    return new Version(from.shapes.put(id, new Shape(shape.type, shape.position, frames)),
+        from.order, from.nextPosition);
+  }
+
+  /**
+   * Gets the ID of the given shape to be edited.
+   *
+   * @param shape        the name of the shape
+   * @param emptyMessage the message of the exception thrown when this model has no shapes
+   * @return the ID of the shape
+   * @throws IllegalArgumentException if this model has no shapes or does not have the given shape
+   */
+  private int getEditedId(String shape, String emptyMessage) {
+    if (version.shapes.isEmpty()) {
+      throw new IllegalArgumentException(emptyMessage);
+    }
+    Integer id = ids.get(shape);
+    if (id == null || version.shapes.get(id) == null) {
+      throw new IllegalArgumentException("Invalid shape.");
+    }
+    return id;
+  }
+
+  // Records the given state at the given frame if the shape exists at or before that frame.
+  private void putIfExists(int id, int frame, StateChange change) {
+    PersistentTree<ShapeState> frames = version.shapes.get(id).frames;
+    int before = frames.floorKey(frame);
+
+    // The change is only recorded when the shape already exists at or before the frame
+    if (before >= 0) {
+      ShapeState state = change.apply(frames.get(before));
+      this.commit(this.withFrames(version, id, frames.put(frame, state)));
+      if (!listeners.isEmpty()) {
+        listeners.changed(this.keyframesChanged(id, frame, frame));
+      }
+    }
+  }
+
+  /**
+   * Computes the state of a shape at a changed keyframe from the state of the keyframe before.
+   */
+  private interface StateChange {
+    ShapeState apply(ShapeState before);
+  }
+
+  @Override
+  public void move(int frame, String shape, int x, int y) throws IllegalArgumentException {
+    checkFrame(frame);
+    int id = this.getEditedId(shape, "There isn't a shape to move.");
+    this.putIfExists(id, frame, before -> new ShapeState(x, y, before.width(), before.height(),
+        before.color()));
+  }
+
+  @Override
+  public void changeColor(int frame, String shape, int r, int g, int b)
+      throws IllegalArgumentException {
+    checkFrame(frame);
+    checkColor(r, g, b);
+    int id = this.getEditedId(shape, "There isn't a shape to change the color of.");
+    this.putIfExists(id, frame, before -> new ShapeState(before.x(), before.y(), before.width(),
+        before.height(), r, g, b));
+  }
+
+  @Override
+  public void changeSize(int frame, String shape, int width, int height)
+      throws IllegalArgumentException {
+    checkFrame(frame);
+    checkSize(width, height);
+    int id = this.getEditedId(shape, "There isn't a shape to change the size of.");
+    this.putIfExists(id, frame, before -> new ShapeState(before.x(), before.y(), width, height,
+        before.color()));
+  }
+
+  @Override
+  public void setKeyframe(int frame, String shape, int x, int y, int width, int height, int r,
+      int g, int b) throws IllegalArgumentException {
+    checkFrame(frame);
+    checkColor(r, g, b);
+    checkSize(width, height);
+    int id = this.getEditedId(shape, "There isn't a shape to change.");
+    this.putIfExists(id, frame, before -> new ShapeState(x, y, width, height, r, g, b));
+  }
+
+  @Override
+  public void applyBatch(Collection<Motion> motions) throws IllegalArgumentException {
+    MotionBatch batch = new MotionBatch(motions);
+    for (String name : batch.shapeNames()) {
+      if (!this.contains(name)) {
+        throw new IllegalArgumentException("Shape not present in model");
+      }
+      batch.checkType(name, version.shapes.get(ids.get(name)).type);
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    // Making the whole batch one version, so that it is undone in one step
+    Version next = version;
+    for (String name : batch.shapeNames()) {
+      int id = ids.get(name);
+      Shape shape = next.shapes.get(id);
+      PersistentTree<ShapeState> frames = shape.frames;
+
+      // For each span of the motions, removing the keyframes it replaces and then adding its
+      // keyframes
+      int[] spans = batch.spans(name);
+      int[] keyframes = batch.keyframes(name);
+      int added = 0; // the next keyframe of the motions to add
+      for (int i = 0; i < spans.length; i += 2) {
+        for (int tick = frames.floorKey(spans[i + 1]); tick >= spans[i];
+            tick = frames.floorKey(spans[i + 1])) {
+          frames = frames.remove(tick);
+        }
+        for (; added < keyframes.length && keyframes[added] <= spans[i + 1];
+            added += KeyframeTrack.INTS_PER_KEYFRAME) {
+          frames = frames.put(keyframes[added], new ShapeState(keyframes[added + 1],
+              keyframes[added + 2], keyframes[added + 3], keyframes[added + 4],
+              keyframes[added + 5]));
+        }
+      }
+      IShape type = shape.type == null ? batch.type(name) : shape.type;
+      next = new Version(next.shapes.put(id, new Shape(type, shape.position, frames)), next.order,
+          next.nextPosition);
+    }
+    this.commit(next);
+    if (!listeners.isEmpty()) {
+      List<ModelChange> changed = new ArrayList<>();
+      for (String name : batch.shapeNames()) {
+        int[] spans = batch.spans(name);
+        changed.add(this.keyframesChanged(ids.get(name), spans[0], spans[spans.length - 1]));
+      }
+      listeners.changed(changed);
+    }
+  }
+
+  // Visits the shapes of the current version in the order they were added.
+  private void forEachShape(PersistentTree.Visitor<Shape> visitor) {
+    PersistentTree<Shape> shapes = version.shapes;
+    version.order.forEach((position, id) -> visitor.visit(id, shapes.get(id)));
+  }
+
+  // Copies the keyframes of a shape into a flat array of six ints per keyframe (tick, x, y,
+  // width, height, color) in the order of their ticks.
+  private static int[] keyframes(PersistentTree<ShapeState> frames) {
+    int[] keyframes = new int[frames.size() * KeyframeTrack.INTS_PER_KEYFRAME];
+    int[] next = {0};
+    frames.forEach((tick, state) -> {
+      int base = next[0];
+      keyframes[base] = tick;
+      keyframes[base + 1] = state.x();
+      keyframes[base + 2] = state.y();
+      keyframes[base + 3] = state.width();
+      keyframes[base + 4] = state.height();
+      keyframes[base + 5] = state.color();
+      next[0] += KeyframeTrack.INTS_PER_KEYFRAME;
+    });
+    return keyframes;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder animation = new StringBuilder("canvas " + this.canvas.get(0) + " "
+        + this.canvas.get(1) + " " + this.canvas.get(2) + " " + this.canvas.get(3));
+
+    // For each shape, describe every motion between two of its keyframes
+    this.forEachShape((id, shape) -> {
+      String name = names.get(id);
+      int[] keyframes = keyframes(shape.frames);
+      int count = shape.frames.size();
+      for (int i = 0; i < count; i++) {
+        String keyframe = keyframeToString(keyframes, i);
+        if (i == 0) {
+          animation.append("\nshape ").append(name).append(" ").append(shape.type)
+              .append("\nmotion ").append(name).append(" ").append(keyframe);
+        } else if (i == count - 1) {
+          animation.append(" ").append(keyframe);
+        } else {
+          animation.append(" ").append(keyframe).append("\nmotion ").append(name).append(" ")
+              .append(keyframe);
+        }
+      }
+    });
+
+    return animation.toString();
+  }
+
+  // Describes the keyframe at the given index as its tick, position, size, and color.
+  private static String keyframeToString(int[] keyframes, int index) {
+    int base = index * KeyframeTrack.INTS_PER_KEYFRAME;
+    int color = keyframes[base + 5];
+    return keyframes[base] + " " + keyframes[base + 1] + " " + keyframes[base + 2] + " "
+        + keyframes[base + 3] + " " + keyframes[base + 4] + " " + ((color >> 16) & 0xFF) + " "
+        + ((color >> 8) & 0xFF) + " " + (color & 0xFF);
+  }
+
+  @Override
+  public Map<String, Map<Integer, IShape>> changeSpeed(double num) {
+    Map<String, Map<Integer, IShape>> result = new LinkedHashMap<>();
+    this.forEachShape((id, shape) -> {
+      Map<Integer, IShape> frames = new TreeMap<>();
+      shape.frames.forEach((tick, state) ->
+          frames.put((int) (tick * num), shape.type.copyShape(state)));
+      result.put(names.get(id), frames);
+    });
+    return result;
+  }
+
+  @Override
+  public IShape getState(int frame, String shape) throws IllegalArgumentException {
+    return this.getState(frame, this.getShapeId(shape));
+  }
+
+  @Override
+  public IShape getState(int frame, int id) throws IllegalArgumentException {
+    Shape shape = this.getShape(id);
+    if (frame < 0) {
+      throw new IllegalArgumentException("Frame must not be negative");
+    }
+
+    PersistentTree<ShapeState> frames = shape.frames;
+    int before = frames.floorKey(frame);
+    if (before < 0) { // frame is before the first keyframe
+      return null;
+    }
+    int after = frames.higherKey(before);
+    if (before == frame || after < 0) {
+      // frame is a keyframe or comes after the last keyframe
+      return shape.type.copyShape(frames.get(before));
+    }
+
+    // Otherwise, frame is between two keyframes
+    ShapeState from = frames.get(before);
+    ShapeState to = frames.get(after);
+    int offset = frame - before;
+    int span = after - before;
+    return shape.type.copyShape(FixedPointInterpolator.interpolate(from, to, offset, span));
+  }
+
+  // Gets the shape with the given ID in the current version.
+  private Shape getShape(int id) throws IllegalArgumentException {
+    Shape shape = id < 0 ? null : version.shapes.get(id);
+    if (shape == null) {
+      throw new IllegalArgumentException("Shape not present in model");
+    }
+    return shape;
+  }
+
+  @Override
+  public IShapeCursor cursor(String shape) throws IllegalArgumentException {
+    return this.cursor(this.getShapeId(shape));
+  }
+
+  @Override
+  public IShapeCursor cursor(int id) throws IllegalArgumentException {
+    IShapeCursor cursor = new VersionCursor(this.getShapeName(id), id);
+    cursor.seek(0);
+    return cursor;
+  }
+
+  @Override
+  public int getShapeId(String name) throws IllegalArgumentException {
+    Integer id = ids.get(name);
+    if (id == null || version.shapes.get(id) == null) {
+      throw new IllegalArgumentException("Shape not present in model");
+    }
+    return id;
+  }
+
+  @Override
+  public String getShapeName(int id) throws IllegalArgumentException {
+    this.getShape(id);
+    return names.get(id);
+  }
+
+  /**
+   * Reads a shape of this model tick by tick. The cursor reads the version of the shape that was
+   * current when it last located a tick, and finds the current one again once this model changes,
+   * is undone or is redone.
+   */
+  private final class VersionCursor extends AShapeCursor {
+    private final int id;
+    private Shape shape;
+    private int seenModCount;
+
+    VersionCursor(String name, int id) {
+      super(name);
+      this.id = id;
+      this.seenModCount = modCount - 1;
+    }
+
+    @Override
+    protected boolean isStale() {
+      return seenModCount != modCount;
+    }
+
+    @Override
+    protected void locate(int tick) {
+      if (this.isStale()) {
+        seenModCount = modCount;
+        shape = version.shapes.get(id);
+      }
+      // If the shape was removed or has no keyframes, it is never visible
+      if (shape == null || shape.frames.isEmpty()) {
+        this.hideUntil(null, Integer.MAX_VALUE);
+        return;
+      }
+      String type = shape.type.toString();
+      PersistentTree<ShapeState> frames = shape.frames;
+
+      int before = frames.floorKey(tick);
+      if (before < 0) {
+        this.hideUntil(type, frames.firstKey());
+        return;
+      }
+
+      this.load(frames.get(before), from);
+      int after = frames.higherKey(before);
+      if (after < 0) {
+        this.setSegment(type, before, Integer.MAX_VALUE);
+      } else {
+        this.load(frames.get(after), to);
+        this.setSegment(type, before, after);
+      }
+    }
+
+    // Copies the attributes of the given keyframe into the given array.
+    private void load(ShapeState state, int[] values) {
+      values[X] = state.x();
+      values[Y] = state.y();
+      values[WIDTH] = state.width();
+      values[HEIGHT] = state.height();
+      values[RED] = state.red();
+      values[GREEN] = state.green();
+      values[BLUE] = state.blue();
+    }
+  }
+
+  @Override
+  List<String> shapeNames() {
+    List<String> shapeNames = new ArrayList<>(version.shapes.size());
+    this.forEachShape((id, shape) -> shapeNames.add(names.get(id)));
+    return shapeNames;
+  }
+
+  @Override
+  int firstTick(int id) {
+    PersistentTree<ShapeState> frames = version.shapes.get(id).frames;
+    return frames.isEmpty() ? Integer.MAX_VALUE : frames.firstKey();
+  }
+
+  @Override
+  int[] keyframes(int id) {
+    return keyframes(version.shapes.get(id).frames);
+  }
+
+  @Override
+  IShape shapeType(int id) {
+    return version.shapes.get(id).type;
+  }
+
+
+  @Override
+  public void add(int frame, String name, IShape shape) throws IllegalArgumentException {
+    if (this.contains(name)) {
+      throw new IllegalArgumentException("This shape name is already included");
+    }
+    if (frame < 0) {
+      throw new IllegalArgumentException("Frame must be non-negative");
+    }
+    Objects.requireNonNull(shape);
+    this.commit(this.withShape(version, this.idFor(name), shape,
+        PersistentTree.<ShapeState>empty().put(frame, shape.state())));
+    listeners.changed(new ModelChange(ModelChange.Kind.SHAPE_ADDED, name, frame,
+        Integer.MAX_VALUE, modCount));
+  }
+
+  @Override
+  public void add(String name) throws IllegalArgumentException {
+    if (this.contains(name)) {
+      throw new IllegalArgumentException("This shape name is already included");
+    }
+    this.commit(this.withShape(version, this.idFor(name), null,
+        PersistentTree.<ShapeState>empty()));
+    listeners.changed(new ModelChange(ModelChange.Kind.SHAPE_ADDED, name, 0, Integer.MAX_VALUE,
+        modCount));
+  }
+
+  // Determines whether the current version has a shape with the given name.
+  private boolean contains(String name) {
+    Integer id = ids.get(name);
+    return id != null && version.shapes.get(id) != null;
+  }
+
+  @Override
+  public void remove(int frame, String name) throws IllegalArgumentException {
+    if (!this.contains(name)) {
+      throw new IllegalArgumentException("Shape not present in model");
+    }
+    if (frame < 0) {
+      throw new IllegalArgumentException("Frame must be non-negative");
+    }
+    int id = ids.get(name);
+    Shape shape = version.shapes.get(id);
+    PersistentTree<ShapeState> frames = shape.frames.removeFrom(frame);
+
+    // The shape is moved to the end of the animation, or removed if it has no frames left
+    Version without = new Version(version.shapes.remove(id), version.order.remove(shape.position),
+        version.nextPosition);
+    this.commit(frames.isEmpty() ? without : this.withShape(without, id, shape.type, frames));
+    if (!frames.isEmpty()) {
+      listeners.changed(this.keyframesChanged(id, frame, Integer.MAX_VALUE));
+    } else {
+      listeners.changed(new ModelChange(ModelChange.Kind.SHAPE_REMOVED, name, frame,
+          Integer.MAX_VALUE, modCount));
+    }
+  }
+
+  @Override
+  public CompactionReport compact() {
+    int before = 0;
+    int after = 0;
+    Version next = version;
+    List<ModelChange> changed = new ArrayList<>();
+    for (int id = 0; id < names.size(); id++) {
+      Shape shape = version.shapes.get(id);
+      if (shape == null) {
+        continue;
+      }
+      int[] keyframes = keyframes(shape.frames);
+      int[] kept = KeyframeCompactor.compact(keyframes);
+      before += shape.frames.size();
+      after += kept.length / KeyframeTrack.INTS_PER_KEYFRAME;
+      if (kept != keyframes) {
+        // Removing the frames whose ticks are no longer among the kept keyframes
+        PersistentTree<ShapeState> frames = shape.frames;
+        int k = 0;
+        for (int i = 0; i < keyframes.length; i += KeyframeTrack.INTS_PER_KEYFRAME) {
+          if (k < kept.length && kept[k] == keyframes[i]) {
+            k += KeyframeTrack.INTS_PER_KEYFRAME;
+          } else {
+            frames = frames.remove(keyframes[i]);
+          }
+        }
+        next = this.withFrames(next, id, frames);
+        if (!listeners.isEmpty()) {
+          // removing any keyframe counts as one change, made once every shape is compacted
+          changed.add(ModelListeners.compacted(names.get(id), keyframes, kept, modCount + 1));
+        }
+      }
+    }
+    if (after != before) {
+      this.commit(next);
+      listeners.changed(changed);
+    }
+    return new CompactionReport(before, after, BYTES_PER_KEYFRAME * (before - after));
+  }
+
+  @Override
+  public Map<String, Map<Integer, IShape>> getShapes() {
+    Map<String, Map<Integer, IShape>> copyMap = new LinkedHashMap<String, Map<Integer, IShape>>();
+    this.forEachShape((id, shape) -> {
+      Map<Integer, IShape> frames = new TreeMap<Integer, IShape>();
+      shape.frames.forEach((tick, state) -> frames.put(tick, shape.type.copyShape(state)));
+      copyMap.put(names.get(id), frames);
+    });
+    return copyMap;
+  }
+
+  @Override
+  public List<Integer> getCanvas() {
+    return new ArrayList<Integer>(Arrays.asList(this.canvas.get(0), this.canvas.get(1),
+        this.canvas.get(2), this.canvas.get(3)));
+  }
+
+  @Override
+  public int getVersion() {
+    return modCount;
+  }
+
+  @Override
+  public void addListener(IModelListener listener) throws IllegalArgumentException {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(IModelListener listener) {
+    listeners.remove(listener);
+  }
+
+  @Override
+  public MemoryReport getMemoryReport() {
+    // the nodes and states of the current version first, so that the history is only charged
+    // with what it does not share
+    Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    Map<String, Long> shapeBytes = new LinkedHashMap<>();
+    long[] keyframeBytes = {0};
+    this.forEachShape((id, shape) -> {
+      seen.add(shape);
+      long bytes = this.retainedBytes(shape, seen);
+      keyframeBytes[0] += bytes;
+      shapeBytes.put(names.get(id), MemoryReport.SHAPE_ENTRY_BYTES
+          + MemoryReport.stringBytes(names.get(id)) + BYTES_PER_SHAPE + bytes);
+    });
+    // the trees of shapes and of their order are already charged to the shapes
+    version.shapes.forEachUnseen(seen, (id, shape) -> { });
+    version.order.forEachUnseen(seen, (position, id) -> { });
+    long historyBytes = 0;
+    for (Deque<Version> history : Arrays.asList(undone, redone)) {
+      for (Version old : history) {
+        long[] bytes = {BYTES_PER_VERSION};
+        int nodes = old.shapes.forEachUnseen(seen, (id, shape) -> {
+          if (seen.add(shape)) {
+            bytes[0] += BYTES_PER_SHAPE_OBJECT + this.retainedBytes(shape, seen);
+          }
+        });
+        nodes += old.order.forEachUnseen(seen, (position, id) -> { });
+        historyBytes += bytes[0] + BYTES_PER_NODE * nodes;
+      }
+    }
+    return new MemoryReport(shapeBytes, this.countKeyframes(),
+        keyframeBytes[0], this.indexBytes(), 0, historyBytes);
+  }
+
+  // Estimates the bytes retained by the keyframes of a shape that are not in the given set.
+  private long retainedBytes(Shape shape, Set<Object> seen) {
+    long[] states = {0};
+    int nodes = shape.frames.forEachUnseen(seen, (tick, state) -> {
+      if (seen.add(state)) {
+        states[0]++;
+      }
+    });
+    return BYTES_PER_NODE * nodes + BYTES_PER_STATE * states[0];
+  }
+
+  // Counts the keyframes of every shape of the current version.
+  private int countKeyframes() {
+    int[] count = {0};
+    this.forEachShape((id, shape) -> count[0] += shape.frames.size());
+    return count[0];
+  }
+}
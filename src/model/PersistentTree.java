@@ -0,0 +1,344 @@
+package cs3500.animator.model;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An immutable sorted map from non-negative int keys to values, kept as an AVL tree. Adding or
+ * removing a key makes a new tree that copies only the O(log n) nodes on the path to the key and
+ * shares every other node with the old tree, so any number of versions of a map can be kept for
+ * little more than the cost of their differences.
+ *
+ * @param <V> the type of the values
+ */
+final class PersistentTree<V> {
+
+  /**
+   * Visits the entries of a tree in the order of their keys.
+   *
+   * @param <V> the type of the values
+   */
+  interface Visitor<V> {
+
+    /**
+     * Visits one entry.
+     *
+     * @param key   the key of the entry
+     * @param value the value of the entry
+     */
+    void visit(int key, V value);
+  }
+
+  private static final PersistentTree<?> EMPTY = new PersistentTree<>(null);
+
+  private final Node<V> root;
+
+  private PersistentTree(Node<V> root) {
+    this.root = root;
+  }
+
+  /**
+   * Gets the tree with no entries.
+   *
+   * @param <V> the type of the values
+   * @return an empty tree.
+   */
+  @SuppressWarnings("unchecked")
+  static <V> PersistentTree<V> empty() {
+    return (PersistentTree<V>) EMPTY;
+  }
+
+  int size() {
+    return size(root);
+  }
+
+  boolean isEmpty() {
+    return root == null;
+  }
+
+  /**
+   * Gets the value of the given key.
+   *
+   * @param key the key to look up
+   * @return the value of the key, or null if the tree does not have it.
+   */
+  V get(int key) {
+    Node<V> node = this.node(key);
+    return node == null ? null : node.value;
+  }
+
+  /**
+   * Finds the largest key at or before the given key.
+   *
+   * @param key the key to search for
+   * @return the largest key that is not greater than the given key, or -1 if there is none.
+   */
+  int floorKey(int key) {
+    int found = -1;
+    Node<V> node = root;
+    while (node != null) {
+      if (node.key > key) {
+        node = node.left;
+      } else {
+        found = node.key;
+        node = node.right;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Finds the smallest key after the given key.
+   *
+   * @param key the key to search for
+   * @return the smallest key that is greater than the given key, or -1 if there is none.
+   */
+  int higherKey(int key) {
+    int found = -1;
+    Node<V> node = root;
+    while (node != null) {
+      if (node.key <= key) {
+        node = node.right;
+      } else {
+        found = node.key;
+        node = node.left;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Gets the smallest key of this tree.
+   *
+   * @return the first key, or -1 if the tree is empty.
+   */
+  int firstKey() {
+    return this.higherKey(-1);
+  }
+
+  /**
+   * Gets the largest key of this tree.
+   *
+   * @return the last key, or -1 if the tree is empty.
+   */
+  int lastKey() {
+    return this.floorKey(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Makes a tree with the given entry added, replacing the value of the key if this tree has it.
+   *
+   * @param key   the key of the entry. Must be non-negative.
+   * @param value the value of the entry. Must not be null.
+   * @return the new tree.
+   */
+  PersistentTree<V> put(int key, V value) {
+    return new PersistentTree<>(put(root, key, value));
+  }
+
+  /**
+   * Makes a tree without the given key.
+   *
+   * @param key the key to remove
+   * @return the new tree, or this tree if it does not have the key.
+   */
+  PersistentTree<V> remove(int key) {
+    if (this.get(key) == null) {
+      return this;
+    }
+    return new PersistentTree<>(remove(root, key));
+  }
+
+  /**
+   * Makes a tree without every key at or after the given key. Each removed key costs O(log n).
+   *
+   * @param key the first key to remove
+   * @return the new tree.
+   */
+  PersistentTree<V> removeFrom(int key) {
+    PersistentTree<V> tree = this;
+    for (int last = tree.lastKey(); last >= key; last = tree.lastKey()) {
+      tree = tree.remove(last);
+    }
+    return tree;
+  }
+
+  /**
+   * Finds the keys whose values differ between this tree and the given tree, comparing the values
+   * by identity, together with the keys only one of the trees has. Subtrees the two trees share
+   * are skipped without being read, so for two versions of a map a few changes apart this costs
+   * about the number of nodes those changes copied times the depth of the trees, rather than the
+   * size of the trees.
+   *
+   * @param other the tree to compare with
+   * @return the keys that differ, in ascending order.
+   */
+  int[] differentKeys(PersistentTree<V> other) {
+    Set<Integer> keys = new TreeSet<>();
+    addDifferences(root, other, keys);
+    addDifferences(other.root, this, keys);
+    int[] found = new int[keys.size()];
+    int i = 0;
+    for (int key : keys) {
+      found[i++] = key;
+    }
+    return found;
+  }
+
+  /**
+   * Visits every entry of this tree in the order of their keys.
+   *
+   * @param visitor the visitor to give every entry to
+   */
+  void forEach(Visitor<? super V> visitor) {
+    forEach(root, visitor);
+  }
+
+  /**
+   * Visits the entries of the nodes of this tree that are not in the given set, adding the nodes
+   * to it. A node in the set is skipped with all of its subtrees, which it shares with the tree
+   * it was seen in, so visiting every version of a map this way costs only their differences.
+   *
+   * @param seen    the nodes already visited, compared by identity
+   * @param visitor the visitor to give the entries of the nodes not seen yet to
+   * @return the number of nodes visited.
+   */
+  int forEachUnseen(Set<Object> seen, Visitor<? super V> visitor) {
+    return forEachUnseen(root, seen, visitor);
+  }
+
+  private static <V> int forEachUnseen(Node<V> node, Set<Object> seen,
+      Visitor<? super V> visitor) {
+    if (node == null || !seen.add(node)) {
+      return 0;
+    }
+    visitor.visit(node.key, node.value);
+    return 1 + forEachUnseen(node.left, seen, visitor) + forEachUnseen(node.right, seen, visitor);
+  }
+
+  // Adds the keys of the given subtree whose values the other tree does not have. A node that the
+  // other tree has at the same key is shared with all of its subtrees, so it is not looked into.
+  private static <V> void addDifferences(Node<V> node, PersistentTree<V> other, Set<Integer> keys) {
+    if (node == null) {
+      return;
+    }
+    Node<V> same = other.node(node.key);
+    if (same == node) {
+      return;
+    }
+    if (same == null || same.value != node.value) {
+      keys.add(node.key);
+    }
+    addDifferences(node.left, other, keys);
+    addDifferences(node.right, other, keys);
+  }
+
+  // Finds the node of the given key, or null if this tree does not have the key.
+  private Node<V> node(int key) {
+    Node<V> node = root;
+    while (node != null) {
+      if (key < node.key) {
+        node = node.left;
+      } else if (key > node.key) {
+        node = node.right;
+      } else {
+        return node;
+      }
+    }
+    return null;
+  }
+
+  private static <V> void forEach(Node<V> node, Visitor<? super V> visitor) {
+    while (node != null) {
+      forEach(node.left, visitor);
+      visitor.visit(node.key, node.value);
+      node = node.right;
+    }
+  }
+
+  private static <V> Node<V> put(Node<V> node, int key, V value) {
+    if (node == null) {
+      return new Node<>(key, value, null, null);
+    }
+    if (key < node.key) {
+      return balance(node.key, node.value, put(node.left, key, value), node.right);
+    } else if (key > node.key) {
+      return balance(node.key, node.value, node.left, put(node.right, key, value));
+    }
+    return new Node<>(key, value, node.left, node.right);
+  }
+
+  private static <V> Node<V> remove(Node<V> node, int key) {
+    if (key < node.key) {
+      return balance(node.key, node.value, remove(node.left, key), node.right);
+    } else if (key > node.key) {
+      return balance(node.key, node.value, node.left, remove(node.right, key));
+    }
+    if (node.left == null) {
+      return node.right;
+    }
+    if (node.right == null) {
+      return node.left;
+    }
+    // replacing the node with the first node of its right subtree
+    Node<V> next = node.right;
+    while (next.left != null) {
+      next = next.left;
+    }
+    return balance(next.key, next.value, node.left, remove(node.right, next.key));
+  }
+
+  // Makes a node from the given parts, rotating once or twice if one side is two levels deeper.
+  private static <V> Node<V> balance(int key, V value, Node<V> left, Node<V> right) {
+    int difference = height(left) - height(right);
+    if (difference > 1) {
+      if (height(left.left) >= height(left.right)) {
+        return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right,
+            right));
+      }
+      Node<V> middle = left.right;
+      return new Node<>(middle.key, middle.value,
+          new Node<>(left.key, left.value, left.left, middle.left),
+          new Node<>(key, value, middle.right, right));
+    }
+    if (difference < -1) {
+      if (height(right.right) >= height(right.left)) {
+        return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left),
+            right.right);
+      }
+      Node<V> middle = right.left;
+      return new Node<>(middle.key, middle.value, new Node<>(key, value, left, middle.left),
+          new Node<>(right.key, right.value, middle.right, right.right));
+    }
+    return new Node<>(key, value, left, right);
+  }
+
+  private static int height(Node<?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static int size(Node<?> node) {
+    return node == null ? 0 : node.size;
+  }
+
+  /**
+   * One entry of a tree with its subtrees. Nodes never change once they are made.
+   */
+  private static final class Node<V> {
+    private final int key;
+    private final V value;
+    private final Node<V> left;
+    private final Node<V> right;
+    private final int height;
+    private final int size;
+
+    Node(int key, V value, Node<V> left, Node<V> right) {
+      this.key = key;
+      this.value = value;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      this.size = size(left) + size(right) + 1;
+    }
+  }
+}
@@ -1,9 +1,6 @@
 package cs3500.animator.model;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * Represents a rectangle that has a color, position, width, and height.
@@ -33,6 +30,15 @@ public class Rect extends AShape implements IShape {
     super(rgb, pos, radius, radius);
   }
 
+  /**
+   * Constructs a rectangle with the given state.
+   *
+   * @param state the position, size and color of the rectangle
+   */
+  public Rect(ShapeState state) {
+    super(state);
+  }
+
 
   // Returning a rectangle with the given parameters.
   @Override
@@ -47,10 +53,14 @@ public class Rect extends AShape implements IShape {
     if (width <= 0 || height <= 0) {
       throw new IllegalArgumentException("Invalid dimensions.");
     }
-    List<Integer> copyRGB = new ArrayList<Integer>(Arrays.asList(rgb.get(0), rgb.get(1),
-        rgb.get(2)));
-    Position copyPos = new Position(pos.getX(), pos.getY());
-    return new Rect(copyRGB, copyPos, width, height);
+    return new Rect(new ShapeState(pos.getX(), pos.getY(), width, height,
+        ShapeState.pack(rgb.get(0), rgb.get(1), rgb.get(2))));
+  }
+
+  // Returning a rectangle that shares the given state.
+  @Override
+  public IShape copyShape(ShapeState state) throws IllegalArgumentException {
+    return new Rect(state);
   }
 
   // Overriding equals() so that two rectangles with the same color, size, and position are
@@ -64,10 +74,7 @@ public class Rect extends AShape implements IShape {
       return false;
     }
     Rect rect = (Rect) o;
-    return width == rect.width
-        && height == rect.height
-        && Objects.equals(rgb, rect.rgb)
-        && Objects.equals(pos, rect.pos);
+    return state.equals(rect.state);
   }
 
 
@@ -75,7 +82,7 @@ public class Rect extends AShape implements IShape {
   // same integer
   @Override
   public int hashCode() {
-    return Objects.hash(rgb, pos, width, height);
+    return state.hashCode();
   }
 
   // Overriding toString() so that the name of the shape this class represents is returned
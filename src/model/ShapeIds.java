@@ -0,0 +1,119 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gives each shape name of a model a dense int ID and keeps the keyframes of each shape in an
+ * array indexed by that ID, so that reading a shape by its ID never hashes its name. A name keeps
+ * its ID for the life of the model, even while the shape is removed, so IDs handed out earlier
+ * never come to mean another shape.
+ *
+ * @param <T> the type of the keyframes of one shape
+ */
+final class ShapeIds<T> {
+
+  private final Map<String, Integer> ids; // the ID of every name this model has seen
+  private final List<String> names; // the name with each ID
+  private Object[] shapes; // the keyframes of the shape with each ID, or null if it was removed
+
+  /**
+   * Constructs an empty table of IDs.
+   */
+  ShapeIds() {
+    this.ids = new HashMap<>();
+    this.names = new ArrayList<>();
+    this.shapes = new Object[8];
+  }
+
+  /**
+   * Records the keyframes of the shape with the given name, giving the name an ID if it does not
+   * have one yet.
+   *
+   * @param name   the name of the shape
+   * @param frames the keyframes of the shape
+   */
+  void put(String name, T frames) {
+    Integer id = ids.get(name);
+    if (id == null) {
+      id = names.size();
+      ids.put(name, id);
+      names.add(name);
+      if (id == shapes.length) {
+        shapes = Arrays.copyOf(shapes, shapes.length * 2);
+      }
+    }
+    shapes[id] = frames;
+  }
+
+  /**
+   * Records that the shape with the given name was removed. Its name keeps its ID.
+   *
+   * @param name the name of the shape
+   */
+  void remove(String name) {
+    Integer id = ids.get(name);
+    if (id != null) {
+      shapes[id] = null;
+    }
+  }
+
+  /**
+   * Gets the ID of the shape with the given name.
+   *
+   * @param name the name of the shape
+   * @return the ID of the shape.
+   * @throws IllegalArgumentException if there is no shape with that name.
+   */
+  int idOf(String name) throws IllegalArgumentException {
+    Integer id = ids.get(name);
+    if (id == null || shapes[id] == null) {
+      throw new IllegalArgumentException("Shape not present in model");
+    }
+    return id;
+  }
+
+  /**
+   * Gets the name of the shape with the given ID.
+   *
+   * @param id the ID of the shape
+   * @return the name of the shape.
+   * @throws IllegalArgumentException if there is no shape with that ID.
+   */
+  String nameOf(int id) throws IllegalArgumentException {
+    this.get(id);
+    return names.get(id);
+  }
+
+  /**
+   * Gets the keyframes of the shape with the given ID.
+   *
+   * @param id the ID of the shape
+   * @return the keyframes of the shape.
+   * @throws IllegalArgumentException if there is no shape with that ID.
+   */
+  T get(int id) throws IllegalArgumentException {
+    T frames = this.find(id);
+    if (frames == null) {
+      throw new IllegalArgumentException("Shape not present in model");
+    }
+    return frames;
+  }
+
+  /**
+   * Gets the keyframes of the shape with the given ID, if it is present.
+   *
+   * @param id the ID of the shape
+   * @return the keyframes of the shape, or null if there is no shape with that ID.
+   */
+  @SuppressWarnings("unchecked")
+  T find(int id) {
+    if (id < 0 || id >= names.size()) {
+      return null;
+    }
+    return (T) shapes[id];
+  }
+}
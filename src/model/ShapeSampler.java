@@ -0,0 +1,120 @@
+package cs3500.animator.model;
+
+import java.nio.IntBuffer;
+
+/**
+ * Samples the states of shapes over a range of ticks into buffers given by the caller, as done by
+ * the sample methods of {@link IViewModel}. Each shape is read through one cursor, so sampling
+ * creates no object per tick and only searches a shape's keyframes when a step skips past them.
+ * Every sample takes {@link #INTS_PER_SAMPLE} ints: the x-position, y-position, width, height and
+ * color of the shape, with the color packed as by {@link ShapeState#pack}. A shape that is not
+ * visible at a tick is sampled as four zeros and a color of -1.
+ */
+public final class ShapeSampler {
+
+  /**
+   * The number of ints written for every shape at every sampled tick.
+   */
+  public static final int INTS_PER_SAMPLE = 5;
+
+  private ShapeSampler() {
+  }
+
+  /**
+   * Counts the ticks sampled from start to end, both included, at the given step.
+   *
+   * @param start the first tick to sample. Must be non-negative.
+   * @param end   the last tick that may be sampled. Must not be before start.
+   * @param step  the number of ticks between two samples. Must be positive.
+   * @return the number of sampled ticks.
+   * @throws IllegalArgumentException if the range or step is invalid, or if there are more than
+   *                                  {@link Integer#MAX_VALUE} samples.
+   */
+  public static int countSamples(int start, int end, int step) throws IllegalArgumentException {
+    if (start < 0) {
+      throw new IllegalArgumentException("Frame must not be negative");
+    }
+    if (end < start) {
+      throw new IllegalArgumentException("Invalid range.");
+    }
+    if (step <= 0) {
+      throw new IllegalArgumentException("Step must be positive");
+    }
+    long count = ((long) end - start) / step + 1;
+    if (count > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Too many samples");
+    }
+    return (int) count;
+  }
+
+  /**
+   * Samples the given shapes of a model, writing every shape at the first tick, then every shape
+   * at the next tick, and so on. Nothing is written if the buffer is too small.
+   *
+   * @param model the model to sample
+   * @param ids   the IDs of the shapes to sample
+   * @param start the first tick to sample
+   * @param end   the last tick that may be sampled
+   * @param step  the number of ticks between two samples
+   * @param out   the buffer to write into, from its position on
+   * @throws IllegalArgumentException if a shape is not in the model, the range or step is
+   *                                  invalid, there are more than {@link Integer#MAX_VALUE}
+   *                                  samples, or the buffer does not have room for every sample.
+   */
+  static void sample(IViewModel model, int[] ids, int start, int end, int step, IntBuffer out)
+      throws IllegalArgumentException {
+    if (ids == null || out == null) {
+      throw new IllegalArgumentException("Shapes and buffer must not be null");
+    }
+    int count = countSamples(start, end, step);
+    // dividing rather than multiplying, since the ints needed may not fit in a long
+    if (ids.length > 0 && count > out.remaining() / ((long) ids.length * INTS_PER_SAMPLE)) {
+      throw new IllegalArgumentException("Buffer too small");
+    }
+    IShapeCursor[] cursors = new IShapeCursor[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      cursors[i] = model.cursor(ids[i]);
+    }
+    for (long tick = start; tick <= end; tick += step) {
+      for (IShapeCursor cursor : cursors) {
+        cursor.seek((int) tick);
+        if (cursor.isVisible()) {
+          out.put(cursor.getX());
+          out.put(cursor.getY());
+          out.put(cursor.getWidth());
+          out.put(cursor.getHeight());
+          out.put(ShapeState.pack(cursor.getRed(), cursor.getGreen(), cursor.getBlue()));
+        } else {
+          out.put(0);
+          out.put(0);
+          out.put(0);
+          out.put(0);
+          out.put(-1);
+        }
+      }
+    }
+  }
+
+  /**
+   * Samples one shape of a model into an array, from the given index on. Nothing is written if
+   * the array is too small.
+   *
+   * @param model  the model to sample
+   * @param shape  the key of the shape to sample
+   * @param start  the first tick to sample
+   * @param end    the last tick that may be sampled
+   * @param step   the number of ticks between two samples
+   * @param out    the array to write into
+   * @param offset the index of the array to write the first sample at
+   * @throws IllegalArgumentException if the shape is not in the model, the range or step is
+   *                                  invalid, or the array does not have room for every sample.
+   */
+  static void sample(IViewModel model, String shape, int start, int end, int step, int[] out,
+      int offset) throws IllegalArgumentException {
+    if (out == null || offset < 0 || offset > out.length) {
+      throw new IllegalArgumentException("Invalid array offset");
+    }
+    sample(model, new int[]{model.getShapeId(shape)}, start, end, step,
+        IntBuffer.wrap(out, offset, out.length - offset));
+  }
+}
@@ -0,0 +1,139 @@
+package cs3500.animator.model;
+
+/**
+ * Represents the appearance of a shape at one moment: its position, size and color. A state
+ * cannot be changed once it is created, so it can be shared freely between shapes and models.
+ * The color is packed into a single int as 0xRRGGBB and every value is read through a primitive
+ * accessor, so reading a state never creates an object.
+ */
+public final class ShapeState {
+
+  private final int x;
+  private final int y;
+  private final int width;
+  private final int height;
+  private final int color;
+
+  /**
+   * Constructs a state with the given position, size and color.
+   *
+   * @param x      the x-position
+   * @param y      the y-position
+   * @param width  the width. Must be positive.
+   * @param height the height. Must be positive.
+   * @param r      the red value. Must be within the range of 0-255.
+   * @param g      the green value. Must be within the range of 0-255.
+   * @param b      the blue value. Must be within the range of 0-255.
+   * @throws IllegalArgumentException if the size is not positive or the color is invalid.
+   */
+  public ShapeState(int x, int y, int width, int height, int r, int g, int b) {
+    this(x, y, width, height, pack(r, g, b));
+  }
+
+  /**
+   * Constructs a state with the given position, size and packed color.
+   *
+   * @param x      the x-position
+   * @param y      the y-position
+   * @param width  the width. Must be positive.
+   * @param height the height. Must be positive.
+   * @param color  the color as 0xRRGGBB.
+   * @throws IllegalArgumentException if the size is not positive or the color is invalid.
+   */
+  public ShapeState(int x, int y, int width, int height, int color) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Invalid width or height");
+    }
+    if ((color & ~0xFFFFFF) != 0) {
+      throw new IllegalArgumentException("Invalid color");
+    }
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+    this.color = color;
+  }
+
+  /**
+   * Packs the given RGB values into a single int.
+   *
+   * @param r the red value. Must be within the range of 0-255.
+   * @param g the green value. Must be within the range of 0-255.
+   * @param b the blue value. Must be within the range of 0-255.
+   * @return the color as 0xRRGGBB.
+   * @throws IllegalArgumentException if any of the values are not within the range of 0-255.
+   */
+  public static int pack(int r, int g, int b) {
+    if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
+      throw new IllegalArgumentException("Invalid color");
+    }
+    return (r << 16) | (g << 8) | b;
+  }
+
+  public int x() {
+    return x;
+  }
+
+  public int y() {
+    return y;
+  }
+
+  public int width() {
+    return width;
+  }
+
+  public int height() {
+    return height;
+  }
+
+  public int red() {
+    return (color >> 16) & 0xFF;
+  }
+
+  public int green() {
+    return (color >> 8) & 0xFF;
+  }
+
+  public int blue() {
+    return color & 0xFF;
+  }
+
+  /**
+   * Gets the color of this state packed into a single int.
+   *
+   * @return the color as 0xRRGGBB.
+   */
+  public int color() {
+    return color;
+  }
+
+  // Overriding equals() so that two states with the same position, size and color are equal
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ShapeState)) {
+      return false;
+    }
+    ShapeState that = (ShapeState) o;
+    return x == that.x && y == that.y && width == that.width && height == that.height
+        && color == that.color;
+  }
+
+  // Overriding hashCode() so that equal states return the same integer
+  @Override
+  public int hashCode() {
+    int hash = x;
+    hash = 31 * hash + y;
+    hash = 31 * hash + width;
+    hash = 31 * hash + height;
+    return 31 * hash + color;
+  }
+
+  // Overriding toString() to list the position, size and color the same way the textual view does
+  @Override
+  public String toString() {
+    return x + " " + y + " " + width + " " + height + " " + red() + " " + green() + " " + blue();
+  }
+}
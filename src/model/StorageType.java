@@ -0,0 +1,12 @@
+package cs3500.animator.model;
+
+/**
+ * Defines the ways that an animation built by {@link AnimationModel.Builder} can store its
+ * keyframes: in a map of shapes for each shape ({@link AnimationModel}), in parallel arrays of
+ * primitives for each shape ({@link ColumnarAnimationModel}), in a memory-mapped temporary file
+ * outside the heap ({@link MappedAnimationModel}) or in immutable trees whose earlier versions can
+ * be undone ({@link PersistentAnimationModel}).
+ */
+public enum StorageType {
+  TREE_MAP, COLUMNAR, MAPPED, PERSISTENT
+}
@@ -0,0 +1,434 @@
+package cs3500.animator.model;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An implementation of IViewModel that plays an IAnimationModel at another speed without copying
+ * it. A keyframe at tick k of the model happens at time k * scale of this view, so a scale above 1
+ * slows the animation down and a scale below 1 speeds it up, as with
+ * {@link IAnimationModel#changeSpeed}. Unlike changeSpeed, the scale may move keyframes between
+ * whole ticks: a tick of this view that falls between two keyframes is interpolated from them, so
+ * no keyframe is ever lost or merged with another. With a scale of 1, every state is the same as
+ * the model's.
+ * Ticks are mapped when they are read, so changing the scale takes constant time however large the
+ * animation is. The keyframes returned by {@link #getShapes} are the model's own, at their own
+ * ticks, since scaled keyframes need not fall on whole ticks.
+ * This class is not safe to use from several threads at once.
+ */
+public class TimeScaledViewModel implements IViewModel {
+
+  private final IAnimationModel model;
+  private double scale;
+  private IShapeCursor[] finders; // a cursor of the model for each shape ID, to find keyframes
+
+  /**
+   * Constructs a view of the given model played at the given scale.
+   *
+   * @param model the animation model to be delegated to
+   * @param scale the factor that the ticks of the model are multiplied by. Must be positive.
+   * @throws IllegalArgumentException if the model is null or the scale is not positive.
+   */
+  public TimeScaledViewModel(IAnimationModel model, double scale)
+      throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model must not be null");
+    }
+    this.model = model;
+    this.finders = new IShapeCursor[0];
+    this.setScale(scale);
+  }
+
+  /**
+   * Gets the factor that the ticks of the model are multiplied by.
+   *
+   * @return the scale of this view.
+   */
+  public double getScale() {
+    return scale;
+  }
+
+  /**
+   * Changes the factor that the ticks of the model are multiplied by. This takes constant time.
+   *
+   * @param scale the new scale. Must be positive.
+   * @throws IllegalArgumentException if the scale is not positive.
+   */
+  public void setScale(double scale) throws IllegalArgumentException {
+    if (!(scale > 0) || Double.isInfinite(scale)) {
+      throw new IllegalArgumentException("Scale must be positive");
+    }
+    this.scale = scale;
+  }
+
+  @Override
+  public String toString() {
+    return model.toString();
+  }
+
+  @Override
+  public IShape getState(int frame, String shape) throws IllegalArgumentException {
+    return this.getState(frame, model.getShapeId(shape));
+  }
+
+  @Override
+  public IShape getState(int frame, int id) throws IllegalArgumentException {
+    model.getShapeName(id); // making sure the shape has not been removed
+    IShapeCursor finder = this.finder(id);
+    finder.seek(this.sourceTick(frame));
+    if (!finder.isVisible()) {
+      return null;
+    }
+    int start = finder.getSegmentStart();
+    int end = finder.getSegmentEnd();
+    IShape before = model.getState(start, id);
+    double prop = this.proportion(frame, start, end);
+    if (prop == 0) {
+      return before;
+    }
+    return AnimationModel.proportionShapes(before, model.getState(end, id), prop);
+  }
+
+  @Override
+  public IShape getState(double time, String shape) throws IllegalArgumentException {
+    return ViewModel.stateAt(this, time, shape);
+  }
+
+  @Override
+  public int getShapeId(String name) throws IllegalArgumentException {
+    return model.getShapeId(name);
+  }
+
+  @Override
+  public String getShapeName(int id) throws IllegalArgumentException {
+    return model.getShapeName(id);
+  }
+
+  @Override
+  public Map<String, IShape> getFullState(int frame) throws IllegalArgumentException {
+    // starting from the model's states at the same moment, which names every shape
+    Map<String, IShape> state = model.getFullState(this.sourceTick(frame));
+    for (int id : this.getVisibleShapeIds(frame)) {
+      state.put(model.getShapeName(id), this.getState(frame, id));
+    }
+    return state;
+  }
+
+  @Override
+  public IShapeCursor cursor(String shape) throws IllegalArgumentException {
+    return this.cursor(model.getShapeId(shape));
+  }
+
+  @Override
+  public IShapeCursor cursor(int id) throws IllegalArgumentException {
+    IShapeCursor cursor = new ScaledCursor(model.cursor(id), model.cursor(id));
+    cursor.seek(0);
+    return cursor;
+  }
+
+  @Override
+  public List<String> getVisibleShapes(int frame) throws IllegalArgumentException {
+    return model.getVisibleShapes(this.sourceTick(frame));
+  }
+
+  @Override
+  public int[] getVisibleShapeIds(int frame) throws IllegalArgumentException {
+    return model.getVisibleShapeIds(this.sourceTick(frame));
+  }
+
+  @Override
+  public int nextChange(int frame) throws IllegalArgumentException {
+    int change = model.nextChange(this.sourceTick(frame));
+    if (change == Integer.MAX_VALUE) {
+      return Integer.MAX_VALUE;
+    }
+    // a shape that changes at a tick of the model moves from the tick before it on
+    double first = Math.floor((change - 1) * scale) + 1;
+    return first >= Integer.MAX_VALUE ? Integer.MAX_VALUE : Math.max(frame + 1, (int) first);
+  }
+
+  /**
+   * Finds the shapes whose states differ between two ticks of this view. Scaled ticks fall
+   * between the keyframes of the model, so the states of every shape visible at either tick are
+   * compared.
+   *
+   * @param from one of the ticks to compare.
+   * @param to   the other tick to compare.
+   * @return the IDs of the shapes whose states differ, in the order the shapes were added.
+   * @throws IllegalArgumentException if either tick is negative.
+   */
+  @Override
+  public int[] getChangedShapeIds(int from, int to) throws IllegalArgumentException {
+    int first = Math.min(from, to);
+    int last = Math.max(from, to);
+    this.sourceTick(first);
+    // every shape visible at the first tick is still visible at the last
+    int[] visible = this.getVisibleShapeIds(last);
+    int[] changed = new int[visible.length];
+    int count = 0;
+    for (int id : visible) {
+      if (!Objects.equals(this.getState(first, id), this.getState(last, id))) {
+        changed[count++] = id;
+      }
+    }
+    return Arrays.copyOf(changed, count);
+  }
+
+  @Override
+  public void sample(String shape, int start, int end, int step, IntBuffer out)
+      throws IllegalArgumentException {
+    ShapeSampler.sample(this, new int[]{this.getShapeId(shape)}, start, end, step, out);
+  }
+
+  @Override
+  public void sample(String shape, int start, int end, int step, int[] out, int offset)
+      throws IllegalArgumentException {
+    ShapeSampler.sample(this, shape, start, end, step, out, offset);
+  }
+
+  @Override
+  public void sample(int[] ids, int start, int end, int step, IntBuffer out)
+      throws IllegalArgumentException {
+    ShapeSampler.sample(this, ids, start, end, step, out);
+  }
+
+  @Override
+  public Map<String, Map<Integer, IShape>> getShapes() {
+    return model.getShapes();
+  }
+
+  @Override
+  public List<Integer> getCanvas() {
+    return model.getCanvas();
+  }
+
+  @Override
+  public int getVersion() {
+    return model.getVersion();
+  }
+
+  // Finds the last tick of the model that happens at or before the given time of this view.
+  private int sourceTick(double frame) {
+    if (!(frame >= 0)) {
+      throw new IllegalArgumentException("Frame must not be negative");
+    }
+    double source = Math.floor(frame / scale);
+    if (source >= Integer.MAX_VALUE) {
+      return Integer.MAX_VALUE;
+    }
+    // correcting the rounding of the division, so that a keyframe at frame / scale is never missed
+    int tick = (int) source;
+    if (tick < Integer.MAX_VALUE && (tick + 1) * scale <= frame) {
+      tick++;
+    } else if (tick > 0 && tick * scale > frame) {
+      tick--;
+    }
+    return tick;
+  }
+
+  // Finds how far the given time of this view is between the keyframes at the given ticks of the
+  // model. With a scale of 1 this is the same proportion the models compute.
+  private double proportion(double frame, int start, int end) {
+    if (start == end) {
+      return 0;
+    }
+    return (frame - start * scale) / ((end - start) * scale);
+  }
+
+  // Gets the cursor of the model used to find the keyframes of the shape with the given ID.
+  private IShapeCursor finder(int id) {
+    if (id >= 0 && id < finders.length && finders[id] != null) {
+      return finders[id];
+    }
+    IShapeCursor finder = model.cursor(id);
+    if (id >= finders.length) {
+      finders = Arrays.copyOf(finders, Math.max(id + 1, finders.length * 2));
+    }
+    finders[id] = finder;
+    return finder;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof TimeScaledViewModel)) {
+      return false;
+    }
+    TimeScaledViewModel that = (TimeScaledViewModel) o;
+    return Double.compare(scale, that.scale) == 0 && model.equals(that.model);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(model, scale);
+  }
+
+  /**
+   * A cursor that reads a shape of the model at the ticks of this view. One cursor of the model
+   * stays on the keyframe before the current tick and another on the keyframe after it, so moving
+   * through a segment only interpolates between them.
+   */
+  private final class ScaledCursor implements IShapeCursor {
+
+    private final IShapeCursor start;
+    private final IShapeCursor end;
+    private final int[] current;
+    private int tick;
+    private boolean visible;
+
+    ScaledCursor(IShapeCursor start, IShapeCursor end) {
+      this.start = start;
+      this.end = end;
+      this.current = new int[7];
+    }
+
+    @Override
+    public String getName() {
+      return start.getName();
+    }
+
+    @Override
+    public String getType() {
+      return start.getType();
+    }
+
+    @Override
+    public int getTick() {
+      return tick;
+    }
+
+    @Override
+    public void advance() {
+      this.seek(tick + 1);
+    }
+
+    @Override
+    public void seek(int tick) throws IllegalArgumentException {
+      this.seek(tick, tick);
+    }
+
+    @Override
+    public void seek(double time) throws IllegalArgumentException {
+      this.seek(time, time >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) time);
+    }
+
+    // Moves to the given time of this view, whose tick is the given one.
+    private void seek(double time, int tick) throws IllegalArgumentException {
+      start.seek(sourceTick(time));
+      this.tick = tick;
+      this.visible = start.isVisible();
+      if (!visible) {
+        return;
+      }
+      int from = start.getSegmentStart();
+      int to = start.getSegmentEnd();
+      start.seek(from);
+      this.load(start);
+      double prop = proportion(time, from, to);
+      if (prop != 0) {
+        end.seek(to);
+        current[0] = AnimationModel.proportion(current[0], end.getX(), prop);
+        current[1] = AnimationModel.proportion(current[1], end.getY(), prop);
+        current[2] = AnimationModel.proportion(current[2], end.getWidth(), prop);
+        current[3] = AnimationModel.proportion(current[3], end.getHeight(), prop);
+        current[4] = AnimationModel.proportion(current[4], end.getRed(), prop);
+        current[5] = AnimationModel.proportion(current[5], end.getGreen(), prop);
+        current[6] = AnimationModel.proportion(current[6], end.getBlue(), prop);
+      }
+    }
+
+    // Copies the state of the given cursor of the model.
+    private void load(IShapeCursor cursor) {
+      current[0] = cursor.getX();
+      current[1] = cursor.getY();
+      current[2] = cursor.getWidth();
+      current[3] = cursor.getHeight();
+      current[4] = cursor.getRed();
+      current[5] = cursor.getGreen();
+      current[6] = cursor.getBlue();
+    }
+
+    @Override
+    public boolean isVisible() {
+      return visible;
+    }
+
+    @Override
+    public int getX() throws IllegalStateException {
+      return this.get(0);
+    }
+
+    @Override
+    public int getY() throws IllegalStateException {
+      return this.get(1);
+    }
+
+    @Override
+    public int getWidth() throws IllegalStateException {
+      return this.get(2);
+    }
+
+    @Override
+    public int getHeight() throws IllegalStateException {
+      return this.get(3);
+    }
+
+    @Override
+    public int getRed() throws IllegalStateException {
+      return this.get(4);
+    }
+
+    @Override
+    public int getGreen() throws IllegalStateException {
+      return this.get(5);
+    }
+
+    @Override
+    public int getBlue() throws IllegalStateException {
+      return this.get(6);
+    }
+
+    /**
+     * Gets the first tick of this view at or after the keyframe at the start of the current
+     * segment.
+     *
+     * @return the tick the current segment starts at.
+     * @throws IllegalStateException if the shape is not visible at the current tick.
+     */
+    @Override
+    public int getSegmentStart() throws IllegalStateException {
+      this.get(0);
+      return scaled(start.getSegmentStart());
+    }
+
+    /**
+     * Gets the first tick of this view at or after the keyframe at the end of the current segment.
+     *
+     * @return the tick the current segment ends at.
+     * @throws IllegalStateException if the shape is not visible at the current tick.
+     */
+    @Override
+    public int getSegmentEnd() throws IllegalStateException {
+      this.get(0);
+      return scaled(start.getSegmentEnd());
+    }
+
+    // Finds the first tick of this view at or after the given tick of the model.
+    private int scaled(int source) {
+      double frame = Math.ceil(source * scale);
+      return frame >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) frame;
+    }
+
+    private int get(int attribute) {
+      if (!visible) {
+        throw new IllegalStateException(this.getName() + " is not visible at tick " + tick);
+      }
+      return current[attribute];
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds keyframe tracks so that shapes with the same motion share one copy of it. Two motions are
+ * the same when they have the same ticks, sizes and colors and their positions differ by one
+ * constant offset, such as a row of shapes that all move together. The first track built with a
+ * motion stores it, and every later track with that motion shares the stored arrays and keeps only
+ * its offset, so memory grows with the number of distinct motions rather than with the number of
+ * shapes.
+ */
+final class TrackInterner {
+
+  private static final int STRIDE = KeyframeTrack.INTS_PER_KEYFRAME;
+
+  private final Map<RelativeMotion, KeyframeTrack> tracks; // the first track of each motion
+
+  /**
+   * Constructs an interner that has not seen any motion yet.
+   */
+  TrackInterner() {
+    this.tracks = new HashMap<>();
+  }
+
+  /**
+   * Builds a track with the given keyframes, sharing the arrays of an earlier track if it has the
+   * same motion.
+   *
+   * @param type      a shape of the type that the track animates
+   * @param keyframes the keyframes, six ints per keyframe (tick, x, y, width, height, color) sorted
+   *                  by tick
+   * @return a track with the given keyframes.
+   */
+  KeyframeTrack intern(IShape type, int[] keyframes) {
+    if (keyframes.length == 0) {
+      return new KeyframeTrack(type);
+    }
+    // measuring positions from the first keyframe, so that moved copies of a motion are equal
+    int x = keyframes[1];
+    int y = keyframes[2];
+    int[] relative = keyframes.clone();
+    for (int i = 0; i < relative.length; i += STRIDE) {
+      relative[i + 1] -= x;
+      relative[i + 2] -= y;
+    }
+
+    RelativeMotion motion = new RelativeMotion(relative);
+    KeyframeTrack first = tracks.get(motion);
+    if (first != null) {
+      return first.shareWith(type, x - first.x(0), y - first.y(0));
+    }
+    KeyframeTrack track = new KeyframeTrack(type, keyframes.length / STRIDE);
+    for (int i = 0; i < keyframes.length; i += STRIDE) {
+      track.put(keyframes[i], keyframes[i + 1], keyframes[i + 2], keyframes[i + 3],
+          keyframes[i + 4], keyframes[i + 5]);
+    }
+    tracks.put(motion, track);
+    return track;
+  }
+
+  /**
+   * The keyframes of a motion with positions measured from its first keyframe, compared by value.
+   */
+  private static final class RelativeMotion {
+    private final int[] keyframes;
+    private final int hash;
+
+    RelativeMotion(int[] keyframes) {
+      this.keyframes = keyframes;
+      this.hash = Arrays.hashCode(keyframes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof RelativeMotion
+          && Arrays.equals(keyframes, ((RelativeMotion) o).keyframes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
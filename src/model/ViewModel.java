@@ -1,5 +1,6 @@
 package cs3500.animator.model;
 
+import java.nio.IntBuffer;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -31,6 +32,104 @@ public class ViewModel implements IViewModel {
     return model.getState(frame, shape);
   }
 
+  @Override
+  public IShape getState(int frame, int id) throws IllegalArgumentException {
+    return model.getState(frame, id);
+  }
+
+  @Override
+  public IShape getState(double time, String shape) throws IllegalArgumentException {
+    return stateAt(this, time, shape);
+  }
+
+  /**
+   * Reads the state of a shape of the given model at a time between two ticks through a new
+   * cursor, creating a shape of the type the cursor reads.
+   *
+   * @param model the model to read
+   * @param time  the time to read the state at, in ticks
+   * @param shape the key of the shape to read
+   * @return the state of the shape at that time, or null if it has not appeared yet.
+   * @throws IllegalArgumentException if the shape is not present in the model, or if the time is
+   *                                  negative or not a number.
+   */
+  static IShape stateAt(IViewModel model, double time, String shape)
+      throws IllegalArgumentException {
+    IShapeCursor cursor = model.cursor(shape);
+    cursor.seek(time);
+    if (!cursor.isVisible()) {
+      return null;
+    }
+    ShapeState state = new ShapeState(cursor.getX(), cursor.getY(), cursor.getWidth(),
+        cursor.getHeight(), cursor.getRed(), cursor.getGreen(), cursor.getBlue());
+    if ("rectangle".equals(cursor.getType())) {
+      return new Rect(state);
+    }
+    if ("ellipse".equals(cursor.getType())) {
+      return new Circle(state);
+    }
+    // only a shape at a keyframe knows how to copy a type this method does not know
+    return model.getState(cursor.getTick(), shape).copyShape(state);
+  }
+
+  @Override
+  public int getShapeId(String name) throws IllegalArgumentException {
+    return model.getShapeId(name);
+  }
+
+  @Override
+  public String getShapeName(int id) throws IllegalArgumentException {
+    return model.getShapeName(id);
+  }
+
+  @Override
+  public IShapeCursor cursor(String shape) throws IllegalArgumentException {
+    return model.cursor(shape);
+  }
+
+  @Override
+  public IShapeCursor cursor(int id) throws IllegalArgumentException {
+    return model.cursor(id);
+  }
+
+  @Override
+  public List<String> getVisibleShapes(int frame) throws IllegalArgumentException {
+    return model.getVisibleShapes(frame);
+  }
+
+  @Override
+  public int[] getVisibleShapeIds(int frame) throws IllegalArgumentException {
+    return model.getVisibleShapeIds(frame);
+  }
+
+  @Override
+  public int nextChange(int frame) throws IllegalArgumentException {
+    return model.nextChange(frame);
+  }
+
+  @Override
+  public int[] getChangedShapeIds(int from, int to) throws IllegalArgumentException {
+    return model.getChangedShapeIds(from, to);
+  }
+
+  @Override
+  public void sample(String shape, int start, int end, int step, IntBuffer out)
+      throws IllegalArgumentException {
+    ShapeSampler.sample(this, new int[]{this.getShapeId(shape)}, start, end, step, out);
+  }
+
+  @Override
+  public void sample(String shape, int start, int end, int step, int[] out, int offset)
+      throws IllegalArgumentException {
+    ShapeSampler.sample(this, shape, start, end, step, out, offset);
+  }
+
+  @Override
+  public void sample(int[] ids, int start, int end, int step, IntBuffer out)
+      throws IllegalArgumentException {
+    ShapeSampler.sample(this, ids, start, end, step, out);
+  }
+
   @Override
   public Map<String, IShape> getFullState(int frame) throws IllegalArgumentException {
     return model.getFullState(frame);
@@ -46,6 +145,11 @@ public class ViewModel implements IViewModel {
     return model.getCanvas();
   }
 
+  @Override
+  public int getVersion() {
+    return model.getVersion();
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
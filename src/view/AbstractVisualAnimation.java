@@ -1,18 +1,15 @@
 package cs3500.animator.view;
 
+import cs3500.animator.model.IShapeCursor;
 import cs3500.animator.model.IViewModel;
 import cs3500.animator.model.ViewModel;
 import cs3500.animator.model.AnimationModel;
-import cs3500.animator.model.IShape;
-import cs3500.animator.model.Circle;
-import cs3500.animator.model.Rect;
 import javax.swing.JFrame;
 import javax.swing.Timer;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.io.IOException;
-import java.util.Map;
-import java.util.Set;
+import java.util.Arrays;
 
 /**
  * Abstract version of a visual animation that performs the common functionality of animations with
@@ -24,7 +21,13 @@ public abstract class AbstractVisualAnimation extends JFrame implements IAnimati
   protected double speed;
   protected final DrawingPanel panel;
   protected int tick;
+  protected double subTick; // how far the animation is from the current tick to the next one
   protected Timer timer;
+  private double frameRate; // the number of repaints per second, or 0 to repaint once per tick
+  private IShapeCursor[] cursors; // the cursor of each shape that has been drawn, by shape ID
+  private int drawnTick; // the tick on the panel, or -1 if it has to be drawn again
+  private int drawnVersion; // the version of the model when the panel was drawn
+  private int nextChange; // the first tick after the drawn tick at which a shape may change
 
   /**
    * Constructs an instance of an AbstractVisualAnimation with default parameters for the output,
@@ -36,6 +39,10 @@ public abstract class AbstractVisualAnimation extends JFrame implements IAnimati
     this.speed = 1;
     this.panel = new DrawingPanel();
     this.tick = 1;
+    this.subTick = 0;
+    this.frameRate = 0;
+    this.cursors = new IShapeCursor[0];
+    this.drawnTick = -1;
     this.setTimer();
   }
 
@@ -50,7 +57,49 @@ public abstract class AbstractVisualAnimation extends JFrame implements IAnimati
       throw new IllegalArgumentException("Invalid speed.");
     }
     this.speed = speed;
-    timer.setDelay((int) (1000 / speed));
+    timer.setDelay(this.getDelay());
+  }
+
+  /**
+   * Makes this view repaint the given number of times per second whatever the speed of the
+   * animation, drawing shapes between ticks where a repaint falls between them, so that slow
+   * animations move smoothly instead of once per tick. A frame rate of 0 repaints once per tick,
+   * which is the default.
+   *
+   * @param frameRate the number of repaints per second, or 0 to repaint once per tick.
+   * @throws IllegalArgumentException if the frame rate is negative or not a finite number.
+   */
+  public void setFrameRate(double frameRate) throws IllegalArgumentException {
+    if (!(frameRate >= 0) || Double.isInfinite(frameRate)) {
+      throw new IllegalArgumentException("Invalid frame rate.");
+    }
+    this.frameRate = frameRate;
+    timer.setDelay(this.getDelay());
+  }
+
+  /**
+   * Gets the number of milliseconds between two repaints, which is one tick unless a frame rate
+   * was set.
+   *
+   * @return the delay of the timer.
+   */
+  protected int getDelay() {
+    return (int) (1000 / (frameRate > 0 ? frameRate : speed));
+  }
+
+  /**
+   * Moves the animation on to the time of the next repaint: one tick, or the part of a tick that
+   * passes between two repaints if a frame rate was set.
+   */
+  protected void step() {
+    if (frameRate > 0) {
+      subTick += speed / frameRate;
+      int ticks = (int) subTick;
+      tick += ticks;
+      subTick -= ticks;
+    } else {
+      tick++;
+    }
   }
 
   @Override
@@ -60,6 +109,11 @@ public abstract class AbstractVisualAnimation extends JFrame implements IAnimati
     }
     this.model = model;
 
+    // cursors are created as shapes appear, so that every tick continues where the last one
+    // left off
+    this.cursors = new IShapeCursor[0];
+    this.drawnTick = -1;
+
     // sizes the window and canvas based on the model's canvas size
     this.panel.setLocation(model.getCanvas().get(0),  model.getCanvas().get(1));
     this.panel.setPreferredSize(new Dimension(model.getCanvas().get(2), model.getCanvas().get(3)));
@@ -86,21 +140,48 @@ public abstract class AbstractVisualAnimation extends JFrame implements IAnimati
     });
   }*/
 
+  /**
+   * Draws every shape that is visible at the current time onto the panel. Only the visible shapes
+   * are looked at, and each is read through its cursor, which only searches the shape's keyframes
+   * when the tick jumps. Between ticks, shapes are drawn part of the way to their next keyframe.
+   * If no shape has changed since the tick on the panel, the panel is left as it is.
+   */
   protected void renderPanel() {
-    Map<String, Map<Integer, IShape>> shapes = model.getShapes();
-    Set<String> shapeNames = shapes.keySet();
-    for (String s : shapeNames) {
-      IShape shape = model.getState(tick, s);
-      if (shape != null) {
-        if (shape instanceof Rect) {
-          panel.addShape(new ViewRect(shape.getPosition().getX(), shape.getPosition().getY(),
-              shape.getSize().get(0), shape.getSize().get(1), new Color(shape.getColor().get(0),
-              shape.getColor().get(1), shape.getColor().get(2))));
+    if (subTick == 0 && drawnTick >= 0 && model.getVersion() == drawnVersion
+        && tick >= drawnTick && tick < nextChange) {
+      return;
+    }
+    if (subTick == 0) {
+      drawnTick = tick;
+      drawnVersion = model.getVersion();
+      nextChange = model.nextChange(tick);
+    } else {
+      drawnTick = -1;
+    }
+
+    panel.clearShapes();
+    for (int id : model.getVisibleShapeIds(tick)) {
+      if (id >= cursors.length) {
+        cursors = Arrays.copyOf(cursors, Math.max(id + 1, cursors.length * 2));
+      }
+      if (cursors[id] == null) {
+        cursors[id] = model.cursor(id);
+      }
+      IShapeCursor cursor = cursors[id];
+      if (subTick == 0) {
+        cursor.seek(tick);
+      } else {
+        cursor.seek(tick + subTick);
+      }
+      if (cursor.isVisible()) {
+        Color color = new Color(cursor.getRed(), cursor.getGreen(), cursor.getBlue());
+        if ("rectangle".equals(cursor.getType())) {
+          panel.addShape(new ViewRect(cursor.getX(), cursor.getY(), cursor.getWidth(),
+              cursor.getHeight(), color));
         }
-        if (shape instanceof Circle) {
-          panel.addShape(new ViewOval(shape.getPosition().getX(), shape.getPosition().getY(),
-              shape.getSize().get(0), shape.getSize().get(1), new Color(shape.getColor().get(0),
-              shape.getColor().get(1), shape.getColor().get(2))));
+        if ("ellipse".equals(cursor.getType())) {
+          panel.addShape(new ViewOval(cursor.getX(), cursor.getY(), cursor.getWidth(),
+              cursor.getHeight(), color));
         }
       }
     }
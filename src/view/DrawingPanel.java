@@ -9,7 +9,8 @@ import javax.swing.JPanel;
 
 /**
  * The canvas used to draw shapes on. Uses JPanel to paint the shapes onto the canvas and
- * delegates the rendering to IViewShapes.
+ * delegates the rendering to IViewShapes. The shapes of the last frame are kept until the next
+ * frame is drawn, so the panel can be repainted without drawing the frame again.
  */
 public class DrawingPanel extends JPanel {
   List<IViewShape> shapes;
@@ -30,6 +31,12 @@ public class DrawingPanel extends JPanel {
     for (IViewShape shape : shapes) {
       shape.render(g);
     }
+  }
+
+  /**
+   * Removes every shape from the canvas, to start drawing a new frame.
+   */
+  public void clearShapes() {
     shapes.clear();
   }
 
@@ -111,9 +111,10 @@ public class InteractiveView extends AbstractVisualAnimation implements IAnimati
   protected void setTimer() {
     timer = new Timer((int) (1000 / speed), e -> {
       renderPanel();
-      tick++;
+      step();
       if (looping && (tick >= this.findLastTick())) {
         this.tick = 1;
+        this.subTick = 0;
       }
     });
   }
@@ -141,6 +142,7 @@ public class InteractiveView extends AbstractVisualAnimation implements IAnimati
     if (this.state.equals(InteractiveViewState.NOT_STARTED)) {
       this.state = InteractiveViewState.PLAYING;
       this.tick = 1;
+      this.subTick = 0;
     }
     else {
       throw new IllegalStateException("Cannot start an animation that has started.");
@@ -186,6 +188,7 @@ public class InteractiveView extends AbstractVisualAnimation implements IAnimati
     else {
       this.state = InteractiveViewState.PLAYING;
       this.tick = 1;
+      this.subTick = 0;
     }
   }
 
@@ -200,7 +203,7 @@ public class InteractiveView extends AbstractVisualAnimation implements IAnimati
   @Override
   public void increaseSpeed() {
     this.speed += 1;
-    timer.setDelay((int) (1000 / this.speed));
+    timer.setDelay(this.getDelay());
   }
 
 
@@ -211,7 +214,7 @@ public class InteractiveView extends AbstractVisualAnimation implements IAnimati
     }
     else {
       this.speed -= 1;
-      timer.setDelay((int) (1000 / this.speed));
+      timer.setDelay(this.getDelay());
     }
   }
 }
\ No newline at end of file
@@ -11,7 +11,6 @@ import cs3500.animator.model.ViewModel;
 import java.io.IOException;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 
 /**
  * Representation of an SVG view that renders the animation in an XML-based format so that the
@@ -59,14 +58,14 @@ public class SVGAnimationView implements IAnimationView {
     StringBuilder view = new StringBuilder("<svg " + canvasWidth + canvasHeight
         + " version=\"1.1\" xmlns=\"http://www.w3.org/2000/svg\">");
 
-    // the shape names of the animation
-    Set<String> shapeNames = model.getShapes().keySet();
+    // the shapes of the animation, copied once for the whole render
+    Map<String, Map<Integer, IShape>> shapes = model.getShapes();
 
     // Going through the shapes in the animation
-    for (String name: shapeNames) {
+    for (String name: shapes.keySet()) {
       int counter = 1; // counting the number of motions
       int prevTick = 0; // the previous frame number
-      Map<Integer, IShape> frames = model.getShapes().get(name); // the frames of the current shape
+      Map<Integer, IShape> frames = shapes.get(name); // the frames of the current shape
 
       // For each frame, document the description of the shape
       for (Integer tick: frames.keySet()) {
@@ -107,24 +106,24 @@ public class SVGAnimationView implements IAnimationView {
     Objects.requireNonNull(shape);
     String positionStr = "";
     String sizeStr = "";
-    String colorStr = "fill=\"rgb(" + shape.getColor().get(0) + ", " + shape.getColor().get(1)
-        + ", " + shape.getColor().get(2) + ")\" ";
+    String colorStr = "fill=\"rgb(" + shape.red() + ", " + shape.green()
+        + ", " + shape.blue() + ")\" ";
 
     if (shape instanceof Circle) {
       positionStr =
-          "cx=\"" + shape.getPosition().getX() + "\" cy=\"" + shape.getPosition().getY() + "\" ";
-      if (shape.getSize().get(0).equals(shape.getSize().get(1))) {
-        sizeStr = "r=\"" + shape.getSize().get(0) + "\" ";
+          "cx=\"" + shape.x() + "\" cy=\"" + shape.y() + "\" ";
+      if (shape.width() == shape.height()) {
+        sizeStr = "r=\"" + shape.width() + "\" ";
       }
       else {
-        sizeStr = "rx=\"" + shape.getSize().get(0) + "\" ry=\"" + shape.getSize().get(1) + "\" ";
+        sizeStr = "rx=\"" + shape.width() + "\" ry=\"" + shape.height() + "\" ";
       }
     }
     if (shape instanceof Rect) {
       positionStr =
-          "x=\"" + shape.getPosition().getX() + "\" y=\"" + shape.getPosition().getY() + "\" ";
+          "x=\"" + shape.x() + "\" y=\"" + shape.y() + "\" ";
       sizeStr =
-          "width=\"" + shape.getSize().get(0) + "\" height=\"" + shape.getSize().get(1) + "\" ";
+          "width=\"" + shape.width() + "\" height=\"" + shape.height() + "\" ";
     }
 
     return positionStr + sizeStr + colorStr + "visibility=\"visible\" >";
@@ -143,7 +142,7 @@ public class SVGAnimationView implements IAnimationView {
     Objects.requireNonNull(shape);
 
     if (shape instanceof Circle) {
-      if (shape.getSize().get(0).equals(shape.getSize().get(1))) {
+      if (shape.width() == shape.height()) {
         return "circle";
       }
       else {
@@ -180,72 +179,72 @@ public class SVGAnimationView implements IAnimationView {
     String animateTag = "";
 
     // If the shape has moved its x position
-    if (prev.getPosition().getX() != current.getPosition().getX()) {
+    if (prev.x() != current.x()) {
       // If the shape is a circle, the attribute name is cx
       if (current instanceof Circle) {
-        animateTag += startTag + "attributeName=\"cx\" from=\"" + prev.getPosition().getX()
-            + "\" to=\"" + current.getPosition().getX() + "\" fill=\"freeze\" />";
+        animateTag += startTag + "attributeName=\"cx\" from=\"" + prev.x()
+            + "\" to=\"" + current.x() + "\" fill=\"freeze\" />";
       }
       // Otherwise, the attribute name is x
       else {
-        animateTag += startTag + "attributeName=\"x\" from=\"" + prev.getPosition().getX()
-            + "\" to=\"" + current.getPosition().getX() + "\" fill=\"freeze\" />";
+        animateTag += startTag + "attributeName=\"x\" from=\"" + prev.x()
+            + "\" to=\"" + current.x() + "\" fill=\"freeze\" />";
       }
     }
     // If the shape has moved its y position
-    if (prev.getPosition().getY() != current.getPosition().getY()) {
+    if (prev.y() != current.y()) {
       // If the shape is a circle, the attribute name is cy
       if (current instanceof Circle) {
-        animateTag += startTag + "attributeName=\"cy\" from=\"" + prev.getPosition().getY()
-            + "\" to=\"" + current.getPosition().getY() + "\" fill=\"freeze\" />";
+        animateTag += startTag + "attributeName=\"cy\" from=\"" + prev.y()
+            + "\" to=\"" + current.y() + "\" fill=\"freeze\" />";
       }
       // Otherwise, the attribute name is y
       else {
-        animateTag += startTag + "attributeName=\"y\" from=\"" + prev.getPosition().getY()
-            + "\" to=\"" + current.getPosition().getY() + "\" fill=\"freeze\" />";
+        animateTag += startTag + "attributeName=\"y\" from=\"" + prev.y()
+            + "\" to=\"" + current.y() + "\" fill=\"freeze\" />";
       }
     }
     // If the shape has changed its width
-    if (!prev.getSize().get(0).equals(current.getSize().get(0))) {
+    if (prev.width() != current.width()) {
       // If the shape is a circle, the attribute name is r
-      if (current instanceof Circle && current.getSize().get(0).equals(current.getSize().get(1))) {
-        animateTag += startTag + "attributeName=\"r\" from=\"" + prev.getSize().get(0)
-            + "\" to=\"" + current.getSize().get(0) + "\" fill=\"freeze\" />";
+      if (current instanceof Circle && current.width() == current.height()) {
+        animateTag += startTag + "attributeName=\"r\" from=\"" + prev.width()
+            + "\" to=\"" + current.width() + "\" fill=\"freeze\" />";
       }
       // If the shape is an ellipse, the attribute name is rx
       else if (current instanceof Circle) {
-        animateTag += startTag + "attributeName=\"rx\" from=\"" + prev.getSize().get(0)
-            + "\" to=\"" + current.getSize().get(0) + "\" fill=\"freeze\" />";
+        animateTag += startTag + "attributeName=\"rx\" from=\"" + prev.width()
+            + "\" to=\"" + current.width() + "\" fill=\"freeze\" />";
       }
       // Otherwise, the attribute name is width
       else {
-        animateTag += startTag + "attributeName=\"width\" from=\"" + prev.getSize().get(0)
-            + "\" to=\"" + current.getSize().get(0) + "\" fill=\"freeze\" />";
+        animateTag += startTag + "attributeName=\"width\" from=\"" + prev.width()
+            + "\" to=\"" + current.width() + "\" fill=\"freeze\" />";
       }
     }
     // If the shape has changed its height and the shape is not a circle (to avoid redundancy)
-    if (!prev.getSize().get(1).equals(current.getSize().get(1)) && !(current instanceof Circle
-        && current.getSize().get(0).equals(current.getSize().get(1)))) {
+    if (prev.height() != current.height() && !(current instanceof Circle
+        && current.width() == current.height())) {
       // If the shape is an ellipse, the attribute name is ry
       if (current instanceof Circle) {
-        animateTag += startTag + "attributeName=\"ry\" from=\"" + prev.getSize().get(1)
-            + "\" to=\"" + current.getSize().get(1) + "\" fill=\"freeze\" />";
+        animateTag += startTag + "attributeName=\"ry\" from=\"" + prev.height()
+            + "\" to=\"" + current.height() + "\" fill=\"freeze\" />";
       }
       // Otherwise, the attribute name is height
       else {
-        animateTag += startTag + "attributeName=\"height\" from=\"" + prev.getSize().get(1)
-            + "\" to=\"" + current.getSize().get(1) + "\" fill=\"freeze\" />";
+        animateTag += startTag + "attributeName=\"height\" from=\"" + prev.height()
+            + "\" to=\"" + current.height() + "\" fill=\"freeze\" />";
       }
     }
     // If the shape has changed its color
-    if (!prev.getColor().get(0).equals(current.getColor().get(0))
-        || !prev.getColor().get(1).equals(current.getColor().get(1))
-        || !prev.getColor().get(2).equals(current.getColor().get(2))) {
+    if (prev.red() != current.red()
+        || prev.green() != current.green()
+        || prev.blue() != current.blue()) {
 
       animateTag += startTag + "attributeName=\"fill\" from=\"rgb("
-          + prev.getColor().get(0) + ", " + prev.getColor().get(1) + ", " + prev.getColor().get(2)
-          + ")\" to=\"rgb(" + current.getColor().get(0) + ", " + current.getColor().get(1) + ", "
-          + current.getColor().get(2)
+          + prev.red() + ", " + prev.green() + ", " + prev.blue()
+          + ")\" to=\"rgb(" + current.red() + ", " + current.green() + ", "
+          + current.blue()
           + ")\" fill=\"freeze\" />";
     }
 
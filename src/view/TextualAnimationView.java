@@ -62,14 +62,14 @@ public class TextualAnimationView implements IAnimationView {
     StringBuilder view = new StringBuilder("canvas " + model.getCanvas().get(0) + " "
         + model.getCanvas().get(1) + " " + model.getCanvas().get(2) + " "
         + model.getCanvas().get(3));
-    // the shape names of the animation
-    Set<String> shapeNames = model.getShapes().keySet();
+    // the shapes of the animation, copied once for the whole render
+    Map<String, Map<Integer, IShape>> shapes = model.getShapes();
 
     // Going through the shapes in the animation
-    for (String name: shapeNames) {
+    for (String name: shapes.keySet()) {
       int counter = 1; // counting the number of motions
 
-      Map<Integer, IShape> frames = model.getShapes().get(name); // the frames of the current shape
+      Map<Integer, IShape> frames = shapes.get(name); // the frames of the current shape
       Set<Integer> ticks = frames.keySet(); // the frame numbers of the current shape
 
       // For each frame, document the description of the shape
@@ -109,15 +109,8 @@ public class TextualAnimationView implements IAnimationView {
    * @return A string version of the given shape, documenting its appearance as integers.
    */
   private String renderShape(IShape shape) {
-    // shape's position as a string
-    String positionStr = shape.getPosition().getX() + " " + shape.getPosition().getY() + " ";
-    // shape's size as a string
-    String sizeStr = shape.getSize().get(0) + " " + shape.getSize().get(1) + " ";
-    // shape's color as a string
-    String colorStr =
-        shape.getColor().get(0) + " " + shape.getColor().get(1) + " " + shape.getColor().get(2);
-
-    return positionStr + sizeStr + colorStr;
+    return shape.x() + " " + shape.y() + " " + shape.width() + " " + shape.height() + " "
+        + shape.red() + " " + shape.green() + " " + shape.blue();
   }
 
 
@@ -27,7 +27,7 @@ public class VisualAnimationView extends AbstractVisualAnimation {
 
   @Override
   public void render() {
-    timer.setDelay((int) (1000 / this.speed));
+    timer.setDelay(this.getDelay());
     timer.start();
   }
 
@@ -35,7 +35,7 @@ public class VisualAnimationView extends AbstractVisualAnimation {
   protected void setTimer() {
     timer = new Timer((int) (1000 / speed), e -> {
       renderPanel();
-      tick++;
+      step();
     });
   }
 
@@ -1,4 +1,5 @@
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import cs3500.animator.model.AnimationModel;
 import cs3500.animator.model.Circle;
@@ -6,10 +7,16 @@ import cs3500.animator.model.IAnimationModel;
 import cs3500.animator.model.IShape;
 import cs3500.animator.model.Position;
 import cs3500.animator.model.Rect;
+import cs3500.animator.model.StorageType;
 import cs3500.animator.util.AnimationBuilder;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -29,6 +36,25 @@ public class AnimationBuilderTest {
   IShape circle2 = new Circle(Arrays.asList(0, 0, 0), new Position(40, 60), 20);
   IAnimationModel model2Shapes;
   AnimationBuilder<IAnimationModel> builder = new AnimationModel.Builder();
+  // the built models that keep their keyframes in a file, closed after each test so that their
+  // files are deleted
+  List<Closeable> opened = new ArrayList<>();
+
+  @After
+  public void closeModels() throws IOException {
+    for (Closeable model : opened) {
+      model.close();
+    }
+    opened.clear();
+  }
+
+  // Keeps the given model to be closed after the test if it keeps its keyframes in a file.
+  private IAnimationModel open(IAnimationModel model) {
+    if (model instanceof Closeable) {
+      opened.add((Closeable) model);
+    }
+    return model;
+  }
 
   @Before
   public void setUpModels() {
@@ -126,4 +152,133 @@ public class AnimationBuilderTest {
         .setBounds(4, 5, 100, 200)
         .build());
   }
+
+  //Tests that a motion may not end before it starts
+  @Test(expected = IllegalArgumentException.class)
+  public void testBackwardsMotion() {
+    builder.declareShape("Shape1", "rectangle").addMotion("Shape1",
+        10, 1, 1, 1, 1, 0, 0, 0, 5, 1, 1, 1, 1, 0, 0, 0);
+  }
+
+  //Tests that a motion with an invalid color is rejected as soon as it is added
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidColorMotion() {
+    builder.declareShape("Shape1", "rectangle").addMotion("Shape1",
+        1, 1, 1, 1, 1, 0, 0, 0, 5, 1, 1, 1, 1, 0, 300, 0);
+  }
+
+  //Tests that overlapping motions of the same shape are rejected when the model is built
+  @Test(expected = IllegalArgumentException.class)
+  public void testOverlappingMotions() {
+    builder.declareShape("Shape1", "rectangle")
+        .addMotion("Shape1", 1, 1, 1, 1, 1, 0, 0, 0, 10, 5, 5, 1, 1, 0, 0, 0)
+        .addMotion("Shape1", 5, 3, 3, 1, 1, 0, 0, 0, 20, 5, 5, 1, 1, 0, 0, 0)
+        .build();
+  }
+
+  //Tests that motions may leave gaps and that the start of a motion replaces the end of the
+  //motion before it when the two do not match
+  @Test
+  public void testGapsAndJunctions() {
+    IAnimationModel testModel = builder.declareShape("Shape1", "rectangle")
+        .addMotion("Shape1", 20, 9, 9, 3, 4, 0, 0, 0, 30, 1, 1, 3, 4, 0, 0, 0)
+        .addMotion("Shape1", 1, 7, 8, 6, 4, 255, 255, 255, 10, 10, 10, 3, 4, 0, 0, 0)
+        .addMotion("Shape1", 10, 10, 10, 3, 4, 100, 0, 0, 15, 20, 0, 3, 4, 0, 0, 0)
+        .build();
+
+    Map<Integer, IShape> frames = new TreeMap<>();
+    frames.put(1, new Rect(Arrays.asList(255, 255, 255), new Position(7, 8), 6, 4));
+    frames.put(10, new Rect(Arrays.asList(100, 0, 0), new Position(10, 10), 3, 4));
+    frames.put(15, new Rect(Arrays.asList(0, 0, 0), new Position(20, 0), 3, 4));
+    frames.put(20, new Rect(Arrays.asList(0, 0, 0), new Position(9, 9), 3, 4));
+    frames.put(30, new Rect(Arrays.asList(0, 0, 0), new Position(1, 1), 3, 4));
+    assertEquals(frames, testModel.getShapes().get("Shape1"));
+  }
+
+  //Tests that both kinds of storage are built with the same keyframes
+  @Test
+  public void testColumnarBuild() {
+    IAnimationModel columnar = new AnimationModel.Builder(StorageType.COLUMNAR)
+        .declareShape("Circle", "ellipse")
+        .declareShape("Rect", "rectangle")
+        .addMotion("Rect", 14, 10, 10, 3, 4, 0, 0, 0, 20, 20, 0, 2, 2, 100, 200, 50)
+        .addMotion("Circle", 1, 10, 10, 20, 20, 0, 0, 0, 40, 40, 60, 20, 20, 0, 0, 0)
+        .addMotion("Rect", 10, 7, 8, 6, 4, 255, 255, 255, 14, 10, 10, 3, 4, 0, 0, 0)
+        .build();
+    assertEquals(model2Shapes.getShapes(), columnar.getShapes());
+  }
+
+  //Tests that a million motions load in time that grows linearly with the number of motions:
+  //four times as many motions may take at most ten times as long, well below the sixteen times
+  //as long that a quadratic load would take. Larger loads touch more memory, so they take a
+  //little longer per motion even when the work per motion is the same.
+  @Test(timeout = 60000)
+  public void testLoadMillionMotions() {
+    this.load(100, 1000); // warming up the builder so that the first timed load is not slower
+    long quarter = Long.MAX_VALUE;
+    long full = Long.MAX_VALUE;
+    IAnimationModel testModel = null;
+    for (int run = 0; run < 3; run++) {
+      // collecting garbage before each load, so that no load pays for the garbage of another
+      testModel = null;
+      System.gc();
+      long start = System.nanoTime();
+      this.load(100, 2500);
+      quarter = Math.min(quarter, System.nanoTime() - start);
+      System.gc();
+      start = System.nanoTime();
+      testModel = this.load(100, 10000);
+      full = Math.min(full, System.nanoTime() - start);
+    }
+
+    assertTrue("loading 4x the motions took " + (double) full / quarter + "x as long",
+        full < 10 * quarter);
+    assertEquals(100, testModel.getShapes().size());
+    assertEquals(10000 + 1, testModel.getShapes().get("R42").size());
+    assertEquals(new Rect(Arrays.asList(0, 0, 0), new Position(5000, 42), 5, 5),
+        testModel.getState(5000, "R42"));
+  }
+
+  // Builds an animation of the given number of shapes, each moving one step per motion.
+  private IAnimationModel load(int shapes, int motionsPerShape) {
+    AnimationBuilder<IAnimationModel> loader = new AnimationModel.Builder();
+    for (int s = 0; s < shapes; s++) {
+      loader.declareShape("R" + s, "rectangle");
+    }
+    for (int t = 0; t < motionsPerShape; t++) {
+      for (int s = 0; s < shapes; s++) {
+        loader.addMotion("R" + s, t, t, s, 5, 5, 0, 0, 0, t + 1, t + 1, s, 5, 5, 0, 0, 0);
+      }
+    }
+    return loader.build();
+  }
+
+  //Tests that a compacting builder leaves out the keyframes reproduced by their neighbours and
+  //that the animation looks the same at every tick
+  @Test
+  public void testCompactBuild() {
+    for (StorageType storage : StorageType.values()) {
+      IAnimationModel plain = this.open(new AnimationModel.Builder(storage)
+          .declareShape("Shape1", "rectangle")
+          .addMotion("Shape1", 1, 0, 0, 4, 4, 0, 0, 0, 1, 0, 0, 4, 4, 0, 0, 0)
+          .addMotion("Shape1", 1, 0, 0, 4, 4, 0, 0, 0, 11, 10, 0, 4, 4, 0, 0, 0)
+          .addMotion("Shape1", 11, 10, 0, 4, 4, 0, 0, 0, 21, 20, 0, 4, 4, 0, 0, 0)
+          .addMotion("Shape1", 21, 20, 0, 4, 4, 0, 0, 0, 31, 20, 0, 4, 4, 0, 0, 0)
+          .build());
+      IAnimationModel compact = this.open(new AnimationModel.Builder(storage).setCompact(true)
+          .declareShape("Shape1", "rectangle")
+          .addMotion("Shape1", 1, 0, 0, 4, 4, 0, 0, 0, 1, 0, 0, 4, 4, 0, 0, 0)
+          .addMotion("Shape1", 1, 0, 0, 4, 4, 0, 0, 0, 11, 10, 0, 4, 4, 0, 0, 0)
+          .addMotion("Shape1", 11, 10, 0, 4, 4, 0, 0, 0, 21, 20, 0, 4, 4, 0, 0, 0)
+          .addMotion("Shape1", 21, 20, 0, 4, 4, 0, 0, 0, 31, 20, 0, 4, 4, 0, 0, 0)
+          .build());
+
+      assertEquals(4, plain.getShapes().get("Shape1").size());
+      assertEquals(Arrays.asList(1, 21),
+          new ArrayList<>(compact.getShapes().get("Shape1").keySet()));
+      for (int tick = 0; tick < 40; tick++) {
+        assertEquals(plain.getState(tick, "Shape1"), compact.getState(tick, "Shape1"));
+      }
+    }
+  }
 }
\ No newline at end of file
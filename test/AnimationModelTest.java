@@ -1,20 +1,30 @@
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import cs3500.animator.model.AnimationModel;
 import cs3500.animator.model.Circle;
+import cs3500.animator.model.CompactionReport;
 import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IModelListener;
 import cs3500.animator.model.IShape;
+import cs3500.animator.model.IShapeCursor;
+import cs3500.animator.model.MemoryReport;
+import cs3500.animator.model.ModelChange;
+import cs3500.animator.model.Motion;
 import cs3500.animator.model.Position;
 import cs3500.animator.model.Rect;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -37,7 +47,22 @@ public class AnimationModelTest {
   Map<Integer, IShape> shape1 = new TreeMap<>();
   Map<Integer, IShape> shape2 = new TreeMap<>();
   Map<String, Map<Integer, IShape>> shapes2 = new TreeMap<>();
-  IAnimationModel model2 = new AnimationModel();
+  IAnimationModel model2 = this.createModel();
+
+  // Creating the models under test so that subclasses can run these tests against another
+  // implementation of IAnimationModel
+  protected IAnimationModel createModel() {
+    return new AnimationModel();
+  }
+
+  protected IAnimationModel createModel(Map<String, Map<Integer, IShape>> shapes) {
+    return new AnimationModel(shapes);
+  }
+
+  protected IAnimationModel createModel(Map<String, Map<Integer, IShape>> shapes,
+      List<Integer> canvas) {
+    return new AnimationModel(shapes, canvas);
+  }
 
   @Before
   public void setUp() {
@@ -48,7 +73,7 @@ public class AnimationModelTest {
 
     circles.put(1, circle); // circle at tick 1
     shapes.put("Circle", circles); // list of circles labeled "Circle"
-    model = new AnimationModel(shapes); // model with one circle at tick 1
+    model = this.createModel(shapes); // model with one circle at tick 1
   }
 
 
@@ -65,7 +90,7 @@ public class AnimationModelTest {
     Map<String, Map<Integer, IShape>> shapes = new TreeMap<>();
     shapes.put("Shape1", shape1);
     shapes.put("Shape2", shape2);
-    model2 = new AnimationModel(shapes);
+    model2 = this.createModel(shapes);
   }
 
 
@@ -77,7 +102,7 @@ public class AnimationModelTest {
     invalidCircles.put(-1, circle); // adding circle to map with negative frame
     invalidShapes.put("Circle", invalidCircles); // adding circle map to shapes map
 
-    model = new AnimationModel(invalidShapes); // throws exception
+    model = this.createModel(invalidShapes); // throws exception
   }
 
   // Testing the constructor throws an exception when passed a map with null values for shapes
@@ -88,13 +113,13 @@ public class AnimationModelTest {
     invalidCircles.put(1, null); // adding null to map
     invalidShapes.put("Circle", invalidCircles); // adding circle map to shapes map
 
-    model = new AnimationModel(invalidShapes); // throws exception
+    model = this.createModel(invalidShapes); // throws exception
   }
 
   // Testing the constructor throws an exception when passed a null canvas
   @Test(expected = IllegalArgumentException.class)
   public void testConstructorNullCanvas() {
-    new AnimationModel(shapes, null);
+    this.createModel(shapes, null);
   }
 
   // ---------------------------------------------------------------------------------------------
@@ -301,13 +326,68 @@ public class AnimationModelTest {
         new Position(0, 0), 40));
   }
 
+  // ---------------------------------------------------------------------------------------------
+  // THIS SECTION TESTS setKeyframe()
+
+  //Tests that setKeyframe changes position, size and color in a single new entry
+  @Test
+  public void testSetKeyframe() {
+    int version = model2.getVersion();
+    model2.setKeyframe(15, "Shape1", 1, 2, 3, 4, 5, 6, 7);
+
+    assertEquals(version + 1, model2.getVersion());
+    assertEquals(3, model2.getShapes().get("Shape1").size());
+    assertEquals(new Rect(Arrays.asList(5, 6, 7), new Position(1, 2), 3, 4),
+        model2.getState(15, "Shape1"));
+    assertEquals(rect1, model2.getState(10, "Shape1"));
+  }
+
+  //Tests that setKeyframe does nothing before the first entry of the shape, like move
+  @Test
+  public void testSetKeyframeBeforeFirst() {
+    model2.setKeyframe(5, "Shape1", 1, 2, 3, 4, 5, 6, 7);
+    model2.move(5, "Shape1", 1, 2);
+    assertEquals(2, model2.getShapes().get("Shape1").size());
+    assertNull(model2.getState(5, "Shape1"));
+  }
+
+  //Tests that setKeyframe rejects invalid frames, sizes, colors and shapes
+  @Test
+  public void testSetKeyframeInvalid() {
+    for (Runnable call : Arrays.<Runnable>asList(
+        () -> model2.setKeyframe(-1, "Shape1", 1, 2, 3, 4, 5, 6, 7),
+        () -> model2.setKeyframe(15, "Shape1", 1, 2, 0, 4, 5, 6, 7),
+        () -> model2.setKeyframe(15, "Shape1", 1, 2, 3, 4, 5, 256, 7),
+        () -> model2.setKeyframe(15, "Shape3", 1, 2, 3, 4, 5, 6, 7),
+        () -> this.createModel().setKeyframe(15, "Shape1", 1, 2, 3, 4, 5, 6, 7))) {
+      try {
+        call.run();
+        fail("Expected an IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  //Tests that edits at very large ticks find the previous entry without walking every tick
+  @Test(timeout = 2000)
+  public void testEditsAtLargeTicks() {
+    for (int i = 0; i < 1000; i++) {
+      model2.move(2_000_000_000 - i, "Shape1", i, i);
+      model2.changeColor(1_000_000_000 + i, "Shape1", 1, 2, 3);
+    }
+    assertEquals(2002, model2.getShapes().get("Shape1").size());
+    assertEquals(new Rect(Arrays.asList(1, 2, 3), new Position(999, 999), 2, 2),
+        model2.getState(2_000_000_000 - 999, "Shape1"));
+  }
+
   // ---------------------------------------------------------------------------------------------
   // THIS SECTION TESTS VALID CASES FOR toString()
 
   // Testing toString() for case of empty list of shapes
   @Test
   public void testToStringEmptyList() {
-    model = new AnimationModel();
+    model = this.createModel();
     assertEquals("canvas 0 0 360 360", model.toString());
   }
 
@@ -337,7 +417,7 @@ public class AnimationModelTest {
     Map<String, Map<Integer, IShape>> tempAnimation = new TreeMap<String, Map<Integer, IShape>>();
     tempAnimation.put("Circle", circles);
     tempAnimation.put("Rect", rectangles);
-    IAnimationModel tempModel = new AnimationModel(tempAnimation);
+    IAnimationModel tempModel = this.createModel(tempAnimation);
 
     // changing the size and position of circle
     tempModel.changeSize(10, "Circle", 20, 20);
@@ -371,7 +451,7 @@ public class AnimationModelTest {
   public void testGetShapesEmptyMap() {
     this.setUp();
 
-    IAnimationModel emptyModel = new AnimationModel();
+    IAnimationModel emptyModel = this.createModel();
     Map<String, Map<Integer, IShape>> actualMap = emptyModel.getShapes();
 
     assertTrue(actualMap.isEmpty());
@@ -396,7 +476,7 @@ public class AnimationModelTest {
   public void testGetShapesEmptyMapModify() {
     this.setUp();
 
-    IAnimationModel emptyModel = new AnimationModel();
+    IAnimationModel emptyModel = this.createModel();
     Map<String, Map<Integer, IShape>> emptyMap = emptyModel.getShapes();
     Collection<Map<Integer, IShape>> emptyFrames = emptyMap.values();
 
@@ -456,7 +536,7 @@ public class AnimationModelTest {
 
     Map<String, Map<Integer, IShape>> shapes = new TreeMap<>();
     shapes.put("Shape1", shape1);
-    model2 = new AnimationModel(shapes);
+    model2 = this.createModel(shapes);
 
     IShape rect4 =
         new Rect(Arrays.asList(177, 227, 152), new Position(13, 4), 4, 3);
@@ -471,6 +551,20 @@ public class AnimationModelTest {
     assertEquals(rect2, model2.getState(25, "Shape1"));
   }
 
+  //Tests that getState returns new shapes, even after the last frame, so that the model's shapes
+  //can't be mutated through them
+  @Test
+  public void getStateReturnsCopies() {
+    IShape afterLast = model2.getState(25, "Shape1");
+    IShape atFrame = model2.getState(10, "Shape1");
+    afterLast.setColor(1, 2, 3);
+    atFrame.setSize(50, 50);
+
+    assertEquals(rect2, model2.getState(25, "Shape1"));
+    assertEquals(rect1, model2.getState(10, "Shape1"));
+    assertEquals(rect2, model2.getShapes().get("Shape1").get(20));
+  }
+
   //Tests that getState throws an exception when given a shape not in the model
   @Test(expected = IllegalArgumentException.class)
   public void testGetStateInvalidShape() {
@@ -483,6 +577,334 @@ public class AnimationModelTest {
     model2.getState(-1, "Shape1");
   }
 
+  //----------------------------------------------------------------------------------------------
+  //THIS SECTION TESTS cursor()
+
+  //Tests that a cursor moved one tick at a time reads the same states as getState
+  @Test
+  public void cursorAdvance() {
+    IShapeCursor cursor = model2.cursor("Shape1");
+    assertEquals("Shape1", cursor.getName());
+    assertEquals("rectangle", cursor.getType());
+    assertEquals(0, cursor.getTick());
+
+    for (int tick = 0; tick <= 30; tick++) {
+      IShape expected = model2.getState(tick, "Shape1");
+      assertEquals(tick, cursor.getTick());
+      assertEquals(expected != null, cursor.isVisible());
+      if (expected != null) {
+        assertEquals(expected, new Rect(Arrays.asList(cursor.getRed(), cursor.getGreen(),
+            cursor.getBlue()), new Position(cursor.getX(), cursor.getY()), cursor.getWidth(),
+            cursor.getHeight()));
+      }
+      cursor.advance();
+    }
+  }
+
+  //Tests that a cursor can jump backwards and forwards and knows the keyframes around its tick
+  @Test
+  public void cursorSeek() {
+    IShapeCursor cursor = model2.cursor("Shape1");
+    cursor.seek(15);
+    assertEquals(13, cursor.getX());
+    assertEquals(10, cursor.getSegmentStart());
+    assertEquals(20, cursor.getSegmentEnd());
+    cursor.seek(25);
+    assertEquals(20, cursor.getX());
+    assertEquals(20, cursor.getSegmentStart());
+    assertEquals(20, cursor.getSegmentEnd());
+    cursor.seek(5);
+    assertFalse(cursor.isVisible());
+    cursor.seek(18);
+    assertEquals(17, cursor.getX());
+    assertEquals(131, cursor.getRed());
+  }
+
+  //Tests that a cursor moved to a time between ticks interpolates between the keyframes
+  @Test
+  public void cursorSeekBetweenTicks() {
+    IShapeCursor cursor = model2.cursor("Shape1");
+    cursor.seek(15.5);
+    assertEquals(15, cursor.getTick());
+    assertEquals(14, cursor.getX());
+    assertEquals(3, cursor.getY());
+    assertEquals(169, cursor.getRed());
+    assertEquals(10, cursor.getSegmentStart());
+    cursor.seek(15.0);
+    assertEquals(13, cursor.getX());
+    cursor.seek(14.75);
+    cursor.seek(15);
+    assertEquals(13, cursor.getX());
+    cursor.seek(9.99);
+    assertFalse(cursor.isVisible());
+    cursor.seek(25.5);
+    assertEquals(20, cursor.getX());
+    assertEquals(100, cursor.getRed());
+  }
+
+  //Tests that a cursor cannot move to a negative time or one that is not a number
+  @Test
+  public void cursorInvalidTime() {
+    IShapeCursor cursor = model2.cursor("Shape1");
+    for (double time : new double[]{-0.5, Double.NaN, Double.NEGATIVE_INFINITY}) {
+      try {
+        cursor.seek(time);
+        fail("Moved to " + time);
+      } catch (IllegalArgumentException e) {
+        assertEquals("Frame must not be negative", e.getMessage());
+      }
+    }
+  }
+
+  //Tests that a cursor sees changes made to the model after it was created
+  @Test
+  public void cursorSeesChanges() {
+    IShapeCursor cursor = model2.cursor("Shape1");
+    cursor.seek(25);
+    model2.move(30, "Shape1", 40, 0);
+    cursor.seek(25);
+    assertEquals(30, cursor.getX());
+    model2.remove(0, "Shape1");
+    cursor.seek(25);
+    assertFalse(cursor.isVisible());
+    assertEquals(null, cursor.getType());
+  }
+
+  //Tests that reading a cursor's state while the shape is not visible throws an exception
+  @Test(expected = IllegalStateException.class)
+  public void cursorNotVisible() {
+    model2.cursor("Shape1").getX();
+  }
+
+  //Tests that a cursor cannot be created for a shape that is not in the model
+  @Test(expected = IllegalArgumentException.class)
+  public void cursorInvalidShape() {
+    model2.cursor("Shape3");
+  }
+
+  //Tests that a cursor cannot move to a negative tick
+  @Test(expected = IllegalArgumentException.class)
+  public void cursorNegativeTick() {
+    model2.cursor("Shape1").seek(-1);
+  }
+
+  //----------------------------------------------------------------------------------------------
+  //THIS SECTION TESTS getVisibleShapes()
+
+  //Tests that only the shapes that have appeared are visible, in the order they were added
+  @Test
+  public void visibleShapes() {
+    IAnimationModel m = this.createModel();
+    m.add(5, "B", rect1);
+    m.add(1, "A", rect2);
+    m.add(10, "C", rect3);
+    m.add("D");
+
+    assertEquals(Arrays.asList(), m.getVisibleShapes(0));
+    assertEquals(Arrays.asList("A"), m.getVisibleShapes(4));
+    assertEquals(Arrays.asList("B", "A"), m.getVisibleShapes(5));
+    assertEquals(Arrays.asList("B", "A", "C"), m.getVisibleShapes(10));
+    assertEquals(Arrays.asList("B", "A", "C"), m.getVisibleShapes(1000));
+  }
+
+  //Tests that the visible shapes follow changes to the model
+  @Test
+  public void visibleShapesSeeChanges() {
+    IAnimationModel m = this.createModel();
+    m.add(5, "B", rect1);
+    assertEquals(Arrays.asList(), m.getVisibleShapes(3));
+    m.add(2, "A", rect2);
+    assertEquals(Arrays.asList("A"), m.getVisibleShapes(3));
+    m.remove(0, "A");
+    assertEquals(Arrays.asList("B"), m.getVisibleShapes(5));
+  }
+
+  //Tests that getVisibleShapes throws an exception when given a negative frame
+  @Test(expected = IllegalArgumentException.class)
+  public void visibleShapesNegativeFrame() {
+    model2.getVisibleShapes(-1);
+  }
+
+  //----------------------------------------------------------------------------------------------
+  //THIS SECTION TESTS shape IDs
+
+  //Tests that shapes get IDs in the order they are added and that names and IDs match up
+  @Test
+  public void shapeIds() {
+    IAnimationModel m = this.createModel();
+    m.add(5, "B", rect1);
+    m.add(1, "A", rect2);
+    m.add("C");
+
+    assertEquals(0, m.getShapeId("B"));
+    assertEquals(1, m.getShapeId("A"));
+    assertEquals(2, m.getShapeId("C"));
+    assertEquals("B", m.getShapeName(0));
+    assertEquals("A", m.getShapeName(1));
+    assertEquals("C", m.getShapeName(2));
+  }
+
+  //Tests that a shape keeps its ID when it is changed or removed and added again
+  @Test
+  public void shapeIdsStable() {
+    IAnimationModel m = this.createModel();
+    m.add(5, "B", rect1);
+    m.add(1, "A", rect2);
+    m.move(10, "B", 3, 3);
+    m.remove(0, "B");
+    m.add(2, "B", rect3);
+
+    assertEquals(0, m.getShapeId("B"));
+    assertEquals(1, m.getShapeId("A"));
+    assertEquals(rect3, m.getState(2, 0));
+  }
+
+  //Tests that getState by ID reads the same states as getState by name
+  @Test
+  public void getStateById() {
+    int id = model2.getShapeId("Shape1");
+    for (int tick = 0; tick <= 30; tick++) {
+      assertEquals(model2.getState(tick, "Shape1"), model2.getState(tick, id));
+    }
+  }
+
+  //Tests that a cursor created from an ID reads the shape with that ID
+  @Test
+  public void cursorById() {
+    IShapeCursor cursor = model2.cursor(model2.getShapeId("Shape1"));
+    assertEquals("Shape1", cursor.getName());
+    cursor.seek(15);
+    assertEquals(13, cursor.getX());
+  }
+
+  //Tests that the ID of a removed shape is no longer valid
+  @Test(expected = IllegalArgumentException.class)
+  public void shapeIdRemoved() {
+    int id = model2.getShapeId("Shape1");
+    model2.remove(0, "Shape1");
+    model2.getState(10, id);
+  }
+
+  //Tests that IDs and names not in the model are rejected
+  @Test
+  public void shapeIdsInvalid() {
+    for (Runnable call : Arrays.<Runnable>asList(() -> model2.getShapeId("Shape3"),
+        () -> model2.getShapeName(-1), () -> model2.getShapeName(100),
+        () -> model2.getState(10, 100), () -> model2.cursor(100))) {
+      try {
+        call.run();
+        fail("Expected an IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  //Tests that the IDs of the visible shapes match the names of the visible shapes
+  @Test
+  public void visibleShapeIds() {
+    IAnimationModel m = this.createModel();
+    m.add(5, "B", rect1);
+    m.add(1, "A", rect2);
+    m.add(10, "C", rect3);
+    m.add("D");
+
+    assertArrayEquals(new int[0], m.getVisibleShapeIds(0));
+    assertArrayEquals(new int[] {1}, m.getVisibleShapeIds(4));
+    assertArrayEquals(new int[] {0, 1}, m.getVisibleShapeIds(5));
+    assertArrayEquals(new int[] {0, 1, 2}, m.getVisibleShapeIds(1000));
+    m.remove(0, "A");
+    assertArrayEquals(new int[] {0, 2}, m.getVisibleShapeIds(1000));
+  }
+
+  //----------------------------------------------------------------------------------------------
+  //THIS SECTION TESTS nextChange() AND getChangedShapeIds()
+
+  // A model where A holds still, moves and holds still again, and B appears later
+  private IAnimationModel changingModel() {
+    IAnimationModel m = this.createModel();
+    m.add(0, "A", rect1);
+    this.setKeyframe(m, 10, "A", rect1);
+    this.setKeyframe(m, 20, "A", rect2);
+    this.setKeyframe(m, 30, "A", rect2);
+    m.add(25, "B", rect3);
+    return m;
+  }
+
+  // Sets a keyframe of a shape to the state of the given shape
+  private void setKeyframe(IAnimationModel m, int tick, String name, IShape state) {
+    m.setKeyframe(tick, name, state.x(), state.y(), state.width(), state.height(), state.red(),
+        state.green(), state.blue());
+  }
+
+  //Tests that the next change skips the ticks at which every shape holds still
+  @Test
+  public void nextChange() {
+    IAnimationModel m = this.changingModel();
+    assertEquals(11, m.nextChange(0));
+    assertEquals(11, m.nextChange(5));
+    assertEquals(11, m.nextChange(10));
+    assertEquals(12, m.nextChange(11));
+    assertEquals(20, m.nextChange(19));
+    assertEquals(25, m.nextChange(20));
+    assertEquals(Integer.MAX_VALUE, m.nextChange(25));
+    assertEquals(Integer.MAX_VALUE, m.nextChange(Integer.MAX_VALUE));
+    for (int tick = 0; tick < 40; tick++) {
+      // no state changes before the next change
+      int next = m.nextChange(tick);
+      for (int t = tick + 1; t < Math.min(next, 40); t++) {
+        assertEquals(m.getFullState(tick), m.getFullState(t));
+      }
+    }
+  }
+
+  //Tests that the next change follows changes to the model
+  @Test
+  public void nextChangeSeesEdits() {
+    IAnimationModel m = this.changingModel();
+    assertEquals(Integer.MAX_VALUE, m.nextChange(30));
+    m.move(40, "A", 99, 99);
+    assertEquals(31, m.nextChange(30));
+  }
+
+  //Tests that only the shapes whose states differ between two ticks are found
+  @Test
+  public void changedShapeIds() {
+    IAnimationModel m = this.changingModel();
+    m.add(0, "C", rect1);
+    this.setKeyframe(m, 5, "C", rect2);
+    this.setKeyframe(m, 10, "C", rect1);
+    int a = m.getShapeId("A");
+    int b = m.getShapeId("B");
+    int c = m.getShapeId("C");
+    assertArrayEquals(new int[]{}, m.getChangedShapeIds(0, 10));
+    assertArrayEquals(new int[]{c}, m.getChangedShapeIds(0, 5));
+    assertArrayEquals(new int[]{a}, m.getChangedShapeIds(0, 15));
+    assertArrayEquals(new int[]{a, b}, m.getChangedShapeIds(15, 30));
+    assertArrayEquals(new int[]{a, b}, m.getChangedShapeIds(30, 15));
+    assertArrayEquals(new int[]{b}, m.getChangedShapeIds(20, 30));
+    assertArrayEquals(new int[]{}, m.getChangedShapeIds(26, 30));
+    assertArrayEquals(new int[]{}, m.getChangedShapeIds(7, 7));
+  }
+
+  //Tests that negative ticks are rejected
+  @Test
+  public void changesNegativeTick() {
+    IAnimationModel m = this.changingModel();
+    try {
+      m.nextChange(-1);
+      fail("Found a change after a negative tick");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Frame must not be negative", e.getMessage());
+    }
+    try {
+      m.getChangedShapeIds(3, -1);
+      fail("Compared a negative tick");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Frame must not be negative", e.getMessage());
+    }
+  }
+
   //----------------------------------------------------------------------------------------------
   //THIS SECTION TESTS getFullState()
 
@@ -501,7 +923,7 @@ public class AnimationModelTest {
     Map<String, Map<Integer, IShape>> shapes = new TreeMap<>();
     shapes.put("Shape1", shape1);
     shapes.put("Shape2", shape2);
-    model2 = new AnimationModel(shapes);
+    model2 = this.createModel(shapes);
 
     IShape rect4 =
         new Rect(Arrays.asList(177, 227, 152), new Position(13, 4), 4, 3);
@@ -532,6 +954,35 @@ public class AnimationModelTest {
     assertEquals(stateAt20, model2.getFullState(25));
   }
 
+  //Tests that getFullState computes the same frames in parallel as in a single thread
+  @Test
+  public void getFullStateParallel() {
+    IAnimationModel m = this.createModel();
+    for (int i = 0; i < 200; i++) {
+      m.add(i % 7, "R" + i, new Rect(Arrays.asList(i, 0, 0), new Position(i, i), 1, 1));
+      m.move(i % 7 + 10, "R" + i, 0, i * 2);
+    }
+    List<Map<String, IShape>> expected = new ArrayList<>();
+    for (int tick = 0; tick < 20; tick++) {
+      expected.add(m.getFullState(tick));
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(3);
+    m.setParallel(pool, 8);
+    for (int tick = 0; tick < 20; tick++) {
+      assertEquals(expected.get(tick), m.getFullState(tick));
+      assertEquals(new ArrayList<>(expected.get(tick).keySet()),
+          new ArrayList<>(m.getFullState(tick).keySet()));
+    }
+    pool.shutdown();
+  }
+
+  //Tests that the parallel threshold must be positive
+  @Test(expected = IllegalArgumentException.class)
+  public void setParallelInvalidThreshold() {
+    model2.setParallel(ForkJoinPool.commonPool(), 0);
+  }
+
   //Tests that getFullState throws an exception when given a negative frame
   @Test(expected = IllegalArgumentException.class)
   public void getFullStateInvalid() {
@@ -545,7 +996,7 @@ public class AnimationModelTest {
   @Test
   public void add() {
 
-    model2 = new AnimationModel();
+    model2 = this.createModel();
 
     //Add at frame 0 and it should be there from the start of the animation
     model2.add(0, "Shape1", rect1);
@@ -566,7 +1017,7 @@ public class AnimationModelTest {
   //Tests the add method which takes in a String
   @Test
   public void addStringOnly() {
-    model2 = new AnimationModel();
+    model2 = this.createModel();
     model2.add("SomeShape");
     model2.add("AnotherShape");
     Map<String, Map<Integer, IShape>> expected = new TreeMap<>();
@@ -628,6 +1079,113 @@ public class AnimationModelTest {
     model2.remove(18, "Shape3");
   }
 
+  //----------------------------------------------------------------------------------------------
+  //THIS SECTION TESTS getMemoryReport()
+
+  //Tests that an empty model reports no shapes, keyframes or indexes
+  @Test
+  public void memoryReportEmpty() {
+    MemoryReport report = this.createModel().getMemoryReport();
+    assertEquals(0, report.getShapeCount());
+    assertEquals(0, report.getKeyframeCount());
+    assertEquals(0, report.getTotalBytes());
+    assertEquals(0, report.getIndexBytes());
+    assertEquals(0, report.getBytesPerKeyframe(), 0.001);
+    assertEquals(0, report.getBytesPerShape(), 0.001);
+  }
+
+  //Tests that the report counts every shape and keyframe and that its totals add up
+  @Test
+  public void memoryReport() {
+    MemoryReport report = model2.getMemoryReport();
+    assertEquals(2, report.getShapeCount());
+    assertEquals(4, report.getKeyframeCount());
+    assertEquals(Arrays.asList("Shape1", "Shape2"),
+        new ArrayList<>(report.getShapeBytes().keySet()));
+    long shapes = report.getShapeBytes("Shape1") + report.getShapeBytes("Shape2");
+    assertEquals(report.getTotalBytes(), shapes + report.getIndexBytes());
+    assertTrue(report.getKeyframeBytes() > 0);
+    assertTrue(report.getKeyframeBytes() < shapes);
+    assertEquals(report.getKeyframeBytes() / 4.0, report.getBytesPerKeyframe(), 0.001);
+    assertEquals(shapes / 2.0, report.getBytesPerShape(), 0.001);
+    assertTrue(report.toString().startsWith("2 shapes, 4 keyframes, about "
+        + report.getTotalBytes() + " bytes"));
+    try {
+      report.getShapeBytes("Shape3");
+      fail("Reported a shape not in the model");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Shape not present in model", e.getMessage());
+    }
+  }
+
+  //Tests that a report describes the model when it was made and follows later changes
+  @Test
+  public void memoryReportGrows() {
+    MemoryReport before = model2.getMemoryReport();
+    assertEquals(0, before.getIndexBytes());
+    for (int tick = 30; tick < 200; tick++) {
+      model2.move(tick, "Shape1", tick, tick);
+    }
+    model2.getVisibleShapeIds(5);
+    MemoryReport after = model2.getMemoryReport();
+    assertEquals(4, before.getKeyframeCount());
+    assertEquals(174, after.getKeyframeCount());
+    assertTrue(after.getShapeBytes("Shape1") > before.getShapeBytes("Shape1"));
+    assertEquals(before.getShapeBytes("Shape2"), after.getShapeBytes("Shape2"));
+    assertTrue(after.getIndexBytes() > 0);
+    assertTrue(after.getTotalBytes() > before.getTotalBytes());
+  }
+
+  //----------------------------------------------------------------------------------------------
+  //THIS SECTION TESTS compact()
+
+  //Tests that compacting removes keyframes that hold the same state or lie on a straight line
+  //between their neighbours, and that every tick looks the same afterwards
+  @Test
+  public void compact() {
+    IAnimationModel m = this.createModel();
+    IAnimationModel original = this.createModel();
+    for (IAnimationModel each : Arrays.asList(m, original)) {
+      each.add(0, "A", rect1);
+      each.move(10, "A", 17, 18);
+      each.move(20, "A", 27, 28);
+      each.move(30, "A", 27, 28);
+      each.move(40, "A", 27, 28);
+      each.add(5, "B", rect2);
+      each.changeColor(7, "B", 100, 200, 50);
+    }
+    int version = m.getVersion();
+
+    CompactionReport report = m.compact();
+    assertEquals(7, report.getKeyframesBefore());
+    assertEquals(3, report.getKeyframesAfter());
+    assertEquals(4, report.getKeyframesRemoved());
+    assertTrue(report.getBytesSaved() > 0);
+    assertNotEquals(version, m.getVersion());
+    assertEquals(Arrays.asList(0, 20), new ArrayList<>(m.getShapes().get("A").keySet()));
+    assertEquals(Arrays.asList(5), new ArrayList<>(m.getShapes().get("B").keySet()));
+    for (int tick = 0; tick < 50; tick++) {
+      assertEquals(original.getFullState(tick), m.getFullState(tick));
+    }
+  }
+
+  //Tests that compacting keeps keyframes whose removal would change any tick, including ones
+  //that are only off by rounding
+  @Test
+  public void compactKeepsChanges() {
+    model2.move(30, "Shape1", 0, 0);
+    model2.add(0, "C", rect3);
+    model2.move(3, "C", 11, 10);
+    model2.move(6, "C", 13, 10);
+    int version = model2.getVersion();
+
+    CompactionReport report = model2.compact();
+    assertEquals(0, report.getKeyframesRemoved());
+    assertEquals(0, report.getBytesSaved());
+    assertEquals(version, model2.getVersion());
+    assertEquals(3, model2.getShapes().get("C").size());
+  }
+
   // ---------------------------------------------------------------------------------------------
   // THIS SECTION TESTS equals() AND hashCode()
 
@@ -636,8 +1194,8 @@ public class AnimationModelTest {
   public void testEquals() {
     this.setUp();
 
-    IAnimationModel modelSame = new AnimationModel(shapes);
-    IAnimationModel modelDif = new AnimationModel();
+    IAnimationModel modelSame = this.createModel(shapes);
+    IAnimationModel modelDif = this.createModel();
 
     assertEquals(model, modelSame);
     assertNotEquals(model, modelDif);
@@ -648,11 +1206,353 @@ public class AnimationModelTest {
   // Testing hashCode() for both same and different models
   @Test
   public void testHashCode() {
-    IAnimationModel modelSame = new AnimationModel(shapes);
-    IAnimationModel modelDif = new AnimationModel();
+    IAnimationModel modelSame = this.createModel(shapes);
+    IAnimationModel modelDif = this.createModel();
 
     assertEquals(model.hashCode(), modelSame.hashCode());
     assertNotEquals(model.hashCode(), modelDif.hashCode());
     assertNotEquals(modelSame.hashCode(), modelDif.hashCode());
   }
-}
\ No newline at end of file
+
+  // Testing that models with the same shapes and keyframes are equal however they were made, and
+  // that a model with a shape or keyframe more is not equal to one without it either way around
+  @Test
+  public void testEqualsSymmetric() {
+    IAnimationModel first = this.createModel();
+    first.add(0, "R", rect1);
+    first.add(0, "S", rect2);
+    first.move(10, "R", 50, 50);
+    IAnimationModel second = this.createModel();
+    second.add(0, "S", rect2);
+    second.add(0, "R", rect1);
+    second.move(10, "R", 50, 50);
+    assertEquals(first, second);
+    assertEquals(second, first);
+    assertEquals(first.hashCode(), second.hashCode());
+
+    second.move(20, "R", 60, 60);
+    assertNotEquals(first, second);
+    assertNotEquals(second, first);
+    second.remove(20, "R");
+    assertEquals(first, second);
+    assertEquals(first.hashCode(), second.hashCode());
+
+    second.add("T");
+    assertNotEquals(first, second);
+    assertNotEquals(second, first);
+  }
+
+  // Testing that replacing a keyframe and putting the old one back restores the fingerprint, and
+  // that compacting keeps it in step with the keyframes that are left
+  @Test
+  public void testFingerprint() {
+    AnimationModel first = new AnimationModel();
+    first.add(0, "R", rect1);
+    first.move(10, "R", 47, 48);
+    long fingerprint = first.getFingerprint();
+    first.move(10, "R", 70, 70);
+    assertNotEquals(fingerprint, first.getFingerprint());
+    first.move(10, "R", 47, 48);
+    assertEquals(fingerprint, first.getFingerprint());
+
+    first.move(5, "R", 27, 28);
+    first.compact();
+    AnimationModel second = new AnimationModel(first.getShapes());
+    assertEquals(second.getFingerprint(), first.getFingerprint());
+    assertEquals(fingerprint, first.getFingerprint());
+    assertEquals(second, first);
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // THIS SECTION TESTS applyBatch()
+
+  // Testing that the motions of a batch become keyframes of their shapes whatever their order
+  @Test
+  public void testApplyBatch() {
+    IAnimationModel m = this.createModel();
+    m.add(0, "R", rect1);
+    m.add("S");
+    int version = m.getVersion();
+    m.applyBatch(Arrays.asList(
+        new Motion("R", 10, rect2, 20, rect3),
+        new Motion("S", 5, rect2, 15, rect3),
+        new Motion("R", 0, rect1, 10, rect2)));
+
+    assertEquals(version + 1, m.getVersion());
+    assertEquals(Arrays.asList(0, 10, 20), new ArrayList<>(m.getShapes().get("R").keySet()));
+    assertEquals(rect2, m.getState(10, "R"));
+    assertEquals(rect3, m.getState(25, "R"));
+    assertEquals(new Rect(Arrays.asList(50, 100, 25), new Position(15, 5), 2, 3),
+        m.getState(15, "R"));
+    assertNull(m.getState(4, "S"));
+    assertEquals(rect2, m.getState(5, "S"));
+    assertEquals("rectangle", m.cursor("S").getType());
+  }
+
+  // Testing that a batch replaces the keyframes a shape has within its motions and keeps the rest
+  @Test
+  public void testApplyBatchReplaces() {
+    IAnimationModel m = this.createModel();
+    m.add(0, "R", rect1);
+    m.move(5, "R", 1, 1);
+    m.move(12, "R", 2, 2);
+    m.move(30, "R", 3, 3);
+    m.applyBatch(Arrays.asList(new Motion("R", 4, rect2, 10, rect2),
+        new Motion("R", 10, rect3, 12, rect3)));
+
+    assertEquals(Arrays.asList(0, 4, 10, 12, 30),
+        new ArrayList<>(m.getShapes().get("R").keySet()));
+    assertEquals(rect3, m.getState(10, "R"));
+    assertEquals(rect3, m.getState(12, "R"));
+    assertEquals(3, m.getState(30, "R").getPosition().getX());
+  }
+
+  // Testing that a batch with a motion of a missing shape changes nothing
+  @Test
+  public void testApplyBatchMissingShape() {
+    IAnimationModel m = this.createModel();
+    m.add(0, "R", rect1);
+    String before = m.toString();
+    int version = m.getVersion();
+    try {
+      m.applyBatch(Arrays.asList(new Motion("R", 0, rect1, 10, rect2),
+          new Motion("Missing", 0, rect1, 10, rect2)));
+      fail("A batch with a missing shape was applied");
+    } catch (IllegalArgumentException e) {
+      assertEquals(before, m.toString());
+      assertEquals(version, m.getVersion());
+    }
+  }
+
+  // Testing that a batch with overlapping motions of one shape changes nothing
+  @Test
+  public void testApplyBatchOverlap() {
+    IAnimationModel m = this.createModel();
+    m.add(0, "R", rect1);
+    String before = m.toString();
+    try {
+      m.applyBatch(Arrays.asList(new Motion("R", 0, rect1, 10, rect2),
+          new Motion("R", 5, rect2, 15, rect3)));
+      fail("A batch with overlapping motions was applied");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Motions of R overlap at tick 5", e.getMessage());
+      assertEquals(before, m.toString());
+    }
+  }
+
+  // Testing that motions of one shape with different types are rejected
+  @Test(expected = IllegalArgumentException.class)
+  public void testApplyBatchMixedTypes() {
+    IAnimationModel m = this.createModel();
+    m.add("R");
+    m.applyBatch(Arrays.asList(new Motion("R", 0, rect1, 10, rect2),
+        new Motion("R", 10, circle, 20, circle)));
+  }
+
+  // Testing that motions of another type than a shape already has change nothing
+  @Test
+  public void testApplyBatchChangesType() {
+    IAnimationModel m = this.createModel();
+    m.add(0, "R", rect1);
+    m.add(0, "C", circle);
+    String before = m.toString();
+    int version = m.getVersion();
+    try {
+      m.applyBatch(Arrays.asList(new Motion("R", 0, rect1, 10, rect2),
+          new Motion("C", 0, rect1, 10, rect2)));
+      fail("A batch changed the type of a shape");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Motions of C change its type", e.getMessage());
+      assertEquals(before, m.toString());
+      assertEquals(version, m.getVersion());
+    }
+  }
+
+  // Testing that a null batch is rejected
+  @Test(expected = IllegalArgumentException.class)
+  public void testApplyBatchNull() {
+    this.createModel().applyBatch(null);
+  }
+
+  // Testing that a batch containing null is rejected
+  @Test(expected = IllegalArgumentException.class)
+  public void testApplyBatchNullMotion() {
+    IAnimationModel m = this.createModel();
+    m.add(0, "R", rect1);
+    m.applyBatch(Arrays.asList(new Motion("R", 0, rect1, 10, rect2), null));
+  }
+
+  // Testing that an empty batch changes nothing
+  @Test
+  public void testApplyEmptyBatch() {
+    IAnimationModel m = this.createModel();
+    m.add(0, "R", rect1);
+    int version = m.getVersion();
+    m.applyBatch(new ArrayList<Motion>());
+    assertEquals(version, m.getVersion());
+  }
+
+  // Testing that a batch gives the same animation as adding the same keyframes one at a time
+  @Test
+  public void testApplyBatchSameAsEdits() {
+    IAnimationModel batched = this.createModel();
+    IAnimationModel edited = this.createModel();
+    batched.add(0, "R", rect1);
+    edited.add(0, "R", rect1);
+    List<Motion> motions = new ArrayList<>();
+    // giving the motions last to first, and where one motion ends at the tick the next one
+    // starts, keeping the start of the next one
+    for (int tick = 40; tick > 0; tick -= 10) {
+      IShape shape = new Rect(Arrays.asList(tick, 0, 0), new Position(tick, tick), tick, 1);
+      motions.add(new Motion("R", tick, shape, tick + 10, shape));
+    }
+    for (int tick = 10; tick <= 40; tick += 10) {
+      edited.setKeyframe(tick, "R", tick, tick, tick, 1, tick, 0, 0);
+      edited.setKeyframe(tick + 10, "R", tick, tick, tick, 1, tick, 0, 0);
+    }
+    batched.applyBatch(motions);
+    assertEquals(edited.getShapes(), batched.getShapes());
+    assertEquals(edited, batched);
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // THIS SECTION TESTS addListener() AND removeListener()
+
+  // Making a model with a rectangle R that has keyframes at ticks 0, 10 and 20
+  private IAnimationModel listenedModel() {
+    IAnimationModel m = this.createModel();
+    m.add(0, "R", rect1);
+    m.setKeyframe(10, "R", 10, 10, 6, 4, 255, 255, 255);
+    m.setKeyframe(20, "R", 20, 20, 6, 4, 255, 255, 255);
+    return m;
+  }
+
+  // Making the change to the keyframes of the given shape between the given ticks
+  private static ModelChange changed(String shape, int from, int to, IAnimationModel m) {
+    return new ModelChange(ModelChange.Kind.KEYFRAMES_CHANGED, shape, from, to, m.getVersion());
+  }
+
+  // Testing that an edit tells the ticks between the keyframes around it
+  @Test
+  public void testListenerKeyframes() {
+    IAnimationModel m = this.listenedModel();
+    List<List<ModelChange>> told = new ArrayList<>();
+    m.addListener(told::add);
+
+    m.setKeyframe(15, "R", 1, 1, 1, 1, 0, 0, 0);
+    assertEquals(Arrays.asList(Arrays.asList(changed("R", 11, 19, m))), told);
+    m.move(25, "R", 3, 3);
+    assertEquals(Arrays.asList(changed("R", 21, Integer.MAX_VALUE, m)), told.get(1));
+    m.changeColor(0, "R", 1, 2, 3);
+    assertEquals(Arrays.asList(changed("R", 0, 9, m)), told.get(2));
+    m.changeSize(10, "R", 1, 2);
+    assertEquals(Arrays.asList(changed("R", 1, 14, m)), told.get(3));
+    assertEquals(4, told.size());
+  }
+
+  // Testing that adding and removing shapes are told
+  @Test
+  public void testListenerAddRemove() {
+    IAnimationModel m = this.listenedModel();
+    List<ModelChange> told = new ArrayList<>();
+    m.addListener(told::addAll);
+
+    m.add(5, "S", rect2);
+    assertEquals(new ModelChange(ModelChange.Kind.SHAPE_ADDED, "S", 5, Integer.MAX_VALUE,
+        m.getVersion()), told.get(0));
+    m.add("T");
+    assertEquals(new ModelChange(ModelChange.Kind.SHAPE_ADDED, "T", 0, Integer.MAX_VALUE,
+        m.getVersion()), told.get(1));
+    m.remove(12, "R");
+    assertEquals(changed("R", 11, Integer.MAX_VALUE, m), told.get(2));
+    m.remove(0, "S");
+    assertEquals(new ModelChange(ModelChange.Kind.SHAPE_REMOVED, "S", 0, Integer.MAX_VALUE,
+        m.getVersion()), told.get(3));
+    assertEquals(4, told.size());
+  }
+
+  // Testing that edits that change nothing or fail are not told
+  @Test
+  public void testListenerNoChange() {
+    IAnimationModel m = this.createModel();
+    m.add(5, "R", rect1);
+    List<ModelChange> told = new ArrayList<>();
+    m.addListener(told::addAll);
+
+    m.move(2, "R", 1, 1);
+    try {
+      m.move(6, "S", 1, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // the shape does not exist
+    }
+    m.applyBatch(new ArrayList<Motion>());
+    m.compact();
+    assertTrue(told.isEmpty());
+  }
+
+  // Testing that a batch is told once, with one change for each shape it moves
+  @Test
+  public void testListenerBatch() {
+    IAnimationModel m = this.listenedModel();
+    m.add(0, "S", rect2);
+    m.setKeyframe(30, "S", 1, 1, 1, 1, 0, 0, 0);
+    List<List<ModelChange>> told = new ArrayList<>();
+    m.addListener(told::add);
+
+    m.applyBatch(Arrays.asList(new Motion("R", 12, rect2, 18, rect3),
+        new Motion("S", 5, rect2, 10, rect3)));
+    assertEquals(1, told.size());
+    assertEquals(Arrays.asList(changed("R", 11, 19, m), changed("S", 1, 29, m)), told.get(0));
+  }
+
+  // Testing that compacting tells the ticks around the keyframes it removes
+  @Test
+  public void testListenerCompact() {
+    IAnimationModel m = this.createModel();
+    m.add(0, "R", new Rect(Arrays.asList(0, 0, 0), new Position(0, 0), 5, 5));
+    m.setKeyframe(10, "R", 10, 10, 5, 5, 0, 0, 0);
+    m.setKeyframe(20, "R", 20, 20, 5, 5, 0, 0, 0);
+    m.setKeyframe(30, "R", 0, 0, 5, 5, 0, 0, 0);
+    List<List<ModelChange>> told = new ArrayList<>();
+    m.addListener(told::add);
+
+    m.compact();
+    assertEquals(Arrays.asList(Arrays.asList(changed("R", 1, 19, m))), told);
+  }
+
+  // Testing that a removed listener is no longer told about changes
+  @Test
+  public void testRemoveListener() {
+    IAnimationModel m = this.listenedModel();
+    List<ModelChange> told = new ArrayList<>();
+    IModelListener listener = told::addAll;
+    m.addListener(listener);
+    m.move(5, "R", 1, 1);
+    m.removeListener(listener);
+    m.move(6, "R", 1, 1);
+    assertEquals(1, told.size());
+  }
+
+  // Testing that the states a listener is told are the only ones that change
+  @Test
+  public void testListenerStatesOutsideUnchanged() {
+    IAnimationModel m = this.listenedModel();
+    List<ModelChange> told = new ArrayList<>();
+    m.addListener(told::addAll);
+    Map<Integer, IShape> before = new TreeMap<>();
+    for (int tick = 0; tick < 40; tick++) {
+      before.put(tick, m.getState(tick, "R"));
+    }
+    m.setKeyframe(13, "R", 0, 0, 1, 1, 0, 0, 0);
+    for (int tick = 0; tick < 40; tick++) {
+      assertEquals(told.get(0).includes(tick), !before.get(tick).equals(m.getState(tick, "R")));
+    }
+  }
+
+  // Testing that a null listener cannot be added
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddNullListener() {
+    model.addListener(null);
+  }
+}
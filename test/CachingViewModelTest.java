@@ -0,0 +1,243 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.CachingViewModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IShape;
+import cs3500.animator.model.Position;
+import cs3500.animator.model.Rect;
+import cs3500.animator.model.ViewModel;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Defines tests for our implementation of CachingViewModel.
+ */
+public class CachingViewModelTest {
+
+  IShape rect1 =
+      new Rect(Arrays.asList(255, 255, 255), new Position(7, 8), 6, 4);
+  IShape rect2 =
+      new Rect(Arrays.asList(100, 200, 50), new Position(20, 0), 2, 2);
+  IAnimationModel model;
+  CachingViewModel cache;
+
+  @Before
+  public void initModel() {
+    Map<Integer, IShape> shape1 = new TreeMap<>();
+    shape1.put(10, rect1);
+    shape1.put(20, rect2);
+
+    Map<Integer, IShape> shape2 = new TreeMap<>();
+    shape2.put(0, rect2);
+    shape2.put(15, rect1);
+
+    Map<String, Map<Integer, IShape>> shapes = new TreeMap<>();
+    shapes.put("Shape1", shape1);
+    shapes.put("Shape2", shape2);
+    model = new AnimationModel(shapes);
+    cache = new CachingViewModel(model, 4);
+  }
+
+  //Tests that the constructor throws an exception when given a null model
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullModel() {
+    new CachingViewModel(null, 4);
+  }
+
+  //Tests that the constructor throws an exception when given a bound that is not positive
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBound() {
+    new CachingViewModel(model, 4, 0);
+  }
+
+  //Tests that the cache reads the same states as the model
+  @Test
+  public void testSameStates() {
+    for (int tick = 0; tick < 25; tick++) {
+      assertEquals(model.getFullState(tick), cache.getFullState(tick));
+      assertEquals(model.getState(tick, "Shape1"), cache.getState(tick, "Shape1"));
+    }
+  }
+
+  //Tests that the cache reads the same states between ticks as the model
+  @Test
+  public void testStatesBetweenTicks() {
+    ViewModel view = new ViewModel(model);
+    for (double time = 0; time < 25; time += 0.25) {
+      assertEquals(view.getState(time, "Shape1"), cache.getState(time, "Shape1"));
+      assertEquals(view.getState(time, "Shape2"), cache.getState(time, "Shape2"));
+    }
+  }
+
+  //Tests that the cache samples the same states as the model
+  @Test
+  public void testSample() {
+    IntBuffer expected = IntBuffer.allocate(100);
+    new ViewModel(model).sample("Shape2", 0, 19, 1, expected);
+    IntBuffer samples = IntBuffer.allocate(100);
+    cache.sample("Shape2", 0, 19, 1, samples);
+    assertArrayEquals(expected.array(), samples.array());
+  }
+
+  //Tests that repeated reads of a frame are hits
+  @Test
+  public void testHitsAndMisses() {
+    cache.getState(12, "Shape1");
+    cache.getState(12, "Shape1");
+    cache.getState(12, "Shape2");
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+
+    cache.getFullState(12);
+    cache.getFullState(12);
+    cache.getState(12, "Shape2");
+    assertEquals(3, cache.getHits());
+    assertEquals(3, cache.getMisses());
+  }
+
+  //Tests that reading a shape by its ID and by its name shares the same cached state
+  @Test
+  public void testStatesById() {
+    int id = cache.getShapeId("Shape1");
+    assertEquals(model.getState(12, "Shape1"), cache.getState(12, id));
+    assertEquals(model.getState(12, "Shape1"), cache.getState(12, "Shape1"));
+    cache.getFullState(12);
+    assertEquals(model.getState(12, id), cache.getState(12, id));
+    assertEquals(2, cache.getHits());
+    assertEquals(2, cache.getMisses());
+  }
+
+  //Tests that the states of a shape read only by its ID are forgotten once it is removed
+  @Test(expected = IllegalArgumentException.class)
+  public void testRemovedShapeById() {
+    int id = cache.getShapeId("Shape2");
+    cache.getState(5, id);
+    model.remove(0, "Shape2");
+    cache.getState(5, id);
+  }
+
+  //Tests that the least recently used frame is dropped once the cache is full
+  @Test
+  public void testEviction() {
+    for (int tick = 0; tick < 4; tick++) {
+      cache.getFullState(tick);
+    }
+    cache.getFullState(0);
+    cache.getFullState(4);
+    assertEquals(4, cache.getCachedFrames());
+    assertEquals(1, cache.getEvictions());
+
+    cache.getFullState(0);
+    assertEquals(2, cache.getHits());
+    cache.getFullState(1);
+    assertEquals(2, cache.getHits());
+  }
+
+  //Tests that the cache stays within its estimated size
+  @Test
+  public void testByteBound() {
+    cache = new CachingViewModel(model, 100, 1000);
+    for (int tick = 0; tick < 20; tick++) {
+      cache.getFullState(tick);
+      assertTrue(cache.getEstimatedBytes() <= 1000);
+    }
+    assertTrue(cache.getEvictions() > 0);
+    assertEquals(20 - cache.getEvictions(), cache.getCachedFrames());
+  }
+
+  //Tests that the cache is cleared when the model changes
+  @Test
+  public void testInvalidation() {
+    IShape before = cache.getState(20, "Shape1");
+    model.move(20, "Shape1", 1, 1);
+    IShape after = cache.getState(20, "Shape1");
+
+    assertEquals(new Position(20, 0), before.getPosition());
+    assertEquals(new Position(1, 1), after.getPosition());
+    assertEquals(2, cache.getMisses());
+    assertEquals(0, cache.getEvictions());
+  }
+
+  //Tests that changing a returned shape does not change the cached one
+  @Test
+  public void testReturnsCopies() {
+    cache.getState(20, "Shape1").setPosition(new Position(3, 3));
+    cache.getFullState(20).get("Shape1").setPosition(new Position(3, 3));
+    assertEquals(rect2, cache.getState(20, "Shape1"));
+  }
+
+  //Tests that a negative frame is rejected
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeFrame() {
+    cache.getState(-1, "Shape1");
+  }
+
+  //Tests that the version of the model is passed through
+  @Test
+  public void testVersion() {
+    int version = cache.getVersion();
+    model.changeColor(20, "Shape1", 1, 2, 3);
+    assertEquals(model.getVersion(), cache.getVersion());
+    assertTrue(version != cache.getVersion());
+  }
+
+  //Tests that a change only makes the cache forget the states of the changed shape at the ticks
+  //the change affects
+  @Test
+  public void testForgetsOnlyChangedStates() {
+    cache = new CachingViewModel(model, 30);
+    for (int tick = 0; tick < 25; tick++) {
+      cache.getFullState(tick);
+    }
+    model.move(20, "Shape1", 1, 1);
+
+    cache.getState(5, "Shape1");
+    cache.getState(12, "Shape2");
+    assertEquals(2, cache.getHits());
+    assertEquals(model.getState(12, "Shape1"), cache.getState(12, "Shape1"));
+    assertEquals(26, cache.getMisses());
+    assertEquals(model.getFullState(22), cache.getFullState(22));
+    assertEquals(27, cache.getMisses());
+    cache.getFullState(22);
+    assertEquals(3, cache.getHits());
+    assertEquals(25, cache.getCachedFrames());
+    assertEquals(0, cache.getEvictions());
+  }
+
+  //Tests that the full states of the cache follow shapes being added and removed
+  @Test
+  public void testAddedAndRemovedShapes() {
+    cache = new CachingViewModel(model, 30);
+    for (int tick = 0; tick < 25; tick++) {
+      cache.getFullState(tick);
+    }
+    model.add(3, "Shape3", rect1);
+    for (int tick = 0; tick < 25; tick++) {
+      assertEquals(model.getFullState(tick), cache.getFullState(tick));
+    }
+    model.remove(0, "Shape3");
+    for (int tick = 0; tick < 25; tick++) {
+      assertEquals(model.getFullState(tick), cache.getFullState(tick));
+    }
+    assertEquals(25, cache.getCachedFrames());
+  }
+
+  //Tests that a detached cache drops every frame when the model changes
+  @Test
+  public void testDetach() {
+    for (int tick = 0; tick < 4; tick++) {
+      cache.getFullState(tick);
+    }
+    cache.detach();
+    model.move(20, "Shape1", 1, 1);
+    assertEquals(model.getState(0, "Shape2"), cache.getState(0, "Shape2"));
+    assertEquals(1, cache.getCachedFrames());
+  }
+}
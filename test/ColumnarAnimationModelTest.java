@@ -0,0 +1,175 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.ColumnarAnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IShape;
+import cs3500.animator.model.MemoryReport;
+import cs3500.animator.model.Position;
+import cs3500.animator.model.Rect;
+import cs3500.animator.model.StorageType;
+import cs3500.animator.util.AnimationBuilder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.Test;
+
+/**
+ * Runs the tests of AnimationModel against ColumnarAnimationModel, and tests the behavior that is
+ * specific to the columnar model.
+ */
+public class ColumnarAnimationModelTest extends AnimationModelTest {
+
+  @Override
+  protected IAnimationModel createModel() {
+    return new ColumnarAnimationModel();
+  }
+
+  @Override
+  protected IAnimationModel createModel(Map<String, Map<Integer, IShape>> shapes) {
+    return new ColumnarAnimationModel(shapes);
+  }
+
+  @Override
+  protected IAnimationModel createModel(Map<String, Map<Integer, IShape>> shapes,
+      List<Integer> canvas) {
+    return new ColumnarAnimationModel(shapes, canvas);
+  }
+
+  // Testing that a long track costs close to six ints per keyframe
+  @Test
+  public void testBytesPerKeyframe() {
+    ColumnarAnimationModel columnar = new ColumnarAnimationModel();
+    assertEquals(0, columnar.bytesPerKeyframe(), 0.001);
+
+    columnar.add(0, "Rect", rect1);
+    for (int i = 1; i < 10000; i++) {
+      columnar.move(i, "Rect", i, i);
+    }
+    assertEquals(24, ColumnarAnimationModel.BYTES_PER_KEYFRAME);
+    assertTrue(columnar.bytesPerKeyframe() >= ColumnarAnimationModel.BYTES_PER_KEYFRAME);
+    assertTrue(columnar.bytesPerKeyframe() < 2 * ColumnarAnimationModel.BYTES_PER_KEYFRAME);
+  }
+
+  // Testing that the memory report counts shared tracks once and that a columnar model retains
+  // less than a map model with the same keyframes
+  @Test
+  public void testMemoryReport() {
+    MemoryReport columnar = this.buildRow(StorageType.COLUMNAR).getMemoryReport();
+    MemoryReport map = this.buildRow(StorageType.TREE_MAP).getMemoryReport();
+    assertEquals(4, columnar.getShapeCount());
+    assertEquals(map.getKeyframeCount(), columnar.getKeyframeCount());
+    assertTrue(columnar.getShapeBytes("R0") > columnar.getShapeBytes("R1"));
+    assertEquals(columnar.getShapeBytes("R1"), columnar.getShapeBytes("R2"));
+    assertTrue(columnar.getTotalBytes() < map.getTotalBytes());
+    assertTrue(columnar.getBytesPerKeyframe() < map.getBytesPerKeyframe());
+  }
+
+  // Testing that keyframes can be inserted before and between existing keyframes
+  @Test
+  public void testInsertOutOfOrder() {
+    Map<Integer, IShape> frames = new TreeMap<>();
+    frames.put(5, rect1);
+    frames.put(30, rect2);
+    Map<String, Map<Integer, IShape>> shapes = new TreeMap<>();
+    shapes.put("Rect", frames);
+    IAnimationModel columnar = new ColumnarAnimationModel(shapes);
+
+    columnar.move(20, "Rect", 1, 2);
+    columnar.changeSize(10, "Rect", 9, 9);
+    columnar.changeColor(30, "Rect", 1, 2, 3);
+
+    Map<Integer, IShape> expected = new TreeMap<>();
+    expected.put(5, rect1);
+    expected.put(10, new Rect(Arrays.asList(255, 255, 255), new Position(7, 8), 9, 9));
+    expected.put(20, new Rect(Arrays.asList(255, 255, 255), new Position(1, 2), 6, 4));
+    expected.put(30, new Rect(Arrays.asList(1, 2, 3), new Position(20, 0), 2, 2));
+    assertEquals(expected, columnar.getShapes().get("Rect"));
+  }
+
+  // Testing that the builder can build a columnar model with the same shapes as a map model
+  @Test
+  public void testBuilderStorage() {
+    IAnimationModel columnar = new AnimationModel.Builder(StorageType.COLUMNAR)
+        .declareShape("Rect", "rectangle")
+        .addMotion("Rect", 10, 7, 8, 6, 4, 255, 255, 255, 14, 10, 10, 3, 4, 0, 0, 0)
+        .build();
+    IAnimationModel map = new AnimationModel.Builder()
+        .declareShape("Rect", "rectangle")
+        .addMotion("Rect", 10, 7, 8, 6, 4, 255, 255, 255, 14, 10, 10, 3, 4, 0, 0, 0)
+        .build();
+
+    assertTrue(columnar instanceof ColumnarAnimationModel);
+    assertEquals(map.getShapes(), columnar.getShapes());
+    assertEquals(map.toString(), columnar.toString());
+    assertEquals(map.getState(12, "Rect"), columnar.getState(12, "Rect"));
+  }
+
+  // Testing that the builder does not accept a null storage type
+  @Test(expected = IllegalArgumentException.class)
+  public void testBuilderNullStorage() {
+    new AnimationModel.Builder(null);
+  }
+
+  // Building a row of shapes that move together, all but the last one at an offset of the first
+  private IAnimationModel buildRow(StorageType storage) {
+    AnimationBuilder<IAnimationModel> builder = new AnimationModel.Builder(storage);
+    for (int i = 0; i < 4; i++) {
+      builder.declareShape("R" + i, i % 2 == 0 ? "rectangle" : "ellipse")
+          .addMotion("R" + i, 1, 10 * i, 5, 4, 4, 0, 0, 0, 11, 10 * i + 20, 25, 4, 4, 0, 0, 0)
+          .addMotion("R" + i, 11, 10 * i + 20, 25, 4, 4, 0, 0, 0, 21, 10 * i, 5, 8, 8, i / 3, 0,
+              0);
+    }
+    return builder.build();
+  }
+
+  // Testing that shapes built with the same motion at different positions share one track
+  @Test
+  public void testBuilderSharesTracks() {
+    ColumnarAnimationModel columnar = (ColumnarAnimationModel) this.buildRow(StorageType.COLUMNAR);
+    IAnimationModel map = this.buildRow(StorageType.TREE_MAP);
+
+    assertEquals(2, columnar.countDistinctTracks());
+    assertEquals(map.getShapes(), columnar.getShapes());
+    assertEquals(map.toString(), columnar.toString());
+    for (int tick = 0; tick < 25; tick++) {
+      assertEquals(map.getFullState(tick), columnar.getFullState(tick));
+    }
+  }
+
+  // Testing that changing a shape that shares its track does not change the other shapes
+  @Test
+  public void testSharedTrackCopiedOnChange() {
+    IAnimationModel map = this.buildRow(StorageType.TREE_MAP);
+    IAnimationModel columnar = this.buildRow(StorageType.COLUMNAR);
+    for (IAnimationModel model : Arrays.asList(map, columnar)) {
+      model.move(5, "R0", 100, 100);
+      model.changeColor(11, "R1", 1, 2, 3);
+      model.remove(15, "R2");
+      model.changeSize(30, "R2", 9, 9);
+    }
+
+    assertEquals(map.getShapes(), columnar.getShapes());
+    assertEquals(4, ((ColumnarAnimationModel) columnar).countDistinctTracks());
+    for (int tick = 0; tick < 35; tick++) {
+      assertEquals(map.getFullState(tick), columnar.getFullState(tick));
+    }
+  }
+
+  // Testing that compacting keeps shapes with the same motion sharing one track
+  @Test
+  public void testCompactKeepsSharing() {
+    ColumnarAnimationModel columnar = (ColumnarAnimationModel) this.buildRow(StorageType.COLUMNAR);
+    columnar.move(6, "R3", 40, 15);
+    IAnimationModel map = this.buildRow(StorageType.TREE_MAP);
+    map.move(6, "R3", 40, 15);
+
+    assertEquals(1, columnar.compact().getKeyframesRemoved());
+    assertEquals(2, columnar.countDistinctTracks());
+    for (int tick = 0; tick < 25; tick++) {
+      assertEquals(map.getFullState(tick), columnar.getFullState(tick));
+    }
+  }
+}
@@ -0,0 +1,286 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.ConcurrentAnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IShape;
+import cs3500.animator.model.IShapeCursor;
+import cs3500.animator.model.ModelChange;
+import cs3500.animator.model.Motion;
+import cs3500.animator.model.PersistentAnimationModel;
+import cs3500.animator.model.Position;
+import cs3500.animator.model.Rect;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Defines tests for our implementation of ConcurrentAnimationModel.
+ */
+public class ConcurrentAnimationModelTest {
+
+  IShape rect1 =
+      new Rect(Arrays.asList(255, 255, 255), new Position(7, 8), 6, 4);
+  IShape rect2 =
+      new Rect(Arrays.asList(100, 200, 50), new Position(20, 0), 2, 2);
+  IAnimationModel base;
+  ConcurrentAnimationModel model;
+
+  @Before
+  public void initModel() {
+    Map<Integer, IShape> shape1 = new TreeMap<>();
+    shape1.put(10, rect1);
+    shape1.put(20, rect2);
+
+    Map<String, Map<Integer, IShape>> shapes = new TreeMap<>();
+    shapes.put("Shape1", shape1);
+    base = new AnimationModel(shapes);
+    model = new ConcurrentAnimationModel(new AnimationModel(shapes));
+  }
+
+  //Tests that the constructor throws an exception when given a null model
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullModel() {
+    new ConcurrentAnimationModel(null);
+  }
+
+  //Tests that reads give the same results as the wrapped model
+  @Test
+  public void testReads() {
+    for (int tick = 0; tick < 25; tick++) {
+      assertEquals(base.getState(tick, "Shape1"), model.getState(tick, "Shape1"));
+      assertEquals(base.getFullState(tick), model.getFullState(tick));
+      assertEquals(base.getVisibleShapes(tick), model.getVisibleShapes(tick));
+    }
+    assertEquals(base.getShapes(), model.getShapes());
+    assertEquals(base.getCanvas(), model.getCanvas());
+    assertEquals(base.toString(), model.toString());
+  }
+
+  //Tests that changes are passed on to the wrapped model
+  @Test
+  public void testWrites() {
+    int version = model.getVersion();
+    model.add(5, "Shape2", rect2);
+    model.move(20, "Shape1", 1, 1);
+    model.changeColor(20, "Shape1", 1, 2, 3);
+    model.changeSize(20, "Shape1", 3, 3);
+
+    assertEquals(new Rect(Arrays.asList(1, 2, 3), new Position(1, 1), 3, 3),
+        model.getState(20, "Shape1"));
+    assertNull(model.getState(2, "Shape2"));
+
+    model.remove(15, "Shape1");
+    assertEquals(rect1, model.getState(20, "Shape1"));
+    assertTrue(model.getVersion() != version);
+  }
+
+  //Tests that a batch of motions is passed on to the wrapped model
+  @Test
+  public void testApplyBatch() {
+    List<Motion> motions = Arrays.asList(new Motion("Shape1", 20, rect2, 30, rect1));
+    base.applyBatch(motions);
+    model.applyBatch(motions);
+    assertEquals(base.getShapes(), model.getShapes());
+    assertEquals(rect1, model.getState(30, "Shape1"));
+  }
+
+  //Tests that the wrapped model computes full states on the pool it is given
+  @Test
+  public void testSetParallel() {
+    for (int i = 0; i < 50; i++) {
+      base.add(i % 5, "R" + i, new Rect(Arrays.asList(i, 0, 0), new Position(i, i), 1, 1));
+      model.add(i % 5, "R" + i, new Rect(Arrays.asList(i, 0, 0), new Position(i, i), 1, 1));
+    }
+    ForkJoinPool pool = new ForkJoinPool(2);
+    model.setParallel(pool, 4);
+    for (int tick = 0; tick < 10; tick++) {
+      assertEquals(base.getFullState(tick), model.getFullState(tick));
+    }
+    pool.shutdown();
+  }
+
+  //Tests that the parallel threshold must be positive
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetParallelInvalidThreshold() {
+    model.setParallel(ForkJoinPool.commonPool(), 0);
+  }
+
+  //Tests that listeners are told about changes once the write lock is released, so that they can
+  //read the model
+  @Test
+  public void testListenerReadsModel() {
+    List<ModelChange> told = new ArrayList<>();
+    List<IShape> read = new ArrayList<>();
+    model.addListener(changes -> {
+      told.addAll(changes);
+      read.add(model.getState(15, "Shape1"));
+    });
+    model.applyBatch(Arrays.asList(new Motion("Shape1", 20, rect2, 30, rect1)));
+    model.move(15, "Shape1", 1, 1);
+
+    assertEquals(Arrays.asList(
+        new ModelChange(ModelChange.Kind.KEYFRAMES_CHANGED, "Shape1", 11, Integer.MAX_VALUE,
+            model.getVersion() - 1),
+        new ModelChange(ModelChange.Kind.KEYFRAMES_CHANGED, "Shape1", 11, 19,
+            model.getVersion())), told);
+    assertEquals(new Position(1, 1), read.get(1).getPosition());
+  }
+
+  //Tests that a cursor of the concurrent model reads the same states
+  @Test
+  public void testCursor() {
+    IShapeCursor cursor = model.cursor("Shape1");
+    IShapeCursor expected = base.cursor("Shape1");
+    for (int tick = 0; tick < 25; tick++) {
+      assertEquals(expected.isVisible(), cursor.isVisible());
+      if (expected.isVisible()) {
+        assertEquals(expected.getX(), cursor.getX());
+        assertEquals(expected.getBlue(), cursor.getBlue());
+      }
+      cursor.advance();
+      expected.advance();
+    }
+  }
+
+  //Tests that all the reads passed to read see the same version of the model
+  @Test
+  public void testReadSeesOneVersion() throws InterruptedException {
+    AtomicBoolean done = new AtomicBoolean(false);
+    Thread writer = new Thread(() -> {
+      for (int i = 0; !done.get(); i++) {
+        model.move(20, "Shape1", i % 100, i % 100);
+      }
+    });
+    writer.start();
+    try {
+      for (int i = 0; i < 2000; i++) {
+        assertTrue(model.read(vm -> {
+          int version = vm.getVersion();
+          IShape state = vm.getState(20, "Shape1");
+          return vm.getVersion() == version && state.equals(vm.getState(20, "Shape1"));
+        }));
+      }
+    } finally {
+      done.set(true);
+      writer.join();
+    }
+  }
+
+  //Tests that readers in several threads never see the model in the middle of a change
+  @Test(timeout = 30000)
+  public void testReadersAndWriter() throws InterruptedException {
+    AtomicBoolean done = new AtomicBoolean(false);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>();
+
+    threads.add(new Thread(() -> {
+      try {
+        for (int i = 0; i < 300; i++) {
+          model.add(i % 50, "S" + i, rect1);
+          model.move(30 + i % 40, "Shape1", i % 100, 1);
+          if (i % 3 == 0) {
+            model.remove(i % 50, "S" + i);
+          }
+        }
+      } catch (Throwable e) {
+        failure.compareAndSet(null, e);
+      } finally {
+        done.set(true);
+      }
+    }));
+    for (int r = 0; r < 3; r++) {
+      threads.add(new Thread(() -> {
+        IShapeCursor cursor = model.cursor("Shape1");
+        try {
+          for (int tick = 0; !done.get(); tick = (tick + 7) % 80) {
+            model.getFullState(tick);
+            model.getState(tick, "Shape1");
+            model.getVisibleShapes(tick);
+            cursor.seek(tick);
+            if (cursor.isVisible()) {
+              cursor.getX();
+            }
+          }
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+  }
+
+  //Tests that reads of a persistent model, which read a snapshot, see every change made before
+  @Test
+  public void testPersistentReads() {
+    ConcurrentAnimationModel persistent =
+        new ConcurrentAnimationModel(new PersistentAnimationModel(base.getShapes()));
+    assertEquals(base.getFullState(15), persistent.getFullState(15));
+    int version = persistent.getVersion();
+
+    base.move(20, "Shape1", 1, 1);
+    persistent.move(20, "Shape1", 1, 1);
+    assertTrue(persistent.getVersion() != version);
+    for (int tick = 0; tick < 25; tick++) {
+      assertEquals(base.getState(tick, "Shape1"), persistent.getState(tick, "Shape1"));
+      assertEquals(base.getFullState(tick), persistent.getFullState(tick));
+      assertEquals(base.nextChange(tick), persistent.nextChange(tick));
+    }
+    assertEquals(base.getShapes(), persistent.getShapes());
+    assertEquals(persistent, new ConcurrentAnimationModel(new PersistentAnimationModel(
+        base.getShapes())));
+  }
+
+  //Tests that a change to a persistent model does not wait for a read, which keeps seeing the
+  //version it started with
+  @Test(timeout = 30000)
+  public void testPersistentReadDoesNotBlockWriter() throws InterruptedException {
+    ConcurrentAnimationModel persistent =
+        new ConcurrentAnimationModel(new PersistentAnimationModel(base.getShapes()));
+    AtomicBoolean written = new AtomicBoolean(false);
+    IShape seen = persistent.read(vm -> {
+      Thread writer = new Thread(() -> {
+        persistent.move(20, "Shape1", 1, 1);
+        written.set(true);
+      });
+      writer.start();
+      try {
+        writer.join();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      return vm.getState(20, "Shape1");
+    });
+    assertTrue(written.get());
+    assertEquals(rect2, seen);
+    assertEquals(new Position(1, 1), persistent.getState(20, "Shape1").getPosition());
+    assertFalse(rect2.equals(persistent.getState(20, "Shape1")));
+  }
+
+  //Tests that two concurrent models of equal models are equal
+  @Test
+  public void testEquals() {
+    Map<String, Map<Integer, IShape>> shapes = base.getShapes();
+    assertEquals(model, new ConcurrentAnimationModel(new AnimationModel(shapes)));
+    assertEquals(model.hashCode(),
+        new ConcurrentAnimationModel(new AnimationModel(shapes)).hashCode());
+  }
+}
@@ -0,0 +1,183 @@
+import static org.junit.Assert.assertEquals;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.ColumnarAnimationModel;
+import cs3500.animator.model.FixedPointInterpolator;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IShape;
+import cs3500.animator.model.IShapeCursor;
+import cs3500.animator.model.MappedAnimationModel;
+import cs3500.animator.model.PersistentAnimationModel;
+import cs3500.animator.model.Position;
+import cs3500.animator.model.Rect;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.Test;
+
+/**
+ * Defines tests for our implementation of FixedPointInterpolator, comparing it with the rounded
+ * down double interpolation the models have always used.
+ */
+public class FixedPointInterpolatorTest {
+
+  // The interpolation of the models before FixedPointInterpolator, rounding a double down
+  private static int expected(int from, int to, int offset, int span) {
+    double prop = ((double) offset) / ((double) span);
+    if (from > to) {
+      return (int) Math.floor(from - (Math.abs(from - to) * prop));
+    }
+    return (int) Math.floor(from + (Math.abs(from - to) * prop));
+  }
+
+  private static void check(int from, int to, int offset, int span) {
+    assertEquals(from + " to " + to + " at " + offset + "/" + span,
+        expected(from, to, offset, span),
+        FixedPointInterpolator.interpolate(from, to, offset, span));
+  }
+
+  //Tests the ends of a segment and segments that do not change
+  @Test
+  public void testEnds() {
+    check(3, 17, 0, 5);
+    check(3, 17, 5, 5);
+    check(17, 3, 5, 5);
+    check(8, 8, 3, 7);
+    check(-4, 9, 13, 13);
+  }
+
+  //Tests every tick of small segments in both directions, including negative values
+  @Test
+  public void testSmallSegments() {
+    for (int span = 1; span <= 40; span++) {
+      for (int from = -20; from <= 20; from += 3) {
+        for (int to = -45; to <= 45; to += 7) {
+          for (int offset = 0; offset <= span; offset++) {
+            check(from, to, offset, span);
+          }
+        }
+      }
+    }
+  }
+
+  //Tests segments whose changes divide their span evenly, where the double result is rounded
+  @Test
+  public void testWholeSteps() {
+    for (int span = 1; span <= 100; span++) {
+      for (int offset = 0; offset <= span; offset++) {
+        check(0, span, offset, span);
+        check(span * 3, 0, offset, span);
+        check(7, 7 + span * 255, offset, span);
+        check(0, 255, offset, span);
+        check(255, 0, offset, span);
+      }
+    }
+  }
+
+  //Tests random segments, with values and spans around and past the integer limits
+  @Test
+  public void testRandomSegments() {
+    Random random = new Random(3500);
+    int[] limits = {256, 1 << 12, 1 << 20, 1 << 24, 1 << 26, Integer.MAX_VALUE};
+    for (int i = 0; i < 200000; i++) {
+      int limit = limits[i % limits.length];
+      int from = random.nextInt(limit) - limit / 2;
+      int to = random.nextInt(limit) - limit / 2;
+      int span = 1 + random.nextInt(i % 2 == 0 ? 100 : 1 << 18);
+      check(from, to, random.nextInt(span + 1), span);
+    }
+    check(Integer.MAX_VALUE, Integer.MIN_VALUE + 1, 1, 3);
+    check(Integer.MIN_VALUE + 1, Integer.MAX_VALUE, 2, 3);
+    check((1 << 24) - 1, -(1 << 24) + 1, 12345, 1 << 16);
+  }
+
+  //Tests that cursors moving through a long segment tick by tick, and jumping within it, read the
+  //same states as the rounded down double interpolation
+  @Test
+  public void testCursorSteps() {
+    Map<Integer, IShape> frames = new TreeMap<>();
+    frames.put(3, new Rect(Arrays.asList(0, 255, 17), new Position(-40, 999), 1, 300));
+    frames.put(1000, new Rect(Arrays.asList(255, 0, 200), new Position(333, -7), 97, 2));
+    frames.put(1003, new Rect(Arrays.asList(1, 2, 3), new Position(0, 0), 50, 50));
+    Map<String, Map<Integer, IShape>> shapes = new TreeMap<>();
+    shapes.put("R", frames);
+
+    for (IAnimationModel model : Arrays.asList(new AnimationModel(shapes),
+        new ColumnarAnimationModel(shapes))) {
+      IShapeCursor cursor = model.cursor("R");
+      for (int tick = 0; tick <= 1010; tick++) {
+        cursor.seek(tick);
+        this.checkCursor(cursor, model.getState(tick, "R"));
+      }
+      int[] jumps = {500, 17, 18, 19, 999, 3, 1001, 4, 700, 701};
+      for (int tick : jumps) {
+        cursor.seek(tick);
+        this.checkCursor(cursor, model.getState(tick, "R"));
+      }
+      for (int tick = 3; tick <= 1000; tick++) {
+        IShape state = model.getState(tick, "R");
+        int offset = tick - 3;
+        assertEquals(expected(-40, 333, offset, 997), state.x());
+        assertEquals(expected(999, -7, offset, 997), state.y());
+        assertEquals(expected(1, 97, offset, 997), state.width());
+        assertEquals(expected(300, 2, offset, 997), state.height());
+        assertEquals(expected(0, 255, offset, 997), state.red());
+        assertEquals(expected(255, 0, offset, 997), state.green());
+        assertEquals(expected(17, 200, offset, 997), state.blue());
+      }
+    }
+  }
+
+  //Tests that every model reads the states between keyframes as the rounded down double
+  //interpolation, including segments with values and spans too large for integers
+  @Test
+  public void testGetState() throws IOException {
+    Map<Integer, IShape> frames = new TreeMap<>();
+    frames.put(0, new Rect(Arrays.asList(0, 255, 17), new Position(-40, 999), 1, 300));
+    frames.put(120, new Rect(Arrays.asList(255, 0, 200), new Position(333, -7), 97, 2));
+    frames.put(240, new Rect(Arrays.asList(9, 9, 9), new Position(1 << 25, 5), 3, 1 << 24));
+    frames.put(100000, new Rect(Arrays.asList(1, 2, 3), new Position(0, -1 << 26), 50, 50));
+    Map<String, Map<Integer, IShape>> shapes = new TreeMap<>();
+    shapes.put("R", frames);
+
+    MappedAnimationModel mapped = new MappedAnimationModel(shapes);
+    try {
+      for (IAnimationModel model : Arrays.asList(new AnimationModel(shapes),
+          new ColumnarAnimationModel(shapes), new PersistentAnimationModel(shapes), mapped)) {
+        int[] keys = {0, 120, 240, 100000};
+        for (int k = 0; k + 1 < keys.length; k++) {
+          IShape from = frames.get(keys[k]);
+          IShape to = frames.get(keys[k + 1]);
+          int span = keys[k + 1] - keys[k];
+          for (int offset = 0; offset < span; offset += 1 + offset / 60) {
+            IShape state = model.getState(keys[k] + offset, "R");
+            assertEquals(expected(from.x(), to.x(), offset, span), state.x());
+            assertEquals(expected(from.y(), to.y(), offset, span), state.y());
+            assertEquals(expected(from.width(), to.width(), offset, span), state.width());
+            assertEquals(expected(from.height(), to.height(), offset, span), state.height());
+            assertEquals(expected(from.red(), to.red(), offset, span), state.red());
+            assertEquals(expected(from.green(), to.green(), offset, span), state.green());
+            assertEquals(expected(from.blue(), to.blue(), offset, span), state.blue());
+          }
+        }
+      }
+    } finally {
+      mapped.close();
+    }
+  }
+
+  private void checkCursor(IShapeCursor cursor, IShape state) {
+    assertEquals(state != null, cursor.isVisible());
+    if (state != null) {
+      assertEquals(state.x(), cursor.getX());
+      assertEquals(state.y(), cursor.getY());
+      assertEquals(state.width(), cursor.getWidth());
+      assertEquals(state.height(), cursor.getHeight());
+      assertEquals(state.red(), cursor.getRed());
+      assertEquals(state.green(), cursor.getGreen());
+      assertEquals(state.blue(), cursor.getBlue());
+    }
+  }
+}
@@ -0,0 +1,159 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.Circle;
+import cs3500.animator.model.ColumnarAnimationModel;
+import cs3500.animator.model.FrameEvaluator;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IShape;
+import cs3500.animator.model.Position;
+import cs3500.animator.model.Rect;
+import cs3500.animator.model.ViewModel;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Defines tests for our implementation of FrameEvaluator.
+ */
+public class FrameEvaluatorTest {
+
+  IShape rect1 =
+      new Rect(Arrays.asList(255, 255, 255), new Position(7, 8), 6, 4);
+  IShape rect2 =
+      new Rect(Arrays.asList(100, 200, 50), new Position(20, 0), 2, 2);
+  IShape rect3 = new Rect(Arrays.asList(0, 0, 0), new Position(10, 10), 3, 4);
+  IShape circle = new Circle(Arrays.asList(3, 90, 200), new Position(-15, 40), 30, 7);
+  Map<String, Map<Integer, IShape>> shapes;
+
+  @Before
+  public void initShapes() {
+    Map<Integer, IShape> shape1 = new TreeMap<>();
+    shape1.put(10, rect1);
+    shape1.put(20, rect2);
+
+    Map<Integer, IShape> shape2 = new TreeMap<>();
+    shape2.put(0, rect2);
+    shape2.put(15, rect1);
+
+    Map<Integer, IShape> shape3 = new TreeMap<>();
+    shape3.put(3, circle);
+    shape3.put(4, rect3);
+    shape3.put(31, circle);
+
+    shapes = new TreeMap<>();
+    shapes.put("Shape1", shape1);
+    shapes.put("Shape2", shape2);
+    shapes.put("Shape3", shape3);
+  }
+
+  // Checks that the evaluator read the same states as the model at the given tick
+  private void checkTick(IAnimationModel model, FrameEvaluator evaluator, int tick) {
+    assertEquals(tick, evaluator.getTick());
+    assertArrayEquals(model.getVisibleShapeIds(tick), evaluator.getVisibleShapeIds());
+    for (int id = 0; id < 3; id++) {
+      IShape expected = model.getState(tick, id);
+      assertEquals(expected != null, evaluator.isVisible(id));
+      if (expected != null) {
+        assertEquals(expected.toString(), evaluator.getType(id));
+        assertEquals(expected, expected.copyShape(Arrays.asList(evaluator.getRed(id),
+            evaluator.getGreen(id), evaluator.getBlue(id)),
+            new Position(evaluator.getX(id), evaluator.getY(id)), evaluator.getWidth(id),
+            evaluator.getHeight(id)));
+      }
+    }
+  }
+
+  //Tests that the constructor throws an exception when given a null model
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullModel() {
+    new FrameEvaluator(null);
+  }
+
+  //Tests that every tick, in order and out of order, is evaluated the same as getState
+  @Test
+  public void testSameStates() {
+    for (IAnimationModel model : Arrays.asList(new AnimationModel(shapes),
+        new ColumnarAnimationModel(shapes))) {
+      FrameEvaluator evaluator = new FrameEvaluator(model);
+      for (int tick = 0; tick < 40; tick++) {
+        evaluator.evaluate(tick);
+        this.checkTick(model, evaluator, tick);
+      }
+      for (int tick : new int[]{25, 3, 17, 17, 0, 30, 12}) {
+        evaluator.evaluate(tick);
+        this.checkTick(model, evaluator, tick);
+      }
+    }
+  }
+
+  //Tests that times between ticks are evaluated the same as by cursors
+  @Test
+  public void testStatesBetweenTicks() {
+    IAnimationModel model = new AnimationModel(shapes);
+    ViewModel view = new ViewModel(model);
+    FrameEvaluator evaluator = new FrameEvaluator(model);
+    for (double time = 0; time < 35; time += 0.25) {
+      evaluator.evaluate(time);
+      assertEquals((int) time, evaluator.getTick());
+      for (int id = 0; id < 3; id++) {
+        IShape expected = view.getState(time, model.getShapeName(id));
+        assertEquals(expected != null, evaluator.isVisible(id));
+        if (expected != null) {
+          assertEquals(expected.x(), evaluator.getX(id));
+          assertEquals(expected.y(), evaluator.getY(id));
+          assertEquals(expected.width(), evaluator.getWidth(id));
+          assertEquals(expected.red(), evaluator.getRed(id));
+          assertEquals(expected.blue(), evaluator.getBlue(id));
+        }
+      }
+    }
+  }
+
+  //Tests that the evaluator sees keyframes and shapes added after it was created
+  @Test
+  public void testSeesChanges() {
+    IAnimationModel model = new ColumnarAnimationModel(shapes);
+    FrameEvaluator evaluator = new FrameEvaluator(model);
+    evaluator.evaluate(15);
+    model.move(16, "Shape1", 100, 100);
+    model.add(12, "Shape4", rect3);
+    evaluator.evaluate(15);
+    this.checkTick(model, evaluator, 15);
+    int id = model.getShapeId("Shape4");
+    assertTrue(evaluator.isVisible(id));
+    assertEquals(10, evaluator.getX(id));
+    int removed = model.getShapeId("Shape2");
+    model.remove(0, "Shape2");
+    evaluator.evaluate(15);
+    assertFalse(evaluator.isVisible(removed));
+  }
+
+  //Tests that reading a shape that is not visible throws an exception
+  @Test(expected = IllegalStateException.class)
+  public void testNotVisible() {
+    FrameEvaluator evaluator = new FrameEvaluator(new AnimationModel(shapes));
+    evaluator.evaluate(5);
+    evaluator.getX(0);
+  }
+
+  //Tests that nothing can be read before a tick is evaluated
+  @Test
+  public void testNothingEvaluated() {
+    FrameEvaluator evaluator = new FrameEvaluator(new AnimationModel(shapes));
+    assertFalse(evaluator.isVisible(1));
+    assertFalse(evaluator.isVisible(-1));
+    assertEquals(0, evaluator.getVisibleShapeIds().length);
+  }
+
+  //Tests that a negative time is rejected
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeTime() {
+    new FrameEvaluator(new AnimationModel(shapes)).evaluate(-0.5);
+  }
+}
@@ -0,0 +1,162 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IShape;
+import cs3500.animator.model.MappedAnimationModel;
+import cs3500.animator.model.MemoryReport;
+import cs3500.animator.model.StorageType;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Runs the tests of AnimationModel against MappedAnimationModel, and tests the behavior that is
+ * specific to the mapped model.
+ */
+public class MappedAnimationModelTest extends AnimationModelTest {
+
+  // the models created by a test, closed after it so that their files are deleted. Not
+  // initialized here, since the fields of AnimationModelTest create models first.
+  private List<MappedAnimationModel> opened;
+
+  private MappedAnimationModel open(MappedAnimationModel model) {
+    if (opened == null) {
+      opened = new ArrayList<>();
+    }
+    opened.add(model);
+    return model;
+  }
+
+  @After
+  public void closeModels() throws IOException {
+    if (opened != null) {
+      for (MappedAnimationModel model : opened) {
+        model.close();
+      }
+    }
+  }
+
+  @Override
+  protected IAnimationModel createModel() {
+    return this.open(new MappedAnimationModel());
+  }
+
+  @Override
+  protected IAnimationModel createModel(Map<String, Map<Integer, IShape>> shapes) {
+    return this.open(new MappedAnimationModel(shapes));
+  }
+
+  @Override
+  protected IAnimationModel createModel(Map<String, Map<Integer, IShape>> shapes,
+      List<Integer> canvas) {
+    return this.open(new MappedAnimationModel(shapes, canvas));
+  }
+
+  //Tests that the keyframes are reported as mapped rather than on the heap
+  @Override
+  @Test
+  public void memoryReport() {
+    MemoryReport report = model2.getMemoryReport();
+    assertEquals(2, report.getShapeCount());
+    assertEquals(4, report.getKeyframeCount());
+    assertEquals(0, report.getKeyframeBytes());
+    assertEquals(report.getTotalBytes(),
+        report.getShapeBytes("Shape1") + report.getShapeBytes("Shape2"));
+    assertTrue(report.getMappedBytes() >= 4 * MappedAnimationModel.BYTES_PER_KEYFRAME);
+    assertTrue(report.toString().endsWith(" bytes mapped from a file"));
+  }
+
+  //Tests that new keyframes grow the mapped file but not the heap
+  @Override
+  @Test
+  public void memoryReportGrows() {
+    MemoryReport before = model2.getMemoryReport();
+    for (int tick = 30; tick < 200; tick++) {
+      model2.move(tick, "Shape1", tick, tick);
+    }
+    MemoryReport after = model2.getMemoryReport();
+    assertEquals(174, after.getKeyframeCount());
+    assertEquals(before.getShapeBytes("Shape1"), after.getShapeBytes("Shape1"));
+    assertTrue(after.getMappedBytes() >= 174 * MappedAnimationModel.BYTES_PER_KEYFRAME);
+    assertTrue(after.getMappedBytes() < 5 * 174 * MappedAnimationModel.BYTES_PER_KEYFRAME);
+  }
+
+  // Testing that keyframes spread over many small chunks of a given file read back the same as
+  // those of a map model, including after inserting keyframes between others
+  @Test
+  public void testSmallChunks() throws IOException {
+    Path file = Files.createTempFile("keyframes", ".bin");
+    try (MappedAnimationModel mapped =
+        new MappedAnimationModel(file, 4, Arrays.asList(0, 0, 500, 500))) {
+      IAnimationModel map = new AnimationModel(Arrays.asList(0, 0, 500, 500));
+      for (IAnimationModel model : Arrays.asList(mapped, map)) {
+        for (int s = 0; s < 5; s++) {
+          model.add(s, "S" + s, rect1);
+          for (int tick = 10; tick < 100; tick += 10) {
+            model.move(tick + s, "S" + s, tick, s * tick);
+          }
+          model.changeSize(15 + s, "S" + s, 3 + s, 9);
+        }
+      }
+      assertTrue(Files.size(file) > 10 * 4 * MappedAnimationModel.BYTES_PER_KEYFRAME);
+      assertEquals(map.getShapes(), mapped.getShapes());
+      assertEquals(map.toString(), mapped.toString());
+      for (int tick = 0; tick < 110; tick++) {
+        assertEquals(map.getFullState(tick), mapped.getFullState(tick));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  // Testing that the number of keyframes mapped at once must be a power of two
+  @Test
+  public void testInvalidChunks() throws IOException {
+    Path file = Files.createTempFile("keyframes", ".bin");
+    try {
+      new MappedAnimationModel(file, 6, Arrays.asList(0, 0, 500, 500));
+      fail("Mapped chunks of six keyframes");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid chunk size.", e.getMessage());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  // Testing that a file that cannot be opened is reported
+  @Test(expected = UncheckedIOException.class)
+  public void testMissingDirectory() throws IOException {
+    Path directory = Files.createTempDirectory("keyframes");
+    Files.delete(directory);
+    new MappedAnimationModel(directory.resolve("keyframes.bin"), 4, Arrays.asList(0, 0, 1, 1));
+  }
+
+  // Testing that the builder can build a mapped model with the same shapes as a map model
+  @Test
+  public void testBuilderStorage() throws IOException {
+    IAnimationModel mapped = new AnimationModel.Builder(StorageType.MAPPED)
+        .declareShape("Rect", "rectangle")
+        .addMotion("Rect", 10, 7, 8, 6, 4, 255, 255, 255, 14, 10, 10, 3, 4, 0, 0, 0)
+        .build();
+    IAnimationModel map = new AnimationModel.Builder()
+        .declareShape("Rect", "rectangle")
+        .addMotion("Rect", 10, 7, 8, 6, 4, 255, 255, 255, 14, 10, 10, 3, 4, 0, 0, 0)
+        .build();
+
+    assertTrue(mapped instanceof MappedAnimationModel);
+    assertEquals(map.getShapes(), mapped.getShapes());
+    assertEquals(map.toString(), mapped.toString());
+    assertEquals(map.getState(12, "Rect"), mapped.getState(12, "Rect"));
+    ((MappedAnimationModel) mapped).close();
+  }
+}
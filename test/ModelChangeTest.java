@@ -0,0 +1,79 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.ModelChange;
+import org.junit.Test;
+
+/**
+ * Defines tests for the functionality and exceptions of the cs3500.animator.model.ModelChange
+ * class.
+ */
+public class ModelChangeTest {
+
+  ModelChange change = new ModelChange(ModelChange.Kind.KEYFRAMES_CHANGED, "R", 11, 19, 3);
+
+  //Null kind
+  @Test(expected = IllegalArgumentException.class)
+  public void nullKind() {
+    new ModelChange(null, "R", 0, 1, 0);
+  }
+
+  //Null shape name
+  @Test(expected = IllegalArgumentException.class)
+  public void nullName() {
+    new ModelChange(ModelChange.Kind.SHAPE_ADDED, null, 0, 1, 0);
+  }
+
+  //Negative tick
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeTick() {
+    new ModelChange(ModelChange.Kind.SHAPE_ADDED, "R", -1, 1, 0);
+  }
+
+  //Ending before starting
+  @Test(expected = IllegalArgumentException.class)
+  public void endBeforeStart() {
+    new ModelChange(ModelChange.Kind.SHAPE_ADDED, "R", 5, 4, 0);
+  }
+
+  //Getters
+  @Test
+  public void getters() {
+    assertEquals(ModelChange.Kind.KEYFRAMES_CHANGED, change.getKind());
+    assertEquals("R", change.getShape());
+    assertEquals(11, change.getFrom());
+    assertEquals(19, change.getTo());
+    assertEquals(3, change.getVersion());
+  }
+
+  //The ticks a change includes
+  @Test
+  public void includes() {
+    assertFalse(change.includes(10));
+    assertTrue(change.includes(11));
+    assertTrue(change.includes(19));
+    assertFalse(change.includes(20));
+    assertTrue(new ModelChange(ModelChange.Kind.SHAPE_REMOVED, "R", 0, Integer.MAX_VALUE, 3)
+        .includes(Integer.MAX_VALUE));
+  }
+
+  //Equality
+  @Test
+  public void testEquals() {
+    assertEquals(new ModelChange(ModelChange.Kind.KEYFRAMES_CHANGED, "R", 11, 19, 3), change);
+    assertEquals(new ModelChange(ModelChange.Kind.KEYFRAMES_CHANGED, "R", 11, 19, 3).hashCode(),
+        change.hashCode());
+    assertNotEquals(new ModelChange(ModelChange.Kind.SHAPE_ADDED, "R", 11, 19, 3), change);
+    assertNotEquals(new ModelChange(ModelChange.Kind.KEYFRAMES_CHANGED, "R", 11, 19, 4), change);
+  }
+
+  //String form
+  @Test
+  public void testToString() {
+    assertEquals("KEYFRAMES_CHANGED R 11 19 at version 3", change.toString());
+    assertEquals("SHAPE_ADDED R 0 end at version 1",
+        new ModelChange(ModelChange.Kind.SHAPE_ADDED, "R", 0, Integer.MAX_VALUE, 1).toString());
+  }
+}
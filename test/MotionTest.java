@@ -0,0 +1,77 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import cs3500.animator.model.Circle;
+import cs3500.animator.model.IShape;
+import cs3500.animator.model.Motion;
+import cs3500.animator.model.Position;
+import cs3500.animator.model.Rect;
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * Defines tests for the functionality and exceptions of the cs3500.animator.model.Motion class.
+ */
+public class MotionTest {
+
+  IShape start = new Rect(Arrays.asList(255, 0, 0), new Position(1, 2), 3, 4);
+  IShape end = new Rect(Arrays.asList(0, 0, 255), new Position(5, 6), 7, 8);
+  Motion motion = new Motion("R", 10, start, 20, end);
+
+  //Null shape name
+  @Test(expected = IllegalArgumentException.class)
+  public void nullName() {
+    new Motion(null, 0, start, 1, end);
+  }
+
+  //Null start or end
+  @Test(expected = IllegalArgumentException.class)
+  public void nullState() {
+    new Motion("R", 0, start, 1, null);
+  }
+
+  //Negative tick
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeTick() {
+    new Motion("R", -1, start, 1, end);
+  }
+
+  //Ending before starting
+  @Test(expected = IllegalArgumentException.class)
+  public void endsBeforeStart() {
+    new Motion("R", 5, start, 4, end);
+  }
+
+  //Changing the type of the shape
+  @Test(expected = IllegalArgumentException.class)
+  public void changesType() {
+    new Motion("R", 0, start, 1, new Circle(Arrays.asList(0, 0, 0), new Position(0, 0), 1, 1));
+  }
+
+  //Tests the accessors
+  @Test
+  public void testAccessors() {
+    assertEquals("R", motion.getShape());
+    assertEquals(10, motion.getStartTick());
+    assertEquals(start, motion.getStart());
+    assertEquals(20, motion.getEndTick());
+    assertEquals(end, motion.getEnd());
+  }
+
+  //Tests that a motion that starts and ends at the same tick is allowed
+  @Test
+  public void testInstant() {
+    assertEquals(3, new Motion("R", 3, start, 3, end).getEndTick());
+  }
+
+  //Tests equals(), hashCode() and toString()
+  @Test
+  public void testEquality() {
+    Motion same = new Motion("R", 10, start, 20, end);
+    assertEquals(motion, same);
+    assertEquals(motion.hashCode(), same.hashCode());
+    assertNotEquals(motion, new Motion("S", 10, start, 20, end));
+    assertNotEquals(motion, new Motion("R", 10, start, 21, end));
+    assertEquals("motion R 10 1 2 3 4 255 0 0 20 5 6 7 8 0 0 255", motion.toString());
+  }
+}
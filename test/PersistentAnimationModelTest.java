@@ -0,0 +1,255 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IShape;
+import cs3500.animator.model.IShapeCursor;
+import cs3500.animator.model.MemoryReport;
+import cs3500.animator.model.ModelChange;
+import cs3500.animator.model.Motion;
+import cs3500.animator.model.PersistentAnimationModel;
+import cs3500.animator.model.StorageType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Runs the tests of AnimationModel against PersistentAnimationModel, and tests undoing, redoing
+ * and taking snapshots of its versions.
+ */
+public class PersistentAnimationModelTest extends AnimationModelTest {
+
+  @Override
+  protected IAnimationModel createModel() {
+    return new PersistentAnimationModel();
+  }
+
+  @Override
+  protected IAnimationModel createModel(Map<String, Map<Integer, IShape>> shapes) {
+    return new PersistentAnimationModel(shapes);
+  }
+
+  @Override
+  protected IAnimationModel createModel(Map<String, Map<Integer, IShape>> shapes,
+      List<Integer> canvas) {
+    return new PersistentAnimationModel(shapes, canvas);
+  }
+
+  // Testing that a new model has nothing to undo or redo
+  @Test
+  public void testNoHistory() {
+    PersistentAnimationModel model = new PersistentAnimationModel();
+    assertFalse(model.canUndo());
+    assertFalse(model.canRedo());
+    assertFalse(model.undo());
+    assertFalse(model.redo());
+  }
+
+  // Testing that undo goes back through every change and redo makes them again
+  @Test
+  public void testUndoRedo() {
+    PersistentAnimationModel model = new PersistentAnimationModel();
+    model.add(0, "Rect", rect1);
+    model.move(10, "Rect", 50, 60);
+    model.changeColor(20, "Rect", 1, 2, 3);
+    String changed = model.toString();
+
+    assertTrue(model.undo());
+    assertEquals(2, model.getShapes().get("Rect").size());
+    assertTrue(model.undo());
+    assertEquals(1, model.getShapes().get("Rect").size());
+    assertTrue(model.undo());
+    assertTrue(model.getShapes().isEmpty());
+    assertFalse(model.canUndo());
+
+    assertTrue(model.redo());
+    assertTrue(model.redo());
+    assertTrue(model.redo());
+    assertFalse(model.canRedo());
+    assertEquals(changed, model.toString());
+  }
+
+  // Testing that a change after undoing clears the changes to redo
+  @Test
+  public void testChangeClearsRedo() {
+    PersistentAnimationModel model = new PersistentAnimationModel();
+    model.add(0, "Rect", rect1);
+    model.move(10, "Rect", 50, 60);
+    model.undo();
+    assertTrue(model.canRedo());
+    model.move(5, "Rect", 1, 1);
+    assertFalse(model.canRedo());
+    assertEquals(1, model.getState(5, "Rect").getPosition().getX());
+  }
+
+  // Testing that a removed shape comes back with its keyframes when the removal is undone
+  @Test
+  public void testUndoRemove() {
+    PersistentAnimationModel model = new PersistentAnimationModel();
+    model.add(0, "Rect", rect1);
+    model.move(10, "Rect", 50, 60);
+    model.remove(0, "Rect");
+    assertFalse(model.getShapes().containsKey("Rect"));
+
+    model.undo();
+    assertEquals(50, model.getState(10, "Rect").getPosition().getX());
+    assertEquals(model.getShapeId("Rect"), model.getVisibleShapeIds(10)[0]);
+  }
+
+  // Testing that edits that change nothing do not make a version
+  @Test
+  public void testNoOpEdit() {
+    PersistentAnimationModel model = new PersistentAnimationModel();
+    model.add(5, "Rect", rect1);
+    int version = model.getVersion();
+    model.move(2, "Rect", 50, 60);
+    model.compact();
+    assertEquals(version, model.getVersion());
+    model.undo();
+    assertFalse(model.canUndo());
+  }
+
+  // Testing that undoing makes cursors read the earlier version
+  @Test
+  public void testCursorAfterUndo() {
+    PersistentAnimationModel model = new PersistentAnimationModel();
+    model.add(0, "Rect", rect1);
+    model.move(10, "Rect", 100, 100);
+    IShapeCursor cursor = model.cursor("Rect");
+    cursor.seek(10);
+    assertEquals(100, cursor.getX());
+
+    model.undo();
+    cursor.seek(10);
+    assertEquals(rect1.getPosition().getX(), cursor.getX());
+  }
+
+  // Testing that a snapshot and the model it was taken from change independently
+  @Test
+  public void testSnapshot() {
+    PersistentAnimationModel model = new PersistentAnimationModel();
+    model.add(0, "Rect", rect1);
+    PersistentAnimationModel snapshot = model.snapshot();
+    assertEquals(model, snapshot);
+    assertFalse(snapshot.canUndo());
+
+    model.move(10, "Rect", 50, 60);
+    snapshot.add(0, "Other", rect2);
+    assertEquals(2, model.getShapes().get("Rect").size());
+    assertEquals(1, snapshot.getShapes().get("Rect").size());
+    assertFalse(model.getShapes().containsKey("Other"));
+    assertTrue(snapshot.getVisibleShapes(0).contains("Other"));
+  }
+
+  // Testing that the history shares the keyframes it has in common with the current version, so
+  // that it costs much less than a copy of every version
+  @Test
+  public void testHistorySharing() {
+    PersistentAnimationModel model = new PersistentAnimationModel();
+    model.add(0, "Rect", rect1);
+    for (int i = 1; i < 1000; i++) {
+      model.move(i, "Rect", i, i);
+    }
+    MemoryReport report = model.getMemoryReport();
+    assertEquals(1000, report.getKeyframeCount());
+    assertTrue(report.getHistoryBytes() > 0);
+    // a copy of each version would hold about half a million keyframes
+    assertTrue(report.getHistoryBytes() < 20 * report.getKeyframeBytes());
+
+    model.clearHistory();
+    assertEquals(0, model.getMemoryReport().getHistoryBytes());
+  }
+
+  // Testing that the builder makes a persistent model with the same keyframes as a map model
+  @Test
+  public void testBuilderStorage() {
+    IAnimationModel persistent = new AnimationModel.Builder(StorageType.PERSISTENT)
+        .declareShape("Rect", "rectangle")
+        .addMotion("Rect", 10, 7, 8, 6, 4, 255, 255, 255, 14, 10, 10, 3, 4, 0, 0, 0)
+        .build();
+    IAnimationModel map = new AnimationModel.Builder()
+        .declareShape("Rect", "rectangle")
+        .addMotion("Rect", 10, 7, 8, 6, 4, 255, 255, 255, 14, 10, 10, 3, 4, 0, 0, 0)
+        .build();
+
+    assertTrue(persistent instanceof PersistentAnimationModel);
+    assertEquals(map.getShapes(), persistent.getShapes());
+    assertEquals(map.toString(), persistent.toString());
+    assertEquals(map.getState(12, "Rect"), persistent.getState(12, "Rect"));
+    assertFalse(((PersistentAnimationModel) persistent).canUndo());
+  }
+
+  // Testing that a whole batch of motions is undone in one step
+  @Test
+  public void testUndoBatch() {
+    PersistentAnimationModel model = new PersistentAnimationModel();
+    model.add(0, "Rect", rect1);
+    model.add("Other");
+    String before = model.toString();
+    model.applyBatch(Arrays.asList(new Motion("Rect", 0, rect1, 10, rect2),
+        new Motion("Other", 5, rect2, 15, rect3)));
+    assertTrue(model.undo());
+    assertEquals(before, model.toString());
+    assertTrue(model.redo());
+    assertEquals(rect3, model.getState(15, "Other"));
+  }
+
+  // Testing that undoing and redoing tell the listeners about the shapes they change
+  @Test
+  public void testUndoTellsListeners() {
+    PersistentAnimationModel model = new PersistentAnimationModel();
+    model.add(5, "Rect", rect1);
+    model.add(0, "Other", rect2);
+    model.move(10, "Rect", 1, 1);
+    List<ModelChange> told = new ArrayList<>();
+    model.addListener(told::addAll);
+
+    model.undo();
+    assertEquals(Arrays.asList(new ModelChange(ModelChange.Kind.KEYFRAMES_CHANGED, "Rect", 5,
+        Integer.MAX_VALUE, model.getVersion())), told);
+    model.undo();
+    assertEquals(new ModelChange(ModelChange.Kind.SHAPE_REMOVED, "Other", 0, Integer.MAX_VALUE,
+        model.getVersion()), told.get(1));
+    model.redo();
+    assertEquals(new ModelChange(ModelChange.Kind.SHAPE_ADDED, "Other", 0, Integer.MAX_VALUE,
+        model.getVersion()), told.get(2));
+    assertEquals(3, told.size());
+  }
+
+  // Testing that undoing a change to a few of many shapes tells the listeners about only those
+  // shapes, in the order they were added
+  @Test
+  public void testUndoTellsOnlyChangedShapes() {
+    PersistentAnimationModel model = new PersistentAnimationModel();
+    for (int i = 0; i < 1000; i++) {
+      model.add(0, "Rect" + i, rect1);
+    }
+    model.move(10, "Rect700", 1, 1);
+    model.remove(0, "Rect3");
+    List<ModelChange> told = new ArrayList<>();
+    model.addListener(told::addAll);
+
+    model.undo();
+    model.undo();
+    assertEquals(2, told.size());
+    assertEquals(new ModelChange(ModelChange.Kind.SHAPE_ADDED, "Rect3", 0, Integer.MAX_VALUE,
+        model.getVersion() - 1), told.get(0));
+    assertEquals(new ModelChange(ModelChange.Kind.KEYFRAMES_CHANGED, "Rect700", 0,
+        Integer.MAX_VALUE, model.getVersion()), told.get(1));
+  }
+
+  // Testing that a snapshot does not tell the listeners of the model it was taken from
+  @Test
+  public void testSnapshotListeners() {
+    PersistentAnimationModel model = new PersistentAnimationModel();
+    model.add(0, "Rect", rect1);
+    List<ModelChange> told = new ArrayList<>();
+    model.addListener(told::addAll);
+    model.snapshot().move(5, "Rect", 1, 1);
+    assertTrue(told.isEmpty());
+  }
+}
@@ -1,6 +1,7 @@
 import cs3500.animator.model.IShape;
 import cs3500.animator.model.Position;
 import cs3500.animator.model.Rect;
+import cs3500.animator.model.ShapeState;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -206,4 +207,35 @@ public class RectTest {
     assertEquals(expectedCircle, rect1.copyShape(new ArrayList<Integer>(Arrays.asList(10, 10, 10)),
         new Position(0, 0), 50, 50));
   }
-}
\ No newline at end of file
+
+  // Testing copyShape() with a state
+  @Test
+  public void testCopyShapeState() {
+    IShape expectedRect = new Rect(Arrays.asList(10, 20, 30), new Position(4, 5), 6, 7);
+
+    assertEquals(expectedRect, rect1.copyShape(new ShapeState(4, 5, 6, 7, 10, 20, 30)));
+  }
+
+  // Tests that the primitive accessors match the list-based getters
+  @Test
+  public void testPrimitiveAccessors() {
+    assertEquals(20, rect2.x());
+    assertEquals(0, rect2.y());
+    assertEquals(2, rect2.width());
+    assertEquals(2, rect2.height());
+    assertEquals(100, rect2.red());
+    assertEquals(200, rect2.green());
+    assertEquals(50, rect2.blue());
+    assertEquals(new ShapeState(20, 0, 2, 2, 100, 200, 50), rect2.state());
+  }
+
+  // Tests that setters replace the state rather than change a state that may be shared
+  @Test
+  public void testSettersKeepOldState() {
+    ShapeState before = rect1.state();
+    rect1.setColor(1, 2, 3);
+    rect1.setSize(9, 9);
+    assertEquals(new ShapeState(7, 8, 3, 4, 255, 255, 255), before);
+    assertEquals(new ShapeState(7, 8, 9, 9, 1, 2, 3), rect1.state());
+  }
+}
@@ -0,0 +1,79 @@
+import cs3500.animator.model.ShapeState;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Defines tests for the functionality and exceptions of the cs3500.animator.model.ShapeState
+ * class.
+ */
+public class ShapeStateTest {
+
+  ShapeState state = new ShapeState(7, 8, 3, 4, 255, 128, 1);
+
+  //Non-positive width
+  @Test(expected = IllegalArgumentException.class)
+  public void smallWidth() {
+    new ShapeState(0, 0, 0, 5, 0, 0, 0);
+  }
+
+  //Non-positive height
+  @Test(expected = IllegalArgumentException.class)
+  public void smallHeight() {
+    new ShapeState(0, 0, 5, -1, 0, 0, 0);
+  }
+
+  //Too-large RGB values
+  @Test(expected = IllegalArgumentException.class)
+  public void largeRgb() {
+    new ShapeState(0, 0, 5, 5, 0, 256, 0);
+  }
+
+  //Packed color outside of 0xRRGGBB
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidPackedColor() {
+    new ShapeState(0, 0, 5, 5, -1);
+  }
+
+  //Negative RGB values
+  @Test(expected = IllegalArgumentException.class)
+  public void negativePack() {
+    ShapeState.pack(-1, 0, 0);
+  }
+
+  //Tests that the color is packed as 0xRRGGBB and unpacked again
+  @Test
+  public void testPack() {
+    assertEquals(0xFF8001, ShapeState.pack(255, 128, 1));
+    assertEquals(0xFF8001, state.color());
+    assertEquals(255, state.red());
+    assertEquals(128, state.green());
+    assertEquals(1, state.blue());
+  }
+
+  //Tests the position and size accessors
+  @Test
+  public void testAccessors() {
+    assertEquals(7, state.x());
+    assertEquals(8, state.y());
+    assertEquals(3, state.width());
+    assertEquals(4, state.height());
+  }
+
+  //Tests that states with the same values are equal
+  @Test
+  public void testEquals() {
+    ShapeState same = new ShapeState(7, 8, 3, 4, 0xFF8001);
+    assertEquals(state, same);
+    assertEquals(state.hashCode(), same.hashCode());
+    assertNotEquals(state, new ShapeState(7, 8, 3, 4, 255, 128, 2));
+    assertNotEquals(state, new ShapeState(8, 7, 3, 4, 255, 128, 1));
+  }
+
+  //Tests that the state is described the same way as in the textual view
+  @Test
+  public void testToString() {
+    assertEquals("7 8 3 4 255 128 1", state.toString());
+  }
+}
@@ -0,0 +1,263 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IShape;
+import cs3500.animator.model.IShapeCursor;
+import cs3500.animator.model.Position;
+import cs3500.animator.model.Rect;
+import cs3500.animator.model.ShapeSampler;
+import cs3500.animator.model.ShapeState;
+import cs3500.animator.model.TimeScaledViewModel;
+import cs3500.animator.model.ViewModel;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Defines tests for our implementation of TimeScaledViewModel.
+ */
+public class TimeScaledViewModelTest {
+
+  IShape rect1 =
+      new Rect(Arrays.asList(255, 255, 255), new Position(7, 8), 6, 4);
+  IShape rect2 =
+      new Rect(Arrays.asList(100, 200, 50), new Position(20, 0), 2, 2);
+  IShape rect3 = new Rect(Arrays.asList(0, 0, 0), new Position(10, 10), 3, 4);
+  IAnimationModel model;
+
+  @Before
+  public void initModel() {
+    Map<Integer, IShape> shape1 = new TreeMap<>();
+    shape1.put(10, rect1);
+    shape1.put(20, rect2);
+
+    Map<Integer, IShape> shape2 = new TreeMap<>();
+    shape2.put(0, rect2);
+    shape2.put(15, rect1);
+
+    Map<Integer, IShape> shape3 = new TreeMap<>();
+    shape3.put(10, rect1);
+    shape3.put(11, rect3);
+    shape3.put(20, rect2);
+
+    Map<String, Map<Integer, IShape>> shapes = new TreeMap<>();
+    shapes.put("Shape1", shape1);
+    shapes.put("Shape2", shape2);
+    shapes.put("Shape3", shape3);
+    model = new AnimationModel(shapes);
+    model.add("Empty");
+  }
+
+  // Reads the state of a cursor as a rectangle
+  private IShape read(IShapeCursor cursor) {
+    return cursor.isVisible() ? new Rect(Arrays.asList(cursor.getRed(), cursor.getGreen(),
+        cursor.getBlue()), new Position(cursor.getX(), cursor.getY()), cursor.getWidth(),
+        cursor.getHeight()) : null;
+  }
+
+  //Tests that the constructor throws an exception when given a null model
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullModel() {
+    new TimeScaledViewModel(null, 2);
+  }
+
+  //Tests that scales that are not positive numbers are rejected
+  @Test
+  public void testInvalidScale() {
+    TimeScaledViewModel scaled = new TimeScaledViewModel(model, 1);
+    for (double scale : new double[] {0, -1, Double.NaN, Double.POSITIVE_INFINITY}) {
+      try {
+        scaled.setScale(scale);
+        throw new AssertionError("Expected an IllegalArgumentException for " + scale);
+      } catch (IllegalArgumentException e) {
+        assertEquals(1, scaled.getScale(), 0);
+      }
+    }
+  }
+
+  //Tests that a scale of 1 reads exactly the states of the model
+  @Test
+  public void testScaleOne() {
+    TimeScaledViewModel scaled = new TimeScaledViewModel(model, 1);
+    IShapeCursor cursor = scaled.cursor("Shape3");
+    for (int tick = 0; tick < 30; tick++) {
+      assertEquals(model.getFullState(tick), scaled.getFullState(tick));
+      assertEquals(model.getVisibleShapes(tick), scaled.getVisibleShapes(tick));
+      assertArrayEquals(model.getVisibleShapeIds(tick), scaled.getVisibleShapeIds(tick));
+      assertEquals(model.getState(tick, "Shape3"), read(cursor));
+      cursor.advance();
+    }
+  }
+
+  //Tests that a scale of 2 plays the animation at half the speed
+  @Test
+  public void testSlower() {
+    TimeScaledViewModel scaled = new TimeScaledViewModel(model, 2);
+    assertNull(scaled.getState(19, "Shape1"));
+    assertEquals(rect1, scaled.getState(20, "Shape1"));
+    assertEquals(model.getState(15, "Shape1"), scaled.getState(30, "Shape1"));
+    assertEquals(rect2, scaled.getState(40, "Shape1"));
+    assertEquals(rect2, scaled.getState(1000, "Shape1"));
+    assertEquals(Arrays.asList("Shape2"), scaled.getVisibleShapes(19));
+
+    IShapeCursor cursor = scaled.cursor("Shape1");
+    cursor.seek(30);
+    assertEquals(model.getState(15, "Shape1"), read(cursor));
+    assertEquals(20, cursor.getSegmentStart());
+    assertEquals(40, cursor.getSegmentEnd());
+  }
+
+  //Tests that speeding up with a fractional scale keeps keyframes that changeSpeed would merge
+  @Test
+  public void testFasterKeepsKeyframes() {
+    assertEquals(2, model.changeSpeed(0.5).get("Shape3").size());
+
+    TimeScaledViewModel scaled = new TimeScaledViewModel(model, 0.5);
+    assertEquals(rect1, scaled.getState(5, "Shape3"));
+    assertEquals(model.getState(12, "Shape3"), scaled.getState(6, "Shape3"));
+    assertEquals(model.getState(14, "Shape3"), scaled.getState(7, "Shape3"));
+    assertEquals(rect2, scaled.getState(10, "Shape3"));
+
+    IShapeCursor cursor = scaled.cursor("Shape3");
+    for (int tick = 0; tick < 15; tick++) {
+      assertEquals(scaled.getState(tick, "Shape3"), read(cursor));
+      cursor.advance();
+    }
+  }
+
+  //Tests that a keyframe between two ticks of the view is interpolated through
+  @Test
+  public void testKeyframeBetweenTicks() {
+    TimeScaledViewModel scaled = new TimeScaledViewModel(model, 1.5);
+    // Shape3 is at rect3 at 16.5, between ticks 16 and 17
+    assertEquals(model.getState(10, "Shape3"), scaled.getState(15, "Shape3"));
+    assertEquals(new Rect(Arrays.asList(85, 85, 85), new Position(9, 9), 4, 4),
+        scaled.getState(16, "Shape3"));
+    assertEquals(new Rect(Arrays.asList(3, 7, 1), new Position(10, 9), 2, 3),
+        scaled.getState(17, "Shape3"));
+  }
+
+  //Tests that changing the scale changes the states read right away
+  @Test
+  public void testSetScale() {
+    TimeScaledViewModel scaled = new TimeScaledViewModel(model, 2);
+    IShapeCursor cursor = scaled.cursor("Shape1");
+    cursor.seek(15);
+    assertFalse(cursor.isVisible());
+    scaled.setScale(1);
+    cursor.seek(15);
+    assertEquals(model.getState(15, "Shape1"), read(cursor));
+    assertEquals(model.getState(15, "Shape1"), scaled.getState(15, "Shape1"));
+  }
+
+  //Tests that the view follows changes to the model
+  @Test
+  public void testSeesChanges() {
+    TimeScaledViewModel scaled = new TimeScaledViewModel(model, 2);
+    assertEquals(rect2, scaled.getState(40, "Shape1"));
+    model.move(30, "Shape1", 40, 40);
+    assertEquals(model.getState(25, "Shape1"), scaled.getState(50, "Shape1"));
+    model.remove(0, "Shape1");
+    try {
+      scaled.getState(50, "Shape1");
+      throw new AssertionError("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  //Tests that states between ticks are those of the model at the same moment
+  @Test
+  public void testStatesBetweenTicks() {
+    TimeScaledViewModel scaled = new TimeScaledViewModel(model, 2);
+    ViewModel view = new ViewModel(model);
+    IShapeCursor cursor = scaled.cursor("Shape1");
+    for (double time = 0; time < 50; time += 0.5) {
+      IShape expected = view.getState(time / 2, "Shape1");
+      assertEquals(expected, scaled.getState(time, "Shape1"));
+      cursor.seek(time);
+      assertEquals(expected, read(cursor));
+      assertEquals((int) time, cursor.getTick());
+    }
+  }
+
+  //Tests that sampling reads the scaled states
+  @Test
+  public void testSample() {
+    TimeScaledViewModel scaled = new TimeScaledViewModel(model, 2.5);
+    int[] samples = new int[ShapeSampler.countSamples(0, 60, 2) * 5];
+    scaled.sample("Shape3", 0, 60, 2, samples, 0);
+    for (int tick = 0; tick <= 60; tick += 2) {
+      IShape expected = scaled.getState(tick, "Shape3");
+      int base = tick / 2 * 5;
+      if (expected == null) {
+        assertEquals(-1, samples[base + 4]);
+      } else {
+        assertEquals(expected.x(), samples[base]);
+        assertEquals(expected.height(), samples[base + 3]);
+        assertEquals(ShapeState.pack(expected.red(), expected.green(), expected.blue()),
+            samples[base + 4]);
+      }
+    }
+  }
+
+  //Tests that no shape changes before the next change and that changed shapes are those whose
+  //scaled states differ
+  @Test
+  public void testChanges() {
+    for (double scale : new double[]{0.5, 1, 2.5}) {
+      TimeScaledViewModel scaled = new TimeScaledViewModel(model, scale);
+      for (int tick = 0; tick < 60; tick++) {
+        int next = scaled.nextChange(tick);
+        assertTrue(next > tick);
+        for (int t = tick + 1; t < Math.min(next, 60); t++) {
+          assertEquals(scaled.getFullState(tick), scaled.getFullState(t));
+        }
+        for (int other : new int[]{0, 12, 30}) {
+          int[] changed = scaled.getChangedShapeIds(tick, other);
+          for (String name : Arrays.asList("Shape1", "Shape2", "Shape3")) {
+            int id = scaled.getShapeId(name);
+            boolean differs = !Objects.equals(scaled.getState(tick, name),
+                scaled.getState(other, name));
+            assertEquals(differs, Arrays.stream(changed).anyMatch(c -> c == id));
+          }
+        }
+      }
+      assertEquals(Integer.MAX_VALUE, scaled.nextChange(1000));
+    }
+  }
+
+  //Tests that very large ticks and very small scales do not overflow
+  @Test
+  public void testLargeTicks() {
+    TimeScaledViewModel scaled = new TimeScaledViewModel(model, 1e-9);
+    assertEquals(rect2, scaled.getState(Integer.MAX_VALUE, "Shape1"));
+    assertEquals(rect2, scaled.getState(1, "Shape1"));
+  }
+
+  //Tests that a negative frame is rejected
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeFrame() {
+    new TimeScaledViewModel(model, 2).getState(-1, "Shape1");
+  }
+
+  //Tests that the view delegates the rest to the model
+  @Test
+  public void testDelegates() {
+    TimeScaledViewModel scaled = new TimeScaledViewModel(model, 3);
+    assertEquals(model.getShapes(), scaled.getShapes());
+    assertEquals(model.getCanvas(), scaled.getCanvas());
+    assertEquals(model.toString(), scaled.toString());
+    assertEquals(model.getVersion(), scaled.getVersion());
+    assertEquals(model.getShapeId("Shape2"), scaled.getShapeId("Shape2"));
+    assertEquals(new TimeScaledViewModel(model, 3), scaled);
+  }
+}
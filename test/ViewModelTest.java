@@ -1,15 +1,21 @@
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import cs3500.animator.model.AnimationModel;
 import cs3500.animator.model.Circle;
 import cs3500.animator.model.IAnimationModel;
 import cs3500.animator.model.IShape;
+import cs3500.animator.model.IShapeCursor;
 import cs3500.animator.model.IViewModel;
 import cs3500.animator.model.Position;
 import cs3500.animator.model.Rect;
+import cs3500.animator.model.ShapeSampler;
+import cs3500.animator.model.ShapeState;
 import cs3500.animator.model.ViewModel;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -202,4 +208,168 @@ public class ViewModelTest {
 
     assertEquals(model.getCanvas(), vm.getCanvas());
   }
+
+  //Tests that the cursor method reads the same states as the regular model
+  @Test
+  public void testCursor() {
+    IViewModel vm = new ViewModel(model2);
+    IShapeCursor cursor = vm.cursor("Shape2");
+    IShapeCursor modelCursor = model2.cursor("Shape2");
+    for (int tick = 0; tick < 20; tick++) {
+      assertEquals(modelCursor.getX(), cursor.getX());
+      assertEquals(modelCursor.getGreen(), cursor.getGreen());
+      cursor.advance();
+      modelCursor.advance();
+    }
+  }
+
+  //Tests that the getVisibleShapes method works the same as in the regular model
+  @Test
+  public void testGetVisibleShapes() {
+    IViewModel vm = new ViewModel(model2);
+    for (int tick = 0; tick < 25; tick++) {
+      assertEquals(model2.getVisibleShapes(tick), vm.getVisibleShapes(tick));
+    }
+  }
+
+  //Tests that states between ticks are interpolated between the keyframes around them
+  @Test
+  public void testStateBetweenTicks() {
+    IViewModel vm = new ViewModel(model2);
+    assertEquals(new Rect(Arrays.asList(169, 224, 142), new Position(14, 3), 3, 2),
+        vm.getState(15.5, "Shape1"));
+    for (int tick = 0; tick < 25; tick++) {
+      assertEquals(model2.getState(tick, "Shape1"), vm.getState((double) tick, "Shape1"));
+    }
+    assertNull(vm.getState(9.5, "Shape1"));
+    assertEquals(rect2, vm.getState(30.25, "Shape1"));
+  }
+
+  // Checks that the sample at the given index holds the given state, or no state at all
+  private void checkSample(IShape expected, int[] samples, int index) {
+    int base = index * ShapeSampler.INTS_PER_SAMPLE;
+    if (expected == null) {
+      assertArrayEquals(new int[]{0, 0, 0, 0, -1}, Arrays.copyOfRange(samples, base, base + 5));
+    } else {
+      assertArrayEquals(new int[]{expected.x(), expected.y(), expected.width(), expected.height(),
+          ShapeState.pack(expected.red(), expected.green(), expected.blue())},
+          Arrays.copyOfRange(samples, base, base + 5));
+    }
+  }
+
+  //Tests that sampling a shape over a range of ticks writes the same states as getState
+  @Test
+  public void testSample() {
+    IViewModel vm = new ViewModel(model2);
+    assertEquals(9, ShapeSampler.countSamples(0, 24, 3));
+    IntBuffer buffer = IntBuffer.allocate(50);
+    vm.sample("Shape1", 0, 24, 3, buffer);
+    assertEquals(45, buffer.position());
+    for (int i = 0; i < 9; i++) {
+      this.checkSample(model2.getState(i * 3, "Shape1"), buffer.array(), i);
+    }
+
+    int[] samples = new int[27];
+    vm.sample("Shape2", 10, 20, 4, samples, 12);
+    assertEquals(0, samples[11]);
+    for (int i = 0; i < 3; i++) {
+      IShape expected = model2.getState(10 + i * 4, "Shape2");
+      assertArrayEquals(new int[]{expected.x(), expected.y(), expected.width(),
+          expected.height(), ShapeState.pack(expected.red(), expected.green(), expected.blue())},
+          Arrays.copyOfRange(samples, 12 + i * 5, 17 + i * 5));
+    }
+  }
+
+  //Tests that sampling several shapes writes every shape at each tick in turn
+  @Test
+  public void testSampleShapes() {
+    IViewModel vm = new ViewModel(model2);
+    int[] ids = {vm.getShapeId("Shape2"), vm.getShapeId("Shape1")};
+    IntBuffer buffer = IntBuffer.allocate(ShapeSampler.countSamples(5, 25, 1) * 10);
+    vm.sample(ids, 5, 25, 1, buffer);
+    assertEquals(0, buffer.remaining());
+    for (int tick = 5; tick <= 25; tick++) {
+      this.checkSample(model2.getState(tick, "Shape2"), buffer.array(), (tick - 5) * 2);
+      this.checkSample(model2.getState(tick, "Shape1"), buffer.array(), (tick - 5) * 2 + 1);
+    }
+  }
+
+  //Tests that invalid ranges, steps and buffers are rejected without writing anything
+  @Test
+  public void testSampleInvalid() {
+    IViewModel vm = new ViewModel(model2);
+    IntBuffer buffer = IntBuffer.allocate(10);
+    int[][] ranges = {{-1, 5, 1}, {5, 4, 1}, {0, 5, 0}, {0, 5, -2}, {0, 5, 1}};
+    for (int[] range : ranges) {
+      try {
+        vm.sample("Shape1", range[0], range[1], range[2], buffer);
+        fail("Sampled " + Arrays.toString(range));
+      } catch (IllegalArgumentException e) {
+        assertEquals(0, buffer.position());
+      }
+    }
+    try {
+      vm.sample("Shape1", 0, 5, 1, new int[30], 1);
+      fail("Sampled past the end of the array");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      vm.sample("Shape9", 0, 1, 1, buffer);
+      fail("Sampled a missing shape");
+    } catch (IllegalArgumentException e) {
+      assertEquals(0, buffer.position());
+    }
+  }
+
+  //Tests that ranges with more samples than an int can count are rejected without overflowing
+  @Test
+  public void testSampleTooMany() {
+    IViewModel vm = new ViewModel(model2);
+    assertEquals(Integer.MAX_VALUE, ShapeSampler.countSamples(1, Integer.MAX_VALUE, 1));
+    try {
+      ShapeSampler.countSamples(0, Integer.MAX_VALUE, 1);
+      fail("Counted more samples than an int holds");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    IntBuffer buffer = IntBuffer.allocate(10);
+    try {
+      vm.sample("Shape1", 0, Integer.MAX_VALUE, 1, buffer);
+      fail("Sampled more ticks than an int holds");
+    } catch (IllegalArgumentException e) {
+      assertEquals(0, buffer.position());
+    }
+    try {
+      vm.sample(new int[]{vm.getShapeId("Shape1"), vm.getShapeId("Shape2")}, 1, Integer.MAX_VALUE,
+          1, buffer);
+      fail("Sampled into a buffer that is too small");
+    } catch (IllegalArgumentException e) {
+      assertEquals(0, buffer.position());
+    }
+  }
+
+  //Tests that the shape IDs are delegated to the model
+  @Test
+  public void testShapeIds() {
+    IViewModel vm = new ViewModel(model2);
+    for (int tick = 0; tick < 25; tick++) {
+      assertArrayEquals(model2.getVisibleShapeIds(tick), vm.getVisibleShapeIds(tick));
+      for (int id : vm.getVisibleShapeIds(tick)) {
+        assertEquals(model2.getShapeName(id), vm.getShapeName(id));
+        assertEquals(id, vm.getShapeId(vm.getShapeName(id)));
+        assertEquals(model2.getState(tick, id), vm.getState(tick, id));
+      }
+    }
+  }
+
+  //Tests that the changes between ticks are delegated to the model
+  @Test
+  public void testChanges() {
+    IViewModel vm = new ViewModel(model2);
+    for (int tick = 0; tick < 25; tick++) {
+      assertEquals(model2.nextChange(tick), vm.nextChange(tick));
+      assertArrayEquals(model2.getChangedShapeIds(tick, 12), vm.getChangedShapeIds(tick, 12));
+    }
+  }
 }